@@ -0,0 +1,164 @@
+package de.codecentric.reedelk.json.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * The payloads shared by the benchmarks. Each payload is generated from a fixed seed,
+ * so that every run (and every branch being compared) measures exactly the same JSON.
+ */
+public enum Corpus {
+
+    /**
+     * A typical REST API response: a small object with a few nested objects and arrays.
+     */
+    SMALL_API_RESPONSE {
+        @Override
+        String generate(Random random) {
+            StringBuilder json = new StringBuilder();
+            json.append("{\"id\":").append(random.nextInt(100000))
+                    .append(",\"username\":\"").append(word(random, 10)).append('"')
+                    .append(",\"email\":\"").append(word(random, 8)).append("@example.com\"")
+                    .append(",\"active\":true,\"score\":").append(random.nextInt(1000) / 10.0)
+                    .append(",\"address\":{\"street\":\"").append(word(random, 12))
+                    .append(" 12\",\"city\":\"").append(word(random, 7))
+                    .append("\",\"zip\":\"").append(10000 + random.nextInt(89999)).append("\",\"country\":null}")
+                    .append(",\"roles\":[\"admin\",\"user\",\"").append(word(random, 6)).append("\"]")
+                    .append(",\"orders\":[");
+            for (int i = 0; i < 5; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"orderId\":\"").append(word(random, 16))
+                        .append("\",\"amount\":").append(random.nextInt(100000) / 100.0)
+                        .append(",\"currency\":\"EUR\",\"shipped\":").append(random.nextBoolean()).append('}');
+            }
+            return json.append("]}").toString();
+        }
+    },
+
+    /**
+     * Objects and arrays nested 256 levels deep, each level carrying a couple of members.
+     */
+    DEEP_NESTING {
+        @Override
+        String generate(Random random) {
+            int depth = 256;
+            StringBuilder json = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                json.append("{\"level\":").append(i)
+                        .append(",\"name\":\"").append(word(random, 6))
+                        .append("\",\"children\":[");
+            }
+            json.append("{}");
+            for (int i = 0; i < depth; i++) {
+                json.append("]}");
+            }
+            return json.toString();
+        }
+    },
+
+    /**
+     * A large array of 10000 flat records, roughly 1 MB of minified JSON.
+     */
+    LARGE_ARRAY {
+        @Override
+        String generate(Random random) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < 10000; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"id\":").append(i)
+                        .append(",\"sku\":\"").append(word(random, 12))
+                        .append("\",\"name\":\"").append(word(random, 20))
+                        .append("\",\"category\":\"").append(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                        .append("\",\"price\":").append(random.nextInt(1000000) / 100.0)
+                        .append(",\"available\":").append(random.nextBoolean())
+                        .append(",\"discount\":null}");
+            }
+            return json.append(']').toString();
+        }
+    },
+
+    /**
+     * Number heavy telemetry: sensor samples with integer timestamps and
+     * full precision doubles, some of them in exponent notation.
+     */
+    TELEMETRY {
+        @Override
+        String generate(Random random) {
+            StringBuilder json = new StringBuilder("{\"device\":\"sensor-42\",\"samples\":[");
+            long timestamp = 1590000000000L;
+            for (int i = 0; i < 5000; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"ts\":").append(timestamp + i * 250L)
+                        .append(",\"temperature\":").append(20 + random.nextGaussian())
+                        .append(",\"pressure\":").append(101325 + random.nextInt(2000) - 1000)
+                        .append(",\"acceleration\":[").append(random.nextGaussian())
+                        .append(',').append(random.nextGaussian())
+                        .append(',').append(random.nextDouble() * 1e-5)
+                        .append("]}");
+            }
+            return json.append("]}").toString();
+        }
+    },
+
+    /**
+     * Text heavy content mixing Latin, Greek, Cyrillic, CJK and emoji characters,
+     * some of them written as unicode escape sequences.
+     */
+    UNICODE_TEXT {
+        @Override
+        String generate(Random random) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < 2000; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"lang\":\"").append(LANGUAGES[i % LANGUAGES.length])
+                        .append("\",\"title\":\"").append(text(random, 8))
+                        .append("\",\"body\":\"").append(text(random, 40))
+                        .append(" \\u00e8\\u4e2d\\ud83d\\ude00 \\\"quoted\\\"\"}");
+            }
+            return json.append(']').toString();
+        }
+    };
+
+    private static final long SEED = 20200601L;
+
+    private static final String[] CATEGORIES = {"books", "music", "garden", "electronics", "toys"};
+
+    private static final String[] LANGUAGES = {"en", "el", "ru", "zh", "ja"};
+
+    private static final String[] SYLLABLES = {
+            "lorem", "ipsum", "caf\u00e9", "\u00fcber", "\u03b1\u03b2\u03b3", "\u03bb\u03cc\u03b3\u03bf\u03c2",
+            "\u043f\u0440\u0438\u0432\u0435\u0442", "\u043c\u0438\u0440", "\u4e2d\u6587", "\u6f22\u5b57",
+            "\u3053\u3093\u306b\u3061\u306f", "\ud83d\ude00", "\ud83d\ude80", "\u20ac"};
+
+    private String json;
+
+    abstract String generate(Random random);
+
+    public String json() {
+        if (json == null) {
+            json = generate(new Random(SEED));
+        }
+        return json;
+    }
+
+    public byte[] bytes() {
+        return json().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String word(Random random, int length) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) text.append(' ');
+            text.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package de.codecentric.reedelk.json.benchmark;
+
+import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures ObjectToJSONConverter over large Maps whose keys are not strings, so that
+ * each key goes through the map key conversion: integral and UUID keys are converted with
+ * String.valueOf and enum keys are looked up in the cached names of their enum class, once
+ * the conversion of their class has been resolved. Only other key types would reach the
+ * converter service, which resolves its converters as the platform one does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MapKeysBenchmark {
+
+    public enum KeyType {
+        STRING, INTEGER, LONG, UUID, ENUM
+    }
+
+    public enum Status {
+        NEW, PAID, SHIPPED, DELIVERED, RETURNED, CANCELLED
+    }
+
+    @Param
+    public KeyType keyType;
+
+    @Param({ "100", "100000" })
+    public int entries;
+
+    private Object value;
+
+    private ObjectToJSONConverter converter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        if (keyType == KeyType.ENUM) {
+            // An enum has few constants: the same number of keys is spread over many maps.
+            List<Map<Status, Object>> maps = new ArrayList<>();
+            for (int i = 0; i < entries; i += Status.values().length) {
+                Map<Status, Object> map = new EnumMap<>(Status.class);
+                for (Status status : Status.values()) {
+                    map.put(status, random.nextInt(1000));
+                }
+                maps.add(map);
+            }
+            value = maps;
+        } else {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < entries; i++) {
+                map.put(keyOf(i, random), random.nextInt(1000));
+            }
+            value = map;
+        }
+        converter = new ObjectToJSONConverter(new PlatformConverterService());
+    }
+
+    @Benchmark
+    public String string() {
+        return converter.toJSON(value, 0);
+    }
+
+    @Benchmark
+    public byte[] bytes() {
+        return converter.toJSONBytes(value, 0);
+    }
+
+    private Object keyOf(int index, Random random) {
+        switch (keyType) {
+            case INTEGER:
+                return index;
+            case LONG:
+                return (long) index << 20;
+            case UUID:
+                return new UUID(random.nextLong(), random.nextLong());
+            default:
+                return "key" + index;
+        }
+    }
+
+    /**
+     * A converter service resolving the converter of each input class from a registry,
+     * as the platform converter service does, instead of a mock returning a constant.
+     */
+    private static class PlatformConverterService implements ConverterService {
+
+        private final Map<Class<?>, Function<Object, String>> toString = new HashMap<>();
+
+        PlatformConverterService() {
+            toString.put(Integer.class, String::valueOf);
+            toString.put(Long.class, String::valueOf);
+            toString.put(UUID.class, Object::toString);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <I, O> O convert(I input, Class<O> outputClass) {
+            if (outputClass != String.class) {
+                throw new IllegalArgumentException("Unsupported output " + outputClass);
+            }
+            Class<?> type = input.getClass();
+            if (type.isEnum() || type.getSuperclass() != null && type.getSuperclass().isEnum()) {
+                return (O) ((Enum<?>) input).name();
+            }
+            Function<Object, String> converter = toString.get(type);
+            if (converter == null) {
+                throw new IllegalArgumentException("Unsupported input " + type);
+            }
+            return (O) converter.apply(input);
+        }
+    }
+}
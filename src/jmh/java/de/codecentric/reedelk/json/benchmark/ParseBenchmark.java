@@ -0,0 +1,88 @@
+package de.codecentric.reedelk.json.benchmark;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.component.OutputMode;
+import de.codecentric.reedelk.json.component.ParserEngine;
+import de.codecentric.reedelk.json.internal.JSONToObjectConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSONToObjectConverter.toObject (and toLazyObject) over the corpus
+ * for each parser engine and output mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ParseBenchmark {
+
+    @Param
+    public Corpus corpus;
+
+    private String json;
+    private byte[] bytes;
+
+    private JSONToObjectConverter standard;
+    private JSONToObjectConverter structural;
+    private JSONToObjectConverter lazy;
+    private JSONToObjectConverter compact;
+    private JSONToObjectConverter bigDecimal;
+    private JSONToObjectConverter sharedStrings;
+
+    @Setup
+    public void setUp() {
+        json = corpus.json();
+        bytes = corpus.bytes();
+        standard = new JSONToObjectConverter();
+        structural = new JSONToObjectConverter(OutputMode.EAGER, ParserEngine.STRUCTURAL_INDEX, NumberMapping.SMALLEST_TYPE, false);
+        lazy = new JSONToObjectConverter(OutputMode.LAZY, ParserEngine.STANDARD, NumberMapping.SMALLEST_TYPE, false);
+        compact = new JSONToObjectConverter(OutputMode.COMPACT, ParserEngine.STANDARD, NumberMapping.SMALLEST_TYPE, false);
+        bigDecimal = new JSONToObjectConverter(OutputMode.EAGER, ParserEngine.STANDARD, NumberMapping.BIG_DECIMAL, false);
+        sharedStrings = new JSONToObjectConverter(OutputMode.EAGER, ParserEngine.STANDARD, NumberMapping.SMALLEST_TYPE, true);
+    }
+
+    @Benchmark
+    public Object string() {
+        return standard.toObject(json);
+    }
+
+    @Benchmark
+    public Object bytes() {
+        return standard.toObject(bytes);
+    }
+
+    @Benchmark
+    public Object byteBuffer() {
+        return standard.toObject(ByteBuffer.wrap(bytes));
+    }
+
+    @Benchmark
+    public Object bytesStructuralIndex() {
+        return structural.toObject(bytes);
+    }
+
+    @Benchmark
+    public Object bytesCompact() {
+        return compact.toObject(bytes);
+    }
+
+    @Benchmark
+    public Object stringLazy() {
+        return lazy.toLazyObject(json);
+    }
+
+    @Benchmark
+    public Object bytesBigDecimal() {
+        return bigDecimal.toObject(bytes);
+    }
+
+    @Benchmark
+    public Object bytesSharedStrings() {
+        return sharedStrings.toObject(bytes);
+    }
+}
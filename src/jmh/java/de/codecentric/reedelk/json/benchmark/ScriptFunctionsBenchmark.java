@@ -0,0 +1,56 @@
+package de.codecentric.reedelk.json.benchmark;
+
+import de.codecentric.reedelk.json.internal.JSONToObjectConverter;
+import de.codecentric.reedelk.json.internal.Json;
+import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Json script functions as they are called from scripts,
+ * wired as in the module activator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ScriptFunctionsBenchmark {
+
+    @Param
+    public Corpus corpus;
+
+    private String json;
+    private Object value;
+
+    private Json functions;
+
+    @Setup
+    public void setUp() {
+        json = corpus.json();
+        functions = new Json(new ObjectToJSONConverter(null), new JSONToObjectConverter());
+        value = functions.parse(json);
+    }
+
+    @Benchmark
+    public Object parse() {
+        return functions.parse(json);
+    }
+
+    @Benchmark
+    public Object parseLazy() {
+        return functions.parse(json, true);
+    }
+
+    @Benchmark
+    public String stringify() {
+        return functions.stringify(value);
+    }
+
+    @Benchmark
+    public String stringifyPrettyPrinted() {
+        return functions.stringify(value, 2);
+    }
+}
@@ -0,0 +1,55 @@
+package de.codecentric.reedelk.json.benchmark;
+
+import de.codecentric.reedelk.json.internal.JSONToObjectConverter;
+import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ObjectToJSONConverter over the Maps and Lists parsed from the corpus,
+ * minified and pretty printed, to a string and to UTF-8 bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SerializeBenchmark {
+
+    @Param
+    public Corpus corpus;
+
+    private Object value;
+
+    private ObjectToJSONConverter converter;
+
+    @Setup
+    public void setUp() {
+        value = new JSONToObjectConverter().toObject(corpus.json());
+        // The corpus only contains Maps, Lists, strings, numbers, booleans and nulls:
+        // the converter service is never needed to convert map keys or bean properties.
+        converter = new ObjectToJSONConverter(null);
+    }
+
+    @Benchmark
+    public String string() {
+        return converter.toJSON(value, 0);
+    }
+
+    @Benchmark
+    public String stringPrettyPrinted() {
+        return converter.toJSON(value, 2);
+    }
+
+    @Benchmark
+    public byte[] bytes() {
+        return converter.toJSONBytes(value, 0);
+    }
+
+    @Benchmark
+    public byte[] bytesPrettyPrinted() {
+        return converter.toJSONBytes(value, 2);
+    }
+}
@@ -0,0 +1,40 @@
+package de.codecentric.reedelk.json.benchmark;
+
+import de.codecentric.reedelk.json.internal.commons.IsValid;
+import de.codecentric.reedelk.json.internal.parser.JSONValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON validity checks: IsValid.json, which builds the org.json tree,
+ * and JSONValidator, which only scans the input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ValidateBenchmark {
+
+    @Param
+    public Corpus corpus;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = corpus.json();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return IsValid.json(json);
+    }
+
+    @Benchmark
+    public boolean validator() {
+        return JSONValidator.isValid(json);
+    }
+}
@@ -0,0 +1,86 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.JSONExtractConverter;
+import de.codecentric.reedelk.json.internal.parser.JSONPath;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+@ModuleComponent("JSON Extract")
+@ComponentOutput(
+        attributes = MessageAttributes.class,
+        payload = Object.class,
+        description = "The value selected by the JSON path or, if the path contains wildcards, the list of the selected values.")
+@ComponentInput(
+        payload = { String.class, byte[].class, ByteBuffer.class, InputStream.class },
+        description = "The JSON string or the UTF-8 encoded JSON bytes to extract the values from. " +
+                "The payload might also be a stream of strings or byte arrays.")
+@Description("Extracts the values matching a JSON path from a JSON, without converting the whole JSON to a Java Object. " +
+        "The JSON is scanned and only the selected values are converted: a JSON object is mapped to a Java Map and " +
+        "a JSON array is mapped to a Java List. The supported JSON path syntax is: the root <code>$</code>, " +
+        "child names <code>.name</code> or <code>['name']</code>, array indexes <code>[0]</code> and " +
+        "the wildcards <code>.*</code> and <code>[*]</code>. A path without wildcards outputs the selected value, " +
+        "or a null payload if the value does not exist, a path with wildcards outputs the list of the selected values.")
+@Component(service = JSONExtract.class, scope = ServiceScope.PROTOTYPE)
+public class JSONExtract implements ProcessorSync {
+
+    @Property("JSON path")
+    @Hint("$.customer.name")
+    @Example("$.orders[*].id")
+    @Description("The JSON path of the values to be extracted.")
+    private String path;
+
+    private JSONPath thePath;
+    private JSONExtractConverter converter;
+
+    @Override
+    public void initialize() {
+        converter = new JSONExtractConverter();
+        thePath = converter.compile(path);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        TypedContent<?, ?> content = message.content();
+
+        Object payload;
+        if (content != null && content.isStream()) {
+            // The stream chunks are scanned as they arrive.
+            payload = content.stream();
+        } else {
+            payload = message.payload();
+        }
+
+        if (payload == null) {
+            // The payload was null, we return an empty message.
+            return MessageBuilder.get(JSONExtract.class)
+                    .empty()
+                    .build();
+        }
+
+        Object selected = converter.select(payload, thePath);
+        if (selected == null) {
+            // The selected value does not exist or it is null.
+            return MessageBuilder.get(JSONExtract.class)
+                    .empty()
+                    .build();
+        }
+
+        return MessageBuilder.get(JSONExtract.class)
+                .withJavaObject(selected)
+                .build();
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+}
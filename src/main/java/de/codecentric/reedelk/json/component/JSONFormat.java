@@ -0,0 +1,101 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.JSONFormatConverter;
+import de.codecentric.reedelk.json.internal.commons.Defaults;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+@ModuleComponent("JSON Format")
+@ComponentOutput(
+        attributes = MessageAttributes.class,
+        payload = { String.class, byte[].class },
+        description = "The formatted JSON: a string for a string payload, UTF-8 encoded bytes otherwise.")
+@ComponentInput(
+        payload = { String.class, byte[].class, ByteBuffer.class, InputStream.class },
+        description = "The JSON string or the UTF-8 encoded JSON bytes to be formatted. " +
+                "The payload might also be a stream of strings or byte arrays.")
+@Description("Minifies or pretty prints a JSON, without converting it to a Java Object. " +
+        "The JSON is formatted in a single pass: strings, numbers and literals are copied as they are and " +
+        "only the whitespace between them is changed. If pretty print is true, each object member and array " +
+        "element is written on its own line, indented by the given indent factor, otherwise all the whitespace is removed. " +
+        "A stream payload is formatted chunk by chunk as it is consumed downstream. " +
+        "The JSON must strictly follow the JSON grammar (RFC 8259) and its root value must be an object or an array.")
+@Component(service = JSONFormat.class, scope = ServiceScope.PROTOTYPE)
+public class JSONFormat implements ProcessorSync {
+
+    @Property("Pretty print")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true the output JSON is pretty printed using the given indent factor, otherwise it is minified.")
+    private Boolean prettyPrint;
+
+    @Property("Indent")
+    @Hint("4")
+    @Example("2")
+    @DefaultValue("2")
+    @Description("The number of spaces to add to each level of indentation.")
+    @When(propertyName = "prettyPrint", propertyValue = "true")
+    private Integer indentFactor;
+
+    private int theIndentFactor;
+    private JSONFormatConverter converter;
+
+    @Override
+    public void initialize() {
+        boolean isPrettyPrint = Optional.ofNullable(prettyPrint).orElse(Defaults.PRETTY);
+        theIndentFactor = isPrettyPrint ? Optional.ofNullable(indentFactor).orElse(Defaults.INDENT_FACTOR) : 0;
+        converter = new JSONFormatConverter();
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        TypedContent<?, ?> content = message.content();
+
+        if (content != null && content.isStream()) {
+            // The stream chunks are formatted as they arrive.
+            Flux<byte[]> formatted = converter.format(content.stream(), theIndentFactor);
+            return MessageBuilder.get(JSONFormat.class)
+                    .withBinary(formatted, MimeType.APPLICATION_JSON)
+                    .build();
+        }
+
+        Object payload = message.payload();
+        if (payload == null) {
+            // The payload was null, we return an empty message.
+            return MessageBuilder.get(JSONFormat.class)
+                    .empty()
+                    .build();
+        }
+
+        Object formatted = converter.format(payload, theIndentFactor);
+        if (formatted instanceof String) {
+            return MessageBuilder.get(JSONFormat.class)
+                    .withJson((String) formatted)
+                    .build();
+        }
+        return MessageBuilder.get(JSONFormat.class)
+                .withBinary((byte[]) formatted, MimeType.APPLICATION_JSON)
+                .build();
+    }
+
+    public void setPrettyPrint(Boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    public void setIndentFactor(Integer indentFactor) {
+        this.indentFactor = indentFactor;
+    }
+}
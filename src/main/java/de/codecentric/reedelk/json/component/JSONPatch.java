@@ -0,0 +1,97 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.JSONPatchConverter;
+import de.codecentric.reedelk.json.internal.commons.Defaults;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+@ModuleComponent("JSON Patch")
+@ComponentOutput(
+        attributes = MessageAttributes.class,
+        payload = { String.class, byte[].class },
+        description = "The patched JSON: a string for a string payload, UTF-8 encoded bytes otherwise.")
+@ComponentInput(
+        payload = { String.class, byte[].class, ByteBuffer.class, InputStream.class },
+        description = "The JSON string or the UTF-8 encoded JSON bytes to be patched. " +
+                "The payload might also be a stream of strings or byte arrays.")
+@Description("Applies a JSON Merge Patch (RFC 7396) or a JSON Patch (RFC 6902) to a JSON, without converting it " +
+        "to a Java Object. The JSON is scanned down to the patched values only: all the other values are copied " +
+        "to the output as they are, including their whitespace, without being decoded. Values added by the patch " +
+        "are written without whitespace. A JSON Merge Patch is a JSON object whose members replace the members " +
+        "of the JSON with the same name, a null member removes the member from the JSON. A JSON Patch is a JSON " +
+        "array of add, remove, replace, move, copy and test operations applied in order, whose paths are " +
+        "JSON Pointers (RFC 6901). A stream payload is rewritten chunk by chunk by a JSON Merge Patch, it is " +
+        "patched once it has been fully received by a JSON Patch, whose operations might read any value.")
+@Component(service = JSONPatch.class, scope = ServiceScope.PROTOTYPE)
+public class JSONPatch implements ProcessorSync {
+
+    @Property("Patch format")
+    @Example("JSON_PATCH")
+    @DefaultValue("MERGE_PATCH")
+    @Description("The format of the patch: <i>JSON Merge Patch</i> (RFC 7396) or <i>JSON Patch</i> (RFC 6902).")
+    private PatchFormat patchFormat;
+
+    @Property("Patch")
+    @Hint("{\"status\": \"shipped\", \"tracking\": null}")
+    @Example("[{\"op\": \"replace\", \"path\": \"/status\", \"value\": \"shipped\"}]")
+    @Description("The patch to be applied to the JSON payload, in the given patch format.")
+    private String patch;
+
+    private JSONPatchConverter converter;
+
+    @Override
+    public void initialize() {
+        converter = new JSONPatchConverter(Optional.ofNullable(patchFormat).orElse(Defaults.PATCH_FORMAT), patch);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        TypedContent<?, ?> content = message.content();
+
+        if (content != null && content.isStream()) {
+            Flux<byte[]> patched = converter.patch(content.stream());
+            return MessageBuilder.get(JSONPatch.class)
+                    .withBinary(patched, MimeType.APPLICATION_JSON)
+                    .build();
+        }
+
+        Object payload = message.payload();
+        if (payload == null) {
+            // The payload was null, we return an empty message.
+            return MessageBuilder.get(JSONPatch.class)
+                    .empty()
+                    .build();
+        }
+
+        Object patched = converter.patch(payload);
+        if (patched instanceof String) {
+            return MessageBuilder.get(JSONPatch.class)
+                    .withJson((String) patched)
+                    .build();
+        }
+        return MessageBuilder.get(JSONPatch.class)
+                .withBinary((byte[]) patched, MimeType.APPLICATION_JSON)
+                .build();
+    }
+
+    public void setPatchFormat(PatchFormat patchFormat) {
+        this.patchFormat = patchFormat;
+    }
+
+    public void setPatch(String patch) {
+        this.patch = patch;
+    }
+}
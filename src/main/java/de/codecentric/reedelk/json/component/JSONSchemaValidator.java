@@ -0,0 +1,169 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.JSONSchemaConverter;
+import de.codecentric.reedelk.json.internal.commons.Defaults;
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONSchemaException;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import de.codecentric.reedelk.runtime.api.resource.ResourceText;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+@ModuleComponent("JSON Schema Validator")
+@ComponentOutput(
+        attributes = MessageAttributes.class,
+        payload = { String.class, byte[].class, ByteBuffer.class, Object.class },
+        description = "The validated payload, unchanged, or the Object structure of the validated JSON.")
+@ComponentInput(
+        payload = { String.class, byte[].class, ByteBuffer.class, InputStream.class },
+        description = "The JSON string or the UTF-8 encoded JSON bytes to be validated. " +
+                "The payload might also be a stream of strings or byte arrays.")
+@Description("Validates a JSON against a JSON Schema (drafts 4 to 2019-09). The schema is compiled once and the " +
+        "compiled schema is shared by all the components using the same schema. The JSON is validated while it is " +
+        "parsed, without converting it to a Java Object, and the validation stops as soon as the maximum number of " +
+        "errors is found. An exception listing the errors, each one with the JSON Pointer (RFC 6901) of the invalid " +
+        "value, is thrown if the JSON does not match the schema. Only references within the schema are supported " +
+        "(e.g. '#/definitions/address'), the format keyword is not validated and the unevaluatedProperties and " +
+        "unevaluatedItems keywords are not supported.")
+@Component(service = JSONSchemaValidator.class, scope = ServiceScope.PROTOTYPE)
+public class JSONSchemaValidator implements ProcessorSync {
+
+    @Property("Schema file")
+    @Hint("assets/order.schema.json")
+    @Example("assets/order.schema.json")
+    @Description("The project resource file containing the JSON Schema. If set, the inline schema is ignored.")
+    private ResourceText schemaFile;
+
+    @Property("Schema")
+    @Hint("{\"type\": \"object\", \"required\": [\"id\"]}")
+    @Example("{\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"integer\"}}, \"required\": [\"id\"]}")
+    @Description("The JSON Schema the payload is validated against, used if no schema file is set.")
+    private String schema;
+
+    @Property("Output")
+    @Example("OBJECT")
+    @DefaultValue("PAYLOAD")
+    @Description("The output of a valid payload: <i>Payload</i> outputs the input payload unchanged, <i>Object</i> " +
+            "outputs the Object structure of the JSON, which is built while the JSON is validated. " +
+            "A stream payload is output once it has been fully received and validated.")
+    private ValidationOutput output;
+
+    @Property("Number mapping")
+    @Example("BIG_DECIMAL")
+    @DefaultValue("SMALLEST_TYPE")
+    @Description("The Java type JSON numbers are converted to, see the <i>JSON to Object</i> component. " +
+            "Numbers are always validated by their exact value.")
+    @When(propertyName = "output", propertyValue = "OBJECT")
+    private NumberMapping numberMapping;
+
+    @Property("Max errors")
+    @Hint("1")
+    @Example("20")
+    @DefaultValue("10")
+    @Description("The maximum number of errors reported. The validation stops at the last one, without reading " +
+            "the rest of the JSON: if 1, it stops at the first error.")
+    private Integer maxErrors;
+
+    private ValidationOutput theOutput;
+    private NumberMapping theNumberMapping;
+    private JSONSchemaConverter converter;
+
+    @Override
+    public void initialize() {
+        theOutput = Optional.ofNullable(output).orElse(Defaults.VALIDATION_OUTPUT);
+        theNumberMapping = Optional.ofNullable(numberMapping).orElse(Defaults.NUMBER_MAPPING);
+        int theMaxErrors = Optional.ofNullable(maxErrors).orElse(Defaults.SCHEMA_MAX_ERRORS);
+        converter = new JSONSchemaConverter(schemaText(), theMaxErrors);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        TypedContent<?, ?> content = message.content();
+
+        if (content != null && content.isStream()) {
+            if (theOutput == ValidationOutput.OBJECT) {
+                // Streamed payloads are validated while the chunks arrive.
+                Object validated = converter.toObject(content.stream(), theNumberMapping);
+                return MessageBuilder.get(JSONSchemaValidator.class)
+                        .withJavaObject(validated)
+                        .build();
+            }
+            Flux<byte[]> validated = converter.validateBytes(content.stream());
+            return MessageBuilder.get(JSONSchemaValidator.class)
+                    .withBinary(validated, MimeType.APPLICATION_JSON)
+                    .build();
+        }
+
+        Object payload = message.payload();
+        if (payload == null) {
+            // The payload was null, we return an empty message.
+            return MessageBuilder.get(JSONSchemaValidator.class)
+                    .empty()
+                    .build();
+        }
+
+        if (theOutput == ValidationOutput.OBJECT) {
+            Object validated = converter.toObject(payload, theNumberMapping);
+            return MessageBuilder.get(JSONSchemaValidator.class)
+                    .withJavaObject(validated)
+                    .build();
+        }
+        if (payload instanceof InputStream) {
+            // The stream is consumed by the validation, its bytes are the output.
+            byte[] validated = converter.validateBytes((InputStream) payload);
+            return MessageBuilder.get(JSONSchemaValidator.class)
+                    .withBinary(validated, MimeType.APPLICATION_JSON)
+                    .build();
+        }
+        converter.validate(payload);
+        return message;
+    }
+
+    public void setSchemaFile(ResourceText schemaFile) {
+        this.schemaFile = schemaFile;
+    }
+
+    public void setSchema(String schema) {
+        this.schema = schema;
+    }
+
+    public void setOutput(ValidationOutput output) {
+        this.output = output;
+    }
+
+    public void setNumberMapping(NumberMapping numberMapping) {
+        this.numberMapping = numberMapping;
+    }
+
+    public void setMaxErrors(Integer maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    private String schemaText() {
+        if (schemaFile == null) {
+            return schema;
+        }
+        try {
+            return Flux.from(schemaFile.data())
+                    .collect(StringBuilder::new, StringBuilder::append)
+                    .map(StringBuilder::toString)
+                    .block();
+        } catch (RuntimeException exception) {
+            String error = Messages.JSONSchema.JSON_SCHEMA_INVALID.format(
+                    "The schema file " + schemaFile.path() + " cannot be read: " + exception.getMessage());
+            throw new JSONSchemaException(error, exception);
+        }
+    }
+}
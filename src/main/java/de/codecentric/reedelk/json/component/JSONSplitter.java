@@ -0,0 +1,81 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.JSONSplitterConverter;
+import de.codecentric.reedelk.json.internal.commons.Defaults;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+@ModuleComponent("JSON Splitter")
+@ComponentOutput(
+        attributes = MessageAttributes.class,
+        payload = Object.class,
+        description = "A stream of the elements of the given JSON array or JSON Lines.")
+@ComponentInput(
+        payload = { String.class, byte[].class, ByteBuffer.class, InputStream.class },
+        description = "The JSON array or the JSON Lines to be split. " +
+                "The payload might also be a stream of strings or byte arrays.")
+@Description("Splits a JSON array or a JSON Lines (NDJSON) text into a stream of its elements. " +
+        "Each element is converted to a Java Object: a JSON object is mapped to a Java Map and " +
+        "a JSON array is mapped to a Java List. The elements are parsed one at a time as they are consumed " +
+        "downstream, therefore only one element is kept in memory. Null elements are skipped.")
+@Component(service = JSONSplitter.class, scope = ServiceScope.PROTOTYPE)
+public class JSONSplitter implements ProcessorSync {
+
+    @Property("Format")
+    @Example("JSON_LINES")
+    @DefaultValue("JSON_ARRAY")
+    @Description("The format of the input: <i>JSON array</i> splits the elements of a top level JSON array, " +
+            "<i>JSON Lines / NDJSON</i> splits a text containing one JSON value on each line.")
+    private SplitFormat format;
+
+    private SplitFormat theFormat;
+    private JSONSplitterConverter converter;
+
+    @Override
+    public void initialize() {
+        theFormat = Optional.ofNullable(format).orElse(Defaults.SPLIT_FORMAT);
+        converter = new JSONSplitterConverter();
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        TypedContent<?, ?> content = message.content();
+
+        Object payload;
+        if (content != null && content.isStream()) {
+            // The stream chunks are parsed as they arrive.
+            payload = content.stream();
+        } else {
+            payload = message.payload();
+        }
+
+        if (payload == null) {
+            // The payload was null, we return an empty message.
+            return MessageBuilder.get(JSONSplitter.class)
+                    .empty()
+                    .build();
+        }
+
+        Flux<Object> elements = converter.split(payload, theFormat);
+
+        return MessageBuilder.get(JSONSplitter.class)
+                .withStream(elements, Object.class)
+                .build();
+    }
+
+    public void setFormat(SplitFormat format) {
+        this.format = format;
+    }
+}
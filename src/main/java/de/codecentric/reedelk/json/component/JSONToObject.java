@@ -1,20 +1,27 @@
 package de.codecentric.reedelk.json.component;
 
 import de.codecentric.reedelk.json.internal.JSONToObjectConverter;
+import de.codecentric.reedelk.json.internal.commons.Defaults;
 import de.codecentric.reedelk.json.internal.commons.Preconditions;
-import de.codecentric.reedelk.runtime.api.annotation.ComponentInput;
-import de.codecentric.reedelk.runtime.api.annotation.ComponentOutput;
-import de.codecentric.reedelk.runtime.api.annotation.Description;
-import de.codecentric.reedelk.runtime.api.annotation.ModuleComponent;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
+import de.codecentric.reedelk.json.internal.parser.ParseCache;
+import de.codecentric.reedelk.json.internal.parser.ParseLimits;
+import de.codecentric.reedelk.runtime.api.annotation.*;
 import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
 import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
 import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @ModuleComponent("JSON to Object")
 @ComponentOutput(
@@ -22,26 +29,167 @@ import java.nio.charset.StandardCharsets;
         payload = Object.class,
         description = "An Object structure representing the given JSON string")
 @ComponentInput(
-        payload = { String.class },
-        description = "The JSON string to be converted to an Object structure.")
+        payload = { String.class, byte[].class, ByteBuffer.class, InputStream.class },
+        description = "The JSON string or the UTF-8 encoded JSON bytes to be converted to an Object structure. " +
+                "The payload might also be a stream of strings or byte arrays.")
 @Description("Converts a JSON string into a Java Object. " +
         "A JSON object is mapped to a Java Map and a JSON array is mapped to a Java List. " +
+        "Binary payloads (byte array, byte buffer or input stream) are decoded as UTF-8 while being parsed. " +
+        "Streamed payloads are parsed chunk by chunk as they arrive, without being loaded in memory first. " +
         "A null payload produces a null output payload and an exception is thrown if the input is not a String " +
         "or a not valid JSON.")
 @Component(service = JSONToObject.class, scope = ServiceScope.PROTOTYPE)
 public class JSONToObject implements ProcessorSync {
 
+    @Property("Output mode")
+    @Example("LAZY")
+    @DefaultValue("EAGER")
+    @Description("How the output Object structure is built: <i>Eager</i> converts the whole JSON into Java Maps and Lists, " +
+            "<i>Lazy</i> indexes the JSON once and outputs read-only Maps and Lists which convert each value only " +
+            "when it is accessed. Lazy is faster and uses less memory when only a few values of the JSON are read. " +
+            "Streamed payloads are always converted eagerly while they arrive. " +
+            "<i>Compact</i> converts the whole JSON into immutable Maps and Lists backed by right-sized arrays, " +
+            "which keep the order of the JSON object keys and use less memory when the output is kept for long.")
+    private OutputMode outputMode;
+
+    @Property("Parser engine")
+    @Example("STRUCTURAL_INDEX")
+    @DefaultValue("STANDARD")
+    @Description("The parser used for binary payloads (byte array or byte buffer): <i>Standard</i> decodes and parses " +
+            "the JSON one character at a time, <i>Structural index</i> first finds the structural characters of the JSON " +
+            "scanning eight bytes at a time and then builds the values between them. Structural index is faster on large " +
+            "strict JSON payloads, JSON using the lenient syntax (e.g. single quotes) is parsed by the standard parser.")
+    private ParserEngine parserEngine;
+
+    @Property("Number mapping")
+    @Example("BIG_DECIMAL")
+    @DefaultValue("SMALLEST_TYPE")
+    @Description("The Java type JSON numbers are converted to: <i>Smallest fitting type</i> converts integers to Integer " +
+            "or Long and decimals to Double, <i>Long or Double</i> converts integers to Long and decimals to Double, " +
+            "<i>BigDecimal</i> converts all numbers to BigDecimal, keeping their exact value and scale. " +
+            "With BigDecimal, integers which do not fit a Long and decimals out of the Double range are numbers as well.")
+    private NumberMapping numberMapping;
+
+    @Property("Share repeated strings")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, repeated short string values (e.g. status or type values in an array of objects) " +
+            "share the same String instance, as repeated object keys always do. " +
+            "This reduces the memory used by large converted payloads kept in memory. " +
+            "Values of the lazy output mode are decoded when accessed and are not shared.")
+    private Boolean shareRepeatedStrings;
+
+    @Property("Parallelism")
+    @Hint("4")
+    @Example("8")
+    @DefaultValue("1")
+    @Description("The maximum number of threads parsing a large payload whose root value is a JSON array. " +
+            "The elements of the array are divided into chunks which are parsed in parallel and joined in order. " +
+            "Only string, byte array and byte buffer payloads converted eagerly or compactly are parsed in parallel. " +
+            "If 1, payloads are always parsed on the calling thread.")
+    private Integer parallelism;
+
+    @Property("Parallel threshold")
+    @Hint("8388608")
+    @Example("16777216")
+    @DefaultValue("8388608")
+    @Description("The minimum size of a payload parsed in parallel, in bytes (in characters for string payloads). " +
+            "Smaller payloads are parsed on the calling thread, since splitting them costs more than it saves.")
+    private Integer parallelThreshold;
+
+    @Property("Cache size")
+    @Hint("1048576")
+    @Example("4194304")
+    @DefaultValue("0")
+    @Description("The maximum total size of the payloads whose converted Object structure is cached, in bytes " +
+            "(in characters for string payloads). A string, byte array or byte buffer payload equal to a cached one " +
+            "is not parsed again: the cached structure is returned. The least recently used structures are evicted " +
+            "first and payloads larger than the cache are never cached. Cached structures are shared, therefore they " +
+            "are always immutable compact Maps and Lists, whatever the output mode. If 0, no payload is cached.")
+    private Integer cacheSize;
+
+    @Property("Max depth")
+    @Hint("64")
+    @Example("32")
+    @DefaultValue("0")
+    @Description("The maximum nesting depth of the JSON objects and arrays. A deeper JSON is rejected as soon as " +
+            "the parser reaches the first value exceeding the depth. If 0, the depth is not limited.")
+    private Integer maxDepth;
+
+    @Property("Max input size")
+    @Hint("10485760")
+    @Example("1048576")
+    @DefaultValue("0")
+    @Description("The maximum size of the JSON, in bytes (in characters for string payloads). A streamed payload " +
+            "is rejected as soon as the received bytes exceed the size, without reading the rest of the stream. " +
+            "If 0, the size is not limited.")
+    private Integer maxInputSize;
+
+    @Property("Max string length")
+    @Hint("1048576")
+    @Example("65536")
+    @DefaultValue("0")
+    @Description("The maximum length of a single JSON string, in characters, including object keys and unquoted " +
+            "values such as numbers. If 0, the length is not limited.")
+    private Integer maxStringLength;
+
+    @Property("Max members")
+    @Hint("100000")
+    @Example("10000")
+    @DefaultValue("0")
+    @Description("The maximum number of members of a single JSON object or elements of a single JSON array. " +
+            "If 0, the number of members is not limited. When any limit is set, payloads are neither parsed " +
+            "in parallel nor by the structural index engine, since the limits are checked while parsing.")
+    private Integer maxMembers;
+
+    @Reference
+    JSONMetrics metrics;
+
+    private OutputMode theOutputMode;
     private JSONToObjectConverter converter;
+    private OperationMetrics theMetrics;
 
     @Override
     public void initialize() {
-        converter = new JSONToObjectConverter();
+        theOutputMode = Optional.ofNullable(outputMode).orElse(Defaults.OUTPUT_MODE);
+        theMetrics = metrics.jsonToObject();
+        int theCacheSize = Optional.ofNullable(cacheSize).orElse(Defaults.CACHE_SIZE);
+        ParseLimits limits = new ParseLimits(
+                Optional.ofNullable(maxDepth).orElse(Defaults.MAX_DEPTH),
+                Optional.ofNullable(maxInputSize).orElse(Defaults.MAX_INPUT_SIZE),
+                Optional.ofNullable(maxStringLength).orElse(Defaults.MAX_STRING_LENGTH),
+                Optional.ofNullable(maxMembers).orElse(Defaults.MAX_MEMBERS));
+        converter = new JSONToObjectConverter(
+                theOutputMode,
+                Optional.ofNullable(parserEngine).orElse(Defaults.PARSER_ENGINE),
+                Optional.ofNullable(numberMapping).orElse(Defaults.NUMBER_MAPPING),
+                Optional.ofNullable(shareRepeatedStrings).orElse(Defaults.SHARE_STRINGS),
+                Optional.ofNullable(parallelism).orElse(Defaults.PARALLELISM),
+                Optional.ofNullable(parallelThreshold).orElse(Defaults.PARALLEL_THRESHOLD),
+                theCacheSize > 0 ? new ParseCache(theCacheSize, theMetrics) : null,
+                limits);
+    }
+
+    @Override
+    public void dispose() {
+        if (converter != null) {
+            converter.dispose();
+        }
     }
 
-    @SuppressWarnings("ConstantConditions")
     @Override
     public Message apply(FlowContext flowContext, Message message) {
 
+        TypedContent<?, ?> content = message.content();
+        if (content != null && content.isStream()) {
+            // Streamed payloads are parsed while the chunks arrive,
+            // without buffering the whole payload in memory first.
+            Object asJavaObject = measured(OperationMetrics.UNKNOWN_SIZE, () -> converter.toObject(content.stream()));
+            return MessageBuilder.get(JSONToObject.class)
+                    .withJavaObject(asJavaObject)
+                    .build();
+        }
+
         Object payload = message.payload();
         if (payload == null) {
             // The payload was null, we return an empty message.
@@ -50,27 +198,121 @@ public class JSONToObject implements ProcessorSync {
                     .build();
         }
 
-        if (payload instanceof byte[] || payload instanceof Byte[]) {
-            // We convert the payload to string. This is to avoid
-            // having the user con convert byte array to string.
-            // We convert using UTF-8, because a JSON is UTF-8 encoded.
-            payload = convertAsStringUTF8((byte[]) payload);
-        }
-
-        Preconditions.checkIsStringOrThrow(payload);
-
-        Object asJavaObject = converter.toObject((String) payload);
+        Object asJavaObject = measured(OperationMetrics.sizeOf(payload), () -> toObject(payload));
 
         return MessageBuilder.get(JSONToObject.class)
                 .withJavaObject(asJavaObject)
                 .build();
     }
 
-    // TODO: This method should be a generic method in the converter service.
-    //  the converter service should allow to convert to a string with a given charset.
-    //  when created also the PayloadToString component should use the same (with streams).
-    @Deprecated
-    private String convertAsStringUTF8(byte[] payload) {
-        return new String(payload, StandardCharsets.UTF_8);
+    public void setOutputMode(OutputMode outputMode) {
+        this.outputMode = outputMode;
+    }
+
+    public void setParserEngine(ParserEngine parserEngine) {
+        this.parserEngine = parserEngine;
+    }
+
+    public void setNumberMapping(NumberMapping numberMapping) {
+        this.numberMapping = numberMapping;
+    }
+
+    public void setShareRepeatedStrings(Boolean shareRepeatedStrings) {
+        this.shareRepeatedStrings = shareRepeatedStrings;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void setParallelThreshold(Integer parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public void setMaxDepth(Integer maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public void setMaxInputSize(Integer maxInputSize) {
+        this.maxInputSize = maxInputSize;
+    }
+
+    public void setMaxStringLength(Integer maxStringLength) {
+        this.maxStringLength = maxStringLength;
+    }
+
+    public void setMaxMembers(Integer maxMembers) {
+        this.maxMembers = maxMembers;
+    }
+
+    private Object measured(long inputSize, Supplier<Object> conversion) {
+        long start = theMetrics.start();
+        try {
+            Object asJavaObject = conversion.get();
+            // Lazy documents are not measured, measuring their depth would decode all their values.
+            theMetrics.success(start, inputSize, OperationMetrics.UNKNOWN_SIZE,
+                    theOutputMode == OutputMode.LAZY ? null : asJavaObject);
+            return asJavaObject;
+        } catch (RuntimeException exception) {
+            theMetrics.error(start, exception);
+            throw exception;
+        }
+    }
+
+    private Object toObject(Object payload) {
+        if (theOutputMode == OutputMode.LAZY) {
+            return toLazyObject(payload);
+        }
+
+        // Binary payloads are parsed directly from the bytes, this is to avoid
+        // having the user convert the byte array to string. We decode using UTF-8,
+        // because a JSON is UTF-8 encoded.
+        if (payload instanceof byte[]) {
+            return converter.toObject((byte[]) payload);
+
+        } else if (payload instanceof Byte[]) {
+            return converter.toObject(unbox((Byte[]) payload));
+
+        } else if (payload instanceof ByteBuffer) {
+            return converter.toObject((ByteBuffer) payload);
+
+        } else if (payload instanceof InputStream) {
+            return converter.toObject((InputStream) payload);
+
+        } else {
+            Preconditions.checkIsStringOrThrow(payload);
+            return converter.toObject((String) payload);
+        }
+    }
+
+    private Object toLazyObject(Object payload) {
+        if (payload instanceof byte[]) {
+            return converter.toLazyObject((byte[]) payload);
+
+        } else if (payload instanceof Byte[]) {
+            return converter.toLazyObject(unbox((Byte[]) payload));
+
+        } else if (payload instanceof ByteBuffer) {
+            return converter.toLazyObject((ByteBuffer) payload);
+
+        } else if (payload instanceof InputStream) {
+            return converter.toLazyObject((InputStream) payload);
+
+        } else {
+            Preconditions.checkIsStringOrThrow(payload);
+            return converter.toLazyObject((String) payload);
+        }
+    }
+
+    private static byte[] unbox(Byte[] payload) {
+        byte[] bytes = new byte[payload.length];
+        for (int i = 0; i < payload.length; i++) {
+            bytes[i] = payload[i];
+        }
+        return bytes;
     }
 }
@@ -0,0 +1,13 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum NumberMapping {
+
+    @DisplayName("Smallest fitting type")
+    SMALLEST_TYPE,
+    @DisplayName("Long or Double")
+    LONG_OR_DOUBLE,
+    @DisplayName("BigDecimal")
+    BIG_DECIMAL
+}
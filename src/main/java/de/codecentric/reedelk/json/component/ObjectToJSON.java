@@ -4,6 +4,13 @@ import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
 import de.codecentric.reedelk.json.internal.commons.Defaults;
 import de.codecentric.reedelk.json.internal.commons.IsValid;
 import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import de.codecentric.reedelk.json.internal.parser.JSONParser;
+import de.codecentric.reedelk.json.internal.parser.JSONValidator;
+import de.codecentric.reedelk.json.internal.parser.StringInput;
+import de.codecentric.reedelk.json.internal.writer.JSONFormatter;
 import de.codecentric.reedelk.runtime.api.annotation.*;
 import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
 import de.codecentric.reedelk.runtime.api.converter.ConverterService;
@@ -11,20 +18,22 @@ import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
 import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
 import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
 import de.codecentric.reedelk.json.internal.commons.Messages;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ModuleComponent("Object to JSON")
 @ComponentOutput(
         attributes = MessageAttributes.class,
-        payload = String.class,
-        description = "A JSON serialized string of the input Object.")
+        payload = { String.class, byte[].class },
+        description = "A JSON serialized string of the input Object or its UTF-8 encoded bytes, according to the output format.")
 @ComponentInput(
         payload = Object.class,
         description = "An object structure to be converted to JSON string.")
@@ -32,14 +41,20 @@ import java.util.Optional;
         "A Java List is mapped to a JSON Array and a Java Map is mapped to a Java Map. " +
         "Any other Java object is mapped using getters. " +
         "If pretty print is set to true, the output JSON is pretty printed using the given indent factor which " +
-        "adds a number of spaces to each level of indentation.")
+        "adds a number of spaces to each level of indentation. " +
+        "A string payload is passed through after being checked according to the validation policy: " +
+        "if pretty print is true, the string is re-indented (without being converted to a Java Object only with the syntax only policy), " +
+        "otherwise it is passed through unchanged. " +
+        "If the output format is UTF-8 bytes, the output payload is a byte array with JSON mime type.")
 @Component(service = ObjectToJSON.class, scope = ServiceScope.PROTOTYPE)
 public class ObjectToJSON implements ProcessorSync {
 
     @Property("Pretty print")
     @Example("true")
     @DefaultValue("false")
-    @Description("If true the output JSON is pretty printed using the given indent factor.")
+    @Description("If true the output JSON is pretty printed using the given indent factor. " +
+            "A string payload is re-indented as well: with the syntax only validation policy it is re-indented while being scanned, " +
+            "therefore it must strictly follow the JSON grammar (RFC 8259), otherwise it is parsed as the full policy does and written again.")
     private Boolean prettyPrint;
 
     @Property("Indent")
@@ -52,18 +67,70 @@ public class ObjectToJSON implements ProcessorSync {
     @When(propertyName = "prettyPrint", propertyValue = "true")
     private Integer indentFactor;
 
+    @Property("Validation policy")
+    @Example("SYNTAX_ONLY")
+    @DefaultValue("FULL")
+    @Description("Determines how a string payload is checked before being passed through as JSON. " +
+            "<i>Full</i> parses the string into a JSON object or array, " +
+            "<i>Syntax only</i> scans the string against the JSON grammar without building any object and " +
+            "<i>Trust</i> passes the string through without any check.")
+    private ValidationPolicy validationPolicy;
+
+    @Property("Output format")
+    @Example("BYTES")
+    @DefaultValue("STRING")
+    @Description("The type of the output payload: <i>String</i> outputs a JSON string, " +
+            "<i>UTF-8 bytes</i> outputs a byte array containing the UTF-8 encoded JSON. " +
+            "UTF-8 bytes avoid encoding the JSON string again when it is sent over the network, e.g. as an HTTP response.")
+    private OutputFormat outputFormat;
+
+    @Property("Parallelism")
+    @Hint("4")
+    @Example("8")
+    @DefaultValue("1")
+    @Description("The maximum number of threads writing a large List payload. " +
+            "The elements of the list are divided into ranges which are written in parallel and joined in order, " +
+            "the output JSON is the same as when written on a single thread. " +
+            "If 1, payloads are always written on the calling thread.")
+    private Integer parallelism;
+
+    @Property("Parallel threshold")
+    @Hint("10000")
+    @Example("50000")
+    @DefaultValue("10000")
+    @Description("The minimum number of elements of a List payload written in parallel. " +
+            "Smaller lists are written on the calling thread, since splitting them costs more than it saves.")
+    private Integer parallelThreshold;
+
     @Reference
     ConverterService converterService;
+    @Reference
+    JSONMetrics metrics;
 
     private int theIndentFactor;
     private boolean isPrettyPrint;
+    private ValidationPolicy theValidationPolicy;
+    private OutputFormat theOutputFormat;
     private ObjectToJSONConverter converter;
+    private OperationMetrics theMetrics;
 
     @Override
     public void initialize() {
         isPrettyPrint = Optional.ofNullable(prettyPrint).orElse(Defaults.PRETTY);
         theIndentFactor = Optional.ofNullable(indentFactor).orElse(Defaults.INDENT_FACTOR);
-        converter = new ObjectToJSONConverter(converterService);
+        theValidationPolicy = Optional.ofNullable(validationPolicy).orElse(Defaults.VALIDATION_POLICY);
+        theOutputFormat = Optional.ofNullable(outputFormat).orElse(Defaults.OUTPUT_FORMAT);
+        converter = new ObjectToJSONConverter(converterService,
+                Optional.ofNullable(parallelism).orElse(Defaults.PARALLELISM),
+                Optional.ofNullable(parallelThreshold).orElse(Defaults.PARALLEL_LIST_THRESHOLD));
+        theMetrics = metrics.objectToJSON();
+    }
+
+    @Override
+    public void dispose() {
+        if (converter != null) {
+            converter.dispose();
+        }
     }
 
     @Override
@@ -75,50 +142,120 @@ public class ObjectToJSON implements ProcessorSync {
             return MessageBuilder.get(JSONToObject.class)
                     .empty()
                     .build();
+        }
 
-        } else if (payload instanceof String) {
+        long start = theMetrics.start();
+        try {
+            Message json = toJSON(payload);
+            theMetrics.success(start, OperationMetrics.sizeOf(payload), OperationMetrics.sizeOf(json.payload()), payload);
+            return json;
+        } catch (RuntimeException exception) {
+            theMetrics.error(start, exception);
+            throw exception;
+        }
+    }
+
+    public void setPrettyPrint(Boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    public void setIndentFactor(Integer indentFactor) {
+        this.indentFactor = indentFactor;
+    }
+
+    public void setValidationPolicy(ValidationPolicy validationPolicy) {
+        this.validationPolicy = validationPolicy;
+    }
+
+    public void setOutputFormat(OutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void setParallelThreshold(Integer parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    private Message toJSON(Object payload) {
+        if (payload instanceof String) {
             // We check that it is a valid JSON.
             String input = (String) payload;
-            if (IsValid.json(input)) {
-                return MessageBuilder.get(JSONToObject.class)
-                        .withJson(input)
-                        .build();
+            if (isPrettyPrint) {
+                // The formatter checks the same grammar of the syntax only policy,
+                // the other policies accept any JSON the lenient parser accepts.
+                input = theValidationPolicy == ValidationPolicy.SYNTAX_ONLY ? format(input) : prettyPrint(input);
             } else {
-                throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_JSON_STRING.format());
+                checkIsValidJSON(input);
             }
+            if (theOutputFormat == OutputFormat.BYTES) {
+                return MessageBuilder.get(ObjectToJSON.class)
+                        .withBinary(input.getBytes(StandardCharsets.UTF_8), MimeType.APPLICATION_JSON)
+                        .build();
+            }
+            return MessageBuilder.get(JSONToObject.class)
+                    .withJson(input)
+                    .build();
+
+        } else if (theOutputFormat == OutputFormat.BYTES) {
+            // The JSON is encoded to UTF-8 while being written.
+            byte[] json = converter.toJSONBytes(payload, isPrettyPrint ? theIndentFactor : 0);
+            return MessageBuilder.get(ObjectToJSON.class)
+                    .withBinary(json, MimeType.APPLICATION_JSON)
+                    .build();
 
         } else {
-            Object result = converter.toJSON(payload);
-            String json = print(result);
+            String json = converter.toJSON(payload, isPrettyPrint ? theIndentFactor : 0);
             return MessageBuilder.get(ObjectToJSON.class)
                     .withJson(json)
                     .build();
         }
     }
 
-    public void setPrettyPrint(Boolean prettyPrint) {
-        this.prettyPrint = prettyPrint;
+    private String format(String input) {
+        JSONFormatter formatter = new JSONFormatter(theIndentFactor);
+        StringBuilder formatted = new StringBuilder(input.length());
+        try {
+            formatter.format(input, formatted);
+            formatter.finish();
+        } catch (JSONParseException exception) {
+            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_JSON_STRING_AT_OFFSET,
+                    Messages.ObjectToJSON.NOT_JSON_STRING_AT_OFFSET.format(formatter.offset()));
+        }
+        return formatted.toString();
     }
 
-    public void setIndentFactor(Integer indentFactor) {
-        this.indentFactor = indentFactor;
+    private String prettyPrint(String input) {
+        Object parsed;
+        try {
+            // The compact containers keep the members in the input order.
+            parsed = new JSONParser(new StringInput(input), NumberMapping.SMALLEST_TYPE, false, true).nextValue();
+        } catch (JSONParseException exception) {
+            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_JSON_STRING, Messages.ObjectToJSON.NOT_JSON_STRING.format());
+        }
+        if (!(parsed instanceof Map) && !(parsed instanceof List)) {
+            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_JSON_STRING, Messages.ObjectToJSON.NOT_JSON_STRING.format());
+        }
+        return converter.toJSON(parsed, theIndentFactor);
     }
 
-    private String print(Object result) {
-        if (result instanceof JSONObject) {
-            JSONObject outObject = (JSONObject) result;
-            return isPrettyPrint ?
-                    outObject.toString(theIndentFactor) :
-                    outObject.toString();
-        } else if (result instanceof JSONArray) {
-            JSONArray outArray = (JSONArray) result;
-            return isPrettyPrint ?
-                    outArray.toString(theIndentFactor) :
-                    outArray.toString();
+    private void checkIsValidJSON(String input) {
+        if (theValidationPolicy == ValidationPolicy.TRUST) {
+            // The input string is passed through as it is.
+            return;
+        }
+
+        if (theValidationPolicy == ValidationPolicy.SYNTAX_ONLY) {
+            int errorOffset = JSONValidator.validate(input);
+            if (errorOffset != JSONValidator.VALID) {
+                throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_JSON_STRING_AT_OFFSET,
+                        Messages.ObjectToJSON.NOT_JSON_STRING_AT_OFFSET.format(errorOffset));
+            }
 
-        } else {
-            // A JSON is valid if and only if the Root is an array or an object.
-            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_VALID_JSON_OBJECT.format(result == null ? null : result.getClass()));
+        } else if (!IsValid.json(input)) {
+            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_JSON_STRING, Messages.ObjectToJSON.NOT_JSON_STRING.format());
         }
     }
 }
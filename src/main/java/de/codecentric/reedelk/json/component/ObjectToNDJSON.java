@@ -0,0 +1,79 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
+import de.codecentric.reedelk.runtime.api.annotation.ComponentInput;
+import de.codecentric.reedelk.runtime.api.annotation.ComponentOutput;
+import de.codecentric.reedelk.runtime.api.annotation.Description;
+import de.codecentric.reedelk.runtime.api.annotation.ModuleComponent;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+@ModuleComponent("Object to NDJSON")
+@ComponentOutput(
+        attributes = MessageAttributes.class,
+        payload = String.class,
+        description = "A stream of JSON Lines (NDJSON), one line for each input object.")
+@ComponentInput(
+        payload = Object.class,
+        description = "A stream or a collection of objects to be converted to JSON Lines.")
+@Description("Converts a stream of Java Objects into a stream of JSON Lines (NDJSON). " +
+        "Each object is written as a single line JSON followed by a new line, using the same mapping " +
+        "of the Object to JSON component. The objects are converted one at a time as the lines are consumed downstream. " +
+        "A collection payload is converted one line for each element, any other payload is converted to a single line.")
+@Component(service = ObjectToNDJSON.class, scope = ServiceScope.PROTOTYPE)
+public class ObjectToNDJSON implements ProcessorSync {
+
+    static final MimeType APPLICATION_NDJSON = MimeType.parse("application/x-ndjson");
+
+    @Reference
+    ConverterService converterService;
+
+    private ObjectToJSONConverter converter;
+
+    @Override
+    public void initialize() {
+        converter = new ObjectToJSONConverter(converterService);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        TypedContent<?, ?> content = message.content();
+
+        Flux<String> lines;
+        if (content != null && content.isStream()) {
+            lines = Flux.from(content.stream()).map(converter::toJSONLine);
+
+        } else {
+            Object payload = message.payload();
+            if (payload == null) {
+                // The payload was null, we return an empty message.
+                return MessageBuilder.get(ObjectToNDJSON.class)
+                        .empty()
+                        .build();
+
+            } else if (payload instanceof Collection) {
+                Collection<?> collection = (Collection<?>) payload;
+                lines = Flux.fromStream(() -> collection.stream().map(converter::toJSONLine));
+
+            } else {
+                lines = Flux.defer(() -> Flux.just(converter.toJSONLine(payload)));
+            }
+        }
+
+        return MessageBuilder.get(ObjectToNDJSON.class)
+                .withString(lines, APPLICATION_NDJSON)
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum OutputFormat {
+
+    @DisplayName("String")
+    STRING,
+    @DisplayName("UTF-8 bytes")
+    BYTES
+}
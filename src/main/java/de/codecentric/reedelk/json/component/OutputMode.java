@@ -0,0 +1,13 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum OutputMode {
+
+    @DisplayName("Eager")
+    EAGER,
+    @DisplayName("Lazy")
+    LAZY,
+    @DisplayName("Compact")
+    COMPACT
+}
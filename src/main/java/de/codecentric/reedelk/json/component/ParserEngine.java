@@ -0,0 +1,11 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum ParserEngine {
+
+    @DisplayName("Standard")
+    STANDARD,
+    @DisplayName("Structural index")
+    STRUCTURAL_INDEX
+}
@@ -0,0 +1,11 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum PatchFormat {
+
+    @DisplayName("JSON Merge Patch (RFC 7396)")
+    MERGE_PATCH,
+    @DisplayName("JSON Patch (RFC 6902)")
+    JSON_PATCH
+}
@@ -0,0 +1,11 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum SplitFormat {
+
+    @DisplayName("JSON array")
+    JSON_ARRAY,
+    @DisplayName("JSON Lines / NDJSON")
+    JSON_LINES
+}
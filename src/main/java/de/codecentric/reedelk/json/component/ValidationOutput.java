@@ -0,0 +1,11 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum ValidationOutput {
+
+    @DisplayName("Payload (validated without conversion)")
+    PAYLOAD,
+    @DisplayName("Object (validated while converted)")
+    OBJECT
+}
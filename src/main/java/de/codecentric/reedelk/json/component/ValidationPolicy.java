@@ -0,0 +1,13 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum ValidationPolicy {
+
+    @DisplayName("Full")
+    FULL,
+    @DisplayName("Syntax only")
+    SYNTAX_ONLY,
+    @DisplayName("Trust")
+    TRUST
+}
@@ -0,0 +1,48 @@
+package de.codecentric.reedelk.json.internal;
+
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONExtractException;
+import de.codecentric.reedelk.json.internal.parser.*;
+
+public class JSONExtractConverter {
+
+    /**
+     * @throws JSONExtractException if the path is not a valid or supported JSON path.
+     */
+    public JSONPath compile(String path) {
+        try {
+            return JSONPath.compile(path);
+        } catch (IllegalArgumentException exception) {
+            String error = Messages.JSONExtract.JSON_PATH_ERROR.format(path, exception.getMessage());
+            throw new JSONExtractException(error, exception);
+        }
+    }
+
+    /**
+     * Selects the values matching the path from the JSON payload, see {@link JSONSelector}.
+     *
+     * @param payload a string, a byte array, a byte buffer, an input stream or a publisher
+     *                of string or byte array chunks.
+     * @return the selected value if the path is definite, the list of selected values otherwise.
+     */
+    public Object select(Object payload, JSONPath path) {
+        if (!JSONInputs.isSupported(payload)) {
+            String error = Messages.JSONExtract.JSON_INPUT_ERROR.format(payload.getClass().getSimpleName());
+            throw new JSONExtractException(error);
+        }
+
+        JSONInput input = null;
+        try {
+            input = JSONInputs.of(payload);
+            return JSONSelector.select(input, path);
+        } catch (JSONParseException exception) {
+            String error = Messages.JSONExtract.JSON_PARSE_ERROR.format(exception.getMessage());
+            throw new JSONExtractException(error, exception);
+        } finally {
+            if (input != null) {
+                // The rest of the input might not have been read.
+                JSONInputs.close(input);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.codecentric.reedelk.json.internal;
+
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONFormatException;
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import de.codecentric.reedelk.json.internal.writer.JSONFormatter;
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+public class JSONFormatConverter {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Minifies or re-indents the JSON payload, see {@link JSONFormatter}.
+     *
+     * @param payload a string, a byte array, a byte buffer, an input stream or a publisher
+     *                of string or byte array chunks.
+     * @return the formatted JSON string for a string payload, the formatted UTF-8 encoded bytes
+     * for a byte array, byte buffer or input stream payload and a publisher of the formatted
+     * UTF-8 encoded chunks for a publisher payload, which are formatted as they arrive.
+     */
+    public Object format(Object payload, int indentFactor) {
+        if (payload instanceof String) {
+            return format((String) payload, indentFactor);
+        } else if (payload instanceof byte[]) {
+            return format((byte[]) payload, indentFactor);
+        } else if (payload instanceof ByteBuffer) {
+            return format((ByteBuffer) payload, indentFactor);
+        } else if (payload instanceof InputStream) {
+            return format((InputStream) payload, indentFactor);
+        } else if (payload instanceof Publisher) {
+            return format((Publisher<?>) payload, indentFactor);
+        } else {
+            String error = Messages.JSONFormat.JSON_INPUT_ERROR.format(payload.getClass().getSimpleName());
+            throw new JSONFormatException(error);
+        }
+    }
+
+    public String format(String payload, int indentFactor) {
+        try {
+            return JSONFormatter.format(payload, indentFactor);
+        } catch (JSONParseException exception) {
+            throw formatError(exception);
+        }
+    }
+
+    public byte[] format(byte[] payload, int indentFactor) {
+        try {
+            return JSONFormatter.format(payload, indentFactor);
+        } catch (JSONParseException exception) {
+            throw formatError(exception);
+        }
+    }
+
+    public byte[] format(ByteBuffer payload, int indentFactor) {
+        JSONFormatter formatter = new JSONFormatter(indentFactor);
+        try {
+            byte[] formatted;
+            if (payload.hasArray()) {
+                formatted = formatter.format(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+            } else {
+                byte[] bytes = new byte[payload.remaining()];
+                payload.duplicate().get(bytes);
+                formatted = formatter.format(bytes, 0, bytes.length);
+            }
+            formatter.finish();
+            return formatted;
+        } catch (JSONParseException exception) {
+            throw formatError(exception);
+        }
+    }
+
+    /**
+     * The stream is read in chunks, it is not closed.
+     */
+    public byte[] format(InputStream payload, int indentFactor) {
+        JSONFormatter formatter = new JSONFormatter(indentFactor);
+        ByteArrayOutputStream formatted = new ByteArrayOutputStream();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            int length;
+            while ((length = payload.read(chunk)) != -1) {
+                byte[] bytes = formatter.format(chunk, 0, length);
+                formatted.write(bytes, 0, bytes.length);
+            }
+            formatter.finish();
+            return formatted.toByteArray();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (JSONParseException exception) {
+            throw formatError(exception);
+        }
+    }
+
+    /**
+     * Each subscription formats the chunks with its own formatter. String chunks are
+     * encoded as UTF-8 before being formatted, a surrogate pair might be split across
+     * two chunks.
+     */
+    public Flux<byte[]> format(Publisher<?> payload, int indentFactor) {
+        return Flux.defer(() -> {
+            JSONFormatter formatter = new JSONFormatter(indentFactor);
+            UTF8Output encoder = new UTF8Output();
+            return Flux.from(payload)
+                    .map(chunk -> bytesOf(encoder, chunk))
+                    .concatWith(Mono.fromSupplier(encoder::toByteArray))
+                    .map(bytes -> formatter.format(bytes, 0, bytes.length))
+                    .concatWith(Mono.fromRunnable(formatter::finish))
+                    .filter(formatted -> formatted.length > 0)
+                    .onErrorMap(JSONParseException.class, JSONFormatConverter::formatError);
+        });
+    }
+
+    private static byte[] bytesOf(UTF8Output encoder, Object chunk) {
+        if (chunk instanceof byte[]) {
+            return (byte[]) chunk;
+        } else if (chunk instanceof String) {
+            return encoder.append((String) chunk).drain();
+        } else {
+            String error = Messages.JSONFormat.JSON_INPUT_ERROR.format(chunk.getClass().getSimpleName());
+            throw new JSONFormatException(error);
+        }
+    }
+
+    private static JSONFormatException formatError(JSONParseException exception) {
+        String error = Messages.JSONFormat.JSON_FORMAT_ERROR.format(exception.getMessage());
+        return new JSONFormatException(error, exception);
+    }
+}
@@ -0,0 +1,188 @@
+package de.codecentric.reedelk.json.internal;
+
+import de.codecentric.reedelk.json.component.PatchFormat;
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONPatchException;
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import de.codecentric.reedelk.json.internal.patch.MergePatch;
+import de.codecentric.reedelk.json.internal.patch.MergePatchWriter;
+import de.codecentric.reedelk.json.internal.patch.Patch;
+import de.codecentric.reedelk.json.internal.patch.PatchOperations;
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JSONPatchConverter {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Patch patch;
+
+    /**
+     * The patch is compiled once and applied to each payload.
+     */
+    public JSONPatchConverter(PatchFormat format, String patch) {
+        if (patch == null) {
+            String error = Messages.JSONPatch.JSON_PATCH_INVALID.format("The patch must not be null");
+            throw new JSONPatchException(error);
+        }
+        byte[] bytes = patch.getBytes(StandardCharsets.UTF_8);
+        try {
+            this.patch = format == PatchFormat.JSON_PATCH ?
+                    PatchOperations.compile(bytes) :
+                    MergePatch.compile(bytes);
+        } catch (JSONParseException | IllegalArgumentException exception) {
+            String error = Messages.JSONPatch.JSON_PATCH_INVALID.format(exception.getMessage());
+            throw new JSONPatchException(error, exception);
+        }
+    }
+
+    /**
+     * Applies the patch to the JSON payload, see {@link MergePatch} and {@link PatchOperations}.
+     *
+     * @param payload a string, a byte array, a byte buffer, an input stream or a publisher
+     *                of string or byte array chunks.
+     * @return the patched JSON string for a string payload, the patched UTF-8 encoded bytes
+     * for a byte array, byte buffer or input stream payload and a publisher of the patched
+     * UTF-8 encoded bytes for a publisher payload. A JSON Merge Patch rewrites the chunks of
+     * an input stream or a publisher as they are read, a JSON Patch is applied once all the
+     * chunks have been read: its operations apply in order and might read any value of the
+     * document (e.g. move and copy).
+     */
+    public Object patch(Object payload) {
+        if (payload instanceof String) {
+            return patch((String) payload);
+        } else if (payload instanceof byte[]) {
+            return patch((byte[]) payload);
+        } else if (payload instanceof ByteBuffer) {
+            return patch((ByteBuffer) payload);
+        } else if (payload instanceof InputStream) {
+            return patch((InputStream) payload);
+        } else if (payload instanceof Publisher) {
+            return patch((Publisher<?>) payload);
+        } else {
+            String error = Messages.JSONPatch.JSON_INPUT_ERROR.format(payload.getClass().getSimpleName());
+            throw new JSONPatchException(error);
+        }
+    }
+
+    public String patch(String payload) {
+        return new String(patch(payload.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    public byte[] patch(byte[] payload) {
+        return apply(payload, 0, payload.length);
+    }
+
+    public byte[] patch(ByteBuffer payload) {
+        if (payload.hasArray()) {
+            return apply(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return apply(bytes, 0, bytes.length);
+    }
+
+    /**
+     * The stream is read in chunks, it is not closed.
+     */
+    public byte[] patch(InputStream payload) {
+        if (patch instanceof MergePatch) {
+            return write(((MergePatch) patch).writer(), payload);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            int length;
+            while ((length = payload.read(chunk)) != -1) {
+                bytes.write(chunk, 0, length);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return patch(bytes.toByteArray());
+    }
+
+    /**
+     * String chunks are encoded as UTF-8, a surrogate pair might be split across two chunks. Each subscription rewrites the chunks with its own
+     * merge patch writer, as they arrive. The chunks of a JSON Patch document are collected
+     * and the patch is applied once the publisher completes.
+     */
+    public Flux<byte[]> patch(Publisher<?> payload) {
+        if (patch instanceof MergePatch) {
+            return Flux.defer(() -> {
+                MergePatchWriter writer = ((MergePatch) patch).writer();
+                UTF8Output encoder = new UTF8Output();
+                return Flux.from(payload)
+                        .map(chunk -> bytesOf(encoder, chunk))
+                        .concatWith(Mono.fromSupplier(encoder::toByteArray))
+                        .map(bytes -> writer.write(bytes, 0, bytes.length))
+                        .concatWith(Mono.fromRunnable(writer::finish))
+                        .filter(patched -> patched.length > 0)
+                        .onErrorMap(JSONParseException.class, JSONPatchConverter::patchError);
+            });
+        }
+        return Flux.from(payload)
+                .collect(UTF8Output::new, JSONPatchConverter::append)
+                .map(bytes -> patch(bytes.toByteArray()))
+                .flux();
+    }
+
+    private byte[] apply(byte[] payload, int offset, int length) {
+        try {
+            return patch.apply(payload, offset, length);
+        } catch (JSONParseException | IllegalStateException exception) {
+            throw patchError(exception);
+        }
+    }
+
+    private static byte[] write(MergePatchWriter writer, InputStream payload) {
+        ByteArrayOutputStream patched = new ByteArrayOutputStream();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            int length;
+            while ((length = payload.read(chunk)) != -1) {
+                byte[] written = writer.write(chunk, 0, length);
+                patched.write(written, 0, written.length);
+            }
+            writer.finish();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (JSONParseException exception) {
+            throw patchError(exception);
+        }
+        return patched.toByteArray();
+    }
+
+    private static JSONPatchException patchError(RuntimeException exception) {
+        String error = Messages.JSONPatch.JSON_PATCH_ERROR.format(exception.getMessage());
+        return new JSONPatchException(error, exception);
+    }
+
+    private static byte[] bytesOf(UTF8Output encoder, Object chunk) {
+        if (chunk instanceof byte[]) {
+            return (byte[]) chunk;
+        }
+        append(encoder, chunk);
+        return encoder.drain();
+    }
+
+    private static void append(UTF8Output bytes, Object chunk) {
+        if (chunk instanceof byte[]) {
+            bytes.append((byte[]) chunk, 0, ((byte[]) chunk).length);
+        } else if (chunk instanceof String) {
+            bytes.append((String) chunk);
+        } else {
+            String error = Messages.JSONPatch.JSON_INPUT_ERROR.format(chunk.getClass().getSimpleName());
+            throw new JSONPatchException(error);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package de.codecentric.reedelk.json.internal;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONSchemaException;
+import de.codecentric.reedelk.json.internal.parser.JSONEventParser;
+import de.codecentric.reedelk.json.internal.parser.JSONHandler;
+import de.codecentric.reedelk.json.internal.parser.JSONInput;
+import de.codecentric.reedelk.json.internal.parser.JSONInputs;
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import de.codecentric.reedelk.json.internal.parser.JSONValueBuilder;
+import de.codecentric.reedelk.json.internal.schema.JSONSchema;
+import de.codecentric.reedelk.json.internal.schema.SchemaCache;
+import de.codecentric.reedelk.json.internal.schema.SchemaValidationException;
+import de.codecentric.reedelk.json.internal.schema.SchemaValidator;
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+public class JSONSchemaConverter {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    // Compiled schemas are shared by all the components validating against the same schema.
+    private static final SchemaCache SCHEMAS = new SchemaCache(64);
+
+    private final JSONSchema schema;
+    private final int maxErrors;
+
+    /**
+     * The schema is compiled once, or taken from the schema cache, and validates each payload.
+     */
+    public JSONSchemaConverter(String schema, int maxErrors) {
+        if (schema == null) {
+            String error = Messages.JSONSchema.JSON_SCHEMA_INVALID.format("The schema must not be null");
+            throw new JSONSchemaException(error);
+        }
+        try {
+            this.schema = SCHEMAS.get(schema);
+        } catch (JSONParseException | IllegalArgumentException exception) {
+            String error = Messages.JSONSchema.JSON_SCHEMA_INVALID.format(exception.getMessage());
+            throw new JSONSchemaException(error, exception);
+        }
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Validates the JSON payload while it is parsed, without building any object or array.
+     *
+     * @param payload a string, a byte array, a byte buffer, an input stream or a publisher
+     *                of string or byte array chunks. An input stream is read up to the end
+     *                of the JSON value, or up to the last error if the JSON is not valid.
+     * @throws JSONSchemaException if the JSON cannot be parsed or if it does not match the schema.
+     */
+    public void validate(Object payload) {
+        SchemaValidator validator = schema.validator(maxErrors);
+        parse(payload, validator);
+        finish(validator);
+    }
+
+    /**
+     * Validates the JSON payload while it is converted to Maps and Lists.
+     *
+     * @see #validate(Object)
+     */
+    public Object toObject(Object payload, NumberMapping numberMapping) {
+        SchemaValidator validator = schema.validator(maxErrors);
+        JSONValueBuilder builder = new JSONValueBuilder(numberMapping);
+        parse(payload, JSONHandler.tee(validator, builder));
+        finish(validator);
+        return builder.value();
+    }
+
+    /**
+     * The stream is read in chunks up to its end, it is not closed.
+     *
+     * @return the bytes of the stream, once they have been validated.
+     */
+    public byte[] validateBytes(InputStream payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            int length;
+            while ((length = payload.read(chunk)) != -1) {
+                bytes.write(chunk, 0, length);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        byte[] validated = bytes.toByteArray();
+        validate(validated);
+        return validated;
+    }
+
+    /**
+     * The chunks are collected as UTF-8 bytes, String chunks are encoded (a surrogate pair
+     * might be split across two chunks), and the
+     * JSON is validated once the publisher completes.
+     *
+     * @return a publisher of the bytes of the stream, once they have been validated.
+     */
+    public Flux<byte[]> validateBytes(Publisher<?> payload) {
+        return Flux.from(payload)
+                .collect(UTF8Output::new, JSONSchemaConverter::append)
+                .map(bytes -> {
+                    byte[] validated = bytes.toByteArray();
+                    validate(validated);
+                    return validated;
+                })
+                .flux();
+    }
+
+    private void parse(Object payload, JSONHandler handler) {
+        if (!JSONInputs.isSupported(payload)) {
+            String error = Messages.JSONSchema.JSON_INPUT_ERROR.format(payload.getClass().getSimpleName());
+            throw new JSONSchemaException(error);
+        }
+        JSONInput input = JSONInputs.of(payload);
+        try {
+            new JSONEventParser(input).nextValue(handler);
+        } catch (JSONParseException exception) {
+            String error = Messages.JSONSchema.JSON_PARSE_ERROR.format(exception.getMessage());
+            throw new JSONSchemaException(error, exception);
+        } catch (SchemaValidationException exception) {
+            throw schemaError(exception);
+        } finally {
+            // The parser stops at the first syntax error or at the max number of schema errors.
+            JSONInputs.close(input);
+        }
+    }
+
+    private static void finish(SchemaValidator validator) {
+        try {
+            validator.finish();
+        } catch (SchemaValidationException exception) {
+            throw schemaError(exception);
+        }
+    }
+
+    private static JSONSchemaException schemaError(SchemaValidationException exception) {
+        String error = Messages.JSONSchema.JSON_SCHEMA_ERROR.format(exception.getMessage());
+        return new JSONSchemaException(error, exception);
+    }
+
+    private static void append(UTF8Output bytes, Object chunk) {
+        if (chunk instanceof byte[]) {
+            bytes.append((byte[]) chunk, 0, ((byte[]) chunk).length);
+        } else if (chunk instanceof String) {
+            bytes.append((String) chunk);
+        } else {
+            String error = Messages.JSONSchema.JSON_INPUT_ERROR.format(chunk.getClass().getSimpleName());
+            throw new JSONSchemaException(error);
+        }
+    }
+}
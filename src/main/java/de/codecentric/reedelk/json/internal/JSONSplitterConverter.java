@@ -0,0 +1,72 @@
+package de.codecentric.reedelk.json.internal;
+
+import de.codecentric.reedelk.json.component.SplitFormat;
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONSplitterException;
+import de.codecentric.reedelk.json.internal.parser.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Iterator;
+
+public class JSONSplitterConverter {
+
+    /**
+     * Splits the JSON payload into a stream of its elements. The payload is parsed lazily:
+     * an element is parsed only when it is requested downstream. Null elements are skipped,
+     * because a stream cannot contain null items.
+     *
+     * @param payload a string, a byte array, a byte buffer, an input stream or a publisher
+     *                of string or byte array chunks.
+     */
+    public Flux<Object> split(Object payload, SplitFormat format) {
+        if (!JSONInputs.isSupported(payload)) {
+            String error = Messages.JSONSplitter.JSON_INPUT_ERROR.format(payload.getClass().getSimpleName());
+            throw new JSONSplitterException(error);
+        }
+
+        return Flux.generate(
+                () -> new Elements(payload, format),
+                (elements, sink) -> {
+                    try {
+                        while (elements.reader.hasNext()) {
+                            Object element = elements.reader.next();
+                            if (element != null) {
+                                sink.next(element);
+                                return elements;
+                            }
+                        }
+                        sink.complete();
+                    } catch (JSONParseException exception) {
+                        sink.error(parseError(exception));
+                    }
+                    return elements;
+                },
+                Elements::close);
+    }
+
+    private static JSONSplitterException parseError(JSONParseException exception) {
+        String error = Messages.JSONSplitter.JSON_PARSE_ERROR.format(exception.getMessage());
+        return new JSONSplitterException(error, exception);
+    }
+
+    private static class Elements {
+
+        private final JSONInput input;
+        private final Iterator<Object> reader;
+
+        Elements(Object payload, SplitFormat format) {
+            try {
+                input = JSONInputs.of(payload);
+            } catch (JSONParseException exception) {
+                throw parseError(exception);
+            }
+            reader = format == SplitFormat.JSON_LINES ?
+                    new JSONLinesReader(input) :
+                    new JSONArrayReader(input);
+        }
+
+        void close() {
+            JSONInputs.close(input);
+        }
+    }
+}
@@ -1,34 +1,301 @@
 package de.codecentric.reedelk.json.internal;
 
-import de.codecentric.reedelk.json.internal.exception.JSONToObjectException;
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.component.OutputMode;
+import de.codecentric.reedelk.json.component.ParserEngine;
 import de.codecentric.reedelk.json.internal.commons.Messages;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import org.json.JSONTokener;
+import de.codecentric.reedelk.json.internal.exception.JSONToObjectException;
+import de.codecentric.reedelk.json.internal.parser.*;
+import org.reactivestreams.Publisher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class JSONToObjectConverter {
 
+    private final ParserEngine engine;
+    private final NumberMapping numberMapping;
+    private final boolean shareStrings;
+    private final boolean compact;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+    private final ParallelArrayParser parallelParser;
+    private final ParseCache cache;
+    private final ParseLimits limits;
+
+    public JSONToObjectConverter() {
+        this(OutputMode.EAGER, ParserEngine.STANDARD, NumberMapping.SMALLEST_TYPE, false);
+    }
+
+    /**
+     * With the compact output mode, the toObject methods output immutable array-backed Maps and Lists
+     * instead of HashMaps and ArrayLists. The lazy output is given by the toLazyObject methods.
+     * The given parser engine is used for byte arrays and byte buffers, the other
+     * payloads are always parsed by the standard parser. Repeated object keys always
+     * share the same String instance, repeated short string values only if share strings is true.
+     */
+    public JSONToObjectConverter(OutputMode outputMode, ParserEngine engine, NumberMapping numberMapping, boolean shareStrings) {
+        this(outputMode, engine, numberMapping, shareStrings, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * If parallelism is greater than 1, the toObject methods parse a string, byte array or byte buffer
+     * payload whose root value is an array on up to parallelism threads, when the payload length is at
+     * least the given parallel threshold. The threads are released by {@link #dispose()}.
+     */
+    public JSONToObjectConverter(OutputMode outputMode, ParserEngine engine, NumberMapping numberMapping, boolean shareStrings,
+                                 int parallelism, int parallelThreshold) {
+        this(outputMode, engine, numberMapping, shareStrings, parallelism, parallelThreshold, null);
+    }
+
+    /**
+     * If the given cache is not null, the toObject methods return the cached object of a string, byte array
+     * or byte buffer payload equal to one parsed before. The cached objects are shared by all the callers,
+     * therefore with a cache the output is always compact (immutable Maps and Lists), whatever the output mode.
+     */
+    public JSONToObjectConverter(OutputMode outputMode, ParserEngine engine, NumberMapping numberMapping, boolean shareStrings,
+                                 int parallelism, int parallelThreshold, ParseCache cache) {
+        this(outputMode, engine, numberMapping, shareStrings, parallelism, parallelThreshold, cache, ParseLimits.NONE);
+    }
+
+    /**
+     * The given limits are checked while the payload is being parsed: the conversion fails as soon as the
+     * payload exceeds one of them, without reading the rest of it. Since the limits are checked by the
+     * standard parser while reading, payloads are not parsed in parallel nor by the structural index engine
+     * when any limit is set.
+     */
+    public JSONToObjectConverter(OutputMode outputMode, ParserEngine engine, NumberMapping numberMapping, boolean shareStrings,
+                                 int parallelism, int parallelThreshold, ParseCache cache, ParseLimits limits) {
+        this.engine = engine;
+        this.numberMapping = numberMapping;
+        this.shareStrings = shareStrings;
+        this.compact = outputMode == OutputMode.COMPACT || cache != null;
+        this.cache = cache;
+        this.limits = limits;
+        this.parallelThreshold = parallelThreshold;
+        if (parallelism > 1 && limits.isUnlimited()) {
+            // The pool starts its threads only when the first payload is parsed in parallel.
+            this.pool = new ForkJoinPool(parallelism);
+            this.parallelParser = new ParallelArrayParser(pool, engine, numberMapping, shareStrings, compact);
+        } else {
+            this.pool = null;
+            this.parallelParser = null;
+        }
+    }
+
     public Object toObject(String payload) {
+        if (cache != null) {
+            return cache.get(payload, () -> parse(payload));
+        }
+        return parse(payload);
+    }
+
+    /**
+     * The payload bytes are decoded as UTF-8 while being parsed.
+     */
+    public Object toObject(byte[] payload) {
+        if (cache != null) {
+            return cache.get(payload, 0, payload.length, () -> parse(payload));
+        }
+        return parse(payload);
+    }
+
+    public Object toObject(ByteBuffer payload) {
+        if (cache != null) {
+            if (payload.hasArray()) {
+                int offset = payload.arrayOffset() + payload.position();
+                return cache.get(payload.array(), offset, payload.remaining(), () -> parse(payload));
+            }
+            byte[] bytes = bytesOf(payload);
+            return cache.get(bytes, 0, bytes.length, () -> parse(bytes));
+        }
+        return parse(payload);
+    }
+
+    public Object toObject(InputStream payload) {
+        JSONInput input;
+        try {
+            input = UTF8Input.from(payload);
+        } catch (JSONParseException exception) {
+            throw parseError(exception);
+        }
+        return toObject(input);
+    }
+
+    /**
+     * The chunks (byte arrays or strings) emitted by the publisher are parsed as they arrive.
+     * The subscription is cancelled as soon as the root value has been parsed.
+     */
+    public Object toObject(Publisher<?> payload) {
+        PublisherInput input;
+        try {
+            input = UTF8Input.from(payload);
+        } catch (JSONParseException exception) {
+            throw parseError(exception);
+        }
+        try {
+            return toObject(input);
+        } finally {
+            input.cancel();
+        }
+    }
+
+    /**
+     * The payload is indexed once and converted to a read-only Map/List view
+     * which decodes each value the first time it is accessed.
+     */
+    public Object toLazyObject(String payload) {
         Object token;
         try {
-            token = new JSONTokener(payload).nextValue();
-        } catch (JSONException exception) {
-            String error = Messages.JSONToObject.JSON_PARSE_ERROR.format(exception.getMessage());
-            throw new JSONToObjectException(error, exception);
+            token = JSONIndex.parse(payload, numberMapping, shareStrings, limits);
+        } catch (JSONParseException exception) {
+            throw parseError(exception);
         }
+        return checkToken(token);
+    }
 
-        if (token instanceof JSONObject) {
-            JSONObject object = (JSONObject) token;
-            return object.toMap();
+    /**
+     * The views decode the values from the payload text, therefore the
+     * payload bytes are decoded as UTF-8 before being indexed.
+     */
+    public Object toLazyObject(byte[] payload) {
+        checkInputSize(payload.length);
+        return toLazyObject(decode(payload, 0, payload.length));
+    }
 
-        } else if (token instanceof JSONArray) {
-            JSONArray array = (JSONArray) token;
-            return array.toList();
+    public Object toLazyObject(ByteBuffer payload) {
+        checkInputSize(payload.remaining());
+        if (payload.hasArray()) {
+            int offset = payload.arrayOffset() + payload.position();
+            return toLazyObject(decode(payload.array(), offset, payload.remaining()));
+        }
+        return toLazyObject(bytesOf(payload));
+    }
+
+    public Object toLazyObject(InputStream payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try {
+            int read;
+            while ((read = payload.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+                checkInputSize(bytes.size());
+            }
+        } catch (IOException exception) {
+            throw parseError(new JSONParseException(exception.getMessage(), exception));
+        }
+        return toLazyObject(bytes.toByteArray());
+    }
+
+    /**
+     * Releases the threads parsing payloads in parallel, if any.
+     */
+    public void dispose() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private Object parse(String payload) {
+        if (isParallel(payload.length())) {
+            List<Object> array = parallelParser.parse(payload);
+            if (array != null) {
+                return array;
+            }
+        }
+        return toObject(new StringInput(payload));
+    }
+
+    private Object parse(byte[] payload) {
+        if (isParallel(payload.length)) {
+            List<Object> array = parallelParser.parse(payload, 0, payload.length);
+            if (array != null) {
+                return array;
+            }
+        }
+        if (engine == ParserEngine.STRUCTURAL_INDEX && limits.isUnlimited()) {
+            return toObject(() -> StructuralParser.parse(payload, numberMapping, shareStrings, compact));
+        }
+        return toObject(UTF8Input.from(payload));
+    }
+
+    private Object parse(ByteBuffer payload) {
+        if (isParallel(payload.remaining())) {
+            List<Object> array = payload.hasArray() ?
+                    parallelParser.parse(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining()) :
+                    parallelParser.parse(bytesOf(payload), 0, payload.remaining());
+            if (array != null) {
+                return array;
+            }
+        }
+        if (engine == ParserEngine.STRUCTURAL_INDEX && limits.isUnlimited()) {
+            return toObject(() -> StructuralParser.parse(payload, numberMapping, shareStrings, compact));
+        }
+        return toObject(UTF8Input.from(payload));
+    }
+
+    private boolean isParallel(int length) {
+        return parallelParser != null && length >= parallelThreshold;
+    }
+
+    private Object toObject(JSONInput input) {
+        // The parser builds the Map/List structure directly from the input.
+        return toObject(() -> new JSONParser(input, numberMapping, shareStrings, compact, limits).nextValue());
+    }
+
+    private Object toObject(Supplier<Object> parser) {
+        Object token;
+        try {
+            token = parser.get();
+        } catch (JSONParseException exception) {
+            throw parseError(exception);
+        }
+        return checkToken(token);
+    }
+
+    // The size of the payloads read before being parsed.
+    private void checkInputSize(long size) {
+        try {
+            limits.checkInputSize(size);
+        } catch (JSONLimitException exception) {
+            throw parseError(exception);
+        }
+    }
+
+    private static Object checkToken(Object token) {
+        if (token instanceof Map || token instanceof List) {
+            return token;
 
         } else {
             String error = Messages.JSONToObject.JSON_TOKEN_ERROR.format(token);
-            throw new JSONToObjectException(error);
+            throw new JSONToObjectException(Messages.JSONToObject.JSON_TOKEN_ERROR, error);
         }
     }
+
+    // The bytes between the buffer position and limit, the buffer position is not changed.
+    private static byte[] bytesOf(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
+
+    // A leading byte order mark is skipped, as the binary inputs do.
+    private static String decode(byte[] payload, int offset, int length) {
+        String json = new String(payload, offset, length, StandardCharsets.UTF_8);
+        return !json.isEmpty() && json.charAt(0) == '\uFEFF' ? json.substring(1) : json;
+    }
+
+    private static JSONToObjectException parseError(JSONParseException exception) {
+        Messages.JSONToObject error = exception instanceof JSONLimitException ?
+                Messages.JSONToObject.JSON_LIMIT_ERROR :
+                Messages.JSONToObject.JSON_PARSE_ERROR;
+        return new JSONToObjectException(error, error.format(exception.getMessage()), exception);
+    }
 }
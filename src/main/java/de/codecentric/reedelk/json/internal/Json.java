@@ -1,22 +1,40 @@
 package de.codecentric.reedelk.json.internal;
 
-import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
+import de.codecentric.reedelk.json.internal.parser.JSONPath;
 import de.codecentric.reedelk.runtime.api.annotation.Type;
 import de.codecentric.reedelk.runtime.api.annotation.TypeFunction;
-import de.codecentric.reedelk.json.internal.commons.Messages;
-import org.json.JSONArray;
-import org.json.JSONObject;
+
+import java.util.function.Supplier;
 
 @Type(global = true,
         description = "The Json type provides a set of utility functions to convert from/to JSON.")
 public class Json {
 
     private final ObjectToJSONConverter objectToJSON;
-    private final JSONToObjectConverter JSONToObject;
+    private final Supplier<JSONToObjectConverter> JSONToObject;
+    private final JSONExtractConverter JSONExtract = new JSONExtractConverter();
+    private final OperationMetrics parseMetrics;
+    private final OperationMetrics stringifyMetrics;
 
     public Json(ObjectToJSONConverter objectToJSON, JSONToObjectConverter JSONToObject) {
+        this(objectToJSON, JSONToObject, new JSONMetrics());
+    }
+
+    public Json(ObjectToJSONConverter objectToJSON, JSONToObjectConverter JSONToObject, JSONMetrics metrics) {
+        this(objectToJSON, () -> JSONToObject, metrics);
+    }
+
+    /**
+     * The parse converter is taken from the given supplier on each call, therefore
+     * it might be replaced while the Json global is registered.
+     */
+    public Json(ObjectToJSONConverter objectToJSON, Supplier<JSONToObjectConverter> JSONToObject, JSONMetrics metrics) {
         this.objectToJSON = objectToJSON;
         this.JSONToObject = JSONToObject;
+        this.parseMetrics = metrics.parse();
+        this.stringifyMetrics = metrics.stringify();
     }
 
     @TypeFunction(
@@ -25,7 +43,7 @@ public class Json {
             example = "Json.stringify(message.payload())",
             description = "Converts the input into a JSON string.")
     public String stringify(Object object) {
-        return print(objectToJSON.toJSON(object), false, 0);
+        return measuredStringify(object, () -> objectToJSON.toJSON(object, 0));
     }
 
     @TypeFunction(
@@ -34,7 +52,25 @@ public class Json {
             example = "Json.stringify(message.payload(), 2)",
             description = "Converts the input into a pretty printed JSON string using the provided indent factor.")
     public String stringify(Object object, int indentFactor) {
-        return print(objectToJSON.toJSON(object), true, indentFactor);
+        return measuredStringify(object, () -> objectToJSON.toJSON(object, indentFactor));
+    }
+
+    @TypeFunction(
+            cursorOffset = 1,
+            signature = "stringifyBytes(Object object)",
+            example = "Json.stringifyBytes(message.payload())",
+            description = "Converts the input into UTF-8 encoded JSON bytes.")
+    public byte[] stringifyBytes(Object object) {
+        return measuredStringify(object, () -> objectToJSON.toJSONBytes(object, 0));
+    }
+
+    @TypeFunction(
+            cursorOffset = 1,
+            signature = "stringifyBytes(Object object, int indentFactor)",
+            example = "Json.stringifyBytes(message.payload(), 2)",
+            description = "Converts the input into pretty printed UTF-8 encoded JSON bytes using the provided indent factor.")
+    public byte[] stringifyBytes(Object object, int indentFactor) {
+        return measuredStringify(object, () -> objectToJSON.toJSONBytes(object, indentFactor));
     }
 
     @TypeFunction(
@@ -43,24 +79,57 @@ public class Json {
             example = "Json.parse(\"{'name': 'John', 'surname': 'Doe'}\")",
             description = "Parses the input string into a Java object. The output object is a list or a map according to the input JSON.")
     public Object parse(String json) {
-        return JSONToObject.toObject(json);
+        return measuredParse(json, () -> JSONToObject.get().toObject(json), true);
+    }
+
+    @TypeFunction(
+            cursorOffset = 1,
+            signature = "parse(String json, boolean lazy)",
+            example = "Json.parse(message.payload(), true)",
+            description = "Parses the input string into a Java object. If lazy is true the output object is a read-only " +
+                    "list or map according to the input JSON: the JSON is indexed once and each value is converted only when it is accessed.")
+    public Object parse(String json, boolean lazy) {
+        if (!lazy) {
+            return parse(json);
+        }
+        // Lazy documents are not measured, measuring their depth would decode all their values.
+        return measuredParse(json, () -> JSONToObject.get().toLazyObject(json), false);
+    }
+
+    @TypeFunction(
+            cursorOffset = 1,
+            signature = "select(Object json, String path)",
+            example = "Json.select(message.payload(), \"$.customer.name\")",
+            description = "Selects the values matching the JSON path from the input JSON string or UTF-8 bytes, " +
+                    "without converting the whole JSON. A path without wildcards returns the selected value or null, " +
+                    "a path with wildcards returns the list of the selected values.")
+    public Object select(Object json, String path) {
+        JSONPath compiled = JSONExtract.compile(path);
+        return json == null ? null : JSONExtract.select(json, compiled);
+    }
+
+    private Object measuredParse(String json, Supplier<Object> parser, boolean measureDepth) {
+        long start = parseMetrics.start();
+        try {
+            Object object = parser.get();
+            parseMetrics.success(start, OperationMetrics.sizeOf(json), OperationMetrics.UNKNOWN_SIZE,
+                    measureDepth ? object : null);
+            return object;
+        } catch (RuntimeException exception) {
+            parseMetrics.error(start, exception);
+            throw exception;
+        }
     }
 
-    private String print(Object result, boolean isPrettyPrint, int theIndentFactor) {
-        if (result instanceof JSONObject) {
-            JSONObject outObject = (JSONObject) result;
-            return isPrettyPrint ?
-                    outObject.toString(theIndentFactor) :
-                    outObject.toString();
-        } else if (result instanceof JSONArray) {
-            JSONArray outArray = (JSONArray) result;
-            return isPrettyPrint ?
-                    outArray.toString(theIndentFactor) :
-                    outArray.toString();
-
-        } else {
-            // A JSON is valid if and only if the Root is an array or an object.
-            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_VALID_JSON_OBJECT.format(result == null ? null : result.getClass()));
+    private <T> T measuredStringify(Object object, Supplier<T> writer) {
+        long start = stringifyMetrics.start();
+        try {
+            T json = writer.get();
+            stringifyMetrics.success(start, OperationMetrics.UNKNOWN_SIZE, OperationMetrics.sizeOf(json), object);
+            return json;
+        } catch (RuntimeException exception) {
+            stringifyMetrics.error(start, exception);
+            throw exception;
         }
     }
 }
@@ -1,30 +1,108 @@
 package de.codecentric.reedelk.json.internal;
 
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.component.OutputMode;
+import de.codecentric.reedelk.json.component.ParserEngine;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.parser.ParseCache;
+import de.codecentric.reedelk.json.internal.parser.ParseLimits;
 import de.codecentric.reedelk.json.internal.script.GlobalFunctions;
 import de.codecentric.reedelk.runtime.api.converter.ConverterService;
 import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 
+import java.util.Map;
+
 import static org.osgi.service.component.annotations.ServiceScope.SINGLETON;
 
-@Component(service = ModuleActivator.class, scope = SINGLETON, immediate = true)
+/**
+ * Registers the Json script global. The cache of the documents parsed by Json.parse is configured
+ * by the {@value #PARSE_CACHE_SIZE} property of the {@value #CONFIGURATION_PID} configuration:
+ * the max total length of the cached JSON strings, the cache is disabled if missing or 0.
+ * The limits of the documents parsed by Json.parse are configured by the {@value #PARSE_MAX_DEPTH},
+ * {@value #PARSE_MAX_INPUT_SIZE}, {@value #PARSE_MAX_STRING_LENGTH} and {@value #PARSE_MAX_MEMBERS}
+ * properties, see {@link ParseLimits}: a limit is disabled if missing or 0. When the configuration
+ * changes, the registered Json global is kept and only its parse cache and limits are replaced.
+ */
+@Component(service = ModuleActivator.class, scope = SINGLETON, immediate = true,
+        configurationPid = ModuleActivator.CONFIGURATION_PID)
 public class ModuleActivator {
 
+    static final String CONFIGURATION_PID = "de.codecentric.reedelk.json";
+    static final String PARSE_CACHE_SIZE = "parseCacheSize";
+    static final String PARSE_MAX_DEPTH = "parseMaxDepth";
+    static final String PARSE_MAX_INPUT_SIZE = "parseMaxInputSize";
+    static final String PARSE_MAX_STRING_LENGTH = "parseMaxStringLength";
+    static final String PARSE_MAX_MEMBERS = "parseMaxMembers";
+
     @Reference
-    private ScriptEngineService scriptEngine;
+    ScriptEngineService scriptEngine;
     @Reference
     ConverterService converterService;
+    @Reference
+    JSONMetrics metrics;
+
+    private GlobalFunctions globalFunctions;
 
     @Activate
-    public void start(BundleContext context) {
+    public void start(BundleContext context, Map<String, Object> properties) {
         long moduleId = context.getBundle().getBundleId();
-        GlobalFunctions globalFunctions =
+        globalFunctions =
                 new GlobalFunctions(moduleId,
                         new ObjectToJSONConverter(converterService),
-                        new JSONToObjectConverter());
+                        parseConverter(properties),
+                        metrics);
         scriptEngine.register(globalFunctions);
     }
+
+    @Modified
+    public void update(Map<String, Object> properties) {
+        globalFunctions.update(parseConverter(properties));
+    }
+
+    @Deactivate
+    public void stop() {
+        globalFunctions.dispose();
+    }
+
+    JSONToObjectConverter parseConverter(Map<String, Object> properties) {
+        long cacheSize = longOf(properties, PARSE_CACHE_SIZE);
+        ParseLimits limits = new ParseLimits(
+                intOf(properties, PARSE_MAX_DEPTH),
+                longOf(properties, PARSE_MAX_INPUT_SIZE),
+                intOf(properties, PARSE_MAX_STRING_LENGTH),
+                intOf(properties, PARSE_MAX_MEMBERS));
+        if (cacheSize <= 0 && limits.isUnlimited()) {
+            return new JSONToObjectConverter();
+        }
+        return new JSONToObjectConverter(OutputMode.EAGER, ParserEngine.STANDARD, NumberMapping.SMALLEST_TYPE, false,
+                1, Integer.MAX_VALUE, cacheSize > 0 ? new ParseCache(cacheSize, metrics.parse()) : null, limits);
+    }
+
+    private static int intOf(Map<String, Object> properties, String name) {
+        return (int) Math.min(Integer.MAX_VALUE, longOf(properties, name));
+    }
+
+    private static long longOf(Map<String, Object> properties, String name) {
+        return longOf(properties == null ? null : properties.get(name));
+    }
+
+    // The configuration value might be either a number or its string representation.
+    private static long longOf(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof String) {
+            try {
+                return Long.parseLong(((String) value).trim());
+            } catch (NumberFormatException exception) {
+                return 0;
+            }
+        }
+        return 0;
+    }
 }
@@ -1,50 +1,150 @@
 package de.codecentric.reedelk.json.internal;
 
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.json.internal.writer.JSONWriter;
+import de.codecentric.reedelk.json.internal.writer.OutputBuffers;
+import de.codecentric.reedelk.json.internal.writer.OutputSize;
+import de.codecentric.reedelk.json.internal.writer.ParallelListWriter;
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
 import de.codecentric.reedelk.runtime.api.commons.PlatformTypes;
 import de.codecentric.reedelk.runtime.api.converter.ConverterService;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiConsumer;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjectToJSONConverter {
 
+    // Shared by all the converters: at most two buffers of each type for each
+    // processor are retained, each one of them up to 512 K chars or bytes.
+    private static final OutputBuffers BUFFERS =
+            new OutputBuffers(Runtime.getRuntime().availableProcessors() * 2, 512 * 1024);
+
     private final ConverterService converterService;
+    private final ForkJoinPool pool;
+    private final ParallelListWriter parallelWriter;
+
+    // The typical output sizes of this converter, see OutputSize.
+    private final OutputSize jsonSize = new OutputSize(BUFFERS.maxRetainedCapacity());
+    private final OutputSize bytesSize = new OutputSize(BUFFERS.maxRetainedCapacity());
+    private final OutputSize lineSize = new OutputSize(BUFFERS.maxRetainedCapacity());
 
     public ObjectToJSONConverter(ConverterService converterService) {
+        this(converterService, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * If parallelism is greater than 1, a payload which is a List with at least the given parallel
+     * threshold elements is written on up to parallelism threads: ranges of elements are written
+     * into separate buffers which are concatenated in order, the output is the same of the sequential
+     * writer. The threads are released by {@link #dispose()}.
+     */
+    public ObjectToJSONConverter(ConverterService converterService, int parallelism, int parallelThreshold) {
         this.converterService = converterService;
+        if (parallelism > 1) {
+            // The pool starts its threads only when the first payload is written in parallel.
+            this.pool = new ForkJoinPool(parallelism);
+            this.parallelWriter = new ParallelListWriter(pool, parallelThreshold, converterService);
+        } else {
+            this.pool = null;
+            this.parallelWriter = null;
+        }
+    }
+
+    /**
+     * Converts the payload into a JSON string.
+     *
+     * @param indentFactor the number of spaces to add to each level of indentation,
+     *                     0 if the JSON must not be pretty printed.
+     */
+    public String toJSON(Object payload, int indentFactor) {
+        StringBuilder json = BUFFERS.chars(jsonSize.capacity());
+        try {
+            toJSON(payload, indentFactor, json);
+            jsonSize.record(json.length());
+            return json.toString();
+        } catch (IOException exception) {
+            // Appending to a StringBuilder never throws.
+            throw new UncheckedIOException(exception);
+        } finally {
+            BUFFERS.release(json);
+        }
+    }
+
+    /**
+     * Converts the payload into UTF-8 encoded JSON bytes. The bytes are encoded
+     * while the JSON is written, without creating an intermediate JSON string.
+     *
+     * @param indentFactor the number of spaces to add to each level of indentation,
+     *                     0 if the JSON must not be pretty printed.
+     */
+    public byte[] toJSONBytes(Object payload, int indentFactor) {
+        if (isParallel(payload)) {
+            return parallelWriter.toJSONBytes((List<?>) payload, indentFactor);
+        }
+        UTF8Output json = BUFFERS.bytes(bytesSize.capacity());
+        try {
+            toJSON(payload, indentFactor, json);
+            byte[] bytes = json.toByteArray();
+            bytesSize.record(bytes.length);
+            return bytes;
+        } catch (IOException exception) {
+            // Appending to a UTF8Output never throws.
+            throw new UncheckedIOException(exception);
+        } finally {
+            BUFFERS.release(json);
+        }
     }
 
-    public Object toJSON(Object payload) {
-        if (payload instanceof List) {
-            return toJSON((List<?>) payload); // To JSON Array
-        } else if (payload instanceof Map) {
-            return toJSON((Map<?, ?>) payload); // To JSON Object
-        } else if (payload != null) {
-            return PlatformTypes.isPrimitive(payload.getClass()) ? // To Primitive or JSON Object
-                    payload : new JSONObject(payload);
+    /**
+     * Writes the payload as JSON to the given output: a List is written as JSON Array,
+     * a Map as JSON Object and any other non primitive object as JSON Object using getters.
+     */
+    public void toJSON(Object payload, int indentFactor, Appendable out) throws IOException {
+        if (isParallel(payload)) {
+            parallelWriter.write((List<?>) payload, indentFactor, out);
+        } else if (payload instanceof List || payload instanceof Map ||
+                (payload != null && !PlatformTypes.isPrimitive(payload.getClass()))) {
+            new JSONWriter(out, indentFactor, converterService).write(payload);
         } else {
-            return null;
+            // A JSON is valid if and only if the Root is an array or an object.
+            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_VALID_JSON_OBJECT,
+                    Messages.ObjectToJSON.NOT_VALID_JSON_OBJECT.format(payload == null ? null : payload.getClass()));
         }
     }
 
-    private JSONObject toJSON(Map<?, ?> map) {
-        JSONObject object = new JSONObject(map);
-        map.forEach((BiConsumer<Object, Object>) (key, value) -> {
-            String keyAsString = converterService.convert(key, String.class); // keys must be string.
-            Object convertedValue = toJSON(value); // we need to recursively convert the value (might be a nested object).
-            object.put(keyAsString, convertedValue);
-        });
-        return object;
+    /**
+     * Converts the value into a single line of JSON Lines: the JSON is never pretty printed
+     * and it is followed by a new line. Any value can be written, including primitives and null.
+     */
+    public String toJSONLine(Object value) {
+        StringBuilder line = BUFFERS.chars(lineSize.capacity());
+        try {
+            new JSONWriter(line, 0, converterService).write(value);
+            line.append('\n');
+            lineSize.record(line.length());
+            return line.toString();
+        } catch (IOException exception) {
+            // Appending to a StringBuilder never throws.
+            throw new UncheckedIOException(exception);
+        } finally {
+            BUFFERS.release(line);
+        }
     }
 
-    private JSONArray toJSON(List<?> list) {
-        JSONArray array = new JSONArray(list);
-        for (int i = 0; i < list.size(); i++) {
-            array.put(i, toJSON(list.get(i)));
+    /**
+     * Releases the threads writing payloads in parallel, if any.
+     */
+    public void dispose() {
+        if (pool != null) {
+            pool.shutdown();
         }
-        return array;
+    }
+
+    private boolean isParallel(Object payload) {
+        return parallelWriter != null && parallelWriter.accepts(payload);
     }
 }
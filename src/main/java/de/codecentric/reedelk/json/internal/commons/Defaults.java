@@ -1,5 +1,14 @@
 package de.codecentric.reedelk.json.internal.commons;
 
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.component.OutputFormat;
+import de.codecentric.reedelk.json.component.OutputMode;
+import de.codecentric.reedelk.json.component.ParserEngine;
+import de.codecentric.reedelk.json.component.PatchFormat;
+import de.codecentric.reedelk.json.component.SplitFormat;
+import de.codecentric.reedelk.json.component.ValidationOutput;
+import de.codecentric.reedelk.json.component.ValidationPolicy;
+
 public class Defaults {
 
     private Defaults() {
@@ -7,4 +16,22 @@ public class Defaults {
 
     public static final boolean PRETTY = false;
     public static final int INDENT_FACTOR = 2;
+    public static final ValidationPolicy VALIDATION_POLICY = ValidationPolicy.FULL;
+    public static final OutputFormat OUTPUT_FORMAT = OutputFormat.STRING;
+    public static final OutputMode OUTPUT_MODE = OutputMode.EAGER;
+    public static final ParserEngine PARSER_ENGINE = ParserEngine.STANDARD;
+    public static final NumberMapping NUMBER_MAPPING = NumberMapping.SMALLEST_TYPE;
+    public static final boolean SHARE_STRINGS = false;
+    public static final int PARALLELISM = 1;
+    public static final int PARALLEL_THRESHOLD = 8 * 1024 * 1024;
+    public static final int PARALLEL_LIST_THRESHOLD = 10000;
+    public static final int CACHE_SIZE = 0;
+    public static final int MAX_DEPTH = 0;
+    public static final int MAX_INPUT_SIZE = 0;
+    public static final int MAX_STRING_LENGTH = 0;
+    public static final int MAX_MEMBERS = 0;
+    public static final SplitFormat SPLIT_FORMAT = SplitFormat.JSON_ARRAY;
+    public static final PatchFormat PATCH_FORMAT = PatchFormat.MERGE_PATCH;
+    public static final ValidationOutput VALIDATION_OUTPUT = ValidationOutput.PAYLOAD;
+    public static final int SCHEMA_MAX_ERRORS = 10;
 }
@@ -12,7 +12,8 @@ public class Messages {
         JSON_INPUT_ERROR("The message payload of type (%s) is not a string. " +
                 "Only a payload containing a string type can be converted to JSON."),
         JSON_TOKEN_ERROR("The JSON cannot be parsed, cause=[Token '%s' was not expected]."),
-        JSON_PARSE_ERROR("The JSON cannot be parsed, cause=[%s].");
+        JSON_PARSE_ERROR("The JSON cannot be parsed, cause=[%s]."),
+        JSON_LIMIT_ERROR("The JSON exceeds the parser limits, cause=[%s].");
 
         private String message;
 
@@ -26,10 +27,106 @@ public class Messages {
         }
     }
 
+    public enum JSONSplitter implements FormattedMessage {
+
+        JSON_INPUT_ERROR("The message payload of type (%s) cannot be split. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be split."),
+        JSON_PARSE_ERROR("The JSON cannot be split, cause=[%s].");
+
+        private final String message;
+
+        JSONSplitter(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum JSONExtract implements FormattedMessage {
+
+        JSON_INPUT_ERROR("The message payload of type (%s) is not a JSON. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be used."),
+        JSON_PATH_ERROR("The JSON path=[%s] is not valid, cause=[%s]."),
+        JSON_PARSE_ERROR("The JSON cannot be parsed, cause=[%s].");
+
+        private final String message;
+
+        JSONExtract(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum JSONFormat implements FormattedMessage {
+
+        JSON_INPUT_ERROR("The message payload of type (%s) cannot be formatted. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be formatted."),
+        JSON_FORMAT_ERROR("The JSON cannot be formatted, cause=[%s].");
+
+        private final String message;
+
+        JSONFormat(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum JSONPatch implements FormattedMessage {
+
+        JSON_INPUT_ERROR("The message payload of type (%s) cannot be patched. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be patched."),
+        JSON_PATCH_INVALID("The JSON patch is not valid, cause=[%s]."),
+        JSON_PATCH_ERROR("The JSON cannot be patched, cause=[%s].");
+
+        private final String message;
+
+        JSONPatch(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum JSONSchema implements FormattedMessage {
+
+        JSON_INPUT_ERROR("The message payload of type (%s) cannot be validated. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be validated."),
+        JSON_SCHEMA_INVALID("The JSON schema is not valid, cause=[%s]."),
+        JSON_PARSE_ERROR("The JSON cannot be parsed, cause=[%s]."),
+        JSON_SCHEMA_ERROR("The JSON does not match the schema, errors=[%s].");
+
+        private final String message;
+
+        JSONSchema(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
     public enum ObjectToJSON implements FormattedMessage {
 
         NOT_VALID_JSON_OBJECT("Type=[%s] cannot be printed as valid JSON object."),
-        NOT_JSON_STRING("The payload string is not a valid JSON.");
+        NOT_VALID_JSON_NUMBER("Number=[%s] cannot be printed as valid JSON number."),
+        NOT_JSON_STRING("The payload string is not a valid JSON."),
+        NOT_JSON_STRING_AT_OFFSET("The payload string is not a valid JSON, cause=[Unexpected character at offset %d].");
 
         private final String message;
 
@@ -8,7 +8,7 @@ public class Preconditions {
         if (!(payload instanceof String)) {
             // The input is not a string.
             String message = Messages.JSONToObject.JSON_INPUT_ERROR.format(payload.getClass().getSimpleName());
-            throw new JSONToObjectException(message);
+            throw new JSONToObjectException(Messages.JSONToObject.JSON_INPUT_ERROR, message);
         }
     }
 }
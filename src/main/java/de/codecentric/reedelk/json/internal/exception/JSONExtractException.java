@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.json.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class JSONExtractException extends PlatformException {
+
+    public JSONExtractException(String message) {
+        super(message);
+    }
+
+    public JSONExtractException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.json.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class JSONFormatException extends PlatformException {
+
+    public JSONFormatException(String message) {
+        super(message);
+    }
+
+    public JSONFormatException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
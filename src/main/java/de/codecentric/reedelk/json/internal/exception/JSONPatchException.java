@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.json.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class JSONPatchException extends PlatformException {
+
+    public JSONPatchException(String message) {
+        super(message);
+    }
+
+    public JSONPatchException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
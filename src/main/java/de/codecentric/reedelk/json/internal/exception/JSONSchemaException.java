@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.json.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class JSONSchemaException extends PlatformException {
+
+    public JSONSchemaException(String message) {
+        super(message);
+    }
+
+    public JSONSchemaException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
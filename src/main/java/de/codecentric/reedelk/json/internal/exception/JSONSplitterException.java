@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.json.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class JSONSplitterException extends PlatformException {
+
+    public JSONSplitterException(String message) {
+        super(message);
+    }
+
+    public JSONSplitterException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
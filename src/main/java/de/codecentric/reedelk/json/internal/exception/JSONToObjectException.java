@@ -1,15 +1,34 @@
 package de.codecentric.reedelk.json.internal.exception;
 
+import de.codecentric.reedelk.runtime.api.commons.FormattedMessage;
 import de.codecentric.reedelk.runtime.api.exception.PlatformException;
-import org.json.JSONException;
 
 public class JSONToObjectException extends PlatformException {
 
+    private final FormattedMessage error;
+
     public JSONToObjectException(String message) {
+        this(null, message);
+    }
+
+    public JSONToObjectException(String message, Throwable exception) {
+        this(null, message, exception);
+    }
+
+    public JSONToObjectException(FormattedMessage error, String message) {
         super(message);
+        this.error = error;
     }
 
-    public JSONToObjectException(String message, JSONException exception) {
+    public JSONToObjectException(FormattedMessage error, String message, Throwable exception) {
         super(message, exception);
+        this.error = error;
+    }
+
+    /**
+     * @return the message which produced the exception, null if not known.
+     */
+    public FormattedMessage error() {
+        return error;
     }
 }
@@ -1,14 +1,34 @@
 package de.codecentric.reedelk.json.internal.exception;
 
+import de.codecentric.reedelk.runtime.api.commons.FormattedMessage;
 import de.codecentric.reedelk.runtime.api.exception.PlatformException;
 
 public class ObjectToJSONException extends PlatformException {
 
+    private final FormattedMessage error;
+
     public ObjectToJSONException(String message) {
-        super(message);
+        this(null, message);
     }
 
     public ObjectToJSONException(String message, Throwable exception) {
+        this(null, message, exception);
+    }
+
+    public ObjectToJSONException(FormattedMessage error, String message) {
+        super(message);
+        this.error = error;
+    }
+
+    public ObjectToJSONException(FormattedMessage error, String message, Throwable exception) {
         super(message, exception);
+        this.error = error;
+    }
+
+    /**
+     * @return the message which produced the exception, null if not known.
+     */
+    public FormattedMessage error() {
+        return error;
     }
 }
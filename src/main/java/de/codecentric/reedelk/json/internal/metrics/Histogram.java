@@ -0,0 +1,100 @@
+package de.codecentric.reedelk.json.internal.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non negative values with power of two buckets: bucket 0 counts
+ * the zero values and bucket i the values in [2^(i-1), 2^i). Every bucket is a striped
+ * counter, so concurrent threads recording values do not contend on the same memory.
+ * Percentiles are therefore approximated by the upper bound of their bucket.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Negative values are recorded as zero.
+     */
+    public void record(long value) {
+        long positive = Math.max(value, 0);
+        buckets[bucketOf(positive)].increment();
+        count.increment();
+        sum.add(positive);
+        max.accumulate(positive);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 100.
+     * @return the upper bound of the bucket containing the given percentile,
+     * never greater than the maximum recorded value, or 0 if no value was recorded.
+     */
+    public long percentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Values recorded while resetting might be partially cleared.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucketOf(long value) {
+        return Math.min(64 - Long.numberOfLeadingZeros(value), BUCKETS - 1);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,88 @@
+package de.codecentric.reedelk.json.internal.metrics;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.osgi.service.component.annotations.ServiceScope.SINGLETON;
+
+/**
+ * The metrics of the JSON components and script functions. The metrics are shared by all
+ * the component instances: they are registered as an OSGi service and, while the module
+ * is active, as MXBeans named {@value #DOMAIN}:type=Metrics,name=&lt;operation name&gt;.
+ */
+@Component(service = JSONMetrics.class, scope = SINGLETON, immediate = true)
+public class JSONMetrics {
+
+    static final String DOMAIN = "de.codecentric.reedelk.json";
+
+    private final OperationMetrics jsonToObject = new OperationMetrics("JSONToObject");
+    private final OperationMetrics objectToJSON = new OperationMetrics("ObjectToJSON");
+    private final OperationMetrics parse = new OperationMetrics("Json.parse");
+    private final OperationMetrics stringify = new OperationMetrics("Json.stringify");
+
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public OperationMetrics jsonToObject() {
+        return jsonToObject;
+    }
+
+    public OperationMetrics objectToJSON() {
+        return objectToJSON;
+    }
+
+    public OperationMetrics parse() {
+        return parse;
+    }
+
+    public OperationMetrics stringify() {
+        return stringify;
+    }
+
+    public List<OperationMetrics> operations() {
+        return Arrays.asList(jsonToObject, objectToJSON, parse, stringify);
+    }
+
+    @Activate
+    public void start() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationMetrics operation : operations()) {
+            try {
+                ObjectName name = objectNameOf(operation);
+                if (server.isRegistered(name)) {
+                    // Left over by a previous installation of the module.
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(operation, name);
+                registered.add(name);
+            } catch (JMException exception) {
+                // The metrics are still available through the OSGi service.
+            }
+        }
+    }
+
+    @Deactivate
+    public void stop() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException exception) {
+                // Already unregistered.
+            }
+        }
+        registered.clear();
+    }
+
+    static ObjectName objectNameOf(OperationMetrics operation) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Metrics,name=" + operation.name());
+    }
+}
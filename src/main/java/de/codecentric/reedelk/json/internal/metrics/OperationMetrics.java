@@ -0,0 +1,265 @@
+package de.codecentric.reedelk.json.internal.metrics;
+
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONToObjectException;
+import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.runtime.api.commons.FormattedMessage;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a JSON operation (e.g. a conversion or a script function): the number of
+ * executions and errors, the latency, the input and output sizes, the document depth and,
+ * if the parsed documents are cached, the cache hits and misses. Recording is lock-free,
+ * all the values are kept in striped counters.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * The size of an input or output which is not known, e.g. the size of a stream.
+     */
+    public static final long UNKNOWN_SIZE = -1;
+
+    // The depth is measured walking the document, therefore only one document out of
+    // DEPTH_SAMPLING is measured. Documents deeper than MAX_DEPTH are recorded as MAX_DEPTH.
+    private static final int DEPTH_SAMPLING = 32;
+    private static final int MAX_DEPTH = 1024;
+
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+    private final Histogram latency = new Histogram();
+    private final Histogram inputBytes = new Histogram();
+    private final Histogram outputBytes = new Histogram();
+    private final Histogram depth = new Histogram();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the start time to be given to {@link #success} or {@link #error}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a successful execution.
+     *
+     * @param inputSize  the input size in bytes (in characters for strings) or {@link #UNKNOWN_SIZE}.
+     * @param outputSize the output size in bytes (in characters for strings) or {@link #UNKNOWN_SIZE}.
+     * @param document   the converted or serialized document whose depth might be sampled,
+     *                   null if the depth must not be measured (e.g. for lazy documents).
+     */
+    public void success(long start, long inputSize, long outputSize, Object document) {
+        latency.record(System.nanoTime() - start);
+        if (inputSize != UNKNOWN_SIZE) inputBytes.record(inputSize);
+        if (outputSize != UNKNOWN_SIZE) outputBytes.record(outputSize);
+        if (ThreadLocalRandom.current().nextInt(DEPTH_SAMPLING) == 0) {
+            int documentDepth = depthOf(document, 0);
+            if (documentDepth > 0) depth.record(documentDepth);
+        }
+    }
+
+    /**
+     * Records a failed execution. Errors are counted by type: the {@link Messages} constant
+     * which produced the exception (e.g. JSONToObject.JSON_PARSE_ERROR), or the exception
+     * type if the exception was not produced from a message.
+     */
+    public void error(long start, Throwable exception) {
+        latency.record(System.nanoTime() - start);
+        errors.increment();
+        errorsByType.computeIfAbsent(typeOf(exception), type -> new LongAdder()).increment();
+    }
+
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    public void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCountByType() {
+        Map<String, Long> counts = new HashMap<>();
+        errorsByType.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public double getLatencyMeanMicros() {
+        return latency.mean() / 1000;
+    }
+
+    @Override
+    public long getLatencyP50Micros() {
+        return micros(latency.percentile(50));
+    }
+
+    @Override
+    public long getLatencyP99Micros() {
+        return micros(latency.percentile(99));
+    }
+
+    @Override
+    public long getLatencyP999Micros() {
+        return micros(latency.percentile(99.9));
+    }
+
+    @Override
+    public long getLatencyMaxMicros() {
+        return micros(latency.max());
+    }
+
+    @Override
+    public long getInputBytes() {
+        return inputBytes.sum();
+    }
+
+    @Override
+    public long getInputBytesMax() {
+        return inputBytes.max();
+    }
+
+    @Override
+    public long getOutputBytes() {
+        return outputBytes.sum();
+    }
+
+    @Override
+    public long getOutputBytesMax() {
+        return outputBytes.max();
+    }
+
+    @Override
+    public double getDepthMean() {
+        return depth.mean();
+    }
+
+    @Override
+    public long getDepthMax() {
+        return depth.max();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public void reset() {
+        errors.reset();
+        errorsByType.clear();
+        latency.reset();
+        inputBytes.reset();
+        outputBytes.reset();
+        depth.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    public Histogram latency() {
+        return latency;
+    }
+
+    public Histogram inputBytes() {
+        return inputBytes;
+    }
+
+    public Histogram outputBytes() {
+        return outputBytes;
+    }
+
+    public Histogram depth() {
+        return depth;
+    }
+
+    // The depth of a Map or a List is one more than the depth of its deepest value,
+    // any other value (including Java beans) has depth 0.
+    static int depthOf(Object value, int current) {
+        if (current == MAX_DEPTH) {
+            return current;
+        }
+        Collection<?> values;
+        if (value instanceof Map) {
+            values = ((Map<?, ?>) value).values();
+        } else if (value instanceof Collection) {
+            values = (Collection<?>) value;
+        } else {
+            return current;
+        }
+        int deepest = current + 1;
+        for (Object child : values) {
+            if (child instanceof Map || child instanceof Collection) {
+                deepest = Math.max(deepest, depthOf(child, current + 1));
+            }
+        }
+        return deepest;
+    }
+
+    /**
+     * @return the size of a string (in characters), byte array or byte buffer payload,
+     * {@link #UNKNOWN_SIZE} for any other payload.
+     */
+    public static long sizeOf(Object payload) {
+        if (payload instanceof String) {
+            return ((String) payload).length();
+        } else if (payload instanceof byte[]) {
+            return ((byte[]) payload).length;
+        } else if (payload instanceof Byte[]) {
+            return ((Byte[]) payload).length;
+        } else if (payload instanceof ByteBuffer) {
+            return ((ByteBuffer) payload).remaining();
+        } else {
+            return UNKNOWN_SIZE;
+        }
+    }
+
+    private static String typeOf(Throwable exception) {
+        FormattedMessage error = null;
+        if (exception instanceof JSONToObjectException) {
+            error = ((JSONToObjectException) exception).error();
+        } else if (exception instanceof ObjectToJSONException) {
+            error = ((ObjectToJSONException) exception).error();
+        }
+        if (error instanceof Enum) {
+            Enum<?> constant = (Enum<?>) error;
+            return constant.getDeclaringClass().getSimpleName() + "." + constant.name();
+        }
+        return exception.getClass().getSimpleName();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
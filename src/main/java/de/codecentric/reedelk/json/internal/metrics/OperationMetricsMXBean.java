@@ -0,0 +1,44 @@
+package de.codecentric.reedelk.json.internal.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics of a JSON operation as exposed through JMX. Latencies are in microseconds,
+ * percentiles are approximated by the upper bound of their power of two bucket.
+ */
+public interface OperationMetricsMXBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    Map<String, Long> getErrorCountByType();
+
+    double getLatencyMeanMicros();
+
+    long getLatencyP50Micros();
+
+    long getLatencyP99Micros();
+
+    long getLatencyP999Micros();
+
+    long getLatencyMaxMicros();
+
+    long getInputBytes();
+
+    long getInputBytesMax();
+
+    long getOutputBytes();
+
+    long getOutputBytesMax();
+
+    double getDepthMean();
+
+    long getDepthMax();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    void reset();
+}
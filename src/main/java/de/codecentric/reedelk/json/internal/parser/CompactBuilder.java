@@ -0,0 +1,70 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the members of the objects and arrays being parsed on a single stack shared
+ * by all the nesting levels, so that each {@link CompactJSONObject} and {@link CompactJSONArray}
+ * is created with exactly the size it needs. Object members are stored as key, value pairs.
+ */
+class CompactBuilder {
+
+    private Object[] stack = new Object[32];
+    private int top;
+
+    /**
+     * @return the mark of the object or array being started, used to close it.
+     */
+    int mark() {
+        return top;
+    }
+
+    void add(Object value) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top << 1);
+        }
+        stack[top++] = value;
+    }
+
+    void add(String key, Object value) {
+        add(key);
+        add(value);
+    }
+
+    boolean containsKey(int mark, String key) {
+        for (int i = mark; i < top; i += 2) {
+            if (key.equals(stack[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size(int mark) {
+        return top - mark;
+    }
+
+    Object get(int position) {
+        return stack[position];
+    }
+
+    Map<String, Object> object(int mark) {
+        Map<String, Object> object = CompactJSONObject.of(stack, mark, top);
+        clear(mark);
+        return object;
+    }
+
+    List<Object> array(int mark) {
+        List<Object> array = CompactJSONArray.of(stack, mark, top);
+        clear(mark);
+        return array;
+    }
+
+    // The references are cleared, the stack must not retain the parsed values.
+    private void clear(int mark) {
+        Arrays.fill(stack, mark, top, null);
+        top = mark;
+    }
+}
@@ -0,0 +1,129 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable {@link List} of a JSON array, backed by a right-sized array. Arrays whose
+ * elements are all Integer, all Long or all Double are backed by a primitive array:
+ * the elements are boxed again when they are accessed.
+ */
+abstract class CompactJSONArray extends AbstractList<Object> implements RandomAccess, Serializable {
+
+    private static final List<Object> EMPTY = new Values(new Object[0]);
+
+    /**
+     * @return the array of the elements of the given array between from (inclusive) and to (exclusive).
+     */
+    static List<Object> of(Object[] source, int from, int to) {
+        if (from == to) {
+            return EMPTY;
+        }
+        Class<?> type = source[from] == null ? null : source[from].getClass();
+        for (int i = from + 1; i < to && type != null; i++) {
+            if (source[i] == null || source[i].getClass() != type) {
+                type = null;
+            }
+        }
+        int size = to - from;
+        if (type == Integer.class) {
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (Integer) source[from + i];
+            }
+            return new Ints(values);
+        } else if (type == Long.class) {
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (Long) source[from + i];
+            }
+            return new Longs(values);
+        } else if (type == Double.class) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (Double) source[from + i];
+            }
+            return new Doubles(values);
+        }
+        return new Values(Arrays.copyOfRange(source, from, to));
+    }
+
+    private static class Values extends CompactJSONArray {
+
+        private final Object[] values;
+
+        Values(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static class Ints extends CompactJSONArray {
+
+        private final int[] values;
+
+        Ints(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static class Longs extends CompactJSONArray {
+
+        private final long[] values;
+
+        Longs(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static class Doubles extends CompactJSONArray {
+
+        private final double[] values;
+
+        Doubles(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
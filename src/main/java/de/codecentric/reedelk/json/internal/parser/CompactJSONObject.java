@@ -0,0 +1,138 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Immutable {@link Map} of a JSON object: keys and values are stored in a single
+ * right-sized array in the order of the JSON text. Keys are looked up scanning the array,
+ * objects with more than {@value #LINEAR_LOOKUP} members also have a hash index of the
+ * keys with linear probing.
+ */
+class CompactJSONObject extends AbstractMap<String, Object> implements Serializable {
+
+    private static final CompactJSONObject EMPTY = new CompactJSONObject(new Object[0], null);
+
+    private static final int LINEAR_LOOKUP = 8;
+
+    // Keys at even positions, each followed by its value.
+    private final Object[] members;
+    // Position of the key (plus one) for each slot, zero if the slot is empty.
+    private final int[] slots;
+
+    private transient Set<Entry<String, Object>> entrySet;
+
+    private CompactJSONObject(Object[] members, int[] slots) {
+        this.members = members;
+        this.slots = slots;
+    }
+
+    /**
+     * @return the object of the key, value pairs of the given array between from (inclusive) and to (exclusive).
+     */
+    static Map<String, Object> of(Object[] source, int from, int to) {
+        if (from == to) {
+            return EMPTY;
+        }
+        Object[] members = Arrays.copyOfRange(source, from, to);
+        int size = members.length >> 1;
+        if (size <= LINEAR_LOOKUP) {
+            return new CompactJSONObject(members, null);
+        }
+        int[] slots = new int[Integer.highestOneBit(size) << 2];
+        int mask = slots.length - 1;
+        for (int position = 0; position < members.length; position += 2) {
+            int slot = hash(members[position]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = position + 1;
+        }
+        return new CompactJSONObject(members, slots);
+    }
+
+    @Override
+    public int size() {
+        return members.length >> 1;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int position = position(key);
+        return position >= 0 ? members[position + 1] : null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int position(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        if (slots == null) {
+            for (int position = 0; position < members.length; position += 2) {
+                if (key.equals(members[position])) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        int position;
+        while ((position = slots[slot]) != 0) {
+            if (key.equals(members[position - 1])) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return position < members.length;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (position >= members.length) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<String, Object> entry =
+                            new SimpleImmutableEntry<>((String) members[position], members[position + 1]);
+                    position += 2;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return members.length >> 1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static de.codecentric.reedelk.json.internal.parser.JSONInput.END;
+
+/**
+ * Reads the elements of a top level JSON array one at a time: an element is parsed
+ * only when {@link #next()} is called, therefore only the current element is kept in memory.
+ * The accepted grammar and the syntax error messages are the same of {@link JSONParser}:
+ * a missing element is returned as null and any content after the closing ']' is not read.
+ */
+public class JSONArrayReader implements Iterator<Object> {
+
+    private final JSONInput input;
+    private final JSONParser parser;
+
+    private boolean started;
+    private boolean finished;
+
+    public JSONArrayReader(JSONInput input) {
+        this.input = input;
+        this.parser = new JSONParser(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            start();
+        }
+        return !finished;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        // A missing element is a null element.
+        boolean missing = input.nextClean() == ',';
+        input.back();
+        Object element = missing ? null : parser.nextValue();
+
+        switch (input.nextClean()) {
+            case ',':
+                char c = input.nextClean();
+                if (c == END) {
+                    throw input.syntaxError("Expected a ',' or ']'");
+                }
+                if (c == ']') {
+                    finished = true;
+                } else {
+                    input.back();
+                }
+                break;
+            case ']':
+                finished = true;
+                break;
+            default:
+                throw input.syntaxError("Expected a ',' or ']'");
+        }
+        return element;
+    }
+
+    private void start() {
+        started = true;
+        if (input.nextClean() != '[') {
+            throw input.syntaxError("A JSONArray text must start with '['");
+        }
+        char c = input.nextClean();
+        if (c == END) {
+            // The array is unclosed: no ']' found, instead EOF.
+            throw input.syntaxError("Expected a ',' or ']'");
+        }
+        if (c == ']') {
+            finished = true;
+        } else {
+            input.back();
+        }
+    }
+}
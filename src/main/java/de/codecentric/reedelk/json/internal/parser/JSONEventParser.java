@@ -0,0 +1,154 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static de.codecentric.reedelk.json.internal.parser.JSONInput.END;
+
+/**
+ * Parses JSON text into the events of a {@link JSONHandler}, without building any object or array.
+ * The accepted grammar and the syntax error messages are the same of {@link JSONParser}: the events
+ * of a value describe exactly the value it builds. The handler receives the events as soon as each
+ * token is read, therefore it might have received the events of a prefix of the input when a syntax
+ * error is thrown or when the handler itself stops the parsing by throwing an exception.
+ */
+public class JSONEventParser {
+
+    private final JSONInput input;
+    private final JSONParser keyParser;
+    private final ParseLimits limits;
+    private int depth;
+
+    public JSONEventParser(JSONInput input) {
+        this(input, ParseLimits.NONE);
+    }
+
+    public JSONEventParser(JSONInput input, ParseLimits limits) {
+        this.input = input;
+        // Any value can be used as a key, keys are converted as the parser does.
+        this.keyParser = new JSONParser(input, NumberMapping.SMALLEST_TYPE, false, false, limits);
+        this.limits = limits;
+    }
+
+    /**
+     * Parses the next value from the input. Any content following the value is not read.
+     */
+    public void nextValue(JSONHandler handler) {
+        nextValue(input.nextClean(), handler);
+    }
+
+    private void nextValue(char c, JSONHandler handler) {
+        switch (c) {
+            case '"':
+            case '\'':
+                handler.string(input.nextString(c));
+                return;
+            case '{':
+                limits.checkDepth(++depth, input);
+                nextObject(handler);
+                depth--;
+                return;
+            case '[':
+                limits.checkDepth(++depth, input);
+                nextArray(handler);
+                depth--;
+                return;
+            default:
+                String text = input.nextUnquoted(c);
+                if (text.isEmpty()) {
+                    throw input.syntaxError("Missing value");
+                }
+                handler.unquoted(text);
+        }
+    }
+
+    private void nextObject(JSONHandler handler) {
+        handler.startObject();
+        Set<String> keys = new HashSet<>();
+        for (;;) {
+            char c = input.nextClean();
+            if (c == END) {
+                throw input.syntaxError("A JSONObject text must end with '}'");
+            } else if (c == '}') {
+                handler.endObject();
+                return;
+            }
+            limits.checkMembers(keys.size(), input);
+
+            String key = keyParser.nextKey(c);
+
+            // The key is followed by ':'.
+            if (input.nextClean() != ':') {
+                throw input.syntaxError("Expected a ':' after a key");
+            }
+            if (!keys.add(key)) {
+                throw input.syntaxError("Duplicate key \"" + key + "\"");
+            }
+            handler.key(key);
+            nextValue(handler);
+
+            // Pairs are separated by ','.
+            switch (input.nextClean()) {
+                case ';':
+                case ',':
+                    if (input.nextClean() == '}') {
+                        handler.endObject();
+                        return;
+                    }
+                    input.back();
+                    break;
+                case '}':
+                    handler.endObject();
+                    return;
+                default:
+                    throw input.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private void nextArray(JSONHandler handler) {
+        handler.startArray();
+        char c = input.nextClean();
+        if (c == END) {
+            // The array is unclosed: no ']' found, instead EOF.
+            throw input.syntaxError("Expected a ',' or ']'");
+        }
+        if (c == ']') {
+            handler.endArray();
+            return;
+        }
+        int count = 0;
+        for (;;) {
+            limits.checkMembers(count++, input);
+            if (c == ',') {
+                // A missing element is a null element.
+                input.back();
+                handler.unquoted("null");
+            } else {
+                nextValue(c, handler);
+            }
+
+            switch (input.nextClean()) {
+                case END:
+                    throw input.syntaxError("Expected a ',' or ']'");
+                case ',':
+                    c = input.nextClean();
+                    if (c == END) {
+                        throw input.syntaxError("Expected a ',' or ']'");
+                    }
+                    if (c == ']') {
+                        handler.endArray();
+                        return;
+                    }
+                    break;
+                case ']':
+                    handler.endArray();
+                    return;
+                default:
+                    throw input.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+
+/**
+ * Receives the values parsed by {@link JSONEventParser} as a stream of events, in document order:
+ * an object is {@link #startObject()}, a {@link #key(String)} before each member value and
+ * {@link #endObject()}, an array is {@link #startArray()}, its elements and {@link #endArray()}.
+ * Quoted strings are given to {@link #string(String)}, any other value to {@link #unquoted(String)}
+ * as it is written, so that each handler can convert numbers with its own {@link NumberMapping}
+ * through {@link JSONParser#toValue(String, NumberMapping)}.
+ */
+public interface JSONHandler {
+
+    void startObject();
+
+    void key(String key);
+
+    void endObject();
+
+    void startArray();
+
+    void endArray();
+
+    void string(String value);
+
+    /**
+     * @param text a literal (true, false or null), a number or an unquoted string.
+     *             A missing array element is the "null" text.
+     */
+    void unquoted(String text);
+
+    /**
+     * @return a handler giving each event to the first and then to the second handler.
+     */
+    static JSONHandler tee(JSONHandler first, JSONHandler second) {
+        return new JSONHandler() {
+
+            @Override
+            public void startObject() {
+                first.startObject();
+                second.startObject();
+            }
+
+            @Override
+            public void key(String key) {
+                first.key(key);
+                second.key(key);
+            }
+
+            @Override
+            public void endObject() {
+                first.endObject();
+                second.endObject();
+            }
+
+            @Override
+            public void startArray() {
+                first.startArray();
+                second.startArray();
+            }
+
+            @Override
+            public void endArray() {
+                first.endArray();
+                second.endArray();
+            }
+
+            @Override
+            public void string(String value) {
+                first.string(value);
+                second.string(value);
+            }
+
+            @Override
+            public void unquoted(String text) {
+                first.unquoted(text);
+                second.unquoted(text);
+            }
+        };
+    }
+}
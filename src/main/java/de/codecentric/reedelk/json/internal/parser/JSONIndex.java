@@ -0,0 +1,325 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static de.codecentric.reedelk.json.internal.parser.JSONInput.END;
+
+/**
+ * Structural index of a JSON text: the input is scanned once and the offsets of each
+ * value are recorded, without building any value. The values are decoded only when they
+ * are accessed through the read-only {@link LazyJSONObject} and {@link LazyJSONArray} views.
+ * <p>
+ * The whole input is checked while indexing: syntax errors and duplicate keys are reported
+ * with the same messages of {@link JSONParser} and the decoded values are the same values
+ * it builds. Object keys are decoded while indexing, object members keep the input order.
+ */
+public class JSONIndex {
+
+    static final byte STRING = 1;
+    static final byte UNQUOTED = 2;
+    static final byte MISSING = 3;
+    static final byte OBJECT = 4;
+    static final byte ARRAY = 5;
+
+    // Objects with more members use a set to find duplicate keys.
+    private static final int LINEAR_DUPLICATE_CHECK = 16;
+
+    final String source;
+    private final NumberMapping numberMapping;
+
+    // For each value: the type, the start offset (or the number of members of objects and arrays),
+    // the end offset (or the entry following the last member of objects and arrays) and the key
+    // when the value is an object member. The entries are only read once the input has been indexed.
+    private final byte[] types;
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] keys;
+
+    private JSONIndex(Indexer indexer) {
+        this.source = indexer.source;
+        this.numberMapping = indexer.numberMapping;
+        this.types = indexer.types;
+        this.starts = indexer.starts;
+        this.ends = indexer.ends;
+        this.keys = indexer.keys;
+    }
+
+    /**
+     * Indexes the given JSON text.
+     *
+     * @return a {@link LazyJSONObject} or a {@link LazyJSONArray} view if the JSON is an object or an
+     * array, otherwise the value itself. Any content following the value is not read.
+     */
+    public static Object parse(String json) {
+        return parse(json, NumberMapping.SMALLEST_TYPE, false);
+    }
+
+    /**
+     * If share strings is true, repeated keys share the same instance. String values are
+     * decoded when they are accessed, possibly by different threads, and they are never shared.
+     */
+    public static Object parse(String json, NumberMapping numberMapping, boolean shareStrings) {
+        return parse(json, numberMapping, shareStrings, ParseLimits.NONE);
+    }
+
+    /**
+     * The given limits are checked while indexing, the length of a string value is checked
+     * once the whole string has been skipped.
+     */
+    public static Object parse(String json, NumberMapping numberMapping, boolean shareStrings, ParseLimits limits) {
+        Indexer indexer = new Indexer(json, numberMapping, shareStrings, limits);
+        indexer.index(indexer.input.nextClean());
+        return new JSONIndex(indexer).value(0);
+    }
+
+    /**
+     * Decodes the value of the given entry. The index is not modified once built and each
+     * value is decoded with its own state, therefore values might be decoded concurrently.
+     */
+    Object value(int entry) {
+        switch (types[entry]) {
+            case OBJECT:
+                return new LazyJSONObject(this, entry);
+            case ARRAY:
+                return new LazyJSONArray(this, entry);
+            case STRING:
+                return decodeString(source, starts[entry], ends[entry]);
+            case UNQUOTED:
+                return JSONParser.toValue(source.substring(starts[entry], ends[entry]).trim(), numberMapping);
+            default:
+                return null;
+        }
+    }
+
+    // The number of members of the given object or array.
+    int count(int entry) {
+        return starts[entry];
+    }
+
+    String key(int entry) {
+        return keys[entry];
+    }
+
+    // The entry following the given one and all its members.
+    int next(int entry) {
+        return next(types, ends, entry);
+    }
+
+    private static int next(byte[] types, int[] ends, int entry) {
+        byte type = types[entry];
+        return type == OBJECT || type == ARRAY ? ends[entry] : entry + 1;
+    }
+
+    private static String decodeString(String source, int start, int end) {
+        int contentEnd = end - 1;
+        for (int i = start + 1; i < contentEnd; i++) {
+            if (source.charAt(i) == '\\') {
+                return new StringInput(source, start + 1, end).nextString(source.charAt(start));
+            }
+        }
+        return source.substring(start + 1, contentEnd);
+    }
+
+    // The state used while indexing, which is dropped once the whole input has been indexed.
+    private static class Indexer {
+
+        private final String source;
+        private final NumberMapping numberMapping;
+        private final StringInput input;
+        private final JSONParser parser;
+        private final ParseLimits limits;
+        private byte[] types;
+        private int[] starts;
+        private int[] ends;
+        private String[] keys;
+        private int size;
+        private int depth;
+
+        private Indexer(String source, NumberMapping numberMapping, boolean shareStrings, ParseLimits limits) {
+            this.source = source;
+            this.numberMapping = numberMapping;
+            this.input = new StringInput(source);
+            this.parser = new JSONParser(input, numberMapping, shareStrings, false, limits);
+            this.limits = limits;
+            int capacity = Math.max(16, source.length() / 8);
+            this.types = new byte[capacity];
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.keys = new String[capacity];
+        }
+
+        private int index(char c) {
+            switch (c) {
+                case '"':
+                case '\'':
+                    int start = (int) input.index() - 1;
+                    input.skipString(c);
+                    int end = (int) input.index();
+                    // Escape sequences are shorter once decoded.
+                    if (end - start - 2 > limits.maxStringLength() &&
+                            decodeString(source, start, end).length() > limits.maxStringLength()) {
+                        throw input.limitError(limits.stringLengthError());
+                    }
+                    return add(STRING, start, end);
+                case '{':
+                    limits.checkDepth(++depth, input);
+                    int object = indexObject();
+                    depth--;
+                    return object;
+                case '[':
+                    limits.checkDepth(++depth, input);
+                    int array = indexArray();
+                    depth--;
+                    return array;
+                default:
+                    int unquotedStart = (int) input.index() - 1;
+                    if (!input.skipUnquoted(c)) {
+                        // The delimiter is read again, as the parser does.
+                        if (c != END) {
+                            input.back();
+                        }
+                        throw input.syntaxError("Missing value");
+                    }
+                    int unquotedEnd = (int) input.index();
+                    if (unquotedEnd - unquotedStart > limits.maxStringLength() &&
+                            source.substring(unquotedStart, unquotedEnd).trim().length() > limits.maxStringLength()) {
+                        throw input.limitError(limits.stringLengthError());
+                    }
+                    return add(UNQUOTED, unquotedStart, unquotedEnd);
+            }
+        }
+
+        private int indexObject() {
+            int entry = add(OBJECT, 0, 0);
+            int count = 0;
+            Set<String> objectKeys = null;
+            for (;;) {
+                char c = input.nextClean();
+                if (c == END) {
+                    throw input.syntaxError("A JSONObject text must end with '}'");
+                } else if (c == '}') {
+                    return close(entry, count);
+                }
+                limits.checkMembers(count, input);
+
+                String key = parser.nextKey(c);
+
+                // The key is followed by ':'.
+                if (input.nextClean() != ':') {
+                    throw input.syntaxError("Expected a ':' after a key");
+                }
+                if (count == LINEAR_DUPLICATE_CHECK) {
+                    objectKeys = new HashSet<>(keysOf(entry, count));
+                }
+                if (objectKeys != null ? !objectKeys.add(key) : containsKey(entry, count, key)) {
+                    throw input.syntaxError("Duplicate key \"" + key + "\"");
+                }
+                int member = index(input.nextClean());
+                keys[member] = key;
+                count++;
+
+                // Pairs are separated by ','.
+                switch (input.nextClean()) {
+                    case ';':
+                    case ',':
+                        if (input.nextClean() == '}') {
+                            return close(entry, count);
+                        }
+                        input.back();
+                        break;
+                    case '}':
+                        return close(entry, count);
+                    default:
+                        throw input.syntaxError("Expected a ',' or '}'");
+                }
+            }
+        }
+
+        private int indexArray() {
+            int entry = add(ARRAY, 0, 0);
+            int count = 0;
+            char c = input.nextClean();
+            if (c == END) {
+                // The array is unclosed: no ']' found, instead EOF.
+                throw input.syntaxError("Expected a ',' or ']'");
+            }
+            if (c == ']') {
+                return close(entry, count);
+            }
+            for (;;) {
+                limits.checkMembers(count, input);
+                if (c == ',') {
+                    // A missing element is a null element.
+                    input.back();
+                    add(MISSING, 0, 0);
+                } else {
+                    index(c);
+                }
+                count++;
+
+                switch (input.nextClean()) {
+                    case END:
+                        throw input.syntaxError("Expected a ',' or ']'");
+                    case ',':
+                        c = input.nextClean();
+                        if (c == END) {
+                            throw input.syntaxError("Expected a ',' or ']'");
+                        }
+                        if (c == ']') {
+                            return close(entry, count);
+                        }
+                        break;
+                    case ']':
+                        return close(entry, count);
+                    default:
+                        throw input.syntaxError("Expected a ',' or ']'");
+                }
+            }
+        }
+
+        private boolean containsKey(int entry, int count, String key) {
+            int member = entry + 1;
+            for (int i = 0; i < count; i++) {
+                if (key.equals(keys[member])) {
+                    return true;
+                }
+                member = next(types, ends, member);
+            }
+            return false;
+        }
+
+        private Set<String> keysOf(int entry, int count) {
+            Set<String> objectKeys = new HashSet<>();
+            int member = entry + 1;
+            for (int i = 0; i < count; i++) {
+                objectKeys.add(keys[member]);
+                member = next(types, ends, member);
+            }
+            return objectKeys;
+        }
+
+        private int close(int entry, int count) {
+            starts[entry] = count;
+            ends[entry] = size;
+            return entry;
+        }
+
+        private int add(byte type, int start, int end) {
+            if (size == types.length) {
+                int capacity = size << 1;
+                types = Arrays.copyOf(types, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            types[size] = type;
+            starts[size] = start;
+            ends[size] = end;
+            return size++;
+        }
+    }
+}
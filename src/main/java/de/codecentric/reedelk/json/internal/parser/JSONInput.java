@@ -0,0 +1,254 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+/**
+ * Character source of the JSON parser. It follows the semantics of the JSON library
+ * tokenizer: the end of the input is signalled by the {@link #END} character, one
+ * character can be stepped back and syntax errors report the position as
+ * "at {index} [character {column} line {line}]".
+ */
+public abstract class JSONInput {
+
+    public static final char END = 0;
+
+    private static final String UNQUOTED_DELIMITERS = ",:]}/\\\"[{;=#";
+    private static final String ESCAPES = "btnfr\"'\\/";
+
+    private long line = 1;
+    private long lineStart = -1;
+
+    protected ParseLimits limits = ParseLimits.NONE;
+
+    /**
+     * @return the next character or {@link #END} if there are no more characters.
+     * Once the end has been reached the position does not advance any more.
+     */
+    public abstract char next();
+
+    /**
+     * Steps back one character, so that the next call to {@link #next()} returns
+     * the last character again.
+     */
+    public abstract void back();
+
+    /**
+     * @return the number of characters consumed so far.
+     */
+    public abstract long index();
+
+    /**
+     * Sets the limits checked while reading: the input size and the length of strings and unquoted texts.
+     */
+    void limit(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * @return the next character which is not whitespace or {@link #END}.
+     */
+    public char nextClean() {
+        boolean carriageReturn = false;
+        for (;;) {
+            char c = next();
+            if (c == END || c > ' ') {
+                return c;
+            }
+            carriageReturn = newLine(c, carriageReturn);
+        }
+    }
+
+    /**
+     * Reads a string up to the given closing quote. The opening quote has already been consumed.
+     */
+    public String nextString(char quote) {
+        return nextString(quote, new StringBuilder());
+    }
+
+    /**
+     * Reads a string as {@link #nextString(char)} does, sharing the
+     * instance of an equal string found in the given cache.
+     */
+    String nextString(char quote, StringCache cache) {
+        return cache.get(nextString(quote));
+    }
+
+    /**
+     * Reads an unquoted text (e.g. a number or a literal) starting with the given character.
+     *
+     * @return the trimmed text, empty if the first character is a delimiter.
+     */
+    public String nextUnquoted(char first) {
+        StringBuilder builder = new StringBuilder();
+        char c = first;
+        while (c >= ' ' && UNQUOTED_DELIMITERS.indexOf(c) < 0) {
+            if (builder.length() == limits.maxStringLength()) {
+                throw stringLengthError();
+            }
+            builder.append(c);
+            c = next();
+        }
+        if (c != END) {
+            back();
+        }
+        return builder.toString().trim();
+    }
+
+    /**
+     * Skips a string up to the given closing quote without building it. The opening quote
+     * has already been consumed. Escape sequences are checked as {@link #nextString(char)} does.
+     */
+    public void skipString(char quote) {
+        for (;;) {
+            char c = next();
+            switch (c) {
+                case END:
+                    throw syntaxError("Unterminated string");
+                case '\n':
+                case '\r':
+                    newLine(c, false);
+                    throw syntaxError("Unterminated string");
+                case '\\':
+                    skipEscape();
+                    break;
+                default:
+                    if (c == quote) {
+                        return;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Skips an unquoted text (e.g. a number or a literal) starting with the given character.
+     *
+     * @return false if the first character is a delimiter and nothing has been skipped.
+     */
+    public boolean skipUnquoted(char first) {
+        if (first < ' ' || UNQUOTED_DELIMITERS.indexOf(first) >= 0) {
+            return false;
+        }
+        char c;
+        do {
+            c = next();
+        } while (c >= ' ' && UNQUOTED_DELIMITERS.indexOf(c) < 0);
+        if (c != END) {
+            back();
+        }
+        return true;
+    }
+
+    public JSONParseException syntaxError(String message) {
+        return new JSONParseException(message + position());
+    }
+
+    public JSONParseException syntaxError(String message, Throwable cause) {
+        return new JSONParseException(message + position(), cause);
+    }
+
+    public JSONLimitException limitError(String message) {
+        return new JSONLimitException(message + position());
+    }
+
+    protected final JSONLimitException stringLengthError() {
+        return limitError(limits.stringLengthError());
+    }
+
+    // Tracks line breaks, which can only be consumed as whitespace.
+    // Returns true if the given character was a carriage return.
+    protected final boolean newLine(char c, boolean afterCarriageReturn) {
+        if (c == '\r') {
+            line++;
+            lineStart = index();
+            return true;
+        } else if (c == '\n') {
+            if (!afterCarriageReturn) line++;
+            lineStart = index();
+        }
+        return false;
+    }
+
+    // Skips the escape sequence following a backslash.
+    protected final void skipEscape() {
+        char c = next();
+        if (c == 'u') {
+            nextUnicodeEscape();
+        } else if (c == END || ESCAPES.indexOf(c) < 0) {
+            throw syntaxError("Illegal escape.");
+        }
+    }
+
+    protected final String nextString(char quote, StringBuilder builder) {
+        int maxLength = limits.maxStringLength();
+        for (;;) {
+            if (builder.length() > maxLength) {
+                throw stringLengthError();
+            }
+            char c = next();
+            switch (c) {
+                case END:
+                    throw syntaxError("Unterminated string");
+                case '\n':
+                case '\r':
+                    newLine(c, false);
+                    throw syntaxError("Unterminated string");
+                case '\\':
+                    c = next();
+                    switch (c) {
+                        case 'b':
+                            builder.append('\b');
+                            break;
+                        case 't':
+                            builder.append('\t');
+                            break;
+                        case 'n':
+                            builder.append('\n');
+                            break;
+                        case 'f':
+                            builder.append('\f');
+                            break;
+                        case 'r':
+                            builder.append('\r');
+                            break;
+                        case 'u':
+                            builder.append(nextUnicodeEscape());
+                            break;
+                        case '"':
+                        case '\'':
+                        case '\\':
+                        case '/':
+                            builder.append(c);
+                            break;
+                        default:
+                            throw syntaxError("Illegal escape.");
+                    }
+                    break;
+                default:
+                    if (c == quote) {
+                        return builder.toString();
+                    }
+                    builder.append(c);
+            }
+        }
+    }
+
+    private char nextUnicodeEscape() {
+        char[] hex = new char[4];
+        boolean carriageReturn = false;
+        for (int i = 0; i < hex.length; i++) {
+            hex[i] = next();
+            if (hex[i] == END) {
+                throw syntaxError("Substring bounds error");
+            }
+            carriageReturn = newLine(hex[i], carriageReturn);
+        }
+        try {
+            return (char) Integer.parseInt(new String(hex), 16);
+        } catch (NumberFormatException exception) {
+            throw syntaxError("Illegal escape.", exception);
+        }
+    }
+
+    private String position() {
+        long index = index();
+        return " at " + index + " [character " + (index - lineStart) + " line " + line + "]";
+    }
+}
@@ -0,0 +1,56 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import org.reactivestreams.Publisher;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Creates the {@link JSONInput} reading a message payload: a string, UTF-8 encoded bytes
+ * (byte array, byte buffer or input stream) or a stream publisher of strings or byte arrays.
+ */
+public class JSONInputs {
+
+    private JSONInputs() {
+    }
+
+    public static boolean isSupported(Object payload) {
+        return payload instanceof String ||
+                payload instanceof byte[] ||
+                payload instanceof ByteBuffer ||
+                payload instanceof InputStream ||
+                payload instanceof Publisher;
+    }
+
+    /**
+     * A publisher input must be cancelled if the parser stops before the end of the stream,
+     * see {@link #close(JSONInput)}.
+     *
+     * @throws IllegalArgumentException if the payload type is not supported.
+     */
+    public static JSONInput of(Object payload) {
+        if (payload instanceof String) {
+            return new StringInput((String) payload);
+        } else if (payload instanceof byte[]) {
+            return UTF8Input.from((byte[]) payload);
+        } else if (payload instanceof ByteBuffer) {
+            return UTF8Input.from((ByteBuffer) payload);
+        } else if (payload instanceof InputStream) {
+            return UTF8Input.from((InputStream) payload);
+        } else if (payload instanceof Publisher) {
+            return UTF8Input.from((Publisher<?>) payload);
+        } else {
+            throw new IllegalArgumentException("Unsupported payload type " + (payload == null ? null : payload.getClass()));
+        }
+    }
+
+    /**
+     * Releases the input source which has not been read up to the end: the subscription
+     * of a publisher input is cancelled. Streams are not closed, they are owned by the caller.
+     */
+    public static void close(JSONInput input) {
+        if (input instanceof PublisherInput) {
+            ((PublisherInput) input).cancel();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+/**
+ * Thrown when the parsed JSON exceeds one of the {@link ParseLimits}.
+ */
+public class JSONLimitException extends JSONParseException {
+
+    public JSONLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static de.codecentric.reedelk.json.internal.parser.JSONInput.END;
+
+/**
+ * Reads the values of a JSON Lines (NDJSON) text one at a time: each line contains
+ * one JSON value and a value is parsed only when {@link #next()} is called. Empty lines
+ * are skipped and the values are parsed with the same grammar of {@link JSONParser}.
+ */
+public class JSONLinesReader implements Iterator<Object> {
+
+    private final JSONInput input;
+    private final JSONParser parser;
+
+    private boolean peeked;
+    private boolean finished;
+
+    public JSONLinesReader(JSONInput input) {
+        this.input = input;
+        this.parser = new JSONParser(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!peeked) {
+            peeked = true;
+            // Skips empty lines.
+            finished = input.nextClean() == END;
+            if (!finished) {
+                input.back();
+            }
+        }
+        return !finished;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        peeked = false;
+
+        Object value = parser.nextValue();
+
+        // Only spaces might follow the value on the same line.
+        for (;;) {
+            char c = input.next();
+            if (c == END) {
+                break;
+            } else if (c == '\n' || c == '\r') {
+                input.back();
+                break;
+            } else if (c != ' ' && c != '\t') {
+                throw input.syntaxError("Expected a new line after a JSON value");
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,12 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+public class JSONParseException extends RuntimeException {
+
+    public JSONParseException(String message) {
+        super(message);
+    }
+
+    public JSONParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
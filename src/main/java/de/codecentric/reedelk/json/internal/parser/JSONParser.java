@@ -0,0 +1,348 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+import static de.codecentric.reedelk.json.internal.parser.JSONInput.END;
+
+/**
+ * Parses JSON text directly into Java collections: a JSON object is mapped to a
+ * {@link Map}, a JSON array to a {@link List}, strings, numbers and booleans to
+ * their Java counterparts and JSON null to null.
+ * <p>
+ * The accepted grammar, the produced types and the syntax error messages are the
+ * same of the JSON library {@link org.json.JSONTokener} followed by
+ * {@link JSONObject#toMap()} and {@link JSONArray#toList()}, without building
+ * the intermediate JSON library tree.
+ */
+public class JSONParser {
+
+    // Objects with more members (keys and values) use a set to find duplicate keys.
+    private static final int LINEAR_DUPLICATE_CHECK = 32;
+
+    private final JSONInput input;
+    private final NumberMapping numberMapping;
+    private final boolean shareStrings;
+    private final CompactBuilder compact;
+    private final ParseLimits limits;
+    private JSONParser keyParser;
+    private int depth;
+
+    // Object keys always share the instances of repeated keys.
+    final StringCache strings = new StringCache();
+
+    public JSONParser(JSONInput input) {
+        this(input, NumberMapping.SMALLEST_TYPE, false, false);
+    }
+
+    public JSONParser(JSONInput input, NumberMapping numberMapping) {
+        this(input, numberMapping, false, false);
+    }
+
+    /**
+     * Numbers are mapped to Java types according to the given mapping: the default
+     * {@link NumberMapping#SMALLEST_TYPE} maps them as {@link JSONObject#stringToValue(String)} does.
+     * If share strings is true, repeated short string values share the same instance, as keys do.
+     * If compact is true, objects and arrays are parsed into the immutable {@link CompactJSONObject}
+     * and {@link CompactJSONArray} instead of {@link HashMap} and {@link ArrayList}.
+     */
+    public JSONParser(JSONInput input, NumberMapping numberMapping, boolean shareStrings, boolean compact) {
+        this(input, numberMapping, shareStrings, compact, ParseLimits.NONE);
+    }
+
+    /**
+     * The given limits are checked while parsing: a {@link JSONLimitException} is thrown as soon
+     * as the input exceeds one of them, without reading the rest of the input.
+     */
+    public JSONParser(JSONInput input, NumberMapping numberMapping, boolean shareStrings, boolean compact, ParseLimits limits) {
+        this.input = input;
+        this.numberMapping = numberMapping;
+        this.shareStrings = shareStrings;
+        this.compact = compact ? new CompactBuilder() : null;
+        this.limits = limits;
+        if (!limits.isUnlimited()) {
+            input.limit(limits);
+        }
+    }
+
+    /**
+     * Parses the next value from the input. Any content following the value is not read.
+     */
+    public Object nextValue() {
+        return nextValue(input.nextClean());
+    }
+
+    /**
+     * Parses the elements of a slice of a JSON array up to the end of the input: the values
+     * separated by ',' without the enclosing brackets. As in a JSON array, a missing value
+     * is a null element, therefore an empty input is a single null element.
+     */
+    public List<Object> nextElements() {
+        List<Object> elements = new ArrayList<>();
+        for (;;) {
+            char c = input.nextClean();
+            if (c == ',' || c == END) {
+                // A missing element is a null element.
+                elements.add(null);
+                if (c == END) {
+                    return elements;
+                }
+            } else {
+                elements.add(nextValue(c));
+                c = input.nextClean();
+                if (c == END) {
+                    return elements;
+                } else if (c != ',') {
+                    throw input.syntaxError("Expected a ',' or ']'");
+                }
+            }
+        }
+    }
+
+    Object nextValue(char c) {
+        switch (c) {
+            case '"':
+            case '\'':
+                return shareStrings ? input.nextString(c, strings) : input.nextString(c);
+            case '{':
+                limits.checkDepth(++depth, input);
+                Map<String, Object> object = compact != null ? nextCompactObject() : nextObject();
+                depth--;
+                return object;
+            case '[':
+                limits.checkDepth(++depth, input);
+                List<Object> array = compact != null ? nextCompactArray() : nextArray();
+                depth--;
+                return array;
+            default:
+                String text = input.nextUnquoted(c);
+                if (text.isEmpty()) {
+                    throw input.syntaxError("Missing value");
+                }
+                return toValue(text);
+        }
+    }
+
+    private Map<String, Object> nextObject() {
+        Map<String, Object> object = new HashMap<>();
+        for (;;) {
+            char c = input.nextClean();
+            if (c == END) {
+                throw input.syntaxError("A JSONObject text must end with '}'");
+            } else if (c == '}') {
+                return object;
+            }
+            limits.checkMembers(object.size(), input);
+
+            String key = nextKey(c);
+
+            // The key is followed by ':'.
+            if (input.nextClean() != ':') {
+                throw input.syntaxError("Expected a ':' after a key");
+            }
+            if (object.containsKey(key)) {
+                throw input.syntaxError("Duplicate key \"" + key + "\"");
+            }
+            object.put(key, nextValue());
+
+            // Pairs are separated by ','.
+            switch (input.nextClean()) {
+                case ';':
+                case ',':
+                    if (input.nextClean() == '}') {
+                        return object;
+                    }
+                    input.back();
+                    break;
+                case '}':
+                    return object;
+                default:
+                    throw input.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> nextArray() {
+        List<Object> array = new ArrayList<>();
+        char c = input.nextClean();
+        if (c == END) {
+            // The array is unclosed: no ']' found, instead EOF.
+            throw input.syntaxError("Expected a ',' or ']'");
+        }
+        if (c == ']') {
+            return array;
+        }
+        for (;;) {
+            limits.checkMembers(array.size(), input);
+            if (c == ',') {
+                // A missing element is a null element.
+                input.back();
+                array.add(null);
+            } else {
+                array.add(nextValue(c));
+            }
+
+            switch (input.nextClean()) {
+                case END:
+                    throw input.syntaxError("Expected a ',' or ']'");
+                case ',':
+                    c = input.nextClean();
+                    if (c == END) {
+                        throw input.syntaxError("Expected a ',' or ']'");
+                    }
+                    if (c == ']') {
+                        return array;
+                    }
+                    break;
+                case ']':
+                    return array;
+                default:
+                    throw input.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    // Same as nextObject, the members are collected on the builder stack.
+    private Map<String, Object> nextCompactObject() {
+        int mark = compact.mark();
+        Set<String> keys = null;
+        for (;;) {
+            char c = input.nextClean();
+            if (c == END) {
+                throw input.syntaxError("A JSONObject text must end with '}'");
+            } else if (c == '}') {
+                return compact.object(mark);
+            }
+            limits.checkMembers(compact.size(mark) / 2, input);
+
+            String key = nextKey(c);
+
+            // The key is followed by ':'.
+            if (input.nextClean() != ':') {
+                throw input.syntaxError("Expected a ':' after a key");
+            }
+            if (keys == null && compact.size(mark) == LINEAR_DUPLICATE_CHECK) {
+                keys = new HashSet<>();
+                for (int i = mark; i < mark + LINEAR_DUPLICATE_CHECK; i += 2) {
+                    keys.add((String) compact.get(i));
+                }
+            }
+            if (keys != null ? !keys.add(key) : compact.containsKey(mark, key)) {
+                throw input.syntaxError("Duplicate key \"" + key + "\"");
+            }
+            compact.add(key, nextValue());
+
+            // Pairs are separated by ','.
+            switch (input.nextClean()) {
+                case ';':
+                case ',':
+                    if (input.nextClean() == '}') {
+                        return compact.object(mark);
+                    }
+                    input.back();
+                    break;
+                case '}':
+                    return compact.object(mark);
+                default:
+                    throw input.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    // Same as nextArray, the elements are collected on the builder stack.
+    private List<Object> nextCompactArray() {
+        int mark = compact.mark();
+        char c = input.nextClean();
+        if (c == END) {
+            // The array is unclosed: no ']' found, instead EOF.
+            throw input.syntaxError("Expected a ',' or ']'");
+        }
+        if (c == ']') {
+            return compact.array(mark);
+        }
+        for (;;) {
+            limits.checkMembers(compact.size(mark), input);
+            if (c == ',') {
+                // A missing element is a null element.
+                input.back();
+                compact.add(null);
+            } else {
+                compact.add(nextValue(c));
+            }
+
+            switch (input.nextClean()) {
+                case END:
+                    throw input.syntaxError("Expected a ',' or ']'");
+                case ',':
+                    c = input.nextClean();
+                    if (c == END) {
+                        throw input.syntaxError("Expected a ',' or ']'");
+                    }
+                    if (c == ']') {
+                        return compact.array(mark);
+                    }
+                    break;
+                case ']':
+                    return compact.array(mark);
+                default:
+                    throw input.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    // Any value can be used as a key, the key is its string representation.
+    @SuppressWarnings("unchecked")
+    String nextKey(char c) {
+        if (c == '"' || c == '\'') {
+            return input.nextString(c, strings);
+        }
+        if (numberMapping != NumberMapping.SMALLEST_TYPE) {
+            // Keys do not depend on the number mapping of the values.
+            if (keyParser == null) {
+                keyParser = new JSONParser(input, NumberMapping.SMALLEST_TYPE, false, false, limits);
+            }
+            keyParser.depth = depth;
+            return keyParser.nextKey(c);
+        }
+        Object key = nextValue(c);
+        if (key instanceof Map) {
+            return new JSONObject((Map<?, ?>) key).toString();
+        } else if (key instanceof List) {
+            return new JSONArray((List<Object>) key).toString();
+        } else {
+            return String.valueOf(key);
+        }
+    }
+
+    /**
+     * Converts an unquoted text into a boolean, null, number or, if the
+     * text is not any of them, a string (see {@link JSONObject#stringToValue(String)}).
+     */
+    Object toValue(String text) {
+        return toValue(text, numberMapping);
+    }
+
+    /**
+     * Converts an unquoted text as {@link #toValue(String)} does, mapping numbers according to the given mapping.
+     */
+    public static Object toValue(String text, NumberMapping numberMapping) {
+        if ("true".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        if ("null".equalsIgnoreCase(text)) {
+            return null;
+        }
+
+        char initial = text.charAt(0);
+        if ((initial >= '0' && initial <= '9') || initial == '-') {
+            return NumberParser.toNumber(text, numberMapping);
+        }
+        return text;
+    }
+}
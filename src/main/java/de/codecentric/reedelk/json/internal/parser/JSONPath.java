@@ -0,0 +1,176 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compiled JSONPath expression. The supported subset of the JSONPath syntax is:
+ * the root <code>$</code> (which might be omitted), child names <code>.name</code>,
+ * <code>['name']</code> or <code>["name"]</code>, array indexes <code>[0]</code> and
+ * the wildcards <code>.*</code> and <code>[*]</code>.
+ * <p>
+ * A path without wildcards is definite: it selects at most one value.
+ */
+public class JSONPath {
+
+    enum StepType {
+        NAME,
+        INDEX,
+        WILDCARD
+    }
+
+    static class Step {
+
+        final StepType type;
+        final String name;
+        final int index;
+
+        Step(StepType type, String name, int index) {
+            this.type = type;
+            this.name = name;
+            this.index = index;
+        }
+
+        boolean matches(String key) {
+            return type == StepType.WILDCARD || (type == StepType.NAME && name.equals(key));
+        }
+
+        boolean matches(int position) {
+            return type == StepType.WILDCARD || (type == StepType.INDEX && index == position);
+        }
+    }
+
+    private final String expression;
+    private final List<Step> steps;
+    private final boolean definite;
+
+    private JSONPath(String expression, List<Step> steps) {
+        this.expression = expression;
+        this.steps = Collections.unmodifiableList(steps);
+        this.definite = steps.stream().noneMatch(step -> step.type == StepType.WILDCARD);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is not valid or it is not supported.
+     */
+    public static JSONPath compile(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("The expression must not be null");
+        }
+        String path = expression.trim();
+        List<Step> steps = new ArrayList<>();
+
+        int position = 0;
+        if (path.startsWith("$")) {
+            position = 1;
+        } else if (!path.isEmpty() && path.charAt(0) != '[') {
+            // A path without root is relative to the root: 'a.b' is the same of '$.a.b'.
+            position = readName(path, 0, steps);
+        }
+
+        while (position < path.length()) {
+            char c = path.charAt(position);
+            if (c == '.') {
+                if (position + 1 < path.length() && path.charAt(position + 1) == '.') {
+                    throw new IllegalArgumentException("Recursive descent '..' is not supported");
+                }
+                position = readName(path, position + 1, steps);
+            } else if (c == '[') {
+                position = readBracket(path, position + 1, steps);
+            } else {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at position " + position);
+            }
+        }
+        return new JSONPath(expression, steps);
+    }
+
+    public boolean isDefinite() {
+        return definite;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    List<Step> steps() {
+        return steps;
+    }
+
+    private static int readName(String path, int start, List<Step> steps) {
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+            end++;
+        }
+        String name = path.substring(start, end).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Missing name at position " + start);
+        }
+        steps.add("*".equals(name) ?
+                new Step(StepType.WILDCARD, null, -1) :
+                new Step(StepType.NAME, name, -1));
+        return end;
+    }
+
+    private static int readBracket(String path, int start, List<Step> steps) {
+        int end = path.indexOf(']', start);
+        if (end < 0) {
+            throw new IllegalArgumentException("Missing ']' for '[' at position " + (start - 1));
+        }
+
+        String content = path.substring(start, end).trim();
+        if (content.startsWith("'") || content.startsWith("\"")) {
+            return readQuotedName(path, start, steps);
+
+        } else if ("*".equals(content)) {
+            steps.add(new Step(StepType.WILDCARD, null, -1));
+
+        } else if (!content.isEmpty() && content.chars().allMatch(Character::isDigit)) {
+            int index;
+            try {
+                index = Integer.parseInt(content);
+            } catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Index " + content + " is too large");
+            }
+            steps.add(new Step(StepType.INDEX, null, index));
+
+        } else {
+            throw new IllegalArgumentException("Unsupported selector [" + content + "] at position " + (start - 1) +
+                    ", only names, non negative indexes and wildcards are supported");
+        }
+        return end + 1;
+    }
+
+    private static int readQuotedName(String path, int start, List<Step> steps) {
+        int position = start;
+        while (path.charAt(position) == ' ') {
+            position++;
+        }
+        char quote = path.charAt(position++);
+
+        StringBuilder name = new StringBuilder();
+        for (;;) {
+            if (position >= path.length()) {
+                throw new IllegalArgumentException("Unterminated name at position " + start);
+            }
+            char c = path.charAt(position++);
+            if (c == quote) {
+                break;
+            }
+            if (c == '\\' && position < path.length()) {
+                c = path.charAt(position++);
+            }
+            name.append(c);
+        }
+
+        while (position < path.length() && path.charAt(position) == ' ') {
+            position++;
+        }
+        if (position >= path.length() || path.charAt(position) != ']') {
+            throw new IllegalArgumentException("Expected ']' at position " + position);
+        }
+        steps.add(new Step(StepType.NAME, name.toString(), -1));
+        return position + 1;
+    }
+}
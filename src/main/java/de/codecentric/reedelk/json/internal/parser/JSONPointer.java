@@ -0,0 +1,128 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parsed JSON Pointer (RFC 6901): the empty pointer refers to the whole document, any
+ * other pointer is a sequence of reference tokens, each one prefixed by '/', in which
+ * '~1' stands for '/' and '~0' for '~'. A token refers either to an object member or,
+ * if it is an array index, to an array element.
+ */
+public class JSONPointer {
+
+    public static final JSONPointer ROOT = new JSONPointer(Collections.emptyList());
+
+    private final List<String> tokens;
+
+    private JSONPointer(List<String> tokens) {
+        this.tokens = Collections.unmodifiableList(tokens);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the pointer is not valid.
+     */
+    public static JSONPointer parse(String pointer) {
+        if (pointer == null) {
+            throw new IllegalArgumentException("The pointer must not be null");
+        }
+        if (pointer.isEmpty()) {
+            return ROOT;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("The pointer '" + pointer + "' does not start with '/'");
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 1; i < pointer.length(); i++) {
+            char c = pointer.charAt(i);
+            if (c == '/') {
+                tokens.add(token.toString());
+                token.setLength(0);
+            } else if (c == '~') {
+                int position = i;
+                char escaped = i + 1 < pointer.length() ? pointer.charAt(++i) : 0;
+                if (escaped == '0') {
+                    token.append('~');
+                } else if (escaped == '1') {
+                    token.append('/');
+                } else {
+                    throw new IllegalArgumentException("Invalid escape '~' at position " + position + " of the pointer '" + pointer + "'");
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        tokens.add(token.toString());
+        return new JSONPointer(tokens);
+    }
+
+    public List<String> tokens() {
+        return tokens;
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    public boolean isRoot() {
+        return tokens.isEmpty();
+    }
+
+    /**
+     * @return the pointer to the given child (member name or array index) of the referred value.
+     */
+    public JSONPointer child(String token) {
+        List<String> child = new ArrayList<>(tokens.size() + 1);
+        child.addAll(tokens);
+        child.add(token);
+        return new JSONPointer(child);
+    }
+
+    /**
+     * @return true if this pointer refers to a value contained by the value the given pointer refers to.
+     */
+    public boolean isDescendantOf(JSONPointer other) {
+        return tokens.size() > other.tokens.size() && tokens.subList(0, other.tokens.size()).equals(other.tokens);
+    }
+
+    /**
+     * @return the array index of the given token, -1 if the token is not an array index
+     * (digits without leading zeros) or if it is too large.
+     */
+    public static int indexOf(String token) {
+        int length = token.length();
+        if (length == 0 || length > 9 || (length > 1 && token.charAt(0) == '0')) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof JSONPointer && tokens.equals(((JSONPointer) other).tokens));
+    }
+
+    @Override
+    public int hashCode() {
+        return tokens.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder pointer = new StringBuilder();
+        for (String token : tokens) {
+            pointer.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+        }
+        return pointer.toString();
+    }
+}
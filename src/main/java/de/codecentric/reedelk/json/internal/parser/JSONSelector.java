@@ -0,0 +1,208 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.codecentric.reedelk.json.internal.parser.JSONInput.END;
+
+/**
+ * Selects the values matching a {@link JSONPath} while scanning the input. Only the
+ * matching values are built, the other objects and arrays are skipped without being
+ * allocated and without checking their content. The values are built with {@link JSONParser}.
+ * <p>
+ * For definite paths the scan stops as soon as the only candidate value has been found or
+ * it is known to be missing, therefore the rest of the input is never read. Duplicate keys are
+ * not detected in the scanned objects: the first matching key is selected.
+ */
+public class JSONSelector {
+
+    private final JSONInput input;
+    private final JSONParser parser;
+    private final List<JSONPath.Step> steps;
+    private final boolean definite;
+    private final List<Object> selected = new ArrayList<>();
+
+    private JSONSelector(JSONInput input, JSONPath path) {
+        this.input = input;
+        this.parser = new JSONParser(input);
+        this.steps = path.steps();
+        this.definite = path.isDefinite();
+    }
+
+    /**
+     * @return the selected value or null if it does not exist when the path is definite,
+     * otherwise the list of all the selected values, in the order they appear in the input.
+     */
+    public static Object select(JSONInput input, JSONPath path) {
+        JSONSelector selector = new JSONSelector(input, path);
+        selector.select(0, input.nextClean());
+        if (path.isDefinite()) {
+            return selector.selected.isEmpty() ? null : selector.selected.get(0);
+        }
+        return selector.selected;
+    }
+
+    // Selects from the value starting with the given character.
+    // Returns true if the scan must stop, because nothing else can be selected.
+    private boolean select(int step, char c) {
+        if (step == steps.size()) {
+            selected.add(parser.nextValue(c));
+            return definite;
+        }
+        if (c == '{') {
+            return selectFromObject(step);
+        } else if (c == '[') {
+            return selectFromArray(step);
+        } else {
+            skip(c);
+            return definite;
+        }
+    }
+
+    private boolean selectFromObject(int step) {
+        JSONPath.Step current = steps.get(step);
+        if (current.type == JSONPath.StepType.INDEX) {
+            skipContainer('{');
+            return definite;
+        }
+
+        for (;;) {
+            char c = input.nextClean();
+            if (c == END) {
+                throw input.syntaxError("A JSONObject text must end with '}'");
+            } else if (c == '}') {
+                return definite;
+            }
+
+            String key = parser.nextKey(c);
+
+            // The key is followed by ':'.
+            if (input.nextClean() != ':') {
+                throw input.syntaxError("Expected a ':' after a key");
+            }
+
+            c = input.nextClean();
+            if (current.matches(key)) {
+                if (select(step + 1, c)) {
+                    return true;
+                }
+            } else {
+                skip(c);
+            }
+
+            // Pairs are separated by ','.
+            switch (input.nextClean()) {
+                case ';':
+                case ',':
+                    if (input.nextClean() == '}') {
+                        return definite;
+                    }
+                    input.back();
+                    break;
+                case '}':
+                    return definite;
+                default:
+                    throw input.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private boolean selectFromArray(int step) {
+        JSONPath.Step current = steps.get(step);
+        if (current.type == JSONPath.StepType.NAME) {
+            skipContainer('[');
+            return definite;
+        }
+
+        char c = input.nextClean();
+        if (c == END) {
+            throw input.syntaxError("Expected a ',' or ']'");
+        }
+        if (c == ']') {
+            return definite;
+        }
+        for (int index = 0; ; index++) {
+            if (c == ',') {
+                // A missing element is a null element.
+                input.back();
+                if (current.matches(index) && step + 1 == steps.size()) {
+                    selected.add(null);
+                    if (definite) {
+                        return true;
+                    }
+                }
+            } else if (current.matches(index)) {
+                if (select(step + 1, c)) {
+                    return true;
+                }
+            } else {
+                skip(c);
+            }
+
+            switch (input.nextClean()) {
+                case ',':
+                    c = input.nextClean();
+                    if (c == END) {
+                        throw input.syntaxError("Expected a ',' or ']'");
+                    }
+                    if (c == ']') {
+                        return definite;
+                    }
+                    break;
+                case ']':
+                    return definite;
+                default:
+                    throw input.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    // Skips the value starting with the given character.
+    private void skip(char c) {
+        switch (c) {
+            case '"':
+            case '\'':
+                input.skipString(c);
+                break;
+            case '{':
+            case '[':
+                skipContainer(c);
+                break;
+            default:
+                if (!input.skipUnquoted(c)) {
+                    // The delimiter is read again, as the parser does.
+                    if (c != END) {
+                        input.back();
+                    }
+                    throw input.syntaxError("Missing value");
+                }
+        }
+    }
+
+    // Skips the content of an object or array up to its closing character. The opening
+    // character has already been consumed. Only strings and nested containers are tracked.
+    private void skipContainer(char open) {
+        for (;;) {
+            char c = input.nextClean();
+            switch (c) {
+                case END:
+                    throw input.syntaxError(open == '{' ?
+                            "A JSONObject text must end with '}'" :
+                            "Expected a ',' or ']'");
+                case '"':
+                case '\'':
+                    input.skipString(c);
+                    break;
+                case '{':
+                case '[':
+                    skipContainer(c);
+                    break;
+                case '}':
+                case ']':
+                    return;
+                default:
+                    input.skipUnquoted(c);
+            }
+        }
+    }
+}
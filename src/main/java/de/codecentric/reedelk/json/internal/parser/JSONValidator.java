@@ -0,0 +1,240 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+/**
+ * Single pass JSON syntax validator (RFC 8259). The input is only scanned: no token,
+ * string or object is created and invalid input is reported through the returned
+ * offset instead of an exception. Like the JSON library, only objects and arrays are
+ * accepted as root values.
+ */
+public class JSONValidator {
+
+    public static final int VALID = -1;
+
+    private static final int EXPECT_VALUE = 0;
+    private static final int AFTER_VALUE = 1;
+
+    private JSONValidator() {
+    }
+
+    public static boolean isValid(CharSequence input) {
+        return validate(input) == VALID;
+    }
+
+    /**
+     * Validates the given input.
+     *
+     * @return {@link #VALID} if the input is a syntactically valid JSON object or array,
+     * otherwise the offset of the first character which does not match the JSON grammar
+     * (the input length if the input ended unexpectedly).
+     */
+    public static int validate(CharSequence input) {
+        final int length = input.length();
+
+        int index = skipWhitespace(input, 0, length);
+        if (index == length) return index;
+
+        char root = input.charAt(index);
+        if (root != '{' && root != '[') return index;
+
+        // The container stack is kept as bits (1 = object, 0 = array): the first
+        // 64 levels in a local, deeper levels in a lazily allocated array.
+        long bits = 0;
+        long[] deepBits = null;
+        int depth = 0;
+
+        int state = EXPECT_VALUE;
+
+        while (true) {
+            index = skipWhitespace(input, index, length);
+
+            if (state == EXPECT_VALUE) {
+                if (index == length) return index;
+                char c = input.charAt(index);
+                if (c == '{' || c == '[') {
+                    boolean isObject = c == '{';
+                    if (depth < 64) {
+                        bits = isObject ? bits | (1L << depth) : bits & ~(1L << depth);
+                    } else {
+                        int slot = (depth >>> 6) - 1;
+                        if (deepBits == null) {
+                            deepBits = new long[4];
+                        } else if (slot == deepBits.length) {
+                            long[] grown = new long[deepBits.length * 2];
+                            System.arraycopy(deepBits, 0, grown, 0, deepBits.length);
+                            deepBits = grown;
+                        }
+                        long mask = 1L << (depth & 63);
+                        deepBits[slot] = isObject ? deepBits[slot] | mask : deepBits[slot] & ~mask;
+                    }
+                    depth++;
+
+                    index = skipWhitespace(input, index + 1, length);
+                    if (index == length) return index;
+                    char next = input.charAt(index);
+                    if (next == (isObject ? '}' : ']')) {
+                        depth--;
+                        index++;
+                        state = AFTER_VALUE;
+                    } else if (isObject) {
+                        index = member(input, index, length);
+                        if (index < 0) return -index - 2;
+                    }
+                    // else: the array value is parsed in the next iteration.
+
+                } else if (c == '"') {
+                    index = string(input, index, length);
+                    if (index < 0) return -index - 2;
+                    state = AFTER_VALUE;
+
+                } else if (c == '-' || (c >= '0' && c <= '9')) {
+                    index = number(input, index, length);
+                    if (index < 0) return -index - 2;
+                    state = AFTER_VALUE;
+
+                } else if (c == 't') {
+                    index = literal(input, index, length, "true");
+                    if (index < 0) return -index - 2;
+                    state = AFTER_VALUE;
+
+                } else if (c == 'f') {
+                    index = literal(input, index, length, "false");
+                    if (index < 0) return -index - 2;
+                    state = AFTER_VALUE;
+
+                } else if (c == 'n') {
+                    index = literal(input, index, length, "null");
+                    if (index < 0) return -index - 2;
+                    state = AFTER_VALUE;
+
+                } else {
+                    return index;
+                }
+
+            } else {
+                if (depth == 0) {
+                    // Root closed: only trailing whitespace is allowed.
+                    return index == length ? VALID : index;
+                }
+                if (index == length) return index;
+
+                int top = depth - 1;
+                boolean inObject = top < 64 ?
+                        (bits & (1L << top)) != 0 :
+                        (deepBits[(top >>> 6) - 1] & (1L << (top & 63))) != 0;
+
+                char c = input.charAt(index);
+                if (c == ',') {
+                    index = skipWhitespace(input, index + 1, length);
+                    if (inObject) {
+                        index = member(input, index, length);
+                        if (index < 0) return -index - 2;
+                    }
+                    state = EXPECT_VALUE;
+                } else if (c == (inObject ? '}' : ']')) {
+                    depth--;
+                    index++;
+                } else {
+                    return index;
+                }
+            }
+        }
+    }
+
+    // Scans an object member name and the following ':'. Returns the index
+    // of the member value, or the encoded error offset (-offset - 2).
+    private static int member(CharSequence input, int index, int length) {
+        if (index == length || input.charAt(index) != '"') return -index - 2;
+        index = string(input, index, length);
+        if (index < 0) return index;
+        index = skipWhitespace(input, index, length);
+        if (index == length || input.charAt(index) != ':') return -index - 2;
+        return index + 1;
+    }
+
+    // Scans a string starting at the opening quote. Returns the index after
+    // the closing quote, or the encoded error offset (-offset - 2).
+    private static int string(CharSequence input, int index, int length) {
+        index++;
+        while (index < length) {
+            char c = input.charAt(index);
+            if (c == '"') {
+                return index + 1;
+            } else if (c == '\\') {
+                if (++index == length) return -index - 2;
+                char escaped = input.charAt(index);
+                if (escaped == 'u') {
+                    for (int i = 0; i < 4; i++) {
+                        if (++index == length || !isHex(input.charAt(index))) return -index - 2;
+                    }
+                } else if (escaped != '"' && escaped != '\\' && escaped != '/' && escaped != 'b' &&
+                        escaped != 'f' && escaped != 'n' && escaped != 'r' && escaped != 't') {
+                    return -index - 2;
+                }
+            } else if (c < 0x20) {
+                // Control characters must be escaped.
+                return -index - 2;
+            }
+            index++;
+        }
+        return -index - 2;
+    }
+
+    // Scans a number: -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static int number(CharSequence input, int index, int length) {
+        if (input.charAt(index) == '-') index++;
+        if (index == length) return -index - 2;
+
+        char c = input.charAt(index);
+        if (c == '0') {
+            index++;
+        } else if (c >= '1' && c <= '9') {
+            index = digits(input, index + 1, length);
+        } else {
+            return -index - 2;
+        }
+
+        if (index < length && input.charAt(index) == '.') {
+            int start = ++index;
+            index = digits(input, index, length);
+            if (index == start) return -index - 2;
+        }
+
+        if (index < length && (input.charAt(index) == 'e' || input.charAt(index) == 'E')) {
+            index++;
+            if (index < length && (input.charAt(index) == '+' || input.charAt(index) == '-')) index++;
+            int start = index;
+            index = digits(input, index, length);
+            if (index == start) return -index - 2;
+        }
+        return index;
+    }
+
+    private static int literal(CharSequence input, int index, int length, String literal) {
+        for (int i = 0; i < literal.length(); i++, index++) {
+            if (index == length || input.charAt(index) != literal.charAt(i)) return -index - 2;
+        }
+        return index;
+    }
+
+    private static int digits(CharSequence input, int index, int length) {
+        while (index < length) {
+            char c = input.charAt(index);
+            if (c < '0' || c > '9') break;
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWhitespace(CharSequence input, int index, int length) {
+        while (index < length) {
+            char c = input.charAt(index);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') break;
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,80 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link JSONHandler} building the parsed value as {@link JSONParser} does:
+ * objects are mapped to {@link HashMap} and arrays to {@link ArrayList}.
+ */
+public class JSONValueBuilder implements JSONHandler {
+
+    private final NumberMapping numberMapping;
+    private final Deque<Object> containers = new ArrayDeque<>();
+    private final Deque<String> keys = new ArrayDeque<>();
+    private Object value;
+
+    public JSONValueBuilder(NumberMapping numberMapping) {
+        this.numberMapping = numberMapping;
+    }
+
+    /**
+     * @return the value built once all its events have been received.
+     */
+    public Object value() {
+        return value;
+    }
+
+    @Override
+    public void startObject() {
+        containers.push(new HashMap<String, Object>());
+    }
+
+    @Override
+    public void key(String key) {
+        keys.push(key);
+    }
+
+    @Override
+    public void endObject() {
+        add(containers.pop());
+    }
+
+    @Override
+    public void startArray() {
+        containers.push(new ArrayList<>());
+    }
+
+    @Override
+    public void endArray() {
+        add(containers.pop());
+    }
+
+    @Override
+    public void string(String value) {
+        add(value);
+    }
+
+    @Override
+    public void unquoted(String text) {
+        add(JSONParser.toValue(text, numberMapping));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Object member) {
+        Object container = containers.peek();
+        if (container == null) {
+            value = member;
+        } else if (container instanceof Map) {
+            ((Map<String, Object>) container).put(keys.pop(), member);
+        } else {
+            ((List<Object>) container).add(member);
+        }
+    }
+}
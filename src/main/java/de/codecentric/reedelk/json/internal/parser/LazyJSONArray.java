@@ -0,0 +1,53 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only {@link java.util.List} view of a JSON array recorded in a {@link JSONIndex}.
+ * Each element is decoded the first time it is accessed, as {@link LazyJSONObject} does.
+ */
+class LazyJSONArray extends AbstractList<Object> implements RandomAccess, Serializable {
+
+    private static final Object NOT_DECODED = new Object();
+
+    private final transient JSONIndex index;
+    private final int[] entries;
+    private final AtomicReferenceArray<Object> values;
+
+    LazyJSONArray(JSONIndex index, int entry) {
+        int count = index.count(entry);
+        this.index = index;
+        this.entries = new int[count];
+        this.values = new AtomicReferenceArray<>(count);
+        int element = entry + 1;
+        for (int i = 0; i < count; i++) {
+            entries[i] = element;
+            values.set(i, NOT_DECODED);
+            element = index.next(element);
+        }
+    }
+
+    @Override
+    public Object get(int position) {
+        Object value = values.get(position);
+        if (value == NOT_DECODED) {
+            Object decoded = index.value(entries[position]);
+            value = values.compareAndSet(position, NOT_DECODED, decoded) ? decoded : values.get(position);
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return entries.length;
+    }
+
+    // The view is serialized as a plain list, which does not need the index.
+    private Object writeReplace() {
+        return new ArrayList<>(this);
+    }
+}
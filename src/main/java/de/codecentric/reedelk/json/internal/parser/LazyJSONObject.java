@@ -0,0 +1,131 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only {@link Map} view of a JSON object recorded in a {@link JSONIndex}. Each
+ * member value is decoded the first time it is accessed, members keep the input order.
+ * The view might be read by different threads: a value decoded concurrently is decoded
+ * by each thread, but only the first decoded instance is kept and returned.
+ */
+class LazyJSONObject extends AbstractMap<String, Object> implements Serializable {
+
+    private static final Object NOT_DECODED = new Object();
+
+    // Objects with more members look keys up through a hash index.
+    private static final int LINEAR_LOOKUP = 8;
+
+    private final transient JSONIndex index;
+    private final String[] keys;
+    private final int[] entries;
+    private final AtomicReferenceArray<Object> values;
+    private final transient Map<String, Integer> positions;
+    private transient Set<Entry<String, Object>> entrySet;
+
+    LazyJSONObject(JSONIndex index, int entry) {
+        int count = index.count(entry);
+        this.index = index;
+        this.keys = new String[count];
+        this.entries = new int[count];
+        this.values = new AtomicReferenceArray<>(count);
+        int member = entry + 1;
+        for (int i = 0; i < count; i++) {
+            keys[i] = index.key(member);
+            entries[i] = member;
+            values.set(i, NOT_DECODED);
+            member = index.next(member);
+        }
+        this.positions = count > LINEAR_LOOKUP ? positionsOf(keys) : null;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int position = position(key);
+        return position >= 0 ? value(position) : null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Object value(int position) {
+        Object value = values.get(position);
+        if (value == NOT_DECODED) {
+            Object decoded = index.value(entries[position]);
+            value = values.compareAndSet(position, NOT_DECODED, decoded) ? decoded : values.get(position);
+        }
+        return value;
+    }
+
+    private int position(Object key) {
+        if (positions != null) {
+            Integer position = positions.get(key);
+            return position != null ? position : -1;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, Integer> positionsOf(String[] keys) {
+        Map<String, Integer> positions = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            positions.put(keys[i], i);
+        }
+        return positions;
+    }
+
+    // The view is serialized as a plain map, which does not need the index.
+    private Object writeReplace() {
+        return new LinkedHashMap<>(this);
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return position < keys.length;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (position >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    int current = position++;
+                    return new SimpleImmutableEntry<>(keys[current], value(current));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+    }
+}
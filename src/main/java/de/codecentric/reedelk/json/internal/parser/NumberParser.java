@@ -0,0 +1,312 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Converts number texts without going through {@link Long#valueOf(String)} and
+ * {@link Double#valueOf(String)} for the common cases: integers are accumulated
+ * directly into a long and decimals with up to 19 significant digits are converted
+ * with the Clinger fast path or the Eisel-Lemire algorithm, which are correctly rounded.
+ * The few decimals the algorithm cannot decide (and any text outside of the plain
+ * decimal syntax) are converted by {@link Double#valueOf(String)}, therefore the result
+ * is always bit-exact with it.
+ */
+class NumberParser {
+
+    private static final int MAX_SIGNIFICANT_DIGITS = 19;
+
+    // Decimals with a significand up to 2^53 and a power of ten up to 10^22
+    // are both exact doubles: a single multiplication or division is correctly rounded.
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    // 128 bit approximations (rounded down) of the powers of ten between 10^-348 and 10^347,
+    // normalized to have the most significant bit set: high and low 64 bits.
+    private static final int MIN_EXPONENT = -348;
+    private static final int MAX_EXPONENT = 347;
+    private static final long[] POWERS_OF_TEN_HIGH = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final long[] POWERS_OF_TEN_LOW = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+            BigInteger power;
+            if (exponent >= 0) {
+                power = BigInteger.TEN.pow(exponent);
+                int bits = power.bitLength();
+                power = bits > 128 ? power.shiftRight(bits - 128) : power.shiftLeft(128 - bits);
+            } else {
+                BigInteger divisor = BigInteger.TEN.pow(-exponent);
+                int shift = divisor.bitLength() + 127;
+                power = BigInteger.ONE.shiftLeft(shift).divide(divisor);
+                if (power.bitLength() > 128) {
+                    power = power.shiftRight(power.bitLength() - 128);
+                }
+            }
+            POWERS_OF_TEN_HIGH[exponent - MIN_EXPONENT] = power.shiftRight(64).longValue();
+            POWERS_OF_TEN_LOW[exponent - MIN_EXPONENT] = power.and(mask).longValue();
+        }
+    }
+
+    private NumberParser() {
+    }
+
+    /**
+     * Converts a text starting with a digit or '-' into a number, according to the given mapping.
+     * Texts with the decimal notation (containing '.', 'e', 'E' or being "-0") are decimals,
+     * the other texts are integers only if written in their canonical form.
+     *
+     * @return the number or the text itself if it is not a number.
+     */
+    static Object toNumber(String text, NumberMapping mapping) {
+        if (isDecimalNotation(text)) {
+            if (mapping == NumberMapping.BIG_DECIMAL) {
+                return toBigDecimal(text);
+            }
+            double number = toDouble(text);
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                return text;
+            }
+            return number;
+        }
+
+        int length = text.length();
+        boolean negative = text.charAt(0) == '-';
+        int start = negative ? 1 : 0;
+        int digits = length - start;
+        if (digits == 0 || digits > MAX_SIGNIFICANT_DIGITS || (digits > 1 && text.charAt(start) == '0')) {
+            // Integers which do not fit a long or which are not in their canonical form.
+            return mapping == NumberMapping.BIG_DECIMAL && isCanonicalInteger(text, start) ?
+                    new BigDecimal(text) :
+                    text;
+        }
+        // Accumulated as negative: Long.MIN_VALUE has no positive counterpart.
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return text;
+            }
+            if (value < Long.MIN_VALUE / 10 || (value == Long.MIN_VALUE / 10 && digit > 8)) {
+                return mapping == NumberMapping.BIG_DECIMAL ? new BigDecimal(text) : text;
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                return mapping == NumberMapping.BIG_DECIMAL ? new BigDecimal(text) : text;
+            }
+            value = -value;
+        }
+        return toInteger(value, mapping);
+    }
+
+    static Object toInteger(long value, NumberMapping mapping) {
+        switch (mapping) {
+            case LONG_OR_DOUBLE:
+                return value;
+            case BIG_DECIMAL:
+                return BigDecimal.valueOf(value);
+            default:
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                return value;
+        }
+    }
+
+    /**
+     * Converts a decimal given its significand, the power of ten it is multiplied by and its sign.
+     *
+     * @return the correctly rounded double or NaN if the fast algorithms cannot decide it.
+     */
+    static double toDouble(long significand, int exponent, boolean negative) {
+        if (significand == 0) {
+            return negative ? -0.0d : 0.0d;
+        }
+        // The significand is unsigned: 19 digits might not fit a positive long.
+        if (significand > 0 && significand <= MAX_EXACT_SIGNIFICAND &&
+                exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0 ?
+                    significand / EXACT_POWERS_OF_TEN[-exponent] :
+                    significand * EXACT_POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        return eiselLemire(significand, exponent, negative);
+    }
+
+    private static double toDouble(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+
+        long significand = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        int mantissaDigits = 0;
+        boolean fraction = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissaDigits++;
+                if (significand != 0 || c != '0') {
+                    if (++significantDigits > MAX_SIGNIFICANT_DIGITS) {
+                        return parseDouble(text);
+                    }
+                    significand = significand * 10 + (c - '0');
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (mantissaDigits == 0) {
+            return parseDouble(text);
+        }
+
+        if (i < length) {
+            char c = text.charAt(i++);
+            if ((c != 'e' && c != 'E') || i == length) {
+                return parseDouble(text);
+            }
+            boolean negativeExponent = false;
+            c = text.charAt(i);
+            if (c == '+' || c == '-') {
+                negativeExponent = c == '-';
+                if (++i == length) {
+                    return parseDouble(text);
+                }
+            }
+            int exponentValue = 0;
+            for (; i < length; i++) {
+                c = text.charAt(i);
+                if (c < '0' || c > '9' || exponentValue > 9999) {
+                    return parseDouble(text);
+                }
+                exponentValue = exponentValue * 10 + (c - '0');
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+
+        double value = toDouble(significand, exponent, negative);
+        return Double.isNaN(value) ? parseDouble(text) : value;
+    }
+
+    // Any other text accepted by Double.valueOf (e.g. hexadecimal or with a type suffix).
+    private static double parseDouble(String text) {
+        try {
+            return Double.valueOf(text);
+        } catch (NumberFormatException exception) {
+            return Double.NaN;
+        }
+    }
+
+    // See "Number Parsing at a Gigabyte per Second", Daniel Lemire, 2021: the significand is
+    // multiplied by the 128 bit approximation of the power of ten and, unless the truncated
+    // bits make the rounding ambiguous, the top 54 bits of the product give the double.
+    private static double eiselLemire(long significand, int exponent, boolean negative) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            return Double.NaN;
+        }
+        int leadingZeros = Long.numberOfLeadingZeros(significand);
+        significand <<= leadingZeros;
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        int power = exponent - MIN_EXPONENT;
+        long high = multiplyHigh(significand, POWERS_OF_TEN_HIGH[power]);
+        long low = significand * POWERS_OF_TEN_HIGH[power];
+
+        // The truncated low bits of the power might change the result: use them as well.
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + significand, significand) < 0) {
+            long lowHigh = multiplyHigh(significand, POWERS_OF_TEN_LOW[power]);
+            long lowLow = significand * POWERS_OF_TEN_LOW[power];
+            long mergedLow = low + lowHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                high++;
+            }
+            if ((high & 0x1FF) == 0x1FF && mergedLow + 1 == 0 &&
+                    Long.compareUnsigned(lowLow + significand, significand) < 0) {
+                return Double.NaN;
+            }
+            low = mergedLow;
+        }
+
+        long mostSignificantBit = high >>> 63;
+        long mantissa = high >>> (mostSignificantBit + 9);
+        binaryExponent -= 1 ^ mostSignificantBit;
+
+        // Exactly halfway between two doubles: the remaining digits decide.
+        if (low == 0 && (high & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            return Double.NaN;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if ((mantissa >>> 53) > 0) {
+            mantissa >>>= 1;
+            binaryExponent++;
+        }
+        // Subnormal, infinite or NaN doubles are left to Double.valueOf.
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            return Double.NaN;
+        }
+        long bits = binaryExponent << 52 | mantissa & 0x000FFFFFFFFFFFFFL;
+        if (negative) {
+            bits |= 0x8000000000000000L;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    // The high 64 bits of the unsigned 128 bit product.
+    private static long multiplyHigh(long x, long y) {
+        long x0 = x & 0xFFFFFFFFL;
+        long x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL;
+        long y1 = y >>> 32;
+        long p11 = x1 * y1;
+        long p01 = x0 * y1;
+        long p10 = x1 * y0;
+        long p00 = x0 * y0;
+        long middle = (p00 >>> 32) + (p10 & 0xFFFFFFFFL) + p01;
+        return p11 + (p10 >>> 32) + (middle >>> 32);
+    }
+
+    private static Object toBigDecimal(String text) {
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException exception) {
+            return text;
+        }
+    }
+
+    private static boolean isCanonicalInteger(String text, int start) {
+        int length = text.length();
+        if (length == start || (length - start > 1 && text.charAt(start) == '0')) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isDecimalNotation(String text) {
+        return text.indexOf('.') > -1 || text.indexOf('e') > -1 ||
+                text.indexOf('E') > -1 || "-0".equals(text);
+    }
+}
@@ -0,0 +1,337 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.component.ParserEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a JSON array on the threads of a fork/join pool. A pre-scan of the input, which
+ * only follows quotes, escapes and brackets, finds the commas separating the elements of the
+ * root array. The elements are divided into chunks of about the same size at those commas,
+ * the chunks are parsed in parallel and the parsed elements are joined in order.
+ * <p>
+ * The output is the same of {@link JSONParser} and {@link StructuralParser}. The pre-scan can
+ * be misled by the lenient syntax (e.g. by a quote within an unquoted string), but a chunk which
+ * does not end between two elements always fails to parse. Therefore, if any chunk fails to parse,
+ * null is returned and the input must be parsed sequentially, which gives the result or the
+ * syntax error of the sequential parsers.
+ */
+public class ParallelArrayParser {
+
+    // More chunks than threads, so that threads finishing early take over the remaining chunks.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private final ForkJoinPool pool;
+    private final ParserEngine engine;
+    private final NumberMapping numberMapping;
+    private final boolean shareStrings;
+    private final boolean compact;
+
+    /**
+     * The engine, number mapping, share strings and compact options are the ones of
+     * {@link StructuralParser#parse(byte[], NumberMapping, boolean, boolean)}:
+     * the engine is only used for byte arrays.
+     */
+    public ParallelArrayParser(ForkJoinPool pool, ParserEngine engine, NumberMapping numberMapping,
+                               boolean shareStrings, boolean compact) {
+        this.pool = pool;
+        this.engine = engine;
+        this.numberMapping = numberMapping;
+        this.shareStrings = shareStrings;
+        this.compact = compact;
+    }
+
+    /**
+     * @return the parsed root array, or null if the root value is not an array with at least two
+     * elements or if the input is not valid: the input must then be parsed sequentially.
+     */
+    public List<Object> parse(byte[] input, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        if (length >= 3 &&
+                input[start] == BYTE_ORDER_MARK[0] &&
+                input[start + 1] == BYTE_ORDER_MARK[1] &&
+                input[start + 2] == BYTE_ORDER_MARK[2]) {
+            start += 3;
+        }
+        while (start < end && input[start] != JSONInput.END && (input[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        if (start == end || input[start] != '[') {
+            return null;
+        }
+
+        Chunks chunks = new Chunks(start, chunkSize(end - start));
+        for (int i = start; i < end; i++) {
+            byte b = input[i];
+            switch (b) {
+                case '"':
+                case '\'':
+                    i = closingQuote(input, i, end);
+                    if (i == -1) return null;
+                    break;
+                case '[':
+                case '{':
+                    chunks.open();
+                    break;
+                case ']':
+                case '}':
+                    if (chunks.close()) {
+                        return b == ']' && !chunks.isSingle() ?
+                                parse(chunks.trim(input, i), this::parseChunk, input) :
+                                null;
+                    }
+                    break;
+                case ',':
+                    chunks.comma(i);
+                    break;
+                case JSONInput.END:
+                    // The end of the input for the parser.
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @see #parse(byte[], int, int)
+     */
+    public List<Object> parse(String input) {
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) != JSONInput.END && input.charAt(start) <= ' ') {
+            start++;
+        }
+        if (start == end || input.charAt(start) != '[') {
+            return null;
+        }
+
+        Chunks chunks = new Chunks(start, chunkSize(end - start));
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            switch (c) {
+                case '"':
+                case '\'':
+                    i = closingQuote(input, i, end);
+                    if (i == -1) return null;
+                    break;
+                case '[':
+                case '{':
+                    chunks.open();
+                    break;
+                case ']':
+                case '}':
+                    if (chunks.close()) {
+                        return c == ']' && !chunks.isSingle() ?
+                                parse(chunks.trim(input, i), this::parseChunk, input) :
+                                null;
+                    }
+                    break;
+                case ',':
+                    chunks.comma(i);
+                    break;
+                case JSONInput.END:
+                    // The end of the input for the parser.
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private List<Object> parseChunk(byte[] input, int from, int to) {
+        if (engine == ParserEngine.STRUCTURAL_INDEX) {
+            return StructuralParser.parseElements(input, from, to - from, numberMapping, shareStrings, compact);
+        }
+        // A chunk never starts with a byte order mark, it is not skipped.
+        return new JSONParser(new UTF8Input(input, from, to), numberMapping, shareStrings, compact).nextElements();
+    }
+
+    private List<Object> parseChunk(String input, int from, int to) {
+        return new JSONParser(new StringInput(input, from, to), numberMapping, shareStrings, compact).nextElements();
+    }
+
+    private <T> List<Object> parse(Chunks chunks, ChunkParser<T> parser, T input) {
+        List<?>[] parsed = new List<?>[chunks.size()];
+        try {
+            pool.invoke(new ParseChunks<>(parser, input, chunks, parsed, 0, parsed.length));
+        } catch (RuntimeException exception) {
+            // The input must be parsed sequentially, see the class comment.
+            return null;
+        }
+
+        int size = 0;
+        for (List<?> elements : parsed) {
+            size += elements.size();
+        }
+        if (compact) {
+            Object[] elements = new Object[size];
+            int i = 0;
+            for (List<?> chunk : parsed) {
+                for (Object element : chunk) {
+                    elements[i++] = element;
+                }
+            }
+            return CompactJSONArray.of(elements, 0, size);
+        }
+        List<Object> elements = new ArrayList<>(size);
+        for (List<?> chunk : parsed) {
+            elements.addAll(chunk);
+        }
+        return elements;
+    }
+
+    private int chunkSize(int length) {
+        return Math.max(length / (pool.getParallelism() * CHUNKS_PER_THREAD), 1);
+    }
+
+    // The closing quote offset, or -1 if the string is not closed. A string ends at
+    // the first end character as well, which ends the input of the parser.
+    private static int closingQuote(byte[] input, int quote, int end) {
+        for (int i = quote + 1; i < end; i++) {
+            byte b = input[i];
+            if (b == '\\') {
+                i++;
+            } else if (b == input[quote]) {
+                return i;
+            } else if (b == JSONInput.END) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int closingQuote(String input, int quote, int end) {
+        for (int i = quote + 1; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == input.charAt(quote)) {
+                return i;
+            } else if (c == JSONInput.END) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private interface ChunkParser<T> {
+
+        List<Object> parse(T input, int from, int to);
+    }
+
+    // Collects the chunks while the input is scanned: the first chunk starts after the opening
+    // bracket and a new chunk starts after the first root array comma following the chunk size.
+    private static class Chunks {
+
+        private final int chunkSize;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int size = 1;
+        private int depth;
+        private int lastComma = -1;
+        private int nextChunk;
+
+        Chunks(int openingBracket, int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.starts[0] = openingBracket + 1;
+            this.nextChunk = openingBracket + chunkSize;
+        }
+
+        void open() {
+            depth++;
+        }
+
+        // True if the closed bracket is the one of the root array.
+        boolean close() {
+            return --depth == 0;
+        }
+
+        void comma(int offset) {
+            if (depth != 1) {
+                return;
+            }
+            lastComma = offset;
+            if (offset >= nextChunk) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    ends = Arrays.copyOf(ends, size * 2);
+                }
+                ends[size - 1] = offset;
+                starts[size++] = offset + 1;
+                nextChunk = offset + chunkSize;
+            }
+        }
+
+        boolean isSingle() {
+            return lastComma == -1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Closes the last chunk at the closing bracket. A last comma followed by
+        // whitespace only is a trailing comma, not the start of a null element.
+        Chunks trim(byte[] input, int closingBracket) {
+            boolean trailingComma = true;
+            for (int i = lastComma + 1; i < closingBracket && trailingComma; i++) {
+                trailingComma = (input[i] & 0xFF) <= ' ';
+            }
+            return trim(trailingComma ? lastComma : closingBracket);
+        }
+
+        Chunks trim(String input, int closingBracket) {
+            boolean trailingComma = true;
+            for (int i = lastComma + 1; i < closingBracket && trailingComma; i++) {
+                trailingComma = input.charAt(i) <= ' ';
+            }
+            return trim(trailingComma ? lastComma : closingBracket);
+        }
+
+        private Chunks trim(int end) {
+            if (size > 1 && starts[size - 1] > end) {
+                // The last chunk would start after the trailing comma.
+                size--;
+            }
+            ends[size - 1] = end;
+            return this;
+        }
+    }
+
+    private static class ParseChunks<T> extends RecursiveAction {
+
+        private final ChunkParser<T> parser;
+        private final T input;
+        private final Chunks chunks;
+        private final List<?>[] parsed;
+        private final int from;
+        private final int to;
+
+        ParseChunks(ChunkParser<T> parser, T input, Chunks chunks, List<?>[] parsed, int from, int to) {
+            this.parser = parser;
+            this.input = input;
+            this.chunks = chunks;
+            this.parsed = parsed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                parsed[from] = parser.parse(input, chunks.starts[from], chunks.ends[from]);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseChunks<>(parser, input, chunks, parsed, from, middle),
+                        new ParseChunks<>(parser, input, chunks, parsed, middle, to));
+            }
+        }
+    }
+}
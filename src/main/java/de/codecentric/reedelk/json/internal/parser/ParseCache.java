@@ -0,0 +1,203 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of parsed documents, addressed by the content of the JSON: the key of
+ * a document is a 64 bit hash of the chars (or bytes) of its JSON and their number. The JSON
+ * is kept together with its document and a hit is confirmed by comparing it with the looked
+ * up one, so that a hash collision never returns the document of another JSON. Strings are
+ * kept by reference, bytes are copied since the caller might reuse its array.
+ * <p>
+ * The cache is bounded by size: when the total length of the cached JSONs (chars for strings,
+ * bytes otherwise) exceeds the max size, the least recently used documents are evicted. A JSON
+ * longer than the max size is never cached. Cached documents are shared by all the callers,
+ * therefore they must be immutable (e.g. compact Maps and Lists). The cache is thread safe: a
+ * document missing from the cache is parsed outside of the lock, concurrent misses of the same
+ * JSON might parse it more than once.
+ */
+public class ParseCache {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private final long maxSize;
+    private final OperationMetrics metrics;
+    private final LinkedHashMap<Key, Object> documents = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long size;
+
+    /**
+     * @param maxSize the max total length of the cached JSONs.
+     * @param metrics the metrics the hits and the misses are recorded into.
+     */
+    public ParseCache(long maxSize, OperationMetrics metrics) {
+        this.maxSize = maxSize;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the cached document of the given JSON or, if missing, the document
+     * given by the parser, which is added to the cache.
+     */
+    public Object get(String json, Supplier<Object> parser) {
+        return get(new Key(hash(json), json.length(), json, 0), parser);
+    }
+
+    /**
+     * The bytes between offset (inclusive) and offset + length (exclusive) are the JSON.
+     *
+     * @see #get(String, Supplier)
+     */
+    public Object get(byte[] json, int offset, int length, Supplier<Object> parser) {
+        return get(new Key(hash(json, offset, length), length, json, offset), parser);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private Object get(Key key, Supplier<Object> parser) {
+        Object document;
+        synchronized (documents) {
+            document = documents.get(key);
+        }
+        if (document != null) {
+            hits.increment();
+            metrics.cacheHit();
+            return document;
+        }
+
+        misses.increment();
+        metrics.cacheMiss();
+        document = parser.get();
+        if (key.length <= maxSize) {
+            put(key.retained(), document);
+        }
+        return document;
+    }
+
+    private void put(Key key, Object document) {
+        synchronized (documents) {
+            if (documents.put(key, document) == null) {
+                size += key.length;
+            }
+            Iterator<Key> eldest = documents.keySet().iterator();
+            while (size > maxSize) {
+                size -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    // Murmur3 like hash of the chars, four chars at a time.
+    static long hash(String json) {
+        long hash = SEED ^ json.length();
+        int length = json.length();
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            hash = mix(hash, json.charAt(i) |
+                    (long) json.charAt(i + 1) << 16 |
+                    (long) json.charAt(i + 2) << 32 |
+                    (long) json.charAt(i + 3) << 48);
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) json.charAt(i) << shift;
+        }
+        return finish(mix(hash, tail));
+    }
+
+    // Murmur3 like hash of the bytes, eight bytes at a time.
+    static long hash(byte[] json, int offset, int length) {
+        ByteBuffer bytes = ByteBuffer.wrap(json, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        long hash = SEED ^ length;
+        while (bytes.remaining() >= 8) {
+            hash = mix(hash, bytes.getLong());
+        }
+        long tail = 0;
+        for (int shift = 0; bytes.hasRemaining(); shift += 8) {
+            tail |= (bytes.get() & 0xFFL) << shift;
+        }
+        return finish(mix(hash, tail));
+    }
+
+    private static long mix(long hash, long block) {
+        block *= C1;
+        block = Long.rotateLeft(block, 31);
+        block *= C2;
+        hash ^= block;
+        return Long.rotateLeft(hash, 27) * 5 + 0x52DCE729;
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    // The JSON of a key is either a String or a range of a byte array.
+    private static class Key {
+
+        private final long hash;
+        private final int length;
+        private final Object json;
+        private final int offset;
+
+        Key(long hash, int length, Object json, int offset) {
+            this.hash = hash;
+            this.length = length;
+            this.json = json;
+            this.offset = offset;
+        }
+
+        // The key to be kept in the cache: the looked up bytes might be changed by the caller.
+        Key retained() {
+            if (json instanceof byte[]) {
+                byte[] bytes = Arrays.copyOfRange((byte[]) json, offset, offset + length);
+                return new Key(hash, length, bytes, 0);
+            }
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            if (hash != key.hash || length != key.length) return false;
+            if (json instanceof String) {
+                return json.equals(key.json);
+            }
+            return key.json instanceof byte[] && rangeEquals((byte[]) json, offset, (byte[]) key.json, key.offset, length);
+        }
+
+        private static boolean rangeEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                if (a[aOffset + i] != b[bOffset + i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+/**
+ * Limits of the JSON accepted by the parser: the maximum nesting depth of objects and arrays,
+ * the maximum input size (in bytes, in characters for string inputs), the maximum length of a
+ * single string or unquoted value and the maximum number of members of an object or an array.
+ * The limits are checked while the input is being read, a {@link JSONLimitException} is thrown
+ * as soon as one of them is exceeded. A non positive limit means no limit.
+ */
+public class ParseLimits {
+
+    public static final ParseLimits NONE = new ParseLimits(0, 0, 0, 0);
+
+    private final int maxDepth;
+    private final long maxInputSize;
+    private final int maxStringLength;
+    private final int maxMembers;
+
+    public ParseLimits(int maxDepth, long maxInputSize, int maxStringLength, int maxMembers) {
+        this.maxDepth = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+        this.maxInputSize = maxInputSize > 0 ? maxInputSize : Long.MAX_VALUE;
+        this.maxStringLength = maxStringLength > 0 ? maxStringLength : Integer.MAX_VALUE;
+        this.maxMembers = maxMembers > 0 ? maxMembers : Integer.MAX_VALUE;
+    }
+
+    public boolean isUnlimited() {
+        return maxDepth == Integer.MAX_VALUE &&
+                maxInputSize == Long.MAX_VALUE &&
+                maxStringLength == Integer.MAX_VALUE &&
+                maxMembers == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks the size of an input read before being parsed, e.g. a stream collected in memory.
+     */
+    public void checkInputSize(long size) {
+        if (size > maxInputSize) {
+            throw new JSONLimitException(inputSizeError());
+        }
+    }
+
+    long maxInputSize() {
+        return maxInputSize;
+    }
+
+    int maxStringLength() {
+        return maxStringLength;
+    }
+
+    // The given depth is the depth of the object or array being opened.
+    void checkDepth(int depth, JSONInput input) {
+        if (depth > maxDepth) {
+            throw input.limitError("Maximum nesting depth of " + maxDepth + " exceeded");
+        }
+    }
+
+    // The given count is the number of members read before the one being read.
+    void checkMembers(int count, JSONInput input) {
+        if (count >= maxMembers) {
+            throw input.limitError("Maximum number of members of " + maxMembers + " exceeded");
+        }
+    }
+
+    String inputSizeError() {
+        return "Maximum input size of " + maxInputSize + " exceeded";
+    }
+
+    String stringLengthError() {
+        return "Maximum string length of " + maxStringLength + " exceeded";
+    }
+}
@@ -0,0 +1,197 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * {@link UTF8Input} reading the chunks emitted by a stream {@link Publisher}. A chunk
+ * is requested only when the parser has consumed the previous one, therefore only the current
+ * chunk and the partial token being parsed are kept in memory. Chunks might be either byte arrays
+ * or strings, strings are encoded as UTF-8 before being decoded again by the parser (a surrogate
+ * pair might be split across two string chunks).
+ * A chunk emitted while it is being requested (e.g. by a publisher of in memory chunks) is parsed
+ * right away. A chunk emitted later by a different thread is waited for only if the parsing thread
+ * is allowed to block: on a non-blocking thread (e.g. an event loop) the parser fails instead.
+ */
+public class PublisherInput extends UTF8Input implements Subscriber<Object> {
+
+    private static final Object COMPLETE = new Object();
+
+    // The signals received and not taken by the parser yet, guarded by this input.
+    private final Queue<Object> signals = new ArrayDeque<>();
+    private Subscription subscription;
+    private boolean requested;
+    private boolean completed;
+
+    // Keeps the first half of a surrogate pair ending a string chunk.
+    private final UTF8Output encoder = new UTF8Output();
+
+    // The carried over bytes followed by the next chunk, reused by the following chunks.
+    private byte[] joined = new byte[0];
+
+    PublisherInput() {
+        super(new byte[0], 0, 0);
+    }
+
+    @Override
+    public synchronized void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onNext(Object chunk) {
+        signal(chunk);
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        signal(throwable);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        signal(COMPLETE);
+    }
+
+    /**
+     * Cancels the subscription if the stream has not completed yet,
+     * e.g. when the parser stopped after the root value.
+     */
+    public void cancel() {
+        Subscription toCancel;
+        synchronized (this) {
+            if (completed || subscription == null) {
+                return;
+            }
+            completed = true;
+            toCancel = subscription;
+        }
+        toCancel.cancel();
+    }
+
+    @Override
+    protected boolean fill() {
+        byte[] chunk = nextChunk();
+        if (chunk == null) {
+            return false;
+        }
+        int remaining = limit - position;
+        if (remaining == 0) {
+            buffer = chunk;
+            limit = chunk.length;
+        } else {
+            // Only the bytes of a multi byte sequence or the byte order mark
+            // split across two chunks are carried over to the next chunk.
+            int length = remaining + chunk.length;
+            if (joined.length < length) {
+                byte[] grown = new byte[Math.max(length, joined.length * 2)];
+                System.arraycopy(buffer, position, grown, 0, remaining);
+                joined = grown;
+            } else {
+                System.arraycopy(buffer, position, joined, 0, remaining);
+            }
+            System.arraycopy(chunk, 0, joined, remaining, chunk.length);
+            buffer = joined;
+            limit = length;
+        }
+        position = 0;
+        received(chunk.length);
+        return true;
+    }
+
+    private byte[] nextChunk() {
+        while (!completed) {
+            Object signal = nextSignal();
+            if (signal == COMPLETE) {
+                completed = true;
+                // An unpaired surrogate ending the last string chunk.
+                byte[] unpaired = encoder.toByteArray();
+                if (unpaired.length > 0) {
+                    return unpaired;
+                }
+
+            } else if (signal instanceof Throwable) {
+                completed = true;
+                Throwable cause = (Throwable) signal;
+                throw new JSONParseException(cause.getMessage(), cause);
+
+            } else {
+                byte[] chunk = toBytes(signal);
+                if (chunk.length > 0) {
+                    return chunk;
+                }
+                // Empty chunk: the next one is requested.
+            }
+        }
+        return null;
+    }
+
+    // Requests the next chunk once the subscription has been received. The request is
+    // made outside of the lock, since the publisher might emit the chunk while requesting it.
+    private Object nextSignal() {
+        while (true) {
+            Subscription toRequest = null;
+            InterruptedException interrupted = null;
+            synchronized (this) {
+                Object signal = signals.poll();
+                if (signal != null) {
+                    return signal;
+                }
+                if (!requested && subscription != null) {
+                    requested = true;
+                    toRequest = subscription;
+                } else if (!Schedulers.isInNonBlockingThread()) {
+                    try {
+                        wait();
+                        continue;
+                    } catch (InterruptedException exception) {
+                        interrupted = exception;
+                    }
+                }
+            }
+            if (toRequest != null) {
+                toRequest.request(1);
+            } else if (interrupted != null) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new JSONParseException("Interrupted while waiting for the next stream chunk", interrupted);
+            } else {
+                cancel();
+                throw new JSONParseException("The next stream chunk cannot be waited for on the non-blocking thread " +
+                        Thread.currentThread().getName());
+            }
+        }
+    }
+
+    private void signal(Object signal) {
+        if (signal != COMPLETE && !(signal instanceof Throwable)) {
+            requested = false;
+        }
+        signals.add(signal);
+        notifyAll();
+    }
+
+    private byte[] toBytes(Object chunk) {
+        if (chunk instanceof byte[]) {
+            return (byte[]) chunk;
+        } else if (chunk instanceof String) {
+            return encoder.append((String) chunk).drain();
+        } else {
+            cancel();
+            throw new JSONParseException("Stream chunk of type " + chunk.getClass().getName() + " is not a byte array or a string");
+        }
+    }
+
+    static PublisherInput subscribe(Publisher<?> publisher) {
+        PublisherInput input = new PublisherInput();
+        publisher.subscribe(input);
+        return input;
+    }
+}
@@ -0,0 +1,97 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bounded cache of the strings read by a parser, so that repeated strings (e.g. the keys
+ * of the objects of an array) share the same instance. Strings are looked up by the hash
+ * of their characters, before creating them when reading from a String or from ASCII bytes.
+ * <p>
+ * The cache is a direct mapped table: a string replaces the one stored in its slot,
+ * therefore the cache never holds more than {@value #SIZE} strings. It is not thread safe,
+ * it is meant to be used by a single parse.
+ */
+class StringCache {
+
+    private static final int SIZE = 512;
+    private static final int MASK = SIZE - 1;
+
+    // Longer strings are rarely repeated and they are not cached.
+    static final int MAX_LENGTH = 64;
+
+    private String[] strings;
+
+    String get(String string) {
+        if (string.length() > MAX_LENGTH) {
+            return string;
+        }
+        int slot = slot(string.hashCode());
+        String cached = strings[slot];
+        if (string.equals(cached)) {
+            return cached;
+        }
+        strings[slot] = string;
+        return string;
+    }
+
+    /**
+     * @return the string of the characters of the source between start (inclusive) and end (exclusive).
+     */
+    String get(String source, int start, int end) {
+        int length = end - start;
+        if (length > MAX_LENGTH) {
+            return source.substring(start, end);
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int slot = slot(hash);
+        String cached = strings[slot];
+        if (cached != null && cached.length() == length && source.regionMatches(start, cached, 0, length)) {
+            return cached;
+        }
+        String string = source.substring(start, end);
+        strings[slot] = string;
+        return string;
+    }
+
+    /**
+     * @return the string of the ASCII bytes between start (inclusive) and end (exclusive).
+     */
+    String get(byte[] ascii, int start, int end) {
+        int length = end - start;
+        if (length > MAX_LENGTH) {
+            return new String(ascii, start, length, StandardCharsets.ISO_8859_1);
+        }
+        // The same hash of the String: ASCII bytes are the characters.
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + ascii[i];
+        }
+        int slot = slot(hash);
+        String cached = strings[slot];
+        if (cached != null && cached.length() == length && matches(cached, ascii, start)) {
+            return cached;
+        }
+        String string = new String(ascii, start, length, StandardCharsets.ISO_8859_1);
+        strings[slot] = string;
+        return string;
+    }
+
+    private int slot(int hash) {
+        if (strings == null) {
+            strings = new String[SIZE];
+        }
+        return (hash ^ (hash >>> 16)) & MASK;
+    }
+
+    private static boolean matches(String cached, byte[] ascii, int start) {
+        for (int i = 0; i < cached.length(); i++) {
+            if (cached.charAt(i) != ascii[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
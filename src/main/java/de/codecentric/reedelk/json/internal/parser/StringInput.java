@@ -0,0 +1,145 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+/**
+ * {@link JSONInput} reading from a String. Strings without escapes are
+ * returned as substrings of the input and whitespace is skipped in place.
+ */
+public class StringInput extends JSONInput {
+
+    private final String input;
+    private final int end;
+    private int position;
+
+    public StringInput(String input) {
+        this(input, 0, input.length());
+    }
+
+    public StringInput(String input, int start, int end) {
+        this.input = input;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * The size of a string input is its length in characters.
+     */
+    @Override
+    void limit(ParseLimits limits) {
+        super.limit(limits);
+        if (end - position > limits.maxInputSize()) {
+            throw limitError(limits.inputSizeError());
+        }
+    }
+
+    @Override
+    public char next() {
+        if (position < end) {
+            char c = input.charAt(position);
+            if (c != END) {
+                position++;
+            }
+            return c;
+        }
+        return END;
+    }
+
+    @Override
+    public void back() {
+        position--;
+    }
+
+    @Override
+    public long index() {
+        return position;
+    }
+
+    @Override
+    public char nextClean() {
+        boolean carriageReturn = false;
+        while (position < end) {
+            char c = input.charAt(position);
+            if (c == END) {
+                return END;
+            }
+            position++;
+            if (c > ' ') {
+                return c;
+            }
+            carriageReturn = newLine(c, carriageReturn);
+        }
+        return END;
+    }
+
+    @Override
+    public String nextString(char quote) {
+        int start = position;
+        int current = start;
+        while (current < end) {
+            char c = input.charAt(current);
+            if (c == quote) {
+                checkLength(start, current);
+                position = current + 1;
+                return input.substring(start, current);
+            }
+            if (c == '\\' || c == '\n' || c == '\r' || c == END) {
+                break;
+            }
+            current++;
+        }
+        // Escape sequences or an unterminated string: continue character by character.
+        position = current;
+        StringBuilder builder = new StringBuilder(current - start + 16);
+        builder.append(input, start, current);
+        return nextString(quote, builder);
+    }
+
+    @Override
+    String nextString(char quote, StringCache cache) {
+        int start = position;
+        for (int current = start; current < end; current++) {
+            char c = input.charAt(current);
+            if (c == quote) {
+                checkLength(start, current);
+                position = current + 1;
+                return cache.get(input, start, current);
+            }
+            if (c == '\\' || c == '\n' || c == '\r' || c == END) {
+                break;
+            }
+        }
+        return cache.get(nextString(quote));
+    }
+
+    @Override
+    public void skipString(char quote) {
+        int current = position;
+        while (current < end) {
+            char c = input.charAt(current);
+            if (c == quote) {
+                position = current + 1;
+                return;
+            }
+            if (c == '\\') {
+                position = current + 1;
+                skipEscape();
+                current = position;
+                continue;
+            }
+            if (c == '\n' || c == '\r' || c == END) {
+                break;
+            }
+            current++;
+        }
+        // An unterminated string: the error is reported character by character.
+        position = current;
+        super.skipString(quote);
+    }
+
+    // The error is reported where the string read character by character exceeds the limit.
+    private void checkLength(int start, int end) {
+        if (end - start > limits.maxStringLength()) {
+            position = start + limits.maxStringLength() + 1;
+            throw stringLengthError();
+        }
+    }
+}
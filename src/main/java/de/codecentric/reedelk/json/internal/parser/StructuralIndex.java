@@ -0,0 +1,149 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * First stage of the {@link StructuralParser}: finds the offsets of the structural
+ * characters ({@code { } [ ] : ,}) outside strings and of the quotes delimiting the
+ * strings, without decoding the input.
+ * <p>
+ * The input is classified in blocks of 64 bytes, eight bytes at a time with word-level
+ * bit operations (SWAR): each block is turned into 64 bit masks of quotes, backslashes and
+ * structural characters. Quotes escaped by an odd sequence of backslashes are removed and a
+ * prefix XOR of the quotes gives the bytes inside strings, whose structural characters are
+ * removed. Only double quoted strings are recognized, any other content is checked by the
+ * second stage.
+ */
+class StructuralIndex {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long EVEN_BITS = 0x5555555555555555L;
+    private static final long GATHER_HIGH_BITS = 0x0102040810204080L;
+
+    private static final long QUOTES = ONES * '"';
+    private static final long BACKSLASHES = ONES * '\\';
+    private static final long COLONS = ONES * ':';
+    private static final long COMMAS = ONES * ',';
+    // '[' and '{' (and ']' and '}') only differ by the 0x20 bit.
+    private static final long CASE_BIT = ONES * 0x20;
+    private static final long OPEN_BRACES = ONES * '{';
+    private static final long CLOSE_BRACES = ONES * '}';
+
+    private final byte[] input;
+    private final int end;
+    private final ByteBuffer words;
+
+    // True if the previous block ended inside a string (all ones) or with an escaping backslash (one).
+    private long previousInString;
+    private long previousEscaped;
+
+    int[] offsets;
+    int size;
+
+    private StructuralIndex(byte[] input, int start, int end) {
+        this.input = input;
+        this.end = end;
+        this.words = ByteBuffer.wrap(input).order(ByteOrder.LITTLE_ENDIAN);
+        this.offsets = new int[Math.max(16, (end - start) >>> 2)];
+    }
+
+    /**
+     * @return the index of the given bytes. The last offset is the end of the input,
+     * which can be used as a sentinel by the second stage.
+     */
+    static StructuralIndex of(byte[] input, int start, int end) {
+        StructuralIndex index = new StructuralIndex(input, start, end);
+        index.scan(start);
+        return index;
+    }
+
+    private void scan(int start) {
+        int block = start;
+        for (; block + BLOCK_SIZE <= end; block += BLOCK_SIZE) {
+            scanBlock(words, block, block);
+        }
+        if (block < end) {
+            // The last block is padded with spaces.
+            byte[] padded = new byte[BLOCK_SIZE];
+            Arrays.fill(padded, (byte) ' ');
+            System.arraycopy(input, block, padded, 0, end - block);
+            scanBlock(ByteBuffer.wrap(padded).order(ByteOrder.LITTLE_ENDIAN), 0, block);
+        }
+        add(end);
+    }
+
+    private void scanBlock(ByteBuffer buffer, int position, int offset) {
+        long quotes = 0;
+        long backslashes = 0;
+        long structurals = 0;
+        for (int i = 0; i < BLOCK_SIZE; i += 8) {
+            long word = buffer.getLong(position + i);
+            long lowerCase = word | CASE_BIT;
+            quotes |= gather(equal(word, QUOTES)) << i;
+            backslashes |= gather(equal(word, BACKSLASHES)) << i;
+            structurals |= gather(equal(lowerCase, OPEN_BRACES) | equal(lowerCase, CLOSE_BRACES) |
+                    equal(word, COLONS) | equal(word, COMMAS)) << i;
+        }
+
+        quotes &= ~escaped(backslashes);
+
+        long inString = prefixXor(quotes) ^ previousInString;
+        previousInString = inString >> 63;
+
+        structurals = (structurals & ~inString) | quotes;
+        while (structurals != 0) {
+            add(offset + Long.numberOfTrailingZeros(structurals));
+            structurals &= structurals - 1;
+        }
+    }
+
+    // The bits of the characters escaped by a backslash: each odd sequence of
+    // backslashes escapes the following character, which might be in the next block.
+    private long escaped(long backslashes) {
+        backslashes &= ~previousEscaped;
+        long followsEscape = backslashes << 1 | previousEscaped;
+
+        // Sequences starting on odd bits are cleared by adding their start,
+        // the carry of the addition flips the parity of the sequences starting on even bits.
+        long oddSequenceStarts = backslashes & ~EVEN_BITS & ~followsEscape;
+        long sequencesStartingOnEvenBits = oddSequenceStarts + backslashes;
+        previousEscaped = Long.compareUnsigned(sequencesStartingOnEvenBits, backslashes) < 0 ? 1L : 0L;
+        long invertMask = sequencesStartingOnEvenBits << 1;
+
+        return (EVEN_BITS ^ invertMask) & followsEscape;
+    }
+
+    // Each bit is set if the number of quotes up to and including it is odd.
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+
+    // Sets the high bit of each byte of the word equal to the byte of the pattern.
+    private static long equal(long word, long pattern) {
+        long bytes = word ^ pattern;
+        return ~(((bytes & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | bytes | LOW_SEVEN_BITS);
+    }
+
+    // An 8 bit mask of the high bits of the bytes of the word, the first byte in the lowest bit.
+    private static long gather(long highBits) {
+        return ((highBits >>> 7) * GATHER_HIGH_BITS) >>> 56;
+    }
+
+    private void add(int offset) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size << 1);
+        }
+        offsets[size++] = offset;
+    }
+}
@@ -0,0 +1,545 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Parses UTF-8 encoded JSON bytes in two stages: the {@link StructuralIndex} of the
+ * input is built first, then values are built walking the index. The bytes between two
+ * structural characters only need to be checked and decoded, without looking for the
+ * following delimiter one character at a time.
+ * <p>
+ * Only strict JSON is parsed by the index: for inputs using the lenient syntax accepted by
+ * {@link JSONParser} (e.g. single quoted strings, unquoted text or missing array elements)
+ * and for not valid inputs, the input is parsed again by {@link JSONParser}. The produced
+ * values and the syntax error messages are therefore always the ones of {@link JSONParser}.
+ */
+public class StructuralParser {
+
+    // Objects with more members (keys and values) use a set to find duplicate keys.
+    private static final int LINEAR_DUPLICATE_CHECK = 32;
+
+    private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private final byte[] input;
+    private final int end;
+    private final int[] offsets;
+    private final NumberMapping numberMapping;
+    private final boolean shareStrings;
+    private final StringCache strings = new StringCache();
+    private final CompactBuilder compact;
+
+    // The next structural offset and the input offset following the last structural character.
+    private int next;
+    private int from;
+
+    private StructuralParser(byte[] input, int start, int end, NumberMapping numberMapping,
+                             boolean shareStrings, boolean compact) {
+        this.input = input;
+        this.end = end;
+        this.offsets = StructuralIndex.of(input, start, end).offsets;
+        this.numberMapping = numberMapping;
+        this.shareStrings = shareStrings;
+        this.compact = compact ? new CompactBuilder() : null;
+        this.from = start;
+    }
+
+    public static Object parse(byte[] input) {
+        return parse(input, NumberMapping.SMALLEST_TYPE, false, false);
+    }
+
+    /**
+     * The number mapping, share strings and compact options are the ones
+     * of {@link JSONParser#JSONParser(JSONInput, NumberMapping, boolean, boolean)}.
+     */
+    public static Object parse(byte[] input, NumberMapping numberMapping, boolean shareStrings, boolean compact) {
+        return parse(input, 0, input.length, numberMapping, shareStrings, compact);
+    }
+
+    /**
+     * The bytes between the buffer position and limit are parsed,
+     * the position of the given buffer is not changed.
+     */
+    public static Object parse(ByteBuffer input, NumberMapping numberMapping, boolean shareStrings, boolean compact) {
+        if (input.hasArray()) {
+            return parse(input.array(), input.arrayOffset() + input.position(), input.remaining(),
+                    numberMapping, shareStrings, compact);
+        }
+        byte[] bytes = new byte[input.remaining()];
+        input.duplicate().get(bytes);
+        return parse(bytes, numberMapping, shareStrings, compact);
+    }
+
+    /**
+     * Parses the first value of the given bytes. Any content following the value is not read.
+     */
+    public static Object parse(byte[] input, int offset, int length,
+                               NumberMapping numberMapping, boolean shareStrings, boolean compact) {
+        int start = offset;
+        int end = offset + length;
+        if (length >= 3 &&
+                input[start] == BYTE_ORDER_MARK[0] &&
+                input[start + 1] == BYTE_ORDER_MARK[1] &&
+                input[start + 2] == BYTE_ORDER_MARK[2]) {
+            start += 3;
+        }
+        try {
+            return new StructuralParser(input, start, end, numberMapping, shareStrings, compact).nextRoot();
+        } catch (NotStrictJSON notStrict) {
+            return new JSONParser(UTF8Input.from(input, offset, length), numberMapping, shareStrings, compact).nextValue();
+        }
+    }
+
+    /**
+     * Parses the elements of a slice of a JSON array, see {@link JSONParser#nextElements()}.
+     */
+    public static List<Object> parseElements(byte[] input, int offset, int length,
+                                             NumberMapping numberMapping, boolean shareStrings, boolean compact) {
+        try {
+            return new StructuralParser(input, offset, offset + length, numberMapping, shareStrings, compact).nextElements();
+        } catch (NotStrictJSON notStrict) {
+            // A slice never starts with a byte order mark, it is not skipped.
+            return new JSONParser(new UTF8Input(input, offset, offset + length), numberMapping, shareStrings, compact).nextElements();
+        }
+    }
+
+    private Object nextRoot() {
+        int offset = nextStructural();
+        switch (input[offset]) {
+            case '{':
+                return compact != null ? nextCompactObject() : nextObject();
+            case '[':
+                return compact != null ? nextCompactArray() : nextArray();
+            default:
+                // Strings and scalar values are left to the parser.
+                throw NotStrictJSON.INSTANCE;
+        }
+    }
+
+    private Object nextValue() {
+        int offset = offsets[next];
+        if (!isWhitespace(from, offset)) {
+            return nextScalar(offset);
+        }
+        if (offset == end) {
+            throw NotStrictJSON.INSTANCE;
+        }
+        next++;
+        from = offset + 1;
+        switch (input[offset]) {
+            case '"':
+                return nextString(offset, shareStrings);
+            case '{':
+                return compact != null ? nextCompactObject() : nextObject();
+            case '[':
+                return compact != null ? nextCompactArray() : nextArray();
+            default:
+                throw NotStrictJSON.INSTANCE;
+        }
+    }
+
+    private List<Object> nextElements() {
+        List<Object> elements = new ArrayList<>();
+        for (;;) {
+            elements.add(nextValue());
+
+            int offset = offsets[next];
+            if (offset == end && isWhitespace(from, end)) {
+                return elements;
+            }
+            if (input[nextStructural()] != ',') {
+                throw NotStrictJSON.INSTANCE;
+            }
+        }
+    }
+
+    private Map<String, Object> nextObject() {
+        Map<String, Object> object = new HashMap<>();
+        int offset = nextStructural();
+        if (input[offset] == '}') {
+            return object;
+        }
+        for (;;) {
+            if (input[offset] != '"') {
+                throw NotStrictJSON.INSTANCE;
+            }
+            String key = nextString(offset, true);
+            if (input[nextStructural()] != ':' || object.containsKey(key)) {
+                throw NotStrictJSON.INSTANCE;
+            }
+            object.put(key, nextValue());
+
+            switch (input[nextStructural()]) {
+                case ',':
+                    offset = nextStructural();
+                    break;
+                case '}':
+                    return object;
+                default:
+                    throw NotStrictJSON.INSTANCE;
+            }
+        }
+    }
+
+    private List<Object> nextArray() {
+        List<Object> array = new ArrayList<>();
+        int offset = offsets[next];
+        if (offset < end && input[offset] == ']' && isWhitespace(from, offset)) {
+            next++;
+            from = offset + 1;
+            return array;
+        }
+        for (;;) {
+            array.add(nextValue());
+
+            switch (input[nextStructural()]) {
+                case ',':
+                    break;
+                case ']':
+                    return array;
+                default:
+                    throw NotStrictJSON.INSTANCE;
+            }
+        }
+    }
+
+    // Same as nextObject, the members are collected on the builder stack.
+    private Map<String, Object> nextCompactObject() {
+        int mark = compact.mark();
+        Set<String> keys = null;
+        int offset = nextStructural();
+        if (input[offset] == '}') {
+            return compact.object(mark);
+        }
+        for (;;) {
+            if (input[offset] != '"') {
+                throw NotStrictJSON.INSTANCE;
+            }
+            String key = nextString(offset, true);
+            if (input[nextStructural()] != ':') {
+                throw NotStrictJSON.INSTANCE;
+            }
+            if (keys == null && compact.size(mark) == LINEAR_DUPLICATE_CHECK) {
+                keys = new HashSet<>();
+                for (int i = mark; i < mark + LINEAR_DUPLICATE_CHECK; i += 2) {
+                    keys.add((String) compact.get(i));
+                }
+            }
+            if (keys != null ? !keys.add(key) : compact.containsKey(mark, key)) {
+                throw NotStrictJSON.INSTANCE;
+            }
+            compact.add(key, nextValue());
+
+            switch (input[nextStructural()]) {
+                case ',':
+                    offset = nextStructural();
+                    break;
+                case '}':
+                    return compact.object(mark);
+                default:
+                    throw NotStrictJSON.INSTANCE;
+            }
+        }
+    }
+
+    // Same as nextArray, the elements are collected on the builder stack.
+    private List<Object> nextCompactArray() {
+        int mark = compact.mark();
+        int offset = offsets[next];
+        if (offset < end && input[offset] == ']' && isWhitespace(from, offset)) {
+            next++;
+            from = offset + 1;
+            return compact.array(mark);
+        }
+        for (;;) {
+            compact.add(nextValue());
+
+            switch (input[nextStructural()]) {
+                case ',':
+                    break;
+                case ']':
+                    return compact.array(mark);
+                default:
+                    throw NotStrictJSON.INSTANCE;
+            }
+        }
+    }
+
+    // The next structural character, which can only be preceded by whitespace.
+    private int nextStructural() {
+        int offset = offsets[next];
+        if (offset == end || !isWhitespace(from, offset)) {
+            throw NotStrictJSON.INSTANCE;
+        }
+        next++;
+        from = offset + 1;
+        return offset;
+    }
+
+    // The opening quote has already been consumed, the index gives the closing quote.
+    private String nextString(int quote, boolean cached) {
+        int closing = offsets[next];
+        if (closing == end) {
+            throw NotStrictJSON.INSTANCE;
+        }
+        next++;
+        from = closing + 1;
+
+        int start = quote + 1;
+        boolean ascii = true;
+        for (int i = start; i < closing; i++) {
+            byte b = input[i];
+            if (b == '\\') {
+                String string = nextEscapedString(start, i, closing);
+                return cached ? strings.get(string) : string;
+            } else if (b < 0) {
+                ascii = false;
+            } else if (b < ' ') {
+                throw NotStrictJSON.INSTANCE;
+            }
+        }
+        if (cached) {
+            return ascii ?
+                    strings.get(input, start, closing) :
+                    strings.get(new String(input, start, closing - start, StandardCharsets.UTF_8));
+        }
+        return new String(input, start, closing - start,
+                ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private String nextEscapedString(int start, int escape, int closing) {
+        StringBuilder builder = new StringBuilder(closing - start);
+        int segment = start;
+        int i = escape;
+        while (i < closing) {
+            byte b = input[i];
+            if (b != '\\') {
+                if (b >= 0 && b < ' ') {
+                    throw NotStrictJSON.INSTANCE;
+                }
+                i++;
+                continue;
+            }
+            builder.append(new String(input, segment, i - segment, StandardCharsets.UTF_8));
+            i++;
+            switch (input[i]) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 'u':
+                    if (i + 4 >= closing) {
+                        throw NotStrictJSON.INSTANCE;
+                    }
+                    builder.append((char) (hex(input[i + 1]) << 12 | hex(input[i + 2]) << 8 |
+                            hex(input[i + 3]) << 4 | hex(input[i + 4])));
+                    i += 4;
+                    break;
+                case '"':
+                case '\'':
+                case '\\':
+                case '/':
+                    builder.append((char) input[i]);
+                    break;
+                default:
+                    throw NotStrictJSON.INSTANCE;
+            }
+            i++;
+            segment = i;
+        }
+        builder.append(new String(input, segment, closing - segment, StandardCharsets.UTF_8));
+        return builder.toString();
+    }
+
+    // A number, true, false or null followed by the given structural character.
+    private Object nextScalar(int structural) {
+        int start = from;
+        while (isWhitespace(input[start])) {
+            start++;
+        }
+        int scalarEnd = structural;
+        while (isWhitespace(input[scalarEnd - 1])) {
+            scalarEnd--;
+        }
+        from = scalarEnd;
+
+        byte first = input[start];
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            return nextNumber(start, scalarEnd);
+        } else if (matches(start, scalarEnd, "true")) {
+            return Boolean.TRUE;
+        } else if (matches(start, scalarEnd, "false")) {
+            return Boolean.FALSE;
+        } else if (matches(start, scalarEnd, "null")) {
+            return null;
+        }
+        throw NotStrictJSON.INSTANCE;
+    }
+
+    // A number with the JSON grammar, converted as the parser does.
+    private Object nextNumber(int start, int numberEnd) {
+        int i = start;
+        if (input[i] == '-') {
+            i++;
+        }
+        int integerStart = i;
+        i = digits(i, numberEnd);
+        int integerDigits = i - integerStart;
+        if (integerDigits == 0 || (integerDigits > 1 && input[integerStart] == '0')) {
+            throw NotStrictJSON.INSTANCE;
+        }
+        boolean integer = true;
+        if (i < numberEnd && input[i] == '.') {
+            int fractionStart = ++i;
+            i = digits(i, numberEnd);
+            if (i == fractionStart) {
+                throw NotStrictJSON.INSTANCE;
+            }
+            integer = false;
+        }
+        if (i < numberEnd && (input[i] == 'e' || input[i] == 'E')) {
+            i++;
+            if (i < numberEnd && (input[i] == '+' || input[i] == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            i = digits(i, numberEnd);
+            if (i == exponentStart) {
+                throw NotStrictJSON.INSTANCE;
+            }
+            integer = false;
+        }
+        if (i != numberEnd) {
+            throw NotStrictJSON.INSTANCE;
+        }
+
+        // Up to 18 digits always fit a long. "-0" is a decimal for the parser.
+        boolean negative = integerStart > start;
+        if (integer && integerDigits <= 18 && !(negative && input[integerStart] == '0')) {
+            long value = 0;
+            for (int digit = integerStart; digit < numberEnd; digit++) {
+                value = value * 10 + (input[digit] - '0');
+            }
+            return NumberParser.toInteger(negative ? -value : value, numberMapping);
+        }
+        if (!integer && numberMapping != NumberMapping.BIG_DECIMAL) {
+            double value = nextDouble(integerStart, numberEnd, negative);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return NumberParser.toNumber(new String(input, start, numberEnd - start, StandardCharsets.ISO_8859_1), numberMapping);
+    }
+
+    // A decimal with the JSON grammar, NaN if it has too many significant digits
+    // or if the fast algorithms cannot decide it.
+    private double nextDouble(int integerStart, int numberEnd, boolean negative) {
+        long significand = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        int i = integerStart;
+        for (; i < numberEnd; i++) {
+            byte b = input[i];
+            if (b == '.') {
+                fraction = true;
+                continue;
+            } else if (b == 'e' || b == 'E') {
+                break;
+            }
+            if (significand != 0 || b != '0') {
+                if (++significantDigits > 19) {
+                    return Double.NaN;
+                }
+                significand = significand * 10 + (b - '0');
+            }
+            if (fraction) {
+                exponent--;
+            }
+        }
+        if (i < numberEnd) {
+            i++;
+            boolean negativeExponent = input[i] == '-';
+            if (negativeExponent || input[i] == '+') {
+                i++;
+            }
+            int exponentValue = 0;
+            for (; i < numberEnd; i++) {
+                if (exponentValue > 9999) {
+                    return Double.NaN;
+                }
+                exponentValue = exponentValue * 10 + (input[i] - '0');
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        double value = NumberParser.toDouble(significand, exponent, negative);
+        return Double.isInfinite(value) ? Double.NaN : value;
+    }
+
+    private int digits(int i, int digitsEnd) {
+        while (i < digitsEnd && input[i] >= '0' && input[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean matches(int start, int scalarEnd, String literal) {
+        if (scalarEnd - start != literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (input[start + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isWhitespace(int start, int whitespaceEnd) {
+        for (int i = start; i < whitespaceEnd; i++) {
+            if (!isWhitespace(input[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static int hex(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        } else if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        } else if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        throw NotStrictJSON.INSTANCE;
+    }
+
+    // Signals an input which is not strict JSON, to be parsed again by the parser.
+    private static class NotStrictJSON extends RuntimeException {
+
+        private static final NotStrictJSON INSTANCE = new NotStrictJSON();
+
+        private NotStrictJSON() {
+            super(null, null, false, false);
+        }
+    }
+}
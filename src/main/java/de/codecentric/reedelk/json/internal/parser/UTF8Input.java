@@ -0,0 +1,423 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import org.reactivestreams.Publisher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link JSONInput} decoding UTF-8 bytes while they are parsed, without
+ * creating a String copy of the whole input. A leading byte order mark is skipped,
+ * characters outside the Basic Multilingual Plane are returned as surrogate pairs
+ * and malformed sequences are replaced with U+FFFD, as {@link String#String(byte[], java.nio.charset.Charset)} does.
+ */
+public class UTF8Input extends JSONInput {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    protected byte[] buffer;
+    protected int position;
+    protected int limit;
+
+    private long index;
+    private long size;
+    private char previous;
+    private boolean usePrevious;
+    private char lowSurrogate;
+
+    protected UTF8Input(byte[] buffer, int position, int limit) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+        this.size = limit - position;
+    }
+
+    public static UTF8Input from(byte[] input) {
+        return from(input, 0, input.length);
+    }
+
+    public static UTF8Input from(byte[] input, int offset, int length) {
+        UTF8Input utf8Input = new UTF8Input(input, offset, offset + length);
+        utf8Input.skipByteOrderMark();
+        return utf8Input;
+    }
+
+    /**
+     * The bytes between the buffer position and limit are parsed,
+     * the position of the given buffer is not changed.
+     */
+    public static UTF8Input from(ByteBuffer input) {
+        if (input.hasArray()) {
+            return from(input.array(), input.arrayOffset() + input.position(), input.remaining());
+        }
+        UTF8Input utf8Input = new ByteBufferInput(input.duplicate());
+        utf8Input.skipByteOrderMark();
+        return utf8Input;
+    }
+
+    /**
+     * The stream is read in chunks while parsing, it is not closed.
+     */
+    public static UTF8Input from(InputStream input) {
+        UTF8Input utf8Input = new InputStreamInput(input);
+        utf8Input.skipByteOrderMark();
+        return utf8Input;
+    }
+
+    /**
+     * The chunks emitted by the publisher are requested one at a time while parsing.
+     * The returned input must be cancelled if the parser stops before the end of the stream.
+     */
+    public static PublisherInput from(Publisher<?> input) {
+        PublisherInput publisherInput = PublisherInput.subscribe(input);
+        try {
+            ((UTF8Input) publisherInput).skipByteOrderMark();
+        } catch (JSONParseException exception) {
+            publisherInput.cancel();
+            throw exception;
+        }
+        return publisherInput;
+    }
+
+    /**
+     * The size of a UTF-8 input is its length in bytes: the bytes given to the input
+     * and the ones read by {@link #fill()} so far, therefore the size of a stream is
+     * checked while it is being read.
+     */
+    @Override
+    void limit(ParseLimits limits) {
+        super.limit(limits);
+        checkSize();
+    }
+
+    @Override
+    public char next() {
+        if (usePrevious) {
+            usePrevious = false;
+            index++;
+            return previous;
+        }
+
+        char c;
+        if (lowSurrogate != 0) {
+            c = lowSurrogate;
+            lowSurrogate = 0;
+        } else {
+            if (position == limit && !fill()) {
+                return END;
+            }
+            int b = buffer[position];
+            if (b > 0) {
+                position++;
+                c = (char) b;
+            } else if (b == 0) {
+                return END;
+            } else {
+                c = decode(b & 0xFF);
+            }
+        }
+        index++;
+        previous = c;
+        return c;
+    }
+
+    @Override
+    public void back() {
+        usePrevious = true;
+        index--;
+    }
+
+    @Override
+    public long index() {
+        return index;
+    }
+
+    @Override
+    public char nextClean() {
+        boolean carriageReturn = false;
+        while (!usePrevious && lowSurrogate == 0) {
+            if (position == limit && !fill()) {
+                return END;
+            }
+            byte b = buffer[position];
+            if (b <= 0 || b > ' ') {
+                // Not whitespace: END, non ASCII and visible
+                // characters are read as any other character.
+                return next();
+            }
+            position++;
+            index++;
+            previous = (char) b;
+            carriageReturn = newLine((char) b, carriageReturn);
+        }
+        return super.nextClean();
+    }
+
+    @Override
+    public String nextString(char quote) {
+        if (!usePrevious && lowSurrogate == 0) {
+            // Fast path: strings without escapes found entirely in the buffer
+            // are decoded in bulk. Quote bytes never occur within multi byte sequences.
+            boolean ascii = true;
+            for (int current = position; current < limit; current++) {
+                byte b = buffer[current];
+                if (b == quote) {
+                    String string = ascii ?
+                            new String(buffer, position, current - position, StandardCharsets.ISO_8859_1) :
+                            new String(buffer, position, current - position, StandardCharsets.UTF_8);
+                    checkLength(string.length());
+                    index += string.length() + 1;
+                    previous = quote;
+                    position = current + 1;
+                    return string;
+                }
+                if (b == '\\' || b == '\n' || b == '\r' || b == 0) {
+                    break;
+                }
+                if (b < 0) {
+                    ascii = false;
+                }
+            }
+        }
+        return super.nextString(quote);
+    }
+
+    @Override
+    String nextString(char quote, StringCache cache) {
+        if (!usePrevious && lowSurrogate == 0) {
+            // Strings of ASCII bytes without escapes are looked up before being created.
+            for (int current = position; current < limit; current++) {
+                byte b = buffer[current];
+                if (b == quote) {
+                    checkLength(current - position);
+                    String string = cache.get(buffer, position, current);
+                    index += string.length() + 1;
+                    previous = quote;
+                    position = current + 1;
+                    return string;
+                }
+                if (b == '\\' || b == '\n' || b == '\r' || b == 0 || b < 0) {
+                    break;
+                }
+            }
+        }
+        return cache.get(nextString(quote));
+    }
+
+    @Override
+    public void skipString(char quote) {
+        while (!usePrevious && lowSurrogate == 0) {
+            // Fast path: the bytes are scanned without being decoded, quote and backslash bytes
+            // never occur within multi byte sequences. The characters are counted to keep the index:
+            // a sequence starting with a 4 bytes lead is a surrogate pair.
+            long characters = 0;
+            int boundary = position;
+            long boundaryCharacters = 0;
+            int current = position;
+            for (; current < limit; current++) {
+                int b = buffer[current] & 0xFF;
+                if (b < 0x80) {
+                    if (b == quote || b == '\\' || b == '\n' || b == '\r' || b == 0) {
+                        break;
+                    }
+                    characters++;
+                    boundary = current + 1;
+                    boundaryCharacters = characters;
+                } else if (b >= 0xC0) {
+                    boundary = current;
+                    boundaryCharacters = characters;
+                    characters += b >= 0xF0 && b <= 0xF4 ? 2 : 1;
+                }
+            }
+
+            if (current == limit) {
+                // A multi byte sequence might continue in the next bytes.
+                position = boundary;
+                index += boundaryCharacters;
+                if (!fill()) {
+                    break;
+                }
+                continue;
+            }
+
+            position = current;
+            index += characters;
+            int b = buffer[current];
+            if (b == quote) {
+                position++;
+                index++;
+                previous = quote;
+                return;
+            } else if (b == '\\') {
+                position++;
+                index++;
+                skipEscape();
+            } else {
+                // An unterminated string: the error is reported character by character.
+                break;
+            }
+        }
+        super.skipString(quote);
+    }
+
+    /**
+     * Reads more bytes into the buffer, keeping the bytes not consumed yet.
+     * The number of bytes read must be given to {@link #received(int)}.
+     *
+     * @return false if there are no more bytes.
+     */
+    protected boolean fill() {
+        return false;
+    }
+
+    protected final void received(int bytes) {
+        size += bytes;
+        checkSize();
+    }
+
+    private void checkSize() {
+        if (size > limits.maxInputSize()) {
+            throw limitError(limits.inputSizeError());
+        }
+    }
+
+    // The error is reported where the string read character by character exceeds the limit.
+    private void checkLength(int length) {
+        if (length > limits.maxStringLength()) {
+            index += limits.maxStringLength() + 1;
+            throw stringLengthError();
+        }
+    }
+
+    // Decodes the multi byte sequence starting with the given lead byte.
+    private char decode(int lead) {
+        int length;
+        int codePoint;
+        int minSecond = 0x80;
+        int maxSecond = 0xBF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            length = 2;
+            codePoint = lead & 0x1F;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            length = 3;
+            codePoint = lead & 0x0F;
+            if (lead == 0xE0) minSecond = 0xA0; // overlong
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            length = 4;
+            codePoint = lead & 0x07;
+            if (lead == 0xF0) minSecond = 0x90; // overlong
+            if (lead == 0xF4) maxSecond = 0x8F; // above U+10FFFF
+        } else {
+            position++;
+            return REPLACEMENT;
+        }
+
+        position++;
+        for (int i = 1; i < length; i++) {
+            if (position == limit && !fill()) {
+                return REPLACEMENT;
+            }
+            int continuation = buffer[position] & 0xFF;
+            int min = i == 1 ? minSecond : 0x80;
+            int max = i == 1 ? maxSecond : 0xBF;
+            if (continuation < min || continuation > max) {
+                // The malformed byte is decoded again as the start of the next character.
+                return REPLACEMENT;
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+            position++;
+        }
+
+        if (length == 3 && Character.isSurrogate((char) codePoint)) {
+            // Encoded surrogates are malformed.
+            return REPLACEMENT;
+        }
+        if (length == 4) {
+            lowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        return (char) codePoint;
+    }
+
+    private void skipByteOrderMark() {
+        if (ensure(3) &&
+                buffer[position] == (byte) 0xEF &&
+                buffer[position + 1] == (byte) 0xBB &&
+                buffer[position + 2] == (byte) 0xBF) {
+            position += 3;
+        }
+    }
+
+    private boolean ensure(int bytes) {
+        while (limit - position < bytes) {
+            if (!fill()) return false;
+        }
+        return true;
+    }
+
+    // Moves the bytes not consumed yet to the beginning of the buffer
+    // and returns the number of bytes which can be read into it.
+    protected int compact() {
+        int remaining = limit - position;
+        if (remaining > 0 && position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        return buffer.length - remaining;
+    }
+
+    private static class InputStreamInput extends UTF8Input {
+
+        private final InputStream stream;
+
+        InputStreamInput(InputStream stream) {
+            super(new byte[BUFFER_SIZE], 0, 0);
+            this.stream = stream;
+        }
+
+        @Override
+        protected boolean fill() {
+            int available = compact();
+            try {
+                int read;
+                do {
+                    read = stream.read(buffer, limit, available);
+                } while (read == 0);
+                if (read < 0) {
+                    return false;
+                }
+                limit += read;
+                received(read);
+                return true;
+            } catch (IOException exception) {
+                throw new JSONParseException(exception.getMessage(), exception);
+            }
+        }
+    }
+
+    private static class ByteBufferInput extends UTF8Input {
+
+        private final ByteBuffer input;
+
+        ByteBufferInput(ByteBuffer input) {
+            super(new byte[Math.min(BUFFER_SIZE, Math.max(input.remaining(), 4))], 0, 0);
+            this.input = input;
+        }
+
+        @Override
+        protected boolean fill() {
+            if (!input.hasRemaining()) {
+                return false;
+            }
+            int length = Math.min(compact(), input.remaining());
+            input.get(buffer, limit, length);
+            limit += length;
+            received(length);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7396). A patch object replaces the values of its members in the
+ * document, removes the members whose patch value is null and merges nested patch objects
+ * into the document objects. A patch which is not an object replaces the whole document.
+ * <p>
+ * The document is rewritten in a single pass: the members of the patched objects which are
+ * not in the patch are copied as they are, including their whitespace, and only the objects
+ * on the way to a patched member are scanned member by member. A document received in chunks
+ * is rewritten chunk by chunk by a {@link MergePatchWriter}, see {@link #writer()}.
+ */
+public class MergePatch implements Patch {
+
+    private final byte[] patch;
+    private final Map<String, Member> root;
+    private final int rootStart;
+    private final int rootEnd;
+
+    private MergePatch(byte[] patch, Map<String, Member> root, int rootStart, int rootEnd) {
+        this.patch = patch;
+        this.root = root;
+        this.rootStart = rootStart;
+        this.rootEnd = rootEnd;
+    }
+
+    /**
+     * @param patch the UTF-8 encoded merge patch, which is kept by the compiled patch.
+     * @throws de.codecentric.reedelk.json.internal.parser.JSONParseException if the patch is not a valid JSON.
+     */
+    public static MergePatch compile(byte[] patch) {
+        int start = RawJSON.root(patch, 0, patch.length);
+        int end = RawJSON.valueEnd(patch, start, patch.length);
+        RawJSON.validate(patch, start, end);
+        Map<String, Member> root = patch[start] == '{' ? members(patch, start) : null;
+        return new MergePatch(patch, root, start, end);
+    }
+
+    @Override
+    public byte[] apply(byte[] document, int offset, int length) {
+        int limit = offset + length;
+        int start = RawJSON.root(document, offset, limit);
+        if (root == null) {
+            return Arrays.copyOfRange(patch, rootStart, rootEnd);
+        }
+        UTF8Output out = new UTF8Output(length + rootEnd - rootStart);
+        merge(root, document, start, limit, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return a new writer rewriting a single document chunk by chunk.
+     */
+    public MergePatchWriter writer() {
+        return new MergePatchWriter(this);
+    }
+
+    // The members of the root patch object, null if the patch is not an object.
+    Map<String, Member> root() {
+        return root;
+    }
+
+    // The patch which is not an object, replacing the whole document.
+    void writeRoot(UTF8Output out) {
+        out.append(patch, rootStart, rootEnd);
+    }
+
+    private void merge(Map<String, Member> members, byte[] document, int start, int limit, UTF8Output out) {
+        if (document[start] != '{') {
+            // The patch replaces any value which is not an object.
+            write(members, out);
+            return;
+        }
+
+        Set<String> patched = new HashSet<>();
+        RawJSON.Entries entries = new RawJSON.Entries(document, start, limit);
+        boolean first = true;
+        out.append('{');
+        while (entries.next()) {
+            Member member = members.get(entries.key());
+            if (member == null) {
+                if (!first) out.append(',');
+                out.append(document, entries.segmentStart, entries.valueEnd);
+                first = false;
+                continue;
+            }
+            patched.add(member.name);
+            if (member.remove) {
+                continue;
+            }
+            if (!first) out.append(',');
+            out.append(document, entries.segmentStart, entries.valueStart);
+            if (member.members != null) {
+                merge(member.members, document, entries.valueStart, limit, out);
+            } else {
+                out.append(patch, member.valueStart, member.valueEnd);
+            }
+            first = false;
+        }
+
+        for (Member member : members.values()) {
+            if (member.remove || patched.contains(member.name)) continue;
+            if (!first) out.append(',');
+            writeMember(member, out);
+            first = false;
+        }
+        if (entries.count > 0) {
+            // The whitespace between the last member and the closing brace.
+            out.append(document, entries.valueEnd, entries.close);
+        }
+        out.append('}');
+    }
+
+    // The patch object merged into an empty object: its members without the null ones.
+    void write(Map<String, Member> members, UTF8Output out) {
+        out.append('{');
+        boolean first = true;
+        for (Member member : members.values()) {
+            if (member.remove) continue;
+            if (!first) out.append(',');
+            writeMember(member, out);
+            first = false;
+        }
+        out.append('}');
+    }
+
+    void writeValue(Member member, UTF8Output out) {
+        out.append(patch, member.valueStart, member.valueEnd);
+    }
+
+    void writeMember(Member member, UTF8Output out) {
+        out.append(patch, member.keyStart, member.keyEnd).append(':');
+        if (member.members != null) {
+            write(member.members, out);
+        } else {
+            out.append(patch, member.valueStart, member.valueEnd);
+        }
+    }
+
+    private static Map<String, Member> members(byte[] patch, int start) {
+        Map<String, Member> members = new LinkedHashMap<>();
+        RawJSON.Entries entries = new RawJSON.Entries(patch, start, patch.length);
+        while (entries.next()) {
+            Member member = new Member(entries.key(), entries.keyStart, entries.keyEnd, entries.valueStart, entries.valueEnd);
+            byte value = patch[entries.valueStart];
+            if (value == '{') {
+                member.members = members(patch, entries.valueStart);
+            } else if (value == 'n') {
+                member.remove = true;
+            }
+            // The last occurrence of a repeated member wins.
+            members.remove(member.name);
+            members.put(member.name, member);
+        }
+        return members;
+    }
+
+    static class Member {
+
+        final String name;
+        final int keyStart;
+        final int keyEnd;
+        final int valueStart;
+        final int valueEnd;
+        Map<String, Member> members;
+        boolean remove;
+
+        Member(String name, int keyStart, int keyEnd, int valueStart, int valueEnd) {
+            this.name = name;
+            this.keyStart = keyStart;
+            this.keyEnd = keyEnd;
+            this.valueStart = valueStart;
+            this.valueEnd = valueEnd;
+        }
+    }
+}
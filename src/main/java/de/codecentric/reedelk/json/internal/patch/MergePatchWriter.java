@@ -0,0 +1,308 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+import de.codecentric.reedelk.json.internal.writer.UTF8Output;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites a document received in chunks with a {@link MergePatch}, giving the same output
+ * as {@link MergePatch#apply(byte[], int, int)}. Each chunk is rewritten as soon as it is
+ * received: the bytes of the values which are not patched are copied to the output as they
+ * are, only the key and the whitespace preceding the value of the current member are kept
+ * until it is known whether the member is copied, replaced or removed.
+ * A writer rewrites a single document, it is not thread safe.
+ */
+public class MergePatchWriter {
+
+    private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    // Before the root value, in a patched object and after the root value.
+    private static final int ROOT = 0;
+    private static final int OBJECT_START = 1;
+    private static final int MEMBER_START = 2;
+    private static final int KEY = 3;
+    private static final int AFTER_KEY = 4;
+    private static final int VALUE_START = 5;
+    private static final int AFTER_VALUE = 6;
+    private static final int END = 7;
+    // A value copied or skipped up to its end.
+    private static final int VALUE = 8;
+
+    private final MergePatch patch;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    // The bytes of the current member preceding its value, from the opening bracket or the comma.
+    private final UTF8Output segment = new UTF8Output(64);
+    // The key of the current member, including its quotes.
+    private final UTF8Output key = new UTF8Output(32);
+    // The whitespace following the value of the last member.
+    private final UTF8Output trailing = new UTF8Output(16);
+
+    private UTF8Output out;
+    private int state = ROOT;
+    private long offset;
+    private int byteOrderMark;
+    private boolean escape;
+
+    // The value being copied (or skipped if not copied).
+    private boolean copy;
+    private boolean scalar;
+    private boolean string;
+    private int depth;
+
+    MergePatchWriter(MergePatch patch) {
+        this.patch = patch;
+    }
+
+    /**
+     * Rewrites the next chunk of the UTF-8 encoded document.
+     *
+     * @return the UTF-8 encoded bytes of the patched document written for the chunk.
+     * @throws de.codecentric.reedelk.json.internal.parser.JSONParseException if the document is not a valid JSON.
+     */
+    public byte[] write(byte[] chunk, int offset, int length) {
+        out = new UTF8Output(length + 16);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            byte b = chunk[i];
+            if (state == ROOT && this.offset == byteOrderMark && byteOrderMark < 3 && b == BYTE_ORDER_MARK[byteOrderMark]) {
+                byteOrderMark++;
+            } else {
+                while (!next(b)) {
+                    // The byte ending a number or a literal is the next byte of the enclosing value.
+                }
+            }
+            this.offset++;
+        }
+        byte[] written = out.toByteArray();
+        out = null;
+        return written;
+    }
+
+    /**
+     * Checks that the document received so far is complete.
+     *
+     * @throws de.codecentric.reedelk.json.internal.parser.JSONParseException if the root value has not ended.
+     */
+    public void finish() {
+        if (state != END && !(state == VALUE && scalar && frames.isEmpty())) {
+            throw RawJSON.error(offset);
+        }
+        state = END;
+    }
+
+    // Returns false if the byte has not been consumed: it ended the number or literal being scanned.
+    private boolean next(byte b) {
+        switch (state) {
+            case VALUE:
+                return nextOfValue(b);
+            case ROOT:
+                if (!isWhitespace(b)) {
+                    startRoot(b);
+                }
+                return true;
+            case OBJECT_START:
+            case MEMBER_START:
+                if (isWhitespace(b)) {
+                    segment.append(b);
+                } else if (b == '"') {
+                    segment.append('"');
+                    key.append('"');
+                    escape = false;
+                    state = KEY;
+                } else if (b == '}' && state == OBJECT_START) {
+                    endObject();
+                } else {
+                    throw RawJSON.error(offset);
+                }
+                return true;
+            case KEY:
+                segment.append(b);
+                key.append(b);
+                if (escape) {
+                    escape = false;
+                } else if (b == '\\') {
+                    escape = true;
+                } else if (b == '"') {
+                    state = AFTER_KEY;
+                }
+                return true;
+            case AFTER_KEY:
+                if (b == ':') {
+                    state = VALUE_START;
+                } else if (!isWhitespace(b)) {
+                    throw RawJSON.error(offset);
+                }
+                segment.append(b);
+                return true;
+            case VALUE_START:
+                if (isWhitespace(b)) {
+                    segment.append(b);
+                } else {
+                    startMember(b);
+                }
+                return true;
+            case AFTER_VALUE:
+                if (isWhitespace(b)) {
+                    trailing.append(b);
+                } else if (b == ',') {
+                    segment.reset(64);
+                    state = MEMBER_START;
+                } else if (b == '}') {
+                    endObject();
+                } else {
+                    throw RawJSON.error(offset);
+                }
+                return true;
+            default:
+                if (!isWhitespace(b)) {
+                    throw RawJSON.error(offset);
+                }
+                return true;
+        }
+    }
+
+    private void startRoot(byte b) {
+        Map<String, MergePatch.Member> root = patch.root();
+        if (root == null) {
+            // The patch replaces the whole document, which is only checked.
+            patch.writeRoot(out);
+            startValue(b, false);
+        } else if (b == '{') {
+            startObject(root);
+        } else {
+            // The patch replaces any value which is not an object.
+            patch.write(root, out);
+            startValue(b, false);
+        }
+    }
+
+    private void startMember(byte b) {
+        Frame frame = frames.peek();
+        frame.count++;
+        MergePatch.Member member = frame.members.get(RawJSON.string(key.toByteArray(), 0, key.size()));
+        key.reset(32);
+        if (member == null) {
+            separate(frame);
+            out.append(segment);
+            startValue(b, true);
+            return;
+        }
+        frame.patched.add(member.name);
+        if (member.remove) {
+            startValue(b, false);
+            return;
+        }
+        separate(frame);
+        out.append(segment);
+        if (member.members != null && b == '{') {
+            startObject(member.members);
+        } else if (member.members != null) {
+            patch.write(member.members, out);
+            startValue(b, false);
+        } else {
+            patch.writeValue(member, out);
+            startValue(b, false);
+        }
+    }
+
+    private void startObject(Map<String, MergePatch.Member> members) {
+        out.append('{');
+        frames.push(new Frame(members));
+        segment.reset(64);
+        state = OBJECT_START;
+    }
+
+    private void endObject() {
+        Frame frame = frames.pop();
+        for (MergePatch.Member member : frame.members.values()) {
+            if (member.remove || frame.patched.contains(member.name)) continue;
+            separate(frame);
+            patch.writeMember(member, out);
+        }
+        if (frame.count > 0) {
+            // The whitespace between the last member and the closing brace.
+            out.append(trailing);
+        }
+        out.append('}');
+        endValue();
+    }
+
+    private void startValue(byte b, boolean copy) {
+        this.copy = copy;
+        scalar = false;
+        string = false;
+        depth = 0;
+        if (b == '"') {
+            string = true;
+            escape = false;
+        } else if (b == '{' || b == '[') {
+            depth = 1;
+        } else if (b == '-' || (b >= '0' && b <= '9') || b == 't' || b == 'f' || b == 'n') {
+            scalar = true;
+        } else {
+            throw RawJSON.error(offset);
+        }
+        if (copy) out.append(b);
+        state = VALUE;
+    }
+
+    private boolean nextOfValue(byte b) {
+        if (scalar) {
+            if (isWhitespace(b) || b == ',' || b == '}' || b == ']') {
+                endValue();
+                return false;
+            }
+        } else if (string) {
+            if (escape) {
+                escape = false;
+            } else if (b == '\\') {
+                escape = true;
+            } else if (b == '"') {
+                string = false;
+            }
+        } else if (b == '"') {
+            string = true;
+            escape = false;
+        } else if (b == '{' || b == '[') {
+            depth++;
+        } else if (b == '}' || b == ']') {
+            depth--;
+        }
+        if (copy) out.append(b);
+        if (!scalar && !string && depth == 0) {
+            endValue();
+        }
+        return true;
+    }
+
+    private void endValue() {
+        trailing.reset(16);
+        state = frames.isEmpty() ? END : AFTER_VALUE;
+    }
+
+    private void separate(Frame frame) {
+        if (!frame.first) out.append(',');
+        frame.first = false;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    // A patched object of the document.
+    private static class Frame {
+
+        final Map<String, MergePatch.Member> members;
+        final Set<String> patched = new HashSet<>();
+        boolean first = true;
+        int count;
+
+        Frame(Map<String, MergePatch.Member> members) {
+            this.members = members;
+        }
+    }
+}
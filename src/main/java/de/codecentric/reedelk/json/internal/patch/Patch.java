@@ -0,0 +1,18 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+/**
+ * A compiled patch, applied to UTF-8 encoded JSON documents. The document is scanned once
+ * for each change: the values on the way to a change are rewritten, any other value is
+ * copied to the output as it is, without being decoded.
+ */
+public interface Patch {
+
+    /**
+     * Applies the patch to the document between offset and offset + length.
+     *
+     * @return the patched document.
+     * @throws de.codecentric.reedelk.json.internal.parser.JSONParseException if the document is not a valid JSON.
+     * @throws IllegalStateException if the patch cannot be applied to the document.
+     */
+    byte[] apply(byte[] document, int offset, int length);
+}
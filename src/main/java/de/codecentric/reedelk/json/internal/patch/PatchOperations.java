@@ -0,0 +1,396 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.internal.parser.JSONParser;
+import de.codecentric.reedelk.json.internal.parser.JSONPointer;
+import de.codecentric.reedelk.json.internal.parser.UTF8Input;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON Patch (RFC 6902): a list of add, remove, replace, move, copy and test operations,
+ * applied in order. The document is copied once into a buffer and each operation scans it
+ * down to its path and splices the changed value into the buffer in place: only the bytes
+ * following the changed value are shifted, the rest of the document is neither copied nor
+ * decoded. Values are compared by the test operation only after decoding them,
+ * numbers are equal if their values are equal (e.g. 1 and 1.0).
+ */
+public class PatchOperations implements Patch {
+
+    private static final byte[] COMMA = { ',' };
+
+    enum OperationType {
+        ADD("add"),
+        REMOVE("remove"),
+        REPLACE("replace"),
+        MOVE("move"),
+        COPY("copy"),
+        TEST("test");
+
+        private final String op;
+
+        OperationType(String op) {
+            this.op = op;
+        }
+
+        // The 'op' values are case sensitive (RFC 6902): e.g. 'ADD' is not an operation.
+        static OperationType of(String op) {
+            for (OperationType type : values()) {
+                if (type.op.equals(op)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    static class Operation {
+
+        final OperationType type;
+        final JSONPointer path;
+        final JSONPointer from;
+        final byte[] value;
+
+        Operation(OperationType type, JSONPointer path, JSONPointer from, byte[] value) {
+            this.type = type;
+            this.path = path;
+            this.from = from;
+            this.value = value;
+        }
+    }
+
+    private final List<Operation> operations;
+
+    private PatchOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * @param patch the UTF-8 encoded JSON array of the operations.
+     * @throws de.codecentric.reedelk.json.internal.parser.JSONParseException if the patch is not a valid JSON.
+     * @throws IllegalArgumentException                                        if an operation is not valid.
+     */
+    public static PatchOperations compile(byte[] patch) {
+        int start = RawJSON.root(patch, 0, patch.length);
+        RawJSON.validate(patch, start, RawJSON.valueEnd(patch, start, patch.length));
+        if (patch[start] != '[') {
+            throw new IllegalArgumentException("The patch must be an array of operations");
+        }
+        List<Operation> operations = new ArrayList<>();
+        RawJSON.Entries entries = new RawJSON.Entries(patch, start, patch.length);
+        while (entries.next()) {
+            operations.add(operation(patch, entries.valueStart, operations.size()));
+        }
+        return new PatchOperations(operations);
+    }
+
+    @Override
+    public byte[] apply(byte[] document, int offset, int length) {
+        int limit = offset + length;
+        int start = RawJSON.root(document, offset, limit);
+        Buffer patched = new Buffer(document, start, RawJSON.valueEnd(document, start, limit));
+        for (Operation operation : operations) {
+            apply(operation, patched);
+        }
+        return patched.toByteArray();
+    }
+
+    private static void apply(Operation operation, Buffer document) {
+        switch (operation.type) {
+            case ADD:
+                add(document, operation.path, operation.value);
+                break;
+            case REMOVE:
+                remove(document, operation.path);
+                break;
+            case REPLACE:
+                replace(document, operation.path, operation.value);
+                break;
+            case MOVE:
+                if (operation.from.equals(operation.path)) {
+                    break;
+                }
+                if (operation.path.isDescendantOf(operation.from)) {
+                    throw new IllegalStateException("The path '" + operation.from + "' cannot be moved to its child '" + operation.path + "'");
+                }
+                byte[] moved = value(document, operation.from);
+                remove(document, operation.from);
+                add(document, operation.path, moved);
+                break;
+            case COPY:
+                add(document, operation.path, value(document, operation.from));
+                break;
+            case TEST:
+                Object actual = decode(value(document, operation.path));
+                if (!isEqual(actual, decode(operation.value))) {
+                    throw new IllegalStateException("The value at path '" + operation.path + "' is not equal to the tested value");
+                }
+                break;
+            default:
+                throw new IllegalStateException("Operation " + operation.type + " not supported");
+        }
+    }
+
+    private static void add(Buffer document, JSONPointer path, byte[] value) {
+        if (path.isRoot()) {
+            document.splice(0, document.length, value);
+            return;
+        }
+        Location location = locate(document, path);
+        String token = path.tokens().get(path.size() - 1);
+        if (location.object) {
+            if (location.found()) {
+                document.splice(location.valueStart, location.valueEnd, value);
+                return;
+            }
+            byte[] member = (JSONObject.quote(token) + ':').getBytes(StandardCharsets.UTF_8);
+            if (location.count == 0) {
+                document.splice(location.appendAt, location.appendAt, member, value);
+            } else {
+                document.splice(location.appendAt, location.appendAt, COMMA, member, value);
+            }
+            return;
+        }
+        if (location.found()) {
+            document.splice(location.valueStart, location.valueStart, value, COMMA);
+            return;
+        }
+        if (!token.equals("-") && JSONPointer.indexOf(token) != location.count) {
+            throw notFound(path);
+        }
+        if (location.count == 0) {
+            document.splice(location.appendAt, location.appendAt, value);
+        } else {
+            document.splice(location.appendAt, location.appendAt, COMMA, value);
+        }
+    }
+
+    private static void remove(Buffer document, JSONPointer path) {
+        if (path.isRoot()) {
+            throw new IllegalStateException("The whole document cannot be removed");
+        }
+        Location location = locate(document, path);
+        if (!location.found()) {
+            throw notFound(path);
+        }
+        document.splice(location.removeStart, location.removeEnd);
+    }
+
+    private static void replace(Buffer document, JSONPointer path, byte[] value) {
+        if (path.isRoot()) {
+            document.splice(0, document.length, value);
+            return;
+        }
+        Location location = locate(document, path);
+        if (!location.found()) {
+            throw notFound(path);
+        }
+        document.splice(location.valueStart, location.valueEnd, value);
+    }
+
+    // The value is copied: the buffer is changed by the following operations.
+    private static byte[] value(Buffer document, JSONPointer path) {
+        if (path.isRoot()) {
+            return document.toByteArray();
+        }
+        Location location = locate(document, path);
+        if (!location.found()) {
+            throw notFound(path);
+        }
+        return Arrays.copyOfRange(document.bytes, location.valueStart, location.valueEnd);
+    }
+
+    // Finds the value the path refers to and the container it belongs to. The containers on
+    // the way to the value must exist, the value itself might not exist (e.g. to be added).
+    private static Location locate(Buffer document, JSONPointer path) {
+        List<String> tokens = path.tokens();
+        int container = 0;
+        for (int i = 0; i < tokens.size() - 1; i++) {
+            Location child = find(document, container, tokens.get(i));
+            if (child == null || !child.found()) {
+                throw notFound(path);
+            }
+            container = child.valueStart;
+        }
+        Location location = find(document, container, tokens.get(tokens.size() - 1));
+        if (location == null) {
+            throw notFound(path);
+        }
+        return location;
+    }
+
+    // The member or element of the container (an object or an array) starting at the given
+    // index, null if the value at the given index is not a container.
+    private static Location find(Buffer document, int container, String token) {
+        byte type = document.bytes[container];
+        if (type != '{' && type != '[') {
+            return null;
+        }
+        Location location = new Location(type == '{');
+        int index = location.object ? -1 : JSONPointer.indexOf(token);
+        int previousEnd = -1;
+        int matchPreviousEnd = -1;
+        RawJSON.Entries entries = new RawJSON.Entries(document.bytes, container, document.length);
+        while (entries.next()) {
+            if (location.found()) {
+                // The value is followed by another entry: it is removed with its comma, up to the next entry.
+                location.removeEnd = entries.entryStart();
+                return location;
+            }
+            if (location.object ? token.equals(entries.key()) : entries.count - 1 == index) {
+                location.valueStart = entries.valueStart;
+                location.valueEnd = entries.valueEnd;
+                location.removeStart = entries.entryStart();
+                location.removeEnd = entries.valueEnd;
+                matchPreviousEnd = previousEnd;
+            }
+            previousEnd = entries.valueEnd;
+        }
+        if (location.found() && matchPreviousEnd != -1) {
+            // The last entry is removed with the comma, from the end of the previous one.
+            location.removeStart = matchPreviousEnd;
+        }
+        location.count = entries.count;
+        location.appendAt = entries.count == 0 ? entries.close : entries.valueEnd;
+        return location;
+    }
+
+    private static Object decode(byte[] value) {
+        return new JSONParser(UTF8Input.from(value), NumberMapping.BIG_DECIMAL).nextValue();
+    }
+
+    // Numbers are compared by value, Maps and Lists by their content.
+    private static boolean isEqual(Object actual, Object expected) {
+        if (actual instanceof BigDecimal && expected instanceof BigDecimal) {
+            return ((BigDecimal) actual).compareTo((BigDecimal) expected) == 0;
+        } else if (actual instanceof Map && expected instanceof Map) {
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            if (actualMap.size() != expectedMap.size()) return false;
+            for (Map.Entry<?, ?> entry : actualMap.entrySet()) {
+                if (!expectedMap.containsKey(entry.getKey()) ||
+                        !isEqual(entry.getValue(), expectedMap.get(entry.getKey()))) return false;
+            }
+            return true;
+        } else if (actual instanceof List && expected instanceof List) {
+            List<?> actualList = (List<?>) actual;
+            List<?> expectedList = (List<?>) expected;
+            if (actualList.size() != expectedList.size()) return false;
+            Iterator<?> expectedValues = expectedList.iterator();
+            for (Object value : actualList) {
+                if (!isEqual(value, expectedValues.next())) return false;
+            }
+            return true;
+        } else {
+            return actual == null ? expected == null : actual.equals(expected);
+        }
+    }
+
+    private static Operation operation(byte[] patch, int start, int position) {
+        if (patch[start] != '{') {
+            throw new IllegalArgumentException("Operation " + position + " is not an object");
+        }
+        String op = null;
+        String path = null;
+        String from = null;
+        byte[] value = null;
+        RawJSON.Entries members = new RawJSON.Entries(patch, start, patch.length);
+        while (members.next()) {
+            String name = members.key();
+            if (name.equals("value")) {
+                value = Arrays.copyOfRange(patch, members.valueStart, members.valueEnd);
+            } else if (name.equals("op") || name.equals("path") || name.equals("from")) {
+                if (patch[members.valueStart] != '"') {
+                    throw new IllegalArgumentException("Member '" + name + "' of operation " + position + " is not a string");
+                }
+                String string = RawJSON.string(patch, members.valueStart, members.valueEnd);
+                if (name.equals("op")) op = string;
+                else if (name.equals("path")) path = string;
+                else from = string;
+            }
+        }
+
+        if (op == null) {
+            throw new IllegalArgumentException("Operation " + position + " has no 'op' member");
+        }
+        OperationType type = OperationType.of(op);
+        if (type == null) {
+            throw new IllegalArgumentException("Operation " + position + " has an unknown 'op' '" + op + "'");
+        }
+        if (path == null) {
+            throw new IllegalArgumentException("Operation " + position + " has no 'path' member");
+        }
+        if ((type == OperationType.ADD || type == OperationType.REPLACE || type == OperationType.TEST) && value == null) {
+            throw new IllegalArgumentException("Operation " + position + " has no 'value' member");
+        }
+        if ((type == OperationType.MOVE || type == OperationType.COPY) && from == null) {
+            throw new IllegalArgumentException("Operation " + position + " has no 'from' member");
+        }
+        return new Operation(type, JSONPointer.parse(path), from == null ? null : JSONPointer.parse(from), value);
+    }
+
+    private static IllegalStateException notFound(JSONPointer path) {
+        return new IllegalStateException("The path '" + path + "' does not exist");
+    }
+
+    // The patched document: a byte array whose capacity grows when an insertion does not fit.
+    private static class Buffer {
+
+        byte[] bytes;
+        int length;
+
+        Buffer(byte[] document, int start, int end) {
+            this.length = end - start;
+            this.bytes = Arrays.copyOfRange(document, start, end + Math.max(length >> 3, 16));
+        }
+
+        // Replaces the bytes between start and end with the insertions, shifting the following bytes.
+        void splice(int start, int end, byte[]... insertions) {
+            int inserted = 0;
+            for (byte[] insertion : insertions) {
+                inserted += insertion.length;
+            }
+            int newLength = length - (end - start) + inserted;
+            if (newLength > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(newLength, bytes.length + (bytes.length >> 1)));
+            }
+            System.arraycopy(bytes, end, bytes, start + inserted, length - end);
+            for (byte[] insertion : insertions) {
+                System.arraycopy(insertion, 0, bytes, start, insertion.length);
+                start += insertion.length;
+            }
+            length = newLength;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    // The position of a value within its container.
+    private static class Location {
+
+        final boolean object;
+        int valueStart = -1;
+        int valueEnd;
+        int removeStart;
+        int removeEnd;
+        int appendAt;
+        int count;
+
+        Location(boolean object) {
+            this.object = object;
+        }
+
+        boolean found() {
+            return valueStart != -1;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import de.codecentric.reedelk.json.internal.writer.JSONFormatter;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scans UTF-8 encoded JSON bytes without decoding them, so that the values which are not
+ * patched can be copied as they are. Only the structure on the way to the patched values
+ * is checked: the values which are skipped are only scanned for their end.
+ */
+final class RawJSON {
+
+    private RawJSON() {
+    }
+
+    /**
+     * @return the index of the first byte after the byte order mark, if any, and the whitespace.
+     */
+    static int skipByteOrderMark(byte[] json, int index, int limit) {
+        if (limit - index >= 3 && json[index] == (byte) 0xEF && json[index + 1] == (byte) 0xBB && json[index + 2] == (byte) 0xBF) {
+            index += 3;
+        }
+        return skipWhitespace(json, index, limit);
+    }
+
+    static int skipWhitespace(byte[] json, int index, int limit) {
+        while (index < limit) {
+            byte b = json[index];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') break;
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the root value, which must be the only value between index and limit.
+     */
+    static int root(byte[] json, int index, int limit) {
+        int start = skipByteOrderMark(json, index, limit);
+        int end = skipWhitespace(json, valueEnd(json, start, limit), limit);
+        if (end != limit) throw error(end);
+        return start;
+    }
+
+    /**
+     * Checks that the value between start and end strictly follows the JSON grammar.
+     * The values of the documents are not checked, the patch values are, since they
+     * are written to the patched documents.
+     */
+    static void validate(byte[] json, int start, int end) {
+        byte[] array = new byte[end - start + 2];
+        array[0] = '[';
+        System.arraycopy(json, start, array, 1, end - start);
+        array[array.length - 1] = ']';
+        JSONFormatter formatter = new JSONFormatter(0);
+        try {
+            formatter.format(array, 0, array.length);
+            formatter.finish();
+        } catch (JSONParseException exception) {
+            // The offset in the given bytes, the wrapped value starts at offset 1.
+            throw error(start + (int) formatter.offset() - 1);
+        }
+    }
+
+    /**
+     * @return the index following the value starting at the given index.
+     */
+    static int valueEnd(byte[] json, int index, int limit) {
+        if (index >= limit) throw error(index);
+        byte c = json[index];
+        if (c == '"') {
+            return stringEnd(json, index, limit);
+
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            for (int i = index; i < limit; i++) {
+                byte b = json[i];
+                if (b == '"') {
+                    i = stringEnd(json, i, limit) - 1;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    return i + 1;
+                }
+            }
+            throw error(limit);
+
+        } else if (c == '-' || (c >= '0' && c <= '9') || c == 't' || c == 'f' || c == 'n') {
+            int i = index + 1;
+            while (i < limit && !isDelimiter(json[i])) i++;
+            return i;
+
+        } else {
+            throw error(index);
+        }
+    }
+
+    /**
+     * @return the index following the closing quote of the string starting at the given index.
+     */
+    static int stringEnd(byte[] json, int index, int limit) {
+        for (int i = index + 1; i < limit; i++) {
+            byte b = json[i];
+            if (b == '"') return i + 1;
+            if (b == '\\') i++;
+        }
+        throw error(limit);
+    }
+
+    /**
+     * @return the decoded string between start (the opening quote) and end (following the closing quote).
+     */
+    static String string(byte[] json, int start, int end) {
+        int from = start + 1;
+        int to = end - 1;
+        int escape = indexOf(json, '\\', from, to);
+        if (escape == -1) {
+            return new String(json, from, to - from, StandardCharsets.UTF_8);
+        }
+        StringBuilder string = new StringBuilder(to - from);
+        while (escape != -1) {
+            string.append(new String(json, from, escape - from, StandardCharsets.UTF_8));
+            if (escape + 1 >= to) throw error(escape);
+            byte c = json[escape + 1];
+            from = escape + 2;
+            switch (c) {
+                case '"': string.append('"'); break;
+                case '\\': string.append('\\'); break;
+                case '/': string.append('/'); break;
+                case 'b': string.append('\b'); break;
+                case 'f': string.append('\f'); break;
+                case 'n': string.append('\n'); break;
+                case 'r': string.append('\r'); break;
+                case 't': string.append('\t'); break;
+                case 'u':
+                    if (from + 4 > to) throw error(escape);
+                    int codeUnit = 0;
+                    for (int i = from; i < from + 4; i++) {
+                        int digit = Character.digit(json[i], 16);
+                        if (digit < 0) throw error(i);
+                        codeUnit = (codeUnit << 4) | digit;
+                    }
+                    string.append((char) codeUnit);
+                    from += 4;
+                    break;
+                default:
+                    throw error(escape + 1);
+            }
+            escape = indexOf(json, '\\', from, to);
+        }
+        string.append(new String(json, from, to - from, StandardCharsets.UTF_8));
+        return string.toString();
+    }
+
+    static JSONParseException error(long offset) {
+        return new JSONParseException("Unexpected character at offset " + offset);
+    }
+
+    private static int indexOf(byte[] json, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (json[i] == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == ']' || b == '}' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Iterates the members of an object or the elements of an array. For each entry the
+     * indexes of its key (for object members) and of its value are available, together
+     * with the index where the entry begins, right after the opening bracket or the comma.
+     */
+    static class Entries {
+
+        private final byte[] json;
+        private final int limit;
+        private final boolean object;
+        private final byte closing;
+        private int next;
+
+        int segmentStart;
+        int keyStart;
+        int keyEnd;
+        int valueStart;
+        int valueEnd;
+        int count;
+        int close = -1;
+
+        /**
+         * @param start the index of the opening bracket.
+         */
+        Entries(byte[] json, int start, int limit) {
+            this.json = json;
+            this.limit = limit;
+            this.object = json[start] == '{';
+            this.closing = object ? (byte) '}' : (byte) ']';
+            this.next = start + 1;
+        }
+
+        boolean next() {
+            if (close >= 0) return false;
+            segmentStart = next;
+            int i = skipWhitespace(json, next, limit);
+            if (count == 0 && i < limit && json[i] == closing) {
+                close = i;
+                return false;
+            }
+            if (object) {
+                if (i >= limit || json[i] != '"') throw error(i);
+                keyStart = i;
+                keyEnd = stringEnd(json, i, limit);
+                i = skipWhitespace(json, keyEnd, limit);
+                if (i >= limit || json[i] != ':') throw error(i);
+                i = skipWhitespace(json, i + 1, limit);
+            }
+            valueStart = i;
+            valueEnd = valueEnd(json, i, limit);
+            i = skipWhitespace(json, valueEnd, limit);
+            if (i < limit && json[i] == ',') {
+                next = i + 1;
+            } else if (i < limit && json[i] == closing) {
+                close = i;
+            } else {
+                throw error(i);
+            }
+            count++;
+            return true;
+        }
+
+        /**
+         * @return the index of the current entry: the start of its key or of its value.
+         */
+        int entryStart() {
+            return object ? keyStart : valueStart;
+        }
+
+        String key() {
+            return string(json, keyStart, keyEnd);
+        }
+
+        boolean isObject() {
+            return object;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds the normalized value (see {@link Values#normalize(Object)}) from its events,
+ * for the keywords comparing whole values: enum, const and uniqueItems.
+ */
+final class Capture extends Evaluation {
+
+    private final Consumer<Object> target;
+    private Map<String, Object> object;
+    private List<Object> array;
+
+    /**
+     * @param target receives the value once it has ended.
+     */
+    Capture(Consumer<Object> target) {
+        this.target = target;
+    }
+
+    @Override
+    void scalar(Object value) {
+        target.accept(Values.normalize(value));
+    }
+
+    @Override
+    void startObject() {
+        object = new HashMap<>();
+    }
+
+    @Override
+    Evaluation member(String key) {
+        return new Capture(value -> object.put(key, value));
+    }
+
+    @Override
+    void endObject() {
+        target.accept(object);
+    }
+
+    @Override
+    void startArray() {
+        array = new ArrayList<>();
+    }
+
+    @Override
+    Evaluation element(int index) {
+        return new Capture(array::add);
+    }
+
+    @Override
+    void endArray() {
+        target.accept(array);
+    }
+}
@@ -0,0 +1,51 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The errors of a validation, up to the given maximum number: the errors
+ * of a branch whose outcome only depends on whether it matched need at most one.
+ */
+final class Errors {
+
+    private final int max;
+    private final List<ValidationError> errors = new ArrayList<>();
+
+    Errors(int max) {
+        this.max = max;
+    }
+
+    /**
+     * @return new errors with the same maximum, for a branch whose errors might be added to these ones.
+     */
+    Errors nested() {
+        return new Errors(max);
+    }
+
+    void add(Location location, String message) {
+        if (errors.size() < max) {
+            errors.add(new ValidationError(location.pointer(), message));
+        }
+    }
+
+    void addAll(Errors other) {
+        for (ValidationError error : other.errors) {
+            if (errors.size() < max) {
+                errors.add(error);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return errors.isEmpty();
+    }
+
+    boolean isFull() {
+        return errors.size() >= max;
+    }
+
+    List<ValidationError> list() {
+        return errors;
+    }
+}
@@ -0,0 +1,107 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The validation of a single value, receiving the events of the value as they are parsed:
+ * either a scalar, or the start of an object (array), the evaluation of each member (element)
+ * returned for its value and the end of the object (array). The outcome is known once the
+ * value has ended. An evaluation ignores the events it does not need.
+ */
+abstract class Evaluation {
+
+    /**
+     * The evaluation of a value matching any schema.
+     */
+    static final Evaluation NONE = new Evaluation() {
+    };
+
+    void scalar(Object value) {
+    }
+
+    void startObject() {
+    }
+
+    /**
+     * @return the evaluation of the value of the given member.
+     */
+    Evaluation member(String key) {
+        return NONE;
+    }
+
+    void endObject() {
+    }
+
+    void startArray() {
+    }
+
+    /**
+     * @return the evaluation of the element with the given index.
+     */
+    Evaluation element(int index) {
+        return NONE;
+    }
+
+    void endArray() {
+    }
+
+    /**
+     * @return a single evaluation giving the events to all the given evaluations.
+     */
+    static Evaluation all(List<Evaluation> evaluations) {
+        evaluations.removeIf(evaluation -> evaluation == NONE);
+        if (evaluations.isEmpty()) {
+            return NONE;
+        }
+        return evaluations.size() == 1 ? evaluations.get(0) : new All(evaluations);
+    }
+
+    private static class All extends Evaluation {
+
+        private final List<Evaluation> evaluations;
+
+        All(List<Evaluation> evaluations) {
+            this.evaluations = evaluations;
+        }
+
+        @Override
+        void scalar(Object value) {
+            for (Evaluation evaluation : evaluations) evaluation.scalar(value);
+        }
+
+        @Override
+        void startObject() {
+            for (Evaluation evaluation : evaluations) evaluation.startObject();
+        }
+
+        @Override
+        Evaluation member(String key) {
+            List<Evaluation> members = new ArrayList<>(evaluations.size());
+            for (Evaluation evaluation : evaluations) members.add(evaluation.member(key));
+            return all(members);
+        }
+
+        @Override
+        void endObject() {
+            for (Evaluation evaluation : evaluations) evaluation.endObject();
+        }
+
+        @Override
+        void startArray() {
+            for (Evaluation evaluation : evaluations) evaluation.startArray();
+        }
+
+        @Override
+        Evaluation element(int index) {
+            List<Evaluation> elements = new ArrayList<>(evaluations.size());
+            for (Evaluation evaluation : evaluations) elements.add(evaluation.element(index));
+            return all(elements);
+        }
+
+        @Override
+        void endArray() {
+            for (Evaluation evaluation : evaluations) evaluation.endArray();
+        }
+    }
+}
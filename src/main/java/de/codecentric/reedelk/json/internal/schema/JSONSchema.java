@@ -0,0 +1,43 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.internal.parser.JSONParser;
+import de.codecentric.reedelk.json.internal.parser.StringInput;
+
+/**
+ * A compiled JSON Schema: the schema document is parsed and compiled once into a tree of validators,
+ * which validate the documents from their parse events (see {@link #validator(int)}), without
+ * materializing them. The supported keywords are the validation and applicator keywords of the
+ * drafts 4 to 2019-09 (e.g. type, enum, minimum, pattern, items, contains, minContains, properties,
+ * required, allOf, if) and the local references ("#/definitions/..."). The unevaluatedProperties and
+ * unevaluatedItems keywords are not supported: compiling a schema using them fails. A compiled schema
+ * is thread safe.
+ */
+public class JSONSchema {
+
+    private final Schema root;
+
+    private JSONSchema(Schema root) {
+        this.root = root;
+    }
+
+    /**
+     * @throws de.codecentric.reedelk.json.internal.parser.JSONParseException if the schema is not valid JSON.
+     * @throws IllegalArgumentException                                        if the schema is not valid.
+     */
+    public static JSONSchema compile(String schema) {
+        if (schema == null) {
+            throw new IllegalArgumentException("The schema must not be null");
+        }
+        Object document = new JSONParser(new StringInput(schema), NumberMapping.BIG_DECIMAL).nextValue();
+        return new JSONSchema(SchemaCompiler.compile(document));
+    }
+
+    /**
+     * @param maxErrors the number of errors after which the validation stops.
+     * @return a new validator of a single document.
+     */
+    public SchemaValidator validator(int maxErrors) {
+        return new SchemaValidator(root, maxErrors);
+    }
+}
@@ -0,0 +1,32 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import de.codecentric.reedelk.json.internal.parser.JSONPointer;
+
+/**
+ * The location of the value being validated, linked to the location of its container:
+ * the JSON Pointer is built only when an error is reported.
+ */
+final class Location {
+
+    static final Location ROOT = new Location(null, null);
+
+    private final Location parent;
+    private final String token;
+
+    private Location(Location parent, String token) {
+        this.parent = parent;
+        this.token = token;
+    }
+
+    Location child(String key) {
+        return new Location(this, key);
+    }
+
+    Location child(int index) {
+        return new Location(this, Integer.toString(index));
+    }
+
+    JSONPointer pointer() {
+        return parent == null ? JSONPointer.ROOT : parent.pointer().child(token);
+    }
+}
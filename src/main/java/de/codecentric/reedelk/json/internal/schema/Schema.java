@@ -0,0 +1,85 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled schema: the keywords of a JSON Schema object, whose subschemas are compiled as well.
+ * The fields of the keywords missing from the schema are null (-1 for the counts), the keyword
+ * values are checked and converted once by {@link SchemaCompiler}, which is the only one setting
+ * the fields: compiled schemas are then shared by all the validations.
+ */
+final class Schema {
+
+    // The location of the schema within the schema document, for the compile errors.
+    final String location;
+
+    // The false schema, which no value matches.
+    boolean never;
+
+    // True if the schema has no keyword and any value matches it.
+    boolean trivial;
+
+    int types;
+    Set<Object> enumValues;
+    boolean hasConst;
+    Object constValue;
+
+    BigDecimal multipleOf;
+    BigDecimal minimum;
+    BigDecimal maximum;
+    BigDecimal exclusiveMinimum;
+    BigDecimal exclusiveMaximum;
+
+    int minLength = -1;
+    int maxLength = -1;
+    Pattern pattern;
+
+    Schema items;
+    List<Schema> tupleItems;
+    Schema additionalItems;
+    int minItems = -1;
+    int maxItems = -1;
+    boolean uniqueItems;
+    Schema contains;
+    int minContains = -1;
+    int maxContains = -1;
+
+    Map<String, Schema> properties;
+    List<Pattern> patternKeys;
+    List<Schema> patternSchemas;
+    Schema additionalProperties;
+    List<String> required;
+    int minProperties = -1;
+    int maxProperties = -1;
+    Schema propertyNames;
+    Map<String, List<String>> dependentRequired;
+    Map<String, Schema> dependentSchemas;
+
+    List<Schema> allOf;
+    List<Schema> anyOf;
+    List<Schema> oneOf;
+    Schema not;
+    Schema ifSchema;
+    Schema thenSchema;
+    Schema elseSchema;
+    Schema ref;
+
+    Schema(String location) {
+        this.location = location;
+    }
+
+    /**
+     * @return the evaluation of a value at the given location, reporting the errors to the given errors.
+     */
+    Evaluation evaluate(Location location, Errors errors) {
+        return trivial ? Evaluation.NONE : new SchemaEvaluation(this, location, errors);
+    }
+
+    boolean needsKeys() {
+        return required != null || dependentRequired != null || dependentSchemas != null;
+    }
+}
@@ -0,0 +1,45 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the compiled schemas, addressed by the text of the schema: components
+ * validating against the same schema resource share its compiled schema, which is compiled once.
+ * The cache is thread safe: a schema missing from the cache is compiled outside of the lock,
+ * concurrent misses of the same schema might compile it more than once.
+ */
+public class SchemaCache {
+
+    private final Map<String, JSONSchema> schemas;
+
+    /**
+     * @param maxSchemas the max number of cached schemas.
+     */
+    public SchemaCache(int maxSchemas) {
+        this.schemas = new LinkedHashMap<String, JSONSchema>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JSONSchema> eldest) {
+                return size() > maxSchemas;
+            }
+        };
+    }
+
+    /**
+     * @return the compiled schema of the given schema text.
+     * @see JSONSchema#compile(String)
+     */
+    public JSONSchema get(String schema) {
+        JSONSchema compiled;
+        synchronized (schemas) {
+            compiled = schemas.get(schema);
+        }
+        if (compiled == null) {
+            compiled = JSONSchema.compile(schema);
+            synchronized (schemas) {
+                schemas.put(schema, compiled);
+            }
+        }
+        return compiled;
+    }
+}
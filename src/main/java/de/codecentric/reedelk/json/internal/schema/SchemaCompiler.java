@@ -0,0 +1,448 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import de.codecentric.reedelk.json.internal.parser.JSONPointer;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a schema document into the tree of {@link Schema}, each schema object is compiled once
+ * even if it is referenced several times. Only the references within the document are supported
+ * ("#" and "#/..." JSON Pointer fragments), a reference applies together with its sibling keywords.
+ * Unknown keywords and annotations (e.g. title, default and format) are ignored.
+ */
+final class SchemaCompiler {
+
+    // The keywords depending on what the other keywords evaluated are rejected:
+    // ignoring them would accept values the schema does not allow.
+    private static final List<String> UNSUPPORTED = Arrays.asList("unevaluatedProperties", "unevaluatedItems");
+
+    private final Object document;
+    private final Map<String, Schema> compiled = new HashMap<>();
+    private final Map<Schema, String> references = new LinkedHashMap<>();
+
+    private SchemaCompiler(Object document) {
+        this.document = document;
+    }
+
+    /**
+     * @param document the schema document parsed with the BigDecimal number mapping.
+     * @throws IllegalArgumentException if the schema is not valid.
+     */
+    static Schema compile(Object document) {
+        SchemaCompiler compiler = new SchemaCompiler(document);
+        Schema root = compiler.compile(document, JSONPointer.ROOT);
+        compiler.resolveReferences();
+        compiler.checkCycles();
+        return root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Schema compile(Object value, JSONPointer location) {
+        Schema existing = compiled.get(location.toString());
+        if (existing != null) {
+            return existing;
+        }
+        Schema schema = new Schema(location.toString());
+        compiled.put(schema.location, schema);
+
+        if (value instanceof Boolean) {
+            schema.never = !((Boolean) value);
+            schema.trivial = !schema.never;
+            return schema;
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("The schema at '" + location + "' must be an object or a boolean");
+        }
+        Keywords keywords = new Keywords((Map<String, Object>) value, location);
+        for (String name : UNSUPPORTED) {
+            if (keywords.has(name)) {
+                throw keywords.invalid(name, "is not supported");
+            }
+        }
+
+        Object type = keywords.get("type");
+        if (type != null) {
+            for (Object name : type instanceof List ? (List<Object>) type : Collections.singletonList(type)) {
+                int mask = name instanceof String ? Values.typeOf((String) name) : 0;
+                if (mask == 0) {
+                    throw keywords.invalid("type", "must be a type name or an array of type names");
+                }
+                schema.types |= mask;
+            }
+        }
+        if (keywords.has("enum")) {
+            Object values = keywords.get("enum");
+            if (!(values instanceof List)) {
+                throw keywords.invalid("enum", "must be an array");
+            }
+            schema.enumValues = new HashSet<>();
+            for (Object enumValue : (List<Object>) values) {
+                schema.enumValues.add(Values.normalize(enumValue));
+            }
+        }
+        if (keywords.has("const")) {
+            schema.hasConst = true;
+            schema.constValue = Values.normalize(keywords.get("const"));
+        }
+
+        schema.multipleOf = keywords.number("multipleOf");
+        if (schema.multipleOf != null && schema.multipleOf.signum() <= 0) {
+            throw keywords.invalid("multipleOf", "must be greater than 0");
+        }
+        schema.minimum = keywords.number("minimum");
+        schema.maximum = keywords.number("maximum");
+        if (keywords.get("exclusiveMinimum") instanceof Boolean) {
+            // Draft 4: the minimum itself is exclusive.
+            if ((Boolean) keywords.get("exclusiveMinimum")) {
+                schema.exclusiveMinimum = schema.minimum;
+                schema.minimum = null;
+            }
+        } else {
+            schema.exclusiveMinimum = keywords.number("exclusiveMinimum");
+        }
+        if (keywords.get("exclusiveMaximum") instanceof Boolean) {
+            if ((Boolean) keywords.get("exclusiveMaximum")) {
+                schema.exclusiveMaximum = schema.maximum;
+                schema.maximum = null;
+            }
+        } else {
+            schema.exclusiveMaximum = keywords.number("exclusiveMaximum");
+        }
+
+        schema.minLength = keywords.count("minLength");
+        schema.maxLength = keywords.count("maxLength");
+        schema.pattern = keywords.pattern("pattern");
+
+        if (keywords.has("prefixItems")) {
+            // Draft 2020-12: items applies to the elements after the prefix ones.
+            schema.tupleItems = schemas(keywords, "prefixItems");
+            schema.additionalItems = schema(keywords, "items");
+        } else if (keywords.get("items") instanceof List) {
+            schema.tupleItems = schemas(keywords, "items");
+            schema.additionalItems = schema(keywords, "additionalItems");
+        } else {
+            schema.items = schema(keywords, "items");
+        }
+        schema.minItems = keywords.count("minItems");
+        schema.maxItems = keywords.count("maxItems");
+        if (keywords.has("uniqueItems")) {
+            if (!(keywords.get("uniqueItems") instanceof Boolean)) {
+                throw keywords.invalid("uniqueItems", "must be a boolean");
+            }
+            schema.uniqueItems = (Boolean) keywords.get("uniqueItems");
+        }
+        schema.contains = schema(keywords, "contains");
+        schema.minContains = keywords.count("minContains");
+        schema.maxContains = keywords.count("maxContains");
+
+        Map<String, Object> properties = keywords.object("properties");
+        if (properties != null) {
+            schema.properties = new HashMap<>();
+            JSONPointer propertiesLocation = location.child("properties");
+            properties.forEach((name, property) ->
+                    schema.properties.put(name, compile(property, propertiesLocation.child(name))));
+        }
+        Map<String, Object> patternProperties = keywords.object("patternProperties");
+        if (patternProperties != null) {
+            schema.patternKeys = new ArrayList<>();
+            schema.patternSchemas = new ArrayList<>();
+            JSONPointer patternsLocation = location.child("patternProperties");
+            for (Map.Entry<String, Object> entry : patternProperties.entrySet()) {
+                schema.patternKeys.add(keywords.compilePattern("patternProperties", entry.getKey()));
+                schema.patternSchemas.add(compile(entry.getValue(), patternsLocation.child(entry.getKey())));
+            }
+        }
+        schema.additionalProperties = schema(keywords, "additionalProperties");
+        schema.required = keywords.strings("required");
+        schema.minProperties = keywords.count("minProperties");
+        schema.maxProperties = keywords.count("maxProperties");
+        schema.propertyNames = schema(keywords, "propertyNames");
+        dependencies(schema, keywords, "dependencies");
+        dependencies(schema, keywords, "dependentRequired");
+        dependencies(schema, keywords, "dependentSchemas");
+
+        schema.allOf = schemas(keywords, "allOf");
+        schema.anyOf = schemas(keywords, "anyOf");
+        schema.oneOf = schemas(keywords, "oneOf");
+        schema.not = schema(keywords, "not");
+        schema.ifSchema = schema(keywords, "if");
+        schema.thenSchema = schema(keywords, "then");
+        schema.elseSchema = schema(keywords, "else");
+
+        for (String definitions : new String[] { "definitions", "$defs" }) {
+            Map<String, Object> entries = keywords.object(definitions);
+            if (entries != null) {
+                JSONPointer definitionsLocation = location.child(definitions);
+                entries.forEach((name, definition) -> compile(definition, definitionsLocation.child(name)));
+            }
+        }
+
+        if (keywords.has("$ref")) {
+            if (!(keywords.get("$ref") instanceof String)) {
+                throw keywords.invalid("$ref", "must be a string");
+            }
+            references.put(schema, (String) keywords.get("$ref"));
+        }
+
+        schema.trivial = !keywords.applies();
+        return schema;
+    }
+
+    private Schema schema(Keywords keywords, String name) {
+        return keywords.has(name) ? compile(keywords.get(name), keywords.location.child(name)) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Schema> schemas(Keywords keywords, String name) {
+        if (!keywords.has(name)) {
+            return null;
+        }
+        Object value = keywords.get(name);
+        if (!(value instanceof List) || ((List<Object>) value).isEmpty()) {
+            throw keywords.invalid(name, "must be a non-empty array of schemas");
+        }
+        List<Object> values = (List<Object>) value;
+        List<Schema> schemas = new ArrayList<>(values.size());
+        JSONPointer location = keywords.location.child(name);
+        for (int i = 0; i < values.size(); i++) {
+            schemas.add(compile(values.get(i), location.child(Integer.toString(i))));
+        }
+        return schemas;
+    }
+
+    // Draft 7 dependencies hold both the required properties and the schemas of 2019-09.
+    @SuppressWarnings("unchecked")
+    private void dependencies(Schema schema, Keywords keywords, String name) {
+        Map<String, Object> dependencies = keywords.object(name);
+        if (dependencies == null) {
+            return;
+        }
+        JSONPointer location = keywords.location.child(name);
+        for (Map.Entry<String, Object> entry : dependencies.entrySet()) {
+            if (entry.getValue() instanceof List && !name.equals("dependentSchemas")) {
+                List<String> names = new ArrayList<>();
+                for (Object property : (List<Object>) entry.getValue()) {
+                    if (!(property instanceof String)) {
+                        throw keywords.invalid(name, "must have arrays of property names");
+                    }
+                    names.add((String) property);
+                }
+                if (schema.dependentRequired == null) schema.dependentRequired = new HashMap<>();
+                schema.dependentRequired.put(entry.getKey(), names);
+            } else if (!name.equals("dependentRequired")) {
+                if (schema.dependentSchemas == null) schema.dependentSchemas = new HashMap<>();
+                schema.dependentSchemas.put(entry.getKey(), compile(entry.getValue(), location.child(entry.getKey())));
+            } else {
+                throw keywords.invalid(name, "must have arrays of property names");
+            }
+        }
+    }
+
+    // Resolving a reference might compile schemas with further references.
+    private void resolveReferences() {
+        while (!references.isEmpty()) {
+            Map.Entry<Schema, String> reference = references.entrySet().iterator().next();
+            references.remove(reference.getKey());
+            JSONPointer pointer = pointerOf(reference.getKey(), reference.getValue());
+            reference.getKey().ref = compile(resolve(reference.getKey(), reference.getValue(), pointer), pointer);
+        }
+    }
+
+    private static JSONPointer pointerOf(Schema schema, String reference) {
+        if (!reference.startsWith("#")) {
+            throw new IllegalArgumentException("The reference '" + reference + "' of the schema at '" +
+                    schema.location + "' is not within the schema, only '#' references are supported");
+        }
+        try {
+            String fragment = URLDecoder.decode(reference.substring(1).replace("+", "%2B"), "UTF-8");
+            return JSONPointer.parse(fragment);
+        } catch (IllegalArgumentException | UnsupportedEncodingException exception) {
+            throw new IllegalArgumentException("The reference '" + reference + "' of the schema at '" +
+                    schema.location + "' is not a JSON Pointer", exception);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object resolve(Schema schema, String reference, JSONPointer pointer) {
+        Object value = document;
+        for (String token : pointer.tokens()) {
+            if (value instanceof Map && ((Map<String, Object>) value).containsKey(token)) {
+                value = ((Map<String, Object>) value).get(token);
+            } else if (value instanceof List && JSONPointer.indexOf(token) >= 0 &&
+                    JSONPointer.indexOf(token) < ((List<Object>) value).size()) {
+                value = ((List<Object>) value).get(JSONPointer.indexOf(token));
+            } else {
+                throw new IllegalArgumentException("The reference '" + reference + "' of the schema at '" +
+                        schema.location + "' does not exist");
+            }
+        }
+        return value;
+    }
+
+    /**
+     * The subschemas applied to the same value must not apply the schema itself again: the
+     * evaluation would never end, whereas a cycle through a member or an element is bounded
+     * by the depth of the validated document.
+     */
+    private void checkCycles() {
+        Set<Schema> checked = new HashSet<>();
+        for (Schema schema : compiled.values()) {
+            checkCycles(schema, new HashSet<>(), checked);
+        }
+    }
+
+    private static void checkCycles(Schema schema, Set<Schema> path, Set<Schema> checked) {
+        if (schema == null || checked.contains(schema)) {
+            return;
+        }
+        if (!path.add(schema)) {
+            throw new IllegalArgumentException("The schema at '" + schema.location + "' applies itself to the same value");
+        }
+        checkCycles(schema.ref, path, checked);
+        checkAllCycles(schema.allOf, path, checked);
+        checkAllCycles(schema.anyOf, path, checked);
+        checkAllCycles(schema.oneOf, path, checked);
+        checkCycles(schema.not, path, checked);
+        checkCycles(schema.ifSchema, path, checked);
+        checkCycles(schema.thenSchema, path, checked);
+        checkCycles(schema.elseSchema, path, checked);
+        if (schema.dependentSchemas != null) {
+            checkAllCycles(new ArrayList<>(schema.dependentSchemas.values()), path, checked);
+        }
+        path.remove(schema);
+        checked.add(schema);
+    }
+
+    private static void checkAllCycles(List<Schema> schemas, Set<Schema> path, Set<Schema> checked) {
+        if (schemas != null) {
+            for (Schema schema : schemas) {
+                checkCycles(schema, path, checked);
+            }
+        }
+    }
+
+    /**
+     * The keywords of a schema object, which keeps track of the ones applying to the values.
+     */
+    private static class Keywords {
+
+        private static final Set<String> APPLYING = new HashSet<>(Arrays.asList(
+                "type", "enum", "const", "multipleOf", "minimum", "maximum", "exclusiveMinimum",
+                "exclusiveMaximum", "minLength", "maxLength", "pattern", "prefixItems", "items",
+                "additionalItems", "minItems", "maxItems", "uniqueItems", "contains", "minContains", "maxContains", "properties",
+                "patternProperties", "additionalProperties", "required", "minProperties", "maxProperties",
+                "propertyNames", "dependencies", "dependentRequired", "dependentSchemas", "allOf", "anyOf",
+                "oneOf", "not", "if", "then", "else", "$ref"));
+
+        private final Map<String, Object> keywords;
+        private final JSONPointer location;
+
+        Keywords(Map<String, Object> keywords, JSONPointer location) {
+            this.keywords = keywords;
+            this.location = location;
+        }
+
+        boolean has(String name) {
+            return keywords.containsKey(name);
+        }
+
+        Object get(String name) {
+            return keywords.get(name);
+        }
+
+        boolean applies() {
+            for (String name : keywords.keySet()) {
+                if (APPLYING.contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        BigDecimal number(String name) {
+            Object value = keywords.get(name);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof BigDecimal)) {
+                throw invalid(name, "must be a number");
+            }
+            return (BigDecimal) value;
+        }
+
+        int count(String name) {
+            BigDecimal value = number(name);
+            if (value == null) {
+                return -1;
+            }
+            if (value.signum() < 0 || value.stripTrailingZeros().scale() > 0) {
+                throw invalid(name, "must be a non-negative integer");
+            }
+            return value.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0 ? Integer.MAX_VALUE : value.intValue();
+        }
+
+        Pattern pattern(String name) {
+            Object value = keywords.get(name);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof String)) {
+                throw invalid(name, "must be a string");
+            }
+            return compilePattern(name, (String) value);
+        }
+
+        Pattern compilePattern(String name, String pattern) {
+            try {
+                return Pattern.compile(pattern);
+            } catch (PatternSyntaxException exception) {
+                throw invalid(name, "has the invalid regular expression '" + pattern + "'");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object(String name) {
+            Object value = keywords.get(name);
+            if (value != null && !(value instanceof Map)) {
+                throw invalid(name, "must be an object");
+            }
+            return (Map<String, Object>) value;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> strings(String name) {
+            Object value = keywords.get(name);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof List)) {
+                throw invalid(name, "must be an array of strings");
+            }
+            List<String> strings = new ArrayList<>();
+            for (Object string : (List<Object>) value) {
+                if (!(string instanceof String)) {
+                    throw invalid(name, "must be an array of strings");
+                }
+                strings.add((String) string);
+            }
+            return strings;
+        }
+
+        IllegalArgumentException invalid(String name, String message) {
+            return new IllegalArgumentException("The keyword '" + name + "' of the schema at '" + location + "' " + message);
+        }
+    }
+}
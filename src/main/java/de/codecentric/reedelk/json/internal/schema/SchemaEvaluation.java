@@ -0,0 +1,379 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The evaluation of a value against a compiled {@link Schema}. The keywords of the value itself are
+ * checked as soon as their events arrive, the subschemas of the members and elements are evaluated by
+ * the evaluations returned for them. The subschemas applied to the value itself are evaluated at the
+ * same time on the same events: the ones whose outcome decides the outcome of a keyword (e.g. anyOf)
+ * report to their own errors, which are checked once the value has ended.
+ */
+final class SchemaEvaluation extends Evaluation {
+
+    private final Schema schema;
+    private final Location location;
+    private final Errors errors;
+
+    // The evaluations of the subschemas applied to this same value.
+    private final List<Evaluation> delegates = new ArrayList<>();
+
+    private Errors[] anyOf;
+    private Errors[] oneOf;
+    private Errors not;
+    private Errors ifErrors;
+    private Errors thenErrors;
+    private Errors elseErrors;
+    private Map<String, Errors> dependentSchemas;
+    private Object captured;
+
+    private int count;
+    private Set<String> keys;
+    private Errors containsErrors;
+    private int containsMatches;
+    private List<Object> items;
+
+    SchemaEvaluation(Schema schema, Location location, Errors errors) {
+        this.schema = schema;
+        this.location = location;
+        this.errors = errors;
+
+        if (schema.ref != null) {
+            delegates.add(schema.ref.evaluate(location, errors));
+        }
+        if (schema.allOf != null) {
+            for (Schema subschema : schema.allOf) {
+                delegates.add(subschema.evaluate(location, errors));
+            }
+        }
+        if (schema.anyOf != null) {
+            anyOf = branches(schema.anyOf);
+        }
+        if (schema.oneOf != null) {
+            oneOf = branches(schema.oneOf);
+        }
+        if (schema.not != null) {
+            not = branch(schema.not, new Errors(1));
+        }
+        if (schema.ifSchema != null) {
+            ifErrors = branch(schema.ifSchema, new Errors(1));
+            thenErrors = schema.thenSchema == null ? null : branch(schema.thenSchema, errors.nested());
+            elseErrors = schema.elseSchema == null ? null : branch(schema.elseSchema, errors.nested());
+        }
+        if (schema.dependentSchemas != null) {
+            dependentSchemas = new HashMap<>();
+            schema.dependentSchemas.forEach((key, subschema) ->
+                    dependentSchemas.put(key, branch(subschema, errors.nested())));
+        }
+        if (schema.enumValues != null || schema.hasConst) {
+            delegates.add(new Capture(value -> captured = value));
+        }
+    }
+
+    @Override
+    void scalar(Object value) {
+        if (schema.never) {
+            notAllowed();
+            return;
+        }
+        checkType(Values.typeOf(value));
+        if (value instanceof String) {
+            checkString((String) value);
+        } else if (value instanceof BigDecimal) {
+            checkNumber((BigDecimal) value);
+        }
+        for (Evaluation delegate : delegates) {
+            delegate.scalar(value);
+        }
+        end();
+    }
+
+    @Override
+    void startObject() {
+        if (schema.never) {
+            notAllowed();
+            return;
+        }
+        checkType(Values.OBJECT);
+        if (schema.needsKeys()) {
+            keys = new HashSet<>();
+        }
+        for (Evaluation delegate : delegates) {
+            delegate.startObject();
+        }
+    }
+
+    @Override
+    Evaluation member(String key) {
+        count++;
+        if (keys != null) {
+            keys.add(key);
+        }
+        if (schema.never) {
+            return NONE;
+        }
+        if (schema.propertyNames != null) {
+            Errors nameErrors = new Errors(1);
+            schema.propertyNames.evaluate(location, nameErrors).scalar(key);
+            if (!nameErrors.isEmpty()) {
+                errors.add(location, "has the property '" + key + "' whose name does not match the propertyNames schema");
+            }
+        }
+
+        List<Evaluation> members = new ArrayList<>(delegates.size() + 1);
+        Location child = location.child(key);
+        boolean matched = false;
+        Schema property = schema.properties == null ? null : schema.properties.get(key);
+        if (property != null) {
+            members.add(property.evaluate(child, errors));
+            matched = true;
+        }
+        if (schema.patternKeys != null) {
+            for (int i = 0; i < schema.patternKeys.size(); i++) {
+                if (schema.patternKeys.get(i).matcher(key).find()) {
+                    members.add(schema.patternSchemas.get(i).evaluate(child, errors));
+                    matched = true;
+                }
+            }
+        }
+        if (!matched && schema.additionalProperties != null) {
+            members.add(schema.additionalProperties.evaluate(child, errors));
+        }
+        for (Evaluation delegate : delegates) {
+            members.add(delegate.member(key));
+        }
+        return all(members);
+    }
+
+    @Override
+    void endObject() {
+        if (schema.never) {
+            return;
+        }
+        if (schema.required != null) {
+            for (String name : schema.required) {
+                if (!keys.contains(name)) {
+                    errors.add(location, "must have the property '" + name + "'");
+                }
+            }
+        }
+        if (schema.minProperties >= 0 && count < schema.minProperties) {
+            errors.add(location, "must have at least " + schema.minProperties + " properties");
+        }
+        if (schema.maxProperties >= 0 && count > schema.maxProperties) {
+            errors.add(location, "must have at most " + schema.maxProperties + " properties");
+        }
+        if (schema.dependentRequired != null) {
+            schema.dependentRequired.forEach((key, names) -> {
+                if (keys.contains(key)) {
+                    for (String name : names) {
+                        if (!keys.contains(name)) {
+                            errors.add(location, "must have the property '" + name + "' when it has the property '" + key + "'");
+                        }
+                    }
+                }
+            });
+        }
+        for (Evaluation delegate : delegates) {
+            delegate.endObject();
+        }
+        end();
+    }
+
+    @Override
+    void startArray() {
+        if (schema.never) {
+            notAllowed();
+            return;
+        }
+        checkType(Values.ARRAY);
+        if (schema.uniqueItems) {
+            items = new ArrayList<>();
+        }
+        for (Evaluation delegate : delegates) {
+            delegate.startArray();
+        }
+    }
+
+    @Override
+    Evaluation element(int index) {
+        count++;
+        countContains();
+        if (schema.never) {
+            return NONE;
+        }
+
+        List<Evaluation> elements = new ArrayList<>(delegates.size() + 2);
+        Location child = location.child(index);
+        Schema item = schema.tupleItems == null ? schema.items :
+                index < schema.tupleItems.size() ? schema.tupleItems.get(index) : schema.additionalItems;
+        if (item != null) {
+            elements.add(item.evaluate(child, errors));
+        }
+        if (schema.contains != null) {
+            containsErrors = new Errors(1);
+            elements.add(schema.contains.evaluate(child, containsErrors));
+        }
+        if (items != null) {
+            elements.add(new Capture(items::add));
+        }
+        for (Evaluation delegate : delegates) {
+            elements.add(delegate.element(index));
+        }
+        return all(elements);
+    }
+
+    @Override
+    void endArray() {
+        if (schema.never) {
+            return;
+        }
+        countContains();
+        if (schema.minItems >= 0 && count < schema.minItems) {
+            errors.add(location, "must have at least " + schema.minItems + " items");
+        }
+        if (schema.maxItems >= 0 && count > schema.maxItems) {
+            errors.add(location, "must have at most " + schema.maxItems + " items");
+        }
+        if (schema.contains != null) {
+            checkContains();
+        }
+        if (items != null && new HashSet<>(items).size() < items.size()) {
+            errors.add(location, "must have unique items");
+        }
+        for (Evaluation delegate : delegates) {
+            delegate.endArray();
+        }
+        end();
+    }
+
+    // The keywords whose outcome is known once the whole value has been evaluated.
+    private void end() {
+        if (anyOf != null && matches(anyOf) == 0) {
+            errors.add(location, "must match at least one schema of anyOf");
+        }
+        if (oneOf != null) {
+            int matches = matches(oneOf);
+            if (matches != 1) {
+                errors.add(location, "must match exactly one schema of oneOf, it matches " + matches);
+            }
+        }
+        if (not != null && not.isEmpty()) {
+            errors.add(location, "must not match the schema of not");
+        }
+        if (ifErrors != null) {
+            Errors branchErrors = ifErrors.isEmpty() ? thenErrors : elseErrors;
+            if (branchErrors != null) {
+                errors.addAll(branchErrors);
+            }
+        }
+        if (dependentSchemas != null && keys != null) {
+            dependentSchemas.forEach((key, dependentErrors) -> {
+                if (keys.contains(key)) {
+                    errors.addAll(dependentErrors);
+                }
+            });
+        }
+        if (schema.enumValues != null && !schema.enumValues.contains(captured)) {
+            errors.add(location, "must be one of the enum values");
+        }
+        if (schema.hasConst && !Objects.equals(schema.constValue, captured)) {
+            errors.add(location, "must be equal to the const value");
+        }
+    }
+
+    private void checkType(int type) {
+        if (schema.types != 0 && (schema.types & type) == 0) {
+            errors.add(location, "must be of type " + Values.namesOf(schema.types) + ", found " + Values.nameOf(type));
+        }
+    }
+
+    private void checkString(String value) {
+        if (schema.minLength >= 0 || schema.maxLength >= 0) {
+            int length = value.codePointCount(0, value.length());
+            if (schema.minLength >= 0 && length < schema.minLength) {
+                errors.add(location, "must be at least " + schema.minLength + " characters long");
+            }
+            if (schema.maxLength >= 0 && length > schema.maxLength) {
+                errors.add(location, "must be at most " + schema.maxLength + " characters long");
+            }
+        }
+        if (schema.pattern != null && !schema.pattern.matcher(value).find()) {
+            errors.add(location, "must match the pattern '" + schema.pattern.pattern() + "'");
+        }
+    }
+
+    private void checkNumber(BigDecimal value) {
+        if (schema.minimum != null && value.compareTo(schema.minimum) < 0) {
+            errors.add(location, "must be greater than or equal to " + schema.minimum);
+        }
+        if (schema.exclusiveMinimum != null && value.compareTo(schema.exclusiveMinimum) <= 0) {
+            errors.add(location, "must be greater than " + schema.exclusiveMinimum);
+        }
+        if (schema.maximum != null && value.compareTo(schema.maximum) > 0) {
+            errors.add(location, "must be less than or equal to " + schema.maximum);
+        }
+        if (schema.exclusiveMaximum != null && value.compareTo(schema.exclusiveMaximum) >= 0) {
+            errors.add(location, "must be less than " + schema.exclusiveMaximum);
+        }
+        if (schema.multipleOf != null && !Values.isMultipleOf(value, schema.multipleOf)) {
+            errors.add(location, "must be a multiple of " + schema.multipleOf);
+        }
+    }
+
+    // Without minContains, at least one item must match the contains schema.
+    private void checkContains() {
+        if (schema.minContains < 0) {
+            if (containsMatches == 0) {
+                errors.add(location, "must have an item matching the contains schema");
+            }
+        } else if (containsMatches < schema.minContains) {
+            errors.add(location, "must have at least " + schema.minContains + " items matching the contains schema");
+        }
+        if (schema.maxContains >= 0 && containsMatches > schema.maxContains) {
+            errors.add(location, "must have at most " + schema.maxContains + " items matching the contains schema");
+        }
+    }
+
+    private void notAllowed() {
+        errors.add(location, "is not allowed by the schema");
+    }
+
+    // The element evaluated last has ended when the next one starts or the array ends.
+    private void countContains() {
+        if (containsErrors != null) {
+            if (containsErrors.isEmpty()) {
+                containsMatches++;
+            }
+            containsErrors = null;
+        }
+    }
+
+    private Errors[] branches(List<Schema> subschemas) {
+        Errors[] branches = new Errors[subschemas.size()];
+        for (int i = 0; i < branches.length; i++) {
+            branches[i] = branch(subschemas.get(i), new Errors(1));
+        }
+        return branches;
+    }
+
+    private Errors branch(Schema subschema, Errors branchErrors) {
+        delegates.add(subschema.evaluate(location, branchErrors));
+        return branchErrors;
+    }
+
+    private static int matches(Errors[] branches) {
+        int matches = 0;
+        for (Errors branch : branches) {
+            if (branch.isEmpty()) matches++;
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,21 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when the validated JSON does not match the schema.
+ */
+public class SchemaValidationException extends RuntimeException {
+
+    private final transient List<ValidationError> errors;
+
+    SchemaValidationException(List<ValidationError> errors) {
+        super(errors.stream().map(ValidationError::toString).collect(Collectors.joining(", ")));
+        this.errors = errors;
+    }
+
+    public List<ValidationError> errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,111 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.internal.parser.JSONHandler;
+import de.codecentric.reedelk.json.internal.parser.JSONParser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Validates a single document against a compiled schema from the events of its parser. As soon
+ * as the max number of errors is found, the validation is stopped by throwing a
+ * {@link SchemaValidationException}, which stops the parser as well: an invalid document is read
+ * only up to its last error. Since some keywords are known once the whole document is read (e.g.
+ * required), {@link #finish()} must be called after the document has been parsed.
+ */
+public class SchemaValidator implements JSONHandler {
+
+    private final Errors errors;
+    private final Deque<Container> containers = new ArrayDeque<>();
+    private Evaluation next;
+
+    SchemaValidator(Schema root, int maxErrors) {
+        this.errors = new Errors(Math.max(maxErrors, 1));
+        this.next = root.evaluate(Location.ROOT, errors);
+    }
+
+    @Override
+    public void startObject() {
+        Evaluation evaluation = take();
+        evaluation.startObject();
+        containers.push(new Container(evaluation, false));
+        check();
+    }
+
+    @Override
+    public void key(String key) {
+        next = containers.peek().evaluation.member(key);
+        check();
+    }
+
+    @Override
+    public void endObject() {
+        containers.pop().evaluation.endObject();
+        check();
+    }
+
+    @Override
+    public void startArray() {
+        Evaluation evaluation = take();
+        evaluation.startArray();
+        containers.push(new Container(evaluation, true));
+        check();
+    }
+
+    @Override
+    public void endArray() {
+        containers.pop().evaluation.endArray();
+        check();
+    }
+
+    @Override
+    public void string(String value) {
+        take().scalar(value);
+        check();
+    }
+
+    @Override
+    public void unquoted(String text) {
+        take().scalar(JSONParser.toValue(text, NumberMapping.BIG_DECIMAL));
+        check();
+    }
+
+    /**
+     * @throws SchemaValidationException if the document does not match the schema.
+     */
+    public void finish() {
+        if (!errors.isEmpty()) {
+            throw new SchemaValidationException(errors.list());
+        }
+    }
+
+    // The evaluation of the value starting: the next element within an array, the member value otherwise.
+    private Evaluation take() {
+        Container container = containers.peek();
+        if (container != null && container.array) {
+            return container.evaluation.element(container.count++);
+        }
+        Evaluation evaluation = next;
+        next = Evaluation.NONE;
+        return evaluation;
+    }
+
+    private void check() {
+        if (errors.isFull()) {
+            throw new SchemaValidationException(errors.list());
+        }
+    }
+
+    private static class Container {
+
+        private final Evaluation evaluation;
+        private final boolean array;
+        private int count;
+
+        Container(Evaluation evaluation, boolean array) {
+            this.evaluation = evaluation;
+            this.array = array;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import de.codecentric.reedelk.json.internal.parser.JSONPointer;
+
+/**
+ * A value which does not match the schema: the JSON Pointer to the value and what it does not match.
+ */
+public class ValidationError {
+
+    private final JSONPointer location;
+    private final String message;
+
+    ValidationError(JSONPointer location, String message) {
+        this.location = location;
+        this.message = message;
+    }
+
+    public JSONPointer location() {
+        return location;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "The value at '" + location + "' " + message;
+    }
+}
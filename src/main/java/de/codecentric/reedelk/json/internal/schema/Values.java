@@ -0,0 +1,113 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON Schema types of the validated values, which are decoded with the BigDecimal number mapping.
+ */
+final class Values {
+
+    static final int NULL = 1;
+    static final int BOOLEAN = 1 << 1;
+    static final int OBJECT = 1 << 2;
+    static final int ARRAY = 1 << 3;
+    static final int NUMBER = 1 << 4;
+    static final int INTEGER = 1 << 5;
+    static final int STRING = 1 << 6;
+
+    private static final String[] NAMES = { "null", "boolean", "object", "array", "number", "integer", "string" };
+
+    private Values() {
+    }
+
+    /**
+     * @return the type of the given scalar value, an integer is both a number and an integer.
+     */
+    static int typeOf(Object value) {
+        if (value == null) {
+            return NULL;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof BigDecimal) {
+            return isInteger((BigDecimal) value) ? NUMBER | INTEGER : NUMBER;
+        } else {
+            return STRING;
+        }
+    }
+
+    static int typeOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    // The most specific type name of the given types.
+    static String nameOf(int type) {
+        return (type & INTEGER) != 0 ? NAMES[5] : NAMES[Integer.numberOfTrailingZeros(type)];
+    }
+
+    static String namesOf(int types) {
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            if ((types & (1 << i)) != 0) {
+                if (names.length() > 0) names.append(" or ");
+                names.append(NAMES[i]);
+            }
+        }
+        return names.toString();
+    }
+
+    /**
+     * Numbers equal by value are normalized to the same BigDecimal, so that normalized values are
+     * compared by {@link Object#equals(Object)}, as JSON Schema compares them (e.g. 1 and 1.0).
+     */
+    @SuppressWarnings("unchecked")
+    static Object normalize(Object value) {
+        if (value instanceof BigDecimal) {
+            BigDecimal number = (BigDecimal) value;
+            return number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+        } else if (value instanceof Map) {
+            Map<String, Object> normalized = new HashMap<>();
+            ((Map<String, Object>) value).forEach((key, member) -> normalized.put(key, normalize(member)));
+            return normalized;
+        } else if (value instanceof List) {
+            List<Object> normalized = new ArrayList<>();
+            ((List<Object>) value).forEach(element -> normalized.add(normalize(element)));
+            return normalized;
+        }
+        return value;
+    }
+
+    /**
+     * Checks the multiple without computing the quotient, whose size would grow with the exponent
+     * of the value: with value = a * 10^x and factor = b * 10^y, the value is a multiple of the factor
+     * if b divides a * 10^(x - y), and powers of ten greater than b do not change the outcome.
+     */
+    static boolean isMultipleOf(BigDecimal value, BigDecimal factor) {
+        if (value.signum() == 0) {
+            return true;
+        }
+        BigDecimal a = value.stripTrailingZeros();
+        BigDecimal b = factor.stripTrailingZeros();
+        long shift = (long) b.scale() - a.scale();
+        if (shift < 0) {
+            // The value has more decimal digits than the factor.
+            return false;
+        }
+        BigInteger divisor = b.unscaledValue().abs();
+        int power = (int) Math.min(shift, divisor.bitLength());
+        return a.unscaledValue().multiply(BigInteger.TEN.pow(power)).mod(divisor).signum() == 0;
+    }
+
+    private static boolean isInteger(BigDecimal number) {
+        return number.signum() == 0 || number.scale() <= 0 || number.stripTrailingZeros().scale() <= 0;
+    }
+}
@@ -3,6 +3,7 @@ package de.codecentric.reedelk.json.internal.script;
 import de.codecentric.reedelk.json.internal.JSONToObjectConverter;
 import de.codecentric.reedelk.json.internal.Json;
 import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
 import de.codecentric.reedelk.runtime.api.script.ScriptGlobalFunctions;
 
 import java.util.HashMap;
@@ -12,12 +13,14 @@ public class GlobalFunctions implements ScriptGlobalFunctions {
 
     private final long moduleId;
     private final ObjectToJSONConverter objectToJSON;
-    private final JSONToObjectConverter JSONToObject;
+    private volatile JSONToObjectConverter JSONToObject;
+    private final JSONMetrics metrics;
 
-    public GlobalFunctions(long moduleId, ObjectToJSONConverter objectToJSON, JSONToObjectConverter JSONToObject) {
+    public GlobalFunctions(long moduleId, ObjectToJSONConverter objectToJSON, JSONToObjectConverter JSONToObject, JSONMetrics metrics) {
         this.moduleId = moduleId;
         this.objectToJSON = objectToJSON;
         this.JSONToObject = JSONToObject;
+        this.metrics = metrics;
     }
 
     @Override
@@ -25,10 +28,28 @@ public class GlobalFunctions implements ScriptGlobalFunctions {
         return moduleId;
     }
 
+    /**
+     * Replaces the converter used by Json.parse, e.g. when the module configuration changes.
+     * The registered Json global uses the given converter from its next call on, the replaced
+     * converter is disposed.
+     */
+    public void update(JSONToObjectConverter JSONToObject) {
+        JSONToObjectConverter replaced = this.JSONToObject;
+        this.JSONToObject = JSONToObject;
+        replaced.dispose();
+    }
+
+    /**
+     * Disposes the converter used by Json.parse.
+     */
+    public void dispose() {
+        JSONToObject.dispose();
+    }
+
     @Override
     public Map<String, Object> bindings() {
         Map<String, Object> bindings = new HashMap<>();
-        bindings.put("Json", new Json(objectToJSON, JSONToObject));       // binding key are names of the global variables.
+        bindings.put("Json", new Json(objectToJSON, () -> JSONToObject, metrics));       // binding key are names of the global variables.
         return bindings;
     }
 }
@@ -0,0 +1,405 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Minifies or re-indents JSON text (RFC 8259) without parsing it into objects. The input is fed
+ * in chunks, which might split tokens at any position, and it is formatted in a single pass:
+ * strings, numbers and literals are copied as they are, the whitespace between the tokens is
+ * removed and, if the indent factor is greater than 0, each object member and array element is
+ * written on its own line. Only the nesting of the containers is kept in memory.
+ * <p>
+ * Chars are formatted into an {@link Appendable}, UTF-8 encoded bytes into a byte array: the
+ * bytes of multi-byte characters only occur within strings and they are copied as they are.
+ * A leading byte order mark of the bytes is skipped, as the binary inputs of the parser do.
+ * As {@link de.codecentric.reedelk.json.internal.parser.JSONValidator}, only objects and
+ * arrays are accepted as root values. A formatter instance formats a single JSON.
+ */
+public class JSONFormatter {
+
+    private static final int ROOT = 0;
+    private static final int FIRST_KEY = 1;
+    private static final int KEY = 2;
+    private static final int COLON = 3;
+    private static final int FIRST_ELEMENT = 4;
+    private static final int VALUE = 5;
+    private static final int AFTER_VALUE = 6;
+    private static final int STRING = 7;
+    private static final int ESCAPE = 8;
+    private static final int UNICODE = 9;
+    private static final int NUMBER = 10;
+    private static final int LITERAL = 11;
+    private static final int END = 12;
+
+    // The states of a number: -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static final int MINUS = 0;
+    private static final int ZERO = 1;
+    private static final int INTEGER = 2;
+    private static final int POINT = 3;
+    private static final int FRACTION = 4;
+    private static final int EXPONENT = 5;
+    private static final int EXPONENT_SIGN = 6;
+    private static final int EXPONENT_DIGITS = 7;
+
+    private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private final int indentFactor;
+
+    private int state = ROOT;
+    private long offset;
+    private int byteOrderMark;
+
+    // The container stack, one bit for each level (1 = object, 0 = array).
+    private long[] containers = new long[1];
+    private int depth;
+
+    private boolean key;
+    private int remaining;
+    private int number;
+    private String literal;
+
+    private Appendable chars;
+    private byte[] bytes;
+    private int count;
+
+    /**
+     * @param indentFactor the number of spaces to add to each level of indentation,
+     *                     0 if the JSON must be minified.
+     */
+    public JSONFormatter(int indentFactor) {
+        this.indentFactor = indentFactor;
+    }
+
+    public static String format(CharSequence json, int indentFactor) {
+        StringBuilder formatted = new StringBuilder(json.length());
+        JSONFormatter formatter = new JSONFormatter(indentFactor);
+        formatter.format(json, formatted);
+        formatter.finish();
+        return formatted.toString();
+    }
+
+    public static byte[] format(byte[] json, int indentFactor) {
+        JSONFormatter formatter = new JSONFormatter(indentFactor);
+        byte[] formatted = formatter.format(json, 0, json.length);
+        formatter.finish();
+        return formatted;
+    }
+
+    /**
+     * Formats the next chunk of the JSON into the given output.
+     *
+     * @throws JSONParseException if the chunk does not match the JSON grammar.
+     */
+    public void format(CharSequence chunk, Appendable out) {
+        chars = out;
+        try {
+            for (int i = 0, length = chunk.length(); i < length; i++) {
+                next(chunk.charAt(i));
+                offset++;
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            chars = null;
+        }
+    }
+
+    /**
+     * Formats the next chunk of the UTF-8 encoded JSON.
+     *
+     * @return the formatted UTF-8 encoded bytes of the chunk.
+     * @throws JSONParseException if the chunk does not match the JSON grammar.
+     */
+    public byte[] format(byte[] chunk, int offset, int length) {
+        bytes = new byte[indentFactor > 0 ? length + (length >> 1) + 16 : length];
+        count = 0;
+        try {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                if (state == ROOT && this.offset == byteOrderMark && byteOrderMark < 3 &&
+                        chunk[i] == BYTE_ORDER_MARK[byteOrderMark]) {
+                    byteOrderMark++;
+                } else {
+                    next(chunk[i] & 0xFF);
+                }
+                this.offset++;
+            }
+            return count == bytes.length ? bytes : Arrays.copyOf(bytes, count);
+        } catch (IOException exception) {
+            // Writing bytes never throws.
+            throw new UncheckedIOException(exception);
+        } finally {
+            bytes = null;
+        }
+    }
+
+    /**
+     * Checks that the JSON fed so far is complete.
+     *
+     * @throws JSONParseException if the root value has not been closed.
+     */
+    public void finish() {
+        if (state != END) {
+            throw error();
+        }
+    }
+
+    /**
+     * @return the number of chars (or bytes) formatted so far. If formatting failed,
+     * the offset of the first char (or byte) which does not match the JSON grammar.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    private void next(int c) throws IOException {
+        switch (state) {
+            case STRING:
+                if (c == '"') {
+                    state = key ? COLON : AFTER_VALUE;
+                } else if (c == '\\') {
+                    state = ESCAPE;
+                } else if (c < 0x20) {
+                    // Control characters must be escaped.
+                    throw error();
+                }
+                write(c);
+                break;
+
+            case ESCAPE:
+                if (c == 'u') {
+                    remaining = 4;
+                    state = UNICODE;
+                } else if (c == '"' || c == '\\' || c == '/' || c == 'b' ||
+                        c == 'f' || c == 'n' || c == 'r' || c == 't') {
+                    state = STRING;
+                } else {
+                    throw error();
+                }
+                write(c);
+                break;
+
+            case UNICODE:
+                if (!isHex(c)) throw error();
+                if (--remaining == 0) state = STRING;
+                write(c);
+                break;
+
+            case NUMBER:
+                if (!nextNumber(c)) {
+                    if (number != ZERO && number != INTEGER && number != FRACTION && number != EXPONENT_DIGITS) {
+                        throw error();
+                    }
+                    // The number ended: the char follows the value.
+                    state = AFTER_VALUE;
+                    next(c);
+                }
+                break;
+
+            case LITERAL:
+                if (c != literal.charAt(remaining)) throw error();
+                write(c);
+                if (++remaining == literal.length()) state = AFTER_VALUE;
+                break;
+
+            default:
+                if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    // Whitespace between tokens is not copied.
+                    return;
+                }
+                nextToken(c);
+        }
+    }
+
+    private void nextToken(int c) throws IOException {
+        switch (state) {
+            case ROOT:
+                // A byte order mark must be complete.
+                if ((c != '{' && c != '[') || byteOrderMark % 3 != 0) throw error();
+                value(c);
+                break;
+
+            case FIRST_KEY:
+                if (c == '}') {
+                    close(c);
+                    break;
+                }
+                newLine(depth);
+                key(c);
+                break;
+
+            case KEY:
+                key(c);
+                break;
+
+            case COLON:
+                if (c != ':') throw error();
+                write(c);
+                if (indentFactor > 0) write(' ');
+                state = VALUE;
+                break;
+
+            case FIRST_ELEMENT:
+                if (c == ']') {
+                    close(c);
+                    break;
+                }
+                newLine(depth);
+                value(c);
+                break;
+
+            case VALUE:
+                value(c);
+                break;
+
+            case AFTER_VALUE:
+                if (c == ',') {
+                    write(c);
+                    newLine(depth);
+                    state = isObject() ? KEY : VALUE;
+                } else if (c == (isObject() ? '}' : ']')) {
+                    newLine(depth - 1);
+                    close(c);
+                } else {
+                    throw error();
+                }
+                break;
+
+            default:
+                // Root closed: only trailing whitespace is allowed.
+                throw error();
+        }
+    }
+
+    private void key(int c) throws IOException {
+        if (c != '"') throw error();
+        key = true;
+        state = STRING;
+        write(c);
+    }
+
+    private void value(int c) throws IOException {
+        if (c == '{' || c == '[') {
+            open(c == '{');
+            state = c == '{' ? FIRST_KEY : FIRST_ELEMENT;
+        } else if (c == '"') {
+            key = false;
+            state = STRING;
+        } else if (c == '-') {
+            number = MINUS;
+            state = NUMBER;
+        } else if (c >= '0' && c <= '9') {
+            number = c == '0' ? ZERO : INTEGER;
+            state = NUMBER;
+        } else if (c == 't' || c == 'f' || c == 'n') {
+            literal = c == 't' ? "true" : c == 'f' ? "false" : "null";
+            remaining = 1;
+            state = LITERAL;
+        } else {
+            throw error();
+        }
+        write(c);
+    }
+
+    // Returns false if the char does not continue the number.
+    private boolean nextNumber(int c) throws IOException {
+        boolean digit = c >= '0' && c <= '9';
+        switch (number) {
+            case MINUS:
+                if (!digit) return false;
+                number = c == '0' ? ZERO : INTEGER;
+                break;
+            case ZERO:
+            case INTEGER:
+                if (digit && number == INTEGER) {
+                    break;
+                } else if (c == '.') {
+                    number = POINT;
+                } else if (c == 'e' || c == 'E') {
+                    number = EXPONENT;
+                } else {
+                    return false;
+                }
+                break;
+            case POINT:
+            case FRACTION:
+                if (digit) {
+                    number = FRACTION;
+                } else if (number == FRACTION && (c == 'e' || c == 'E')) {
+                    number = EXPONENT;
+                } else {
+                    return false;
+                }
+                break;
+            case EXPONENT:
+                if (c == '+' || c == '-') {
+                    number = EXPONENT_SIGN;
+                    break;
+                }
+                return exponentDigit(c, digit);
+            default:
+                return exponentDigit(c, digit);
+        }
+        write(c);
+        return true;
+    }
+
+    private boolean exponentDigit(int c, boolean digit) throws IOException {
+        if (!digit) return false;
+        number = EXPONENT_DIGITS;
+        write(c);
+        return true;
+    }
+
+    private void open(boolean object) {
+        int slot = depth >>> 6;
+        if (slot == containers.length) {
+            containers = Arrays.copyOf(containers, slot * 2);
+        }
+        long mask = 1L << (depth & 63);
+        containers[slot] = object ? containers[slot] | mask : containers[slot] & ~mask;
+        depth++;
+    }
+
+    private void close(int c) throws IOException {
+        write(c);
+        depth--;
+        state = depth == 0 ? END : AFTER_VALUE;
+    }
+
+    private boolean isObject() {
+        int top = depth - 1;
+        return (containers[top >>> 6] & (1L << (top & 63))) != 0;
+    }
+
+    private void newLine(int level) throws IOException {
+        if (indentFactor > 0) {
+            write('\n');
+            for (int i = 0, spaces = level * indentFactor; i < spaces; i++) {
+                write(' ');
+            }
+        }
+    }
+
+    private void write(int c) throws IOException {
+        if (chars != null) {
+            chars.append((char) c);
+        } else {
+            if (count == bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(count * 2, 16));
+            }
+            bytes[count++] = (byte) c;
+        }
+    }
+
+    private JSONParseException error() {
+        return new JSONParseException("Unexpected character at offset " + offset);
+    }
+
+    private static boolean isHex(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
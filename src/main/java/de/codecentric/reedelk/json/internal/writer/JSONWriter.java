@@ -0,0 +1,467 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.runtime.api.commons.PlatformTypes;
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a Java object graph as JSON text to an {@link Appendable} in a single walk,
+ * without building any intermediate {@link JSONObject} or {@link JSONArray}.
+ * <p>
+ * Maps and lists are converted as the object to JSON converter always did: map keys are
+ * converted to string with the converter service, null map values are omitted and any
+ * value which is not a platform primitive type is written as a Java bean. Java beans and
+ * their properties are written with the same rules of {@link JSONObject#JSONObject(Object)}
+ * and the output layout is the same of {@link JSONObject#toString(int)}.
+ */
+public class JSONWriter {
+
+    private final Appendable out;
+    private final int indentFactor;
+    private final ConverterService converterService;
+
+    /**
+     * @param indentFactor the number of spaces added to each level of indentation,
+     *                     0 writes the JSON on a single line.
+     */
+    public JSONWriter(Appendable out, int indentFactor, ConverterService converterService) {
+        this.out = out;
+        this.indentFactor = indentFactor;
+        this.converterService = converterService;
+    }
+
+    public void write(Object value) throws IOException {
+        writeConverted(value, 0);
+    }
+
+    // The root list can be written in parts, see ParallelListWriter: the opening bracket,
+    // the elements from (inclusive) to (exclusive) preceded by their separators and the closing bracket.
+    void writeListStart() throws IOException {
+        out.append('[');
+    }
+
+    void writeElements(List<?> list, int from, int to) throws IOException {
+        boolean multiLine = indentFactor > 0 && list.size() > 1;
+        int elementIndent = multiLine ? indentFactor : 0;
+        for (int i = from; i < to; i++) {
+            writeElementSeparator(i == 0, multiLine, elementIndent);
+            writeConverted(list.get(i), elementIndent);
+        }
+    }
+
+    void writeListEnd(List<?> list) throws IOException {
+        endArray(indentFactor > 0 && list.size() > 1, 0);
+    }
+
+    private void writeConverted(Object value, int indent) throws IOException {
+        if (value instanceof List) {
+            writeConvertedList((List<?>) value, indent);
+        } else if (value instanceof Map) {
+            writeConvertedMap((Map<?, ?>) value, indent);
+        } else if (value == null) {
+            out.append("null");
+        } else if (PlatformTypes.isPrimitive(value.getClass())) {
+            writeValue(value, indent);
+        } else {
+            writeBean(value, indent);
+        }
+    }
+
+    private void writeConvertedMap(Map<?, ?> map, int indent) throws IOException {
+        boolean multiLine = indentFactor > 0 && countNonNullValues(map.values()) > 1;
+        int memberIndent = multiLine ? indent + indentFactor : indent;
+        boolean first = true;
+
+        out.append('{');
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value != null) {
+                String key = MapKeys.toString(entry.getKey(), converterService); // keys must be string.
+                writeKey(key, first, multiLine, memberIndent);
+                writeConverted(value, memberIndent); // we need to recursively convert the value (might be a nested object).
+                first = false;
+            }
+        }
+        endObject(multiLine, indent);
+    }
+
+    private void writeConvertedList(List<?> list, int indent) throws IOException {
+        boolean multiLine = indentFactor > 0 && list.size() > 1;
+        int elementIndent = multiLine ? indent + indentFactor : indent;
+        boolean first = true;
+
+        out.append('[');
+        for (Object element : list) {
+            writeElementSeparator(first, multiLine, elementIndent);
+            writeConverted(element, elementIndent);
+            first = false;
+        }
+        endArray(multiLine, indent);
+    }
+
+    // Writes a value as the JSON library does when the value is put into a JSONObject.
+    private void writeWrapped(Object value, int indent) throws IOException {
+        if (value == null || value == JSONObject.NULL) {
+            out.append("null");
+        } else if (value instanceof String || value instanceof Character) {
+            quote(value.toString());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Double ||
+                value instanceof Float || value instanceof Short || value instanceof Byte ||
+                value instanceof BigDecimal || value instanceof BigInteger) {
+            writeNumber((Number) value);
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof Enum) {
+            quote(((Enum<?>) value).name());
+        } else if (value instanceof JSONObject) {
+            writeJSONObject((JSONObject) value, indent);
+        } else if (value instanceof JSONArray) {
+            writeJSONArray((JSONArray) value, indent);
+        } else if (value instanceof JSONString) {
+            writeJSONString((JSONString) value);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value, indent);
+        } else if (value.getClass().isArray()) {
+            writeArray(value, indent);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, indent);
+        } else if (isJavaType(value.getClass())) {
+            quote(value.toString());
+        } else {
+            writeBean(value, indent);
+        }
+    }
+
+    // Writes a platform primitive value as the JSON library writes an unwrapped value.
+    private void writeValue(Object value, int indent) throws IOException {
+        if (value instanceof String) {
+            quote((String) value);
+        } else if (value instanceof Number) {
+            writeNumber((Number) value);
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof Enum) {
+            quote(((Enum<?>) value).name());
+        } else if (value instanceof JSONString) {
+            writeJSONString((JSONString) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, indent);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value, indent);
+        } else if (value.getClass().isArray()) {
+            writeArray(value, indent);
+        } else {
+            quote(value.toString());
+        }
+    }
+
+    private void writeBean(Object bean, int indent) throws IOException {
+        List<JavaBeanProperty> properties = JavaBeanProperties.of(bean.getClass());
+
+        // Getters are invoked once: null values are not written.
+        String[] names = new String[properties.size()];
+        Object[] values = new Object[properties.size()];
+        int length = 0;
+        for (JavaBeanProperty property : properties) {
+            Object value = property.get(bean);
+            if (value != null) {
+                names[length] = property.name();
+                values[length++] = value;
+            }
+        }
+
+        boolean multiLine = indentFactor > 0 && length > 1;
+        int memberIndent = multiLine ? indent + indentFactor : indent;
+
+        out.append('{');
+        for (int i = 0; i < length; i++) {
+            writeKey(names[i], i == 0, multiLine, memberIndent);
+            writeWrapped(values[i], memberIndent);
+            closeIfCloseable(values[i]);
+        }
+        endObject(multiLine, indent);
+    }
+
+    private void writeMap(Map<?, ?> map, int indent) throws IOException {
+        boolean multiLine = indentFactor > 0 && countNonNullValues(map.values()) > 1;
+        int memberIndent = multiLine ? indent + indentFactor : indent;
+        boolean first = true;
+
+        out.append('{');
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value != null) {
+                writeKey(String.valueOf(entry.getKey()), first, multiLine, memberIndent);
+                writeWrapped(value, memberIndent);
+                first = false;
+            }
+        }
+        endObject(multiLine, indent);
+    }
+
+    private void writeCollection(Collection<?> collection, int indent) throws IOException {
+        boolean multiLine = indentFactor > 0 && collection.size() > 1;
+        int elementIndent = multiLine ? indent + indentFactor : indent;
+        boolean first = true;
+
+        out.append('[');
+        for (Object element : collection) {
+            writeElementSeparator(first, multiLine, elementIndent);
+            writeWrapped(element, elementIndent);
+            first = false;
+        }
+        endArray(multiLine, indent);
+    }
+
+    private void writeArray(Object array, int indent) throws IOException {
+        int length = Array.getLength(array);
+        boolean multiLine = indentFactor > 0 && length > 1;
+        int elementIndent = multiLine ? indent + indentFactor : indent;
+
+        out.append('[');
+        for (int i = 0; i < length; i++) {
+            writeElementSeparator(i == 0, multiLine, elementIndent);
+            writeWrapped(Array.get(array, i), elementIndent);
+        }
+        endArray(multiLine, indent);
+    }
+
+    private void writeJSONObject(JSONObject object, int indent) throws IOException {
+        boolean multiLine = indentFactor > 0 && object.length() > 1;
+        int memberIndent = multiLine ? indent + indentFactor : indent;
+        boolean first = true;
+
+        out.append('{');
+        for (String key : object.keySet()) {
+            writeKey(key, first, multiLine, memberIndent);
+            writeWrapped(object.opt(key), memberIndent);
+            first = false;
+        }
+        endObject(multiLine, indent);
+    }
+
+    private void writeJSONArray(JSONArray array, int indent) throws IOException {
+        int length = array.length();
+        boolean multiLine = indentFactor > 0 && length > 1;
+        int elementIndent = multiLine ? indent + indentFactor : indent;
+
+        out.append('[');
+        for (int i = 0; i < length; i++) {
+            writeElementSeparator(i == 0, multiLine, elementIndent);
+            writeWrapped(array.opt(i), elementIndent);
+        }
+        endArray(multiLine, indent);
+    }
+
+    private void writeJSONString(JSONString value) throws IOException {
+        String json = value.toJSONString();
+        if (json != null) {
+            out.append(json);
+        } else {
+            quote(value.toString());
+        }
+    }
+
+    private void writeNumber(Number number) throws IOException {
+        if (number instanceof Integer || number instanceof Long ||
+                number instanceof Short || number instanceof Byte) {
+            out.append(number.toString());
+            return;
+        }
+        if ((number instanceof Double && (((Double) number).isInfinite() || ((Double) number).isNaN())) ||
+                (number instanceof Float && (((Float) number).isInfinite() || ((Float) number).isNaN()))) {
+            throw new ObjectToJSONException(Messages.ObjectToJSON.NOT_VALID_JSON_NUMBER,
+                    Messages.ObjectToJSON.NOT_VALID_JSON_NUMBER.format(number));
+        }
+
+        // Decimals are written without trailing zeros (see JSONObject#numberToString).
+        String string = number.toString();
+        if (string.indexOf('.') > 0 && string.indexOf('e') < 0 && string.indexOf('E') < 0) {
+            int end = string.length();
+            while (string.charAt(end - 1) == '0') end--;
+            if (string.charAt(end - 1) == '.') end--;
+            string = string.substring(0, end);
+        }
+
+        if (isJSONNumber(string)) {
+            out.append(string);
+        } else {
+            // Numbers which cannot be represented in JSON are written as string.
+            quote(string);
+        }
+    }
+
+    // Same escaping of JSONObject#quote(String).
+    private void quote(String string) throws IOException {
+        out.append('"');
+        int length = string.length();
+        int start = 0;
+        char c = 0;
+        for (int i = 0; i < length; i++) {
+            char previous = c;
+            c = string.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\' && c != '/' &&
+                    (c < '\u0080' || c >= '\u00a0') && (c < '\u2000' || c >= '\u2100')) {
+                continue;
+            }
+            if (c == '/' && previous != '<') {
+                continue;
+            }
+
+            out.append(string, start, i);
+            start = i + 1;
+            switch (c) {
+                case '\\':
+                case '"':
+                case '/':
+                    out.append('\\').append(c);
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    String hex = Integer.toHexString(c);
+                    out.append("\\u");
+                    for (int pad = hex.length(); pad < 4; pad++) {
+                        out.append('0');
+                    }
+                    out.append(hex);
+            }
+        }
+        out.append(string, start, length);
+        out.append('"');
+    }
+
+    private void writeKey(String key, boolean first, boolean multiLine, int memberIndent) throws IOException {
+        if (!first) {
+            out.append(',');
+        }
+        if (multiLine) {
+            out.append('\n');
+            indent(memberIndent);
+        }
+        quote(key);
+        out.append(':');
+        if (indentFactor > 0) {
+            out.append(' ');
+        }
+    }
+
+    private void writeElementSeparator(boolean first, boolean multiLine, int elementIndent) throws IOException {
+        if (!first) {
+            out.append(',');
+        }
+        if (multiLine) {
+            out.append('\n');
+            indent(elementIndent);
+        }
+    }
+
+    private void endObject(boolean multiLine, int indent) throws IOException {
+        if (multiLine) {
+            out.append('\n');
+            indent(indent);
+        }
+        out.append('}');
+    }
+
+    private void endArray(boolean multiLine, int indent) throws IOException {
+        if (multiLine) {
+            out.append('\n');
+            indent(indent);
+        }
+        out.append(']');
+    }
+
+    private void indent(int indent) throws IOException {
+        for (int i = 0; i < indent; i++) {
+            out.append(' ');
+        }
+    }
+
+    private static int countNonNullValues(Collection<?> values) {
+        // Only needed to know if there is more than one value.
+        int count = 0;
+        for (Object value : values) {
+            if (value != null && ++count > 1) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isJavaType(Class<?> type) {
+        Package typePackage = type.getPackage();
+        String packageName = typePackage != null ? typePackage.getName() : "";
+        return packageName.startsWith("java.") ||
+                packageName.startsWith("javax.") ||
+                type.getClassLoader() == null;
+    }
+
+    private static void closeIfCloseable(Object value) {
+        if (value instanceof Closeable) {
+            try {
+                ((Closeable) value).close();
+            } catch (IOException ignore) {
+                // Nothing to do.
+            }
+        }
+    }
+
+    // -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static boolean isJSONNumber(String string) {
+        int length = string.length();
+        int index = 0;
+        if (index < length && string.charAt(index) == '-') index++;
+        if (index == length) return false;
+        if (string.charAt(index) == '0') {
+            index++;
+        } else if (string.charAt(index) >= '1' && string.charAt(index) <= '9') {
+            while (++index < length && isDigit(string.charAt(index))) ;
+        } else {
+            return false;
+        }
+        if (index < length && string.charAt(index) == '.') {
+            int start = ++index;
+            while (index < length && isDigit(string.charAt(index))) index++;
+            if (index == start) return false;
+        }
+        if (index < length && (string.charAt(index) == 'e' || string.charAt(index) == 'E')) {
+            index++;
+            if (index < length && (string.charAt(index) == '+' || string.charAt(index) == '-')) index++;
+            int start = index;
+            while (index < length && isDigit(string.charAt(index))) index++;
+            if (index == start) return false;
+        }
+        return index == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,169 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import org.json.JSONObject;
+import org.json.JSONPropertyIgnore;
+import org.json.JSONPropertyName;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Discovers the JSON properties of a Java bean: the public getters, named and
+ * filtered the same way as {@link JSONObject#JSONObject(Object)} does, including
+ * the {@link JSONPropertyName} and {@link JSONPropertyIgnore} annotations.
+ * <p>
+ * The properties are discovered once for each class. The cache is a {@link ClassValue}:
+ * the properties are bound to the class itself and they are released together with it,
+ * e.g. when the bundle which loaded the class is uninstalled.
+ */
+class JavaBeanProperties {
+
+    private static final ClassValue<List<JavaBeanProperty>> PROPERTIES = new ClassValue<List<JavaBeanProperty>>() {
+        @Override
+        protected List<JavaBeanProperty> computeValue(Class<?> type) {
+            return Collections.unmodifiableList(discover(type));
+        }
+    };
+
+    private JavaBeanProperties() {
+    }
+
+    static List<JavaBeanProperty> of(Class<?> type) {
+        return PROPERTIES.get(type);
+    }
+
+    private static List<JavaBeanProperty> discover(Class<?> type) {
+        // If the class is loaded by the bootstrap class loader,
+        // only the declared methods are considered.
+        boolean includeSuperClass = type.getClassLoader() != null;
+        Method[] methods = includeSuperClass ? type.getMethods() : type.getDeclaredMethods();
+
+        // Getters mapped to the same name (e.g. getValid() and isValid()): the last one wins.
+        Map<String, JavaBeanProperty> properties = new LinkedHashMap<>();
+        for (Method method : methods) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers)
+                    && !Modifier.isStatic(modifiers)
+                    && method.getParameterTypes().length == 0
+                    && !method.isBridge()
+                    && method.getReturnType() != Void.TYPE
+                    && isValidMethodName(method.getName())) {
+                String name = nameOf(method);
+                if (name != null && !name.isEmpty()) {
+                    properties.put(name, new JavaBeanProperty(name, method));
+                }
+            }
+        }
+        return new ArrayList<>(properties.values());
+    }
+
+    private static boolean isValidMethodName(String name) {
+        return !"getClass".equals(name) && !"getDeclaringClass".equals(name);
+    }
+
+    private static String nameOf(Method method) {
+        int ignoreDepth = annotationDepth(method, JSONPropertyIgnore.class);
+        if (ignoreDepth > 0) {
+            int forcedNameDepth = annotationDepth(method, JSONPropertyName.class);
+            if (forcedNameDepth < 0 || ignoreDepth <= forcedNameDepth) {
+                // The hierarchy asked to ignore, and the nearest
+                // name override was higher or non-existent.
+                return null;
+            }
+        }
+        JSONPropertyName annotation = annotation(method, JSONPropertyName.class);
+        if (annotation != null && annotation.value() != null && !annotation.value().isEmpty()) {
+            return annotation.value();
+        }
+
+        String name = method.getName();
+        String key;
+        if (name.startsWith("get") && name.length() > 3) {
+            key = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            key = name.substring(2);
+        } else {
+            return null;
+        }
+        // If the first letter in the key is not uppercase, then skip.
+        if (Character.isLowerCase(key.charAt(0))) {
+            return null;
+        }
+        if (key.length() == 1) {
+            key = key.toLowerCase(Locale.ROOT);
+        } else if (!Character.isUpperCase(key.charAt(1))) {
+            key = key.substring(0, 1).toLowerCase(Locale.ROOT) + key.substring(1);
+        }
+        return key;
+    }
+
+    // Searches the annotation on the method, on the directly implemented
+    // interfaces and then on the super class.
+    private static <A extends Annotation> A annotation(Method method, Class<A> annotationClass) {
+        if (method.isAnnotationPresent(annotationClass)) {
+            return method.getAnnotation(annotationClass);
+        }
+
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass.getSuperclass() == null) {
+            return null;
+        }
+
+        for (Class<?> implemented : declaringClass.getInterfaces()) {
+            Method implementedMethod = methodOf(implemented, method);
+            if (implementedMethod != null) {
+                return annotation(implementedMethod, annotationClass);
+            }
+        }
+
+        Method superMethod = methodOf(declaringClass.getSuperclass(), method);
+        return superMethod != null ? annotation(superMethod, annotationClass) : null;
+    }
+
+    // The number of levels in the hierarchy between the method
+    // and the annotation, -1 if the annotation is not present.
+    private static int annotationDepth(Method method, Class<? extends Annotation> annotationClass) {
+        if (method.isAnnotationPresent(annotationClass)) {
+            return 1;
+        }
+
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass.getSuperclass() == null) {
+            return -1;
+        }
+
+        for (Class<?> implemented : declaringClass.getInterfaces()) {
+            Method implementedMethod = methodOf(implemented, method);
+            if (implementedMethod != null) {
+                int depth = annotationDepth(implementedMethod, annotationClass);
+                if (depth > 0) {
+                    return depth + 1;
+                }
+            }
+        }
+
+        Method superMethod = methodOf(declaringClass.getSuperclass(), method);
+        if (superMethod != null) {
+            int depth = annotationDepth(superMethod, annotationClass);
+            if (depth > 0) {
+                return depth + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static Method methodOf(Class<?> type, Method method) {
+        try {
+            return type.getMethod(method.getName(), method.getParameterTypes());
+        } catch (SecurityException | NoSuchMethodException exception) {
+            return null;
+        }
+    }
+}
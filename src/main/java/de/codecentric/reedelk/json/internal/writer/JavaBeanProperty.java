@@ -0,0 +1,66 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+class JavaBeanProperty {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String name;
+    private final Method getter;
+    private final MethodHandle getterHandle;
+
+    JavaBeanProperty(String name, Method getter) {
+        this.name = name;
+        this.getter = getter;
+        this.getterHandle = handleOf(getter);
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * @return the property value or null if the value is null, the getter could not
+     * be invoked or it threw an exception. Errors thrown by the getter are propagated.
+     */
+    Object get(Object bean) {
+        if (getterHandle != null) {
+            try {
+                return (Object) getterHandle.invokeExact(bean);
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable ignore) {
+                // Same as reflection: any exception thrown by the getter
+                // (checked exceptions included) is ignored.
+                return null;
+            }
+        }
+
+        try {
+            return getter.invoke(bean);
+        } catch (InvocationTargetException exception) {
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            return null;
+        } catch (IllegalAccessException | IllegalArgumentException ignore) {
+            return null;
+        }
+    }
+
+    // The method handle is looked up with public access only, this way it does not need
+    // the bean class to be visible from this bundle class loader. If the getter cannot be
+    // accessed (e.g. it is declared by a non public class) reflection is used instead.
+    private static MethodHandle handleOf(Method getter) {
+        try {
+            return MethodHandles.publicLookup().unreflect(getter).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | SecurityException exception) {
+            return null;
+        }
+    }
+}
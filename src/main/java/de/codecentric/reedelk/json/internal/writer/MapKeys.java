@@ -0,0 +1,75 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+
+import java.math.BigInteger;
+import java.util.UUID;
+
+/**
+ * Converts map keys to JSON object keys. String keys are used as they are, without
+ * any conversion. For any other key the conversion is resolved once for each key class:
+ * keys of the integral and boolean types and UUID keys are converted with
+ * {@link String#valueOf(Object)}, which gives the same result of the platform converters,
+ * enum keys are converted to the constant name, as the platform converters do, looked up
+ * in the names of each enum class, all the other keys are converted by the {@link ConverterService}.
+ */
+class MapKeys {
+
+    private enum Conversion {
+        VALUE_OF,
+        ENUM_CONSTANT,
+        CONVERTER_SERVICE
+    }
+
+    private static final ClassValue<Conversion> CONVERSIONS = new ClassValue<Conversion>() {
+        @Override
+        protected Conversion computeValue(Class<?> type) {
+            if (type == Integer.class ||
+                    type == Long.class ||
+                    type == Short.class ||
+                    type == Byte.class ||
+                    type == BigInteger.class ||
+                    type == Boolean.class ||
+                    type == UUID.class) {
+                return Conversion.VALUE_OF;
+            }
+            if (Enum.class.isAssignableFrom(type)) {
+                return Conversion.ENUM_CONSTANT;
+            }
+            return Conversion.CONVERTER_SERVICE;
+        }
+    };
+
+    // The names of the constants of each enum class, by ordinal.
+    private static final ClassValue<String[]> ENUM_NAMES = new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            Object[] constants = type.getEnumConstants();
+            String[] names = new String[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                names[i] = ((Enum<?>) constants[i]).name();
+            }
+            return names;
+        }
+    };
+
+    private MapKeys() {
+    }
+
+    static String toString(Object key, ConverterService converterService) {
+        if (key instanceof String) {
+            return (String) key;
+        }
+        Conversion conversion = key != null ? CONVERSIONS.get(key.getClass()) : Conversion.CONVERTER_SERVICE;
+        switch (conversion) {
+            case VALUE_OF:
+                return String.valueOf(key);
+            case ENUM_CONSTANT:
+                // Constants with a body are instances of a subclass of the enum class.
+                Enum<?> constant = (Enum<?>) key;
+                return ENUM_NAMES.get(constant.getDeclaringClass())[constant.ordinal()];
+            default:
+                return converterService.convert(key, String.class);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of the buffers JSON is written into, so that writing a JSON neither allocates
+ * a new buffer nor grows it by repeated copies once the pooled buffers have reached the typical
+ * output size. The pool is lock-free and it does not use thread locals: a buffer is taken from
+ * the first non empty slot and it is given back to the first empty one, therefore the pool can
+ * be shared by any number of threads, including virtual threads, and it never holds more than
+ * its size buffers of each type. Buffers grown beyond the max retained capacity are not given
+ * back to the pool, they are left to the garbage collector.
+ */
+public class OutputBuffers {
+
+    private final AtomicReferenceArray<StringBuilder> chars;
+    private final AtomicReferenceArray<UTF8Output> bytes;
+    private final int maxRetainedCapacity;
+
+    /**
+     * @param size                the max number of pooled buffers of each type.
+     * @param maxRetainedCapacity the max capacity of a pooled buffer, in chars or bytes.
+     */
+    public OutputBuffers(int size, int maxRetainedCapacity) {
+        this.chars = new AtomicReferenceArray<>(size);
+        this.bytes = new AtomicReferenceArray<>(size);
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    public int maxRetainedCapacity() {
+        return maxRetainedCapacity;
+    }
+
+    /**
+     * @return an empty buffer with at least the given capacity. It should be given
+     * back by {@link #release(StringBuilder)} once its content has been copied.
+     */
+    public StringBuilder chars(int capacity) {
+        StringBuilder buffer = take(chars);
+        if (buffer == null) {
+            return new StringBuilder(capacity);
+        }
+        buffer.setLength(0);
+        buffer.ensureCapacity(capacity);
+        return buffer;
+    }
+
+    public void release(StringBuilder buffer) {
+        if (buffer.capacity() <= maxRetainedCapacity) {
+            give(chars, buffer);
+        }
+    }
+
+    /**
+     * @return an empty buffer with at least the given capacity. It should be given
+     * back by {@link #release(UTF8Output)} once its content has been copied.
+     */
+    public UTF8Output bytes(int capacity) {
+        UTF8Output buffer = take(bytes);
+        if (buffer == null) {
+            return new UTF8Output(capacity);
+        }
+        buffer.reset(capacity);
+        return buffer;
+    }
+
+    public void release(UTF8Output buffer) {
+        if (buffer.capacity() <= maxRetainedCapacity) {
+            give(bytes, buffer);
+        }
+    }
+
+    // The slots are scanned starting from a different one for each thread, so
+    // that concurrent threads do not compete for the same slots.
+    private static <T> T take(AtomicReferenceArray<T> slots) {
+        int size = slots.length();
+        int start = start(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % size;
+            if (slots.get(slot) != null) {
+                T buffer = slots.getAndSet(slot, null);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> void give(AtomicReferenceArray<T> slots, T buffer) {
+        int size = slots.length();
+        int start = start(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % size;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+        // The pool is full: the buffer is dropped.
+    }
+
+    private static int start(int size) {
+        return size == 0 ? 0 : (int) (Thread.currentThread().getId() % size);
+    }
+}
@@ -0,0 +1,47 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+/**
+ * Tracks the typical size of the JSON written by a component, so that its buffers can be
+ * created (or grown once) with enough capacity for the whole output. The estimate follows a
+ * larger output at once, while it decays slowly towards smaller outputs: a single small output
+ * does not shrink the buffers needed by the following large ones. The estimate never exceeds the
+ * max capacity, which should be the max capacity of the pooled buffers: larger buffers are not
+ * pooled, pre-sizing them after a single very large output would allocate a buffer larger than
+ * needed for each of the following outputs. Sizes are recorded without synchronization, a lost
+ * update only makes the next estimate slightly less accurate.
+ */
+public class OutputSize {
+
+    private static final int MIN_ESTIMATE = 256;
+
+    // One eighth of the difference is recovered for each smaller output.
+    private static final int DECAY_SHIFT = 3;
+
+    private final int maxCapacity;
+    private volatile int estimate = MIN_ESTIMATE;
+
+    /**
+     * @param maxCapacity the max capacity returned by {@link #capacity()}.
+     */
+    public OutputSize(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * @return the initial capacity of the buffer of the next output:
+     * the estimated size and a margin of an eighth of it, up to the max capacity.
+     */
+    public int capacity() {
+        int current = estimate;
+        return (int) Math.min(current + (long) (current >> 3), maxCapacity);
+    }
+
+    public void record(int size) {
+        int current = estimate;
+        if (size >= current) {
+            estimate = Math.min(size, maxCapacity);
+        } else {
+            estimate = Math.max(current - ((current - size) >> DECAY_SHIFT), MIN_ESTIMATE);
+        }
+    }
+}
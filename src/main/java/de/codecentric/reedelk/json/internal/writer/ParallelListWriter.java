@@ -0,0 +1,147 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Writes a large root list on the threads of a fork/join pool: the elements are divided into
+ * ranges, each range is written by its own {@link JSONWriter} into a separate buffer and the
+ * buffers are concatenated in order. The output is the same of {@link JSONWriter#write(Object)}.
+ * If writing an element fails, the exception of the first failed range is thrown.
+ */
+public class ParallelListWriter {
+
+    // More ranges than threads, so that threads finishing early take over the remaining ranges.
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final ConverterService converterService;
+
+    /**
+     * @param threshold the minimum number of elements of a list written in parallel.
+     */
+    public ParallelListWriter(ForkJoinPool pool, int threshold, ConverterService converterService) {
+        this.pool = pool;
+        this.threshold = threshold;
+        this.converterService = converterService;
+    }
+
+    /**
+     * @return true if the given payload is a list large enough to be written in parallel. The list
+     * must support fast random access, since each range is written by getting its elements by index.
+     */
+    public boolean accepts(Object payload) {
+        return payload instanceof List &&
+                payload instanceof RandomAccess &&
+                ((List<?>) payload).size() >= Math.max(threshold, 2);
+    }
+
+    public void write(List<?> list, int indentFactor, Appendable out) throws IOException {
+        Appendable[] ranges = writeRanges(list, indentFactor, StringBuilder::new);
+        JSONWriter writer = new JSONWriter(out, indentFactor, converterService);
+        writer.writeListStart();
+        for (Appendable range : ranges) {
+            out.append((StringBuilder) range);
+        }
+        writer.writeListEnd(list);
+    }
+
+    /**
+     * The ranges are encoded to UTF-8 while being written, on the threads of the pool.
+     */
+    public byte[] toJSONBytes(List<?> list, int indentFactor) {
+        Appendable[] ranges = writeRanges(list, indentFactor, UTF8Output::new);
+        int size = 2;
+        for (Appendable range : ranges) {
+            size += ((UTF8Output) range).size();
+        }
+        UTF8Output out = new UTF8Output(size + indentFactor + 1);
+        JSONWriter writer = new JSONWriter(out, indentFactor, converterService);
+        try {
+            writer.writeListStart();
+            for (Appendable range : ranges) {
+                out.append((UTF8Output) range);
+            }
+            writer.writeListEnd(list);
+        } catch (IOException exception) {
+            // Appending to a UTF8Output never throws.
+            throw new UncheckedIOException(exception);
+        }
+        return out.toByteArray();
+    }
+
+    private Appendable[] writeRanges(List<?> list, int indentFactor, Supplier<Appendable> buffer) {
+        int size = list.size();
+        int count = Math.min(pool.getParallelism() * RANGES_PER_THREAD, size);
+        Appendable[] ranges = new Appendable[count];
+        RuntimeException[] failures = new RuntimeException[count];
+        pool.invoke(new WriteRanges(list, indentFactor, buffer, ranges, failures, 0, count));
+
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                // The failure the sequential writer would have thrown first.
+                throw failure;
+            }
+        }
+        return ranges;
+    }
+
+    private class WriteRanges extends RecursiveAction {
+
+        private final List<?> list;
+        private final int indentFactor;
+        private final Supplier<Appendable> buffer;
+        private final Appendable[] ranges;
+        private final RuntimeException[] failures;
+        private final int from;
+        private final int to;
+
+        WriteRanges(List<?> list, int indentFactor, Supplier<Appendable> buffer,
+                    Appendable[] ranges, RuntimeException[] failures, int from, int to) {
+            this.list = list;
+            this.indentFactor = indentFactor;
+            this.buffer = buffer;
+            this.ranges = ranges;
+            this.failures = failures;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                write(from);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new WriteRanges(list, indentFactor, buffer, ranges, failures, from, middle),
+                        new WriteRanges(list, indentFactor, buffer, ranges, failures, middle, to));
+            }
+        }
+
+        // Exceptions are kept and thrown on the calling thread, since the pool
+        // would wrap an exception thrown on another thread into a new one.
+        private void write(int range) {
+            int size = list.size();
+            Appendable out = buffer.get();
+            try {
+                new JSONWriter(out, indentFactor, converterService)
+                        .writeElements(list, (int) ((long) size * range / ranges.length),
+                                (int) ((long) size * (range + 1) / ranges.length));
+            } catch (IOException exception) {
+                // Appending to a StringBuilder or a UTF8Output never throws.
+                failures[range] = new UncheckedIOException(exception);
+            } catch (RuntimeException exception) {
+                failures[range] = exception;
+            }
+            ranges[range] = out;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import java.util.Arrays;
+
+/**
+ * {@link Appendable} encoding the appended characters as UTF-8 bytes straight into a
+ * growing byte array, without creating an intermediate String. Surrogate pairs might be
+ * appended with two separate calls. Unpaired surrogates are encoded as '?', as
+ * {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+public class UTF8Output implements Appendable {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final byte UNMAPPABLE = '?';
+
+    private byte[] buffer;
+    private int count;
+    private char highSurrogate;
+
+    public UTF8Output() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public UTF8Output(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 4)];
+    }
+
+    @Override
+    public UTF8Output append(CharSequence sequence) {
+        CharSequence chars = sequence == null ? "null" : sequence;
+        return append(chars, 0, chars.length());
+    }
+
+    @Override
+    public UTF8Output append(CharSequence sequence, int start, int end) {
+        CharSequence chars = sequence == null ? "null" : sequence;
+        ensureCapacity(end - start);
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                // ASCII: the capacity for one byte per char has been ensured above.
+                buffer[count++] = (byte) c;
+            } else {
+                encode(c);
+                ensureCapacity(end - i - 1);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public UTF8Output append(char c) {
+        ensureCapacity(1);
+        if (c < 0x80 && highSurrogate == 0) {
+            buffer[count++] = (byte) c;
+        } else {
+            encode(c);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the bytes of the given output. Both outputs must only contain complete
+     * texts (e.g. JSON values), which never end with the first half of a surrogate pair.
+     */
+    public UTF8Output append(UTF8Output output) {
+        ensureCapacity(output.count);
+        System.arraycopy(output.buffer, 0, buffer, count, output.count);
+        count += output.count;
+        return this;
+    }
+
+    /**
+     * Appends the UTF-8 bytes between start (inclusive) and end (exclusive) as they are.
+     * The bytes must be complete UTF-8 sequences, e.g. the bytes of JSON values.
+     */
+    public UTF8Output append(byte[] bytes, int start, int end) {
+        ensureCapacity(end - start);
+        System.arraycopy(bytes, start, buffer, count, end - start);
+        count += end - start;
+        return this;
+    }
+
+    /**
+     * Appends a single UTF-8 byte as it is, see {@link #append(byte[], int, int)}.
+     */
+    public UTF8Output append(byte b) {
+        ensureCapacity(1);
+        buffer[count++] = b;
+        return this;
+    }
+
+    /**
+     * @return the number of bytes appended so far.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the number of bytes which can be appended without growing the buffer.
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Discards the bytes appended so far, so that the buffer can be reused
+     * (see {@link OutputBuffers}), and ensures the given capacity.
+     */
+    public void reset(int capacity) {
+        count = 0;
+        highSurrogate = 0;
+        if (capacity > buffer.length) {
+            buffer = new byte[capacity];
+        }
+    }
+
+    /**
+     * @return a copy of the UTF-8 bytes appended so far, in an array of the exact size.
+     */
+    public byte[] toByteArray() {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            ensureCapacity(1);
+            buffer[count++] = UNMAPPABLE;
+        }
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * @return a copy of the UTF-8 bytes appended so far, which are then discarded. Unlike
+     * {@link #toByteArray()}, a first half of a surrogate pair appended last is kept until
+     * the next append, therefore a text received in chunks might be encoded chunk by chunk.
+     */
+    public byte[] drain() {
+        byte[] bytes = Arrays.copyOf(buffer, count);
+        count = 0;
+        return bytes;
+    }
+
+    private void encode(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensureCapacity(4);
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            ensureCapacity(1);
+            buffer[count++] = UNMAPPABLE;
+        }
+
+        if (c < 0x80) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            ensureCapacity(2);
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            // The low surrogate is encoded together with the next char.
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensureCapacity(1);
+            buffer[count++] = UNMAPPABLE;
+        } else {
+            ensureCapacity(3);
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        int required = count + bytes;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, required));
+        }
+    }
+}
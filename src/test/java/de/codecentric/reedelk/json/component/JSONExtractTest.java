@@ -0,0 +1,150 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.exception.JSONExtractException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class JSONExtractTest {
+
+    private static final String JSON = "{" +
+            "\"customer\": {\"name\": \"John\", \"address\": {\"city\": \"Berlin\"}}," +
+            "\"notes\": \"skipped \\\"quoted\\\" text with ] and }\"," +
+            "\"orders\": [{\"id\": 1, \"items\": [\"a\", \"b\"]}, {\"id\": 2, \"items\": []}, {\"id\": 3}]" +
+            "}";
+
+    @Mock
+    private FlowContext context;
+
+    private JSONExtract component = new JSONExtract();
+
+    @Test
+    void shouldExtractValueOfDefinitePath() {
+        // Given
+        component.setPath("$.customer.address.city");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson(JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        String payload = actual.payload();
+        assertThat(payload).isEqualTo("Berlin");
+    }
+
+    @Test
+    void shouldExtractObjectOfDefinitePath() {
+        // Given
+        component.setPath("$['orders'][0]");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson(JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isEqualTo(of("id", 1, "items", asList("a", "b")));
+    }
+
+    @Test
+    void shouldExtractListOfValuesWhenPathHasWildcards() {
+        // Given
+        component.setPath("$.orders[*].id");
+        component.initialize();
+
+        byte[] input = JSON.getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Object> payload = actual.payload();
+        assertThat(payload).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void shouldReturnEmptyMessageWhenValueDoesNotExist() {
+        // Given
+        component.setPath("$.customer.phone");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson(JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+
+    @Test
+    void shouldStopReadingStreamWhenDefiniteValueHasBeenFound() {
+        // Given
+        component.setPath("$.customer.name");
+        component.initialize();
+
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Flux<String> chunks = Flux.just("{\"customer\": {\"name\": \"Jo", "hn\"}, ", "\"orders\": [1, 2, 3]}")
+                .doOnCancel(() -> cancelled.set(true));
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        String payload = actual.payload();
+        assertThat(payload).isEqualTo("John");
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenScannedJSONIsNotValid() {
+        // Given
+        component.setPath("$.orders[*]");
+        component.initialize();
+
+        String input = "{\"customer\": {\"name\": \"John\"}\n \"orders\": []}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        JSONExtractException thrown =
+                assertThrows(JSONExtractException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Expected a ',' or '}' at 32 [character 2 line 2]].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPathIsNotSupported() {
+        // Given
+        component.setPath("$..name");
+
+        // When
+        JSONExtractException thrown = assertThrows(JSONExtractException.class, () -> component.initialize());
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON path=[$..name] is not valid, cause=[Recursive descent '..' is not supported].");
+    }
+}
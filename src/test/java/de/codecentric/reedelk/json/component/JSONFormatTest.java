@@ -0,0 +1,177 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.exception.JSONFormatException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class JSONFormatTest {
+
+    @Mock
+    private FlowContext context;
+
+    private JSONFormat component = new JSONFormat();
+
+    @BeforeEach
+    void setUp() {
+        component.initialize();
+    }
+
+    @Test
+    void shouldMinifyJSONString() {
+        // Given
+        String input = "{\n  \"id\": 1,\n  \"tags\": [ \"a b\", true ]\n}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        String payload = actual.payload();
+        assertThat(payload).isEqualTo("{\"id\":1,\"tags\":[\"a b\",true]}");
+    }
+
+    @Test
+    void shouldPrettyPrintJSONBytes() {
+        // Given
+        component.setPrettyPrint(true);
+        component.setIndentFactor(4);
+        component.initialize();
+
+        byte[] input = "{\"id\":1,\"tags\":[\"\u20ac\",{}]}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        byte[] payload = actual.payload();
+        assertThat(new String(payload, StandardCharsets.UTF_8)).isEqualTo("{\n" +
+                "    \"id\": 1,\n" +
+                "    \"tags\": [\n" +
+                "        \"\u20ac\",\n" +
+                "        {}\n" +
+                "    ]\n" +
+                "}");
+        assertThat(actual.content().mimeType()).isEqualTo(MimeType.APPLICATION_JSON);
+    }
+
+    @Test
+    void shouldFormatByteBufferAndInputStream() {
+        // Given
+        byte[] input = "[ 1, 2 ]".getBytes(StandardCharsets.UTF_8);
+        Message buffer = MessageBuilder.get(TestComponent.class).withJavaObject(ByteBuffer.wrap(input)).build();
+        Message stream = MessageBuilder.get(TestComponent.class).withJavaObject(new ByteArrayInputStream(input)).build();
+
+        // When
+        Message actualBuffer = component.apply(context, buffer);
+        Message actualStream = component.apply(context, stream);
+
+        // Then
+        assertThat((byte[]) actualBuffer.payload()).isEqualTo("[1,2]".getBytes(StandardCharsets.UTF_8));
+        assertThat((byte[]) actualStream.payload()).isEqualTo("[1,2]".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldFormatStreamChunkByChunk() {
+        // Given
+        Flux<String> chunks = Flux.just("[ {\"id\"", " : 1 } ,", " {\"id\": 2} ]");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(bytesOf(actual)).isEqualTo("[{\"id\":1},{\"id\":2}]");
+    }
+
+    @Test
+    void shouldFormatStreamWithSurrogatePairSplitAcrossChunks() {
+        // Given
+        Flux<String> chunks = Flux.just("[ \"\uD83D", "\uDE00\" ]");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(bytesOf(actual)).isEqualTo("[\"\uD83D\uDE00\"]");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenStreamedJSONIsNotComplete() {
+        // Given
+        Flux<byte[]> chunks = Flux.just("[1, ".getBytes(StandardCharsets.UTF_8), "2".getBytes(StandardCharsets.UTF_8));
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(chunks).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        JSONFormatException thrown = assertThrows(JSONFormatException.class, () -> bytesOf(actual));
+        assertThat(thrown).hasMessage("The JSON cannot be formatted, cause=[Unexpected character at offset 5].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenJSONIsNotValid() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).withJson("{'id': 1}").build();
+
+        // When
+        JSONFormatException thrown = assertThrows(JSONFormatException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be formatted, cause=[Unexpected character at offset 1].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPayloadCannotBeFormatted() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(23).build();
+
+        // When
+        JSONFormatException thrown = assertThrows(JSONFormatException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The message payload of type (Integer) cannot be formatted. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be formatted.");
+    }
+
+    @Test
+    void shouldReturnEmptyMessageWhenPayloadIsNull() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+
+    private static String bytesOf(Message message) {
+        Flux<byte[]> chunks = Flux.from(message.content().stream()).cast(byte[].class);
+        List<byte[]> formatted = chunks.collectList().block();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        formatted.forEach(chunk -> bytes.write(chunk, 0, chunk.length));
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,217 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.exception.JSONPatchException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.UnicastProcessor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class JSONPatchTest {
+
+    @Mock
+    private FlowContext context;
+
+    private JSONPatch component = new JSONPatch();
+
+    @Test
+    void shouldApplyMergePatchToJSONString() {
+        // Given
+        component.setPatch("{\"status\": \"shipped\", \"tracking\": null, \"customer\": {\"vip\": true}}");
+        component.initialize();
+
+        String input = "{\"id\": 1, \"status\": \"new\", \"tracking\": \"x\", \"customer\": {\"name\": \"\u00c4gir\"}}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        String payload = actual.payload();
+        assertThat(payload).isEqualTo("{\"id\": 1, \"status\": \"shipped\", \"customer\": {\"name\": \"\u00c4gir\",\"vip\":true}}");
+    }
+
+    @Test
+    void shouldApplyJSONPatchToJSONBytes() {
+        // Given
+        component.setPatchFormat(PatchFormat.JSON_PATCH);
+        component.setPatch("[{\"op\": \"test\", \"path\": \"/id\", \"value\": 1}, " +
+                "{\"op\": \"add\", \"path\": \"/tags/0\", \"value\": \"first\"}]");
+        component.initialize();
+
+        byte[] input = "{\"id\":1,\"tags\":[\"a\"]}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        byte[] payload = actual.payload();
+        assertThat(new String(payload, StandardCharsets.UTF_8)).isEqualTo("{\"id\":1,\"tags\":[\"first\",\"a\"]}");
+        assertThat(actual.content().mimeType()).isEqualTo(MimeType.APPLICATION_JSON);
+    }
+
+    @Test
+    void shouldPatchInputStreamAndStream() {
+        // Given
+        component.setPatch("{\"a\": 2}");
+        component.initialize();
+
+        byte[] input = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+        Message inputStream = MessageBuilder.get(TestComponent.class).withJavaObject(new ByteArrayInputStream(input)).build();
+        Message stream = MessageBuilder.get(TestComponent.class)
+                .withString(Flux.just("{\"a\"", ":1}"), MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actualInputStream = component.apply(context, inputStream);
+        Message actualStream = component.apply(context, stream);
+
+        // Then
+        assertThat((byte[]) actualInputStream.payload()).isEqualTo("{\"a\":2}".getBytes(StandardCharsets.UTF_8));
+        assertThat(bytesOf(actualStream)).isEqualTo("{\"a\":2}");
+    }
+
+    @Test
+    void shouldWriteMergePatchedChunksBeforeStreamEnds() {
+        // Given
+        component.setPatch("{\"a\": 2, \"c\": null}");
+        component.initialize();
+
+        UnicastProcessor<String> chunks = UnicastProcessor.create();
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+        List<String> written = new ArrayList<>();
+
+        // When
+        Message actual = component.apply(context, message);
+        Flux.from(actual.content().stream()).cast(byte[].class)
+                .subscribe(chunk -> written.add(new String(chunk, StandardCharsets.UTF_8)));
+        chunks.onNext("{\"a\": 1, \"b\": [1, ");
+
+        // Then
+        assertThat(written).containsExactly("{\"a\": 2, \"b\": [1, ");
+
+        // When
+        chunks.onNext("2], \"c\": {\"d\": 3}}");
+        chunks.onComplete();
+
+        // Then
+        assertThat(String.join("", written)).isEqualTo("{\"a\": 2, \"b\": [1, 2]}");
+    }
+
+    @Test
+    void shouldPatchStreamWithSurrogatePairSplitAcrossChunks() {
+        // Given
+        component.setPatch("{\"a\": 2}");
+        component.initialize();
+
+        Flux<String> chunks = Flux.just("{\"a\": 1, \"b\": \"\uD83D", "\uDE00\"}");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(bytesOf(actual)).isEqualTo("{\"a\": 2, \"b\": \"\uD83D\uDE00\"}");
+    }
+
+    @Test
+    void shouldPatchStreamWithJSONPatch() {
+        // Given
+        component.setPatchFormat(PatchFormat.JSON_PATCH);
+        component.setPatch("[{\"op\": \"move\", \"from\": \"/b\", \"path\": \"/a\"}]");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class)
+                .withString(Flux.just("{\"a\": 1, ", "\"b\": 2}"), MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(bytesOf(actual)).isEqualTo("{\"a\": 2}");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPatchIsNotValid() {
+        // Given
+        component.setPatchFormat(PatchFormat.JSON_PATCH);
+        component.setPatch("[{\"op\": \"add\", \"path\": \"/a\"}]");
+
+        // When
+        JSONPatchException thrown = assertThrows(JSONPatchException.class, () -> component.initialize());
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON patch is not valid, cause=[Operation 0 has no 'value' member].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPatchCannotBeApplied() {
+        // Given
+        component.setPatchFormat(PatchFormat.JSON_PATCH);
+        component.setPatch("[{\"op\": \"remove\", \"path\": \"/missing\"}]");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson("{\"a\": 1}").build();
+
+        // When
+        JSONPatchException thrown = assertThrows(JSONPatchException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be patched, cause=[The path '/missing' does not exist].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPayloadCannotBePatched() {
+        // Given
+        component.setPatch("{}");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(23).build();
+
+        // When
+        JSONPatchException thrown = assertThrows(JSONPatchException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The message payload of type (Integer) cannot be patched. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be patched.");
+    }
+
+    @Test
+    void shouldReturnEmptyMessageWhenPayloadIsNull() {
+        // Given
+        component.setPatch("{}");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+
+    private static String bytesOf(Message message) {
+        Flux<byte[]> chunks = Flux.from(message.content().stream()).cast(byte[].class);
+        List<byte[]> patched = chunks.collectList().block();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        patched.forEach(chunk -> bytes.write(chunk, 0, chunk.length));
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,229 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.exception.JSONSchemaException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import de.codecentric.reedelk.runtime.api.resource.ResourceText;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+class JSONSchemaValidatorTest {
+
+    private static final String SCHEMA = "{\"type\": \"object\", \"required\": [\"id\"], \"properties\": {" +
+            "\"id\": {\"type\": \"integer\"}, \"tags\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}}}";
+
+    @Mock
+    private FlowContext context;
+    @Mock
+    private ResourceText schemaFile;
+
+    private JSONSchemaValidator component = new JSONSchemaValidator();
+
+    @Test
+    void shouldOutputValidPayloadUnchanged() {
+        // Given
+        component.setSchema(SCHEMA);
+        component.initialize();
+
+        String input = "{\"id\": 1, \"tags\": [\"\u00e4\"]}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        String payload = actual.payload();
+        assertThat(payload).isEqualTo(input);
+    }
+
+    @Test
+    void shouldOutputObjectOfValidPayload() {
+        // Given
+        component.setSchema(SCHEMA);
+        component.setOutput(ValidationOutput.OBJECT);
+        component.setNumberMapping(NumberMapping.BIG_DECIMAL);
+        component.initialize();
+
+        byte[] input = "{\"id\": 1, \"tags\": [\"a\", \"b\"]}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("id", new BigDecimal("1"));
+        expected.put("tags", Arrays.asList("a", "b"));
+        Object payload = actual.payload();
+        assertThat(payload).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldValidateInputStreamAndStream() {
+        // Given
+        component.setSchema(SCHEMA);
+        component.initialize();
+
+        byte[] input = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        Message inputStream = MessageBuilder.get(TestComponent.class).withJavaObject(new ByteArrayInputStream(input)).build();
+        Message stream = MessageBuilder.get(TestComponent.class)
+                .withString(Flux.just("{\"i", "d\":1}"), MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actualInputStream = component.apply(context, inputStream);
+        Message actualStream = component.apply(context, stream);
+
+        // Then
+        assertThat((byte[]) actualInputStream.payload()).isEqualTo(input);
+        byte[] streamed = Flux.from(actualStream.content().stream()).cast(byte[].class).blockLast();
+        assertThat(streamed).isEqualTo(input);
+    }
+
+    @Test
+    void shouldValidateStreamWithSurrogatePairSplitAcrossChunks() {
+        // Given
+        component.setSchema(SCHEMA);
+        component.initialize();
+
+        String input = "{\"id\":1,\"tags\":[\"\uD83D\uDE00\"]}";
+        Message stream = MessageBuilder.get(TestComponent.class)
+                .withString(Flux.just(input.substring(0, 18), input.substring(18)), MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, stream);
+
+        // Then
+        byte[] streamed = Flux.from(actual.content().stream()).cast(byte[].class).blockLast();
+        assertThat(streamed).isEqualTo(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReadSchemaFromFile() {
+        // Given
+        doReturn(Flux.just("{\"type\": ", "\"array\"}")).when(schemaFile).data();
+        component.setSchemaFile(schemaFile);
+        component.setSchema("{\"type\": \"object\"}");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson("{}").build();
+
+        // When
+        JSONSchemaException thrown = assertThrows(JSONSchemaException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON does not match the schema, " +
+                "errors=[The value at '' must be of type array, found object].");
+    }
+
+    @Test
+    void shouldThrowExceptionWithLocationsOfErrors() {
+        // Given
+        component.setSchema(SCHEMA);
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson("{\"tags\": [\"a\", 2]}").build();
+
+        // When
+        JSONSchemaException thrown = assertThrows(JSONSchemaException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON does not match the schema, errors=[" +
+                "The value at '/tags/1' must be of type string, found integer, " +
+                "The value at '' must have the property 'id'].");
+    }
+
+    @Test
+    void shouldStopAtFirstErrorWhenMaxErrorsIsOne() {
+        // Given
+        component.setSchema("{\"items\": {\"type\": \"integer\"}}");
+        component.setMaxErrors(1);
+        component.initialize();
+
+        // The JSON is not parsed after the first error.
+        Message message = MessageBuilder.get(TestComponent.class).withJson("[1, \"two\", 3, \"four\" not valid").build();
+
+        // When
+        JSONSchemaException thrown = assertThrows(JSONSchemaException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON does not match the schema, " +
+                "errors=[The value at '/1' must be of type integer, found string].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenJSONCannotBeParsed() {
+        // Given
+        component.setSchema(SCHEMA);
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJson("{\"id\": 1,, }").build();
+
+        // When
+        JSONSchemaException thrown = assertThrows(JSONSchemaException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("The JSON cannot be parsed, cause=[");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenSchemaIsNotValid() {
+        // Given
+        component.setSchema("{\"required\": \"id\"}");
+
+        // When
+        JSONSchemaException thrown = assertThrows(JSONSchemaException.class, () -> component.initialize());
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON schema is not valid, " +
+                "cause=[The keyword 'required' of the schema at '' must be an array of strings].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPayloadCannotBeValidated() {
+        // Given
+        component.setSchema("{}");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(23).build();
+
+        // When
+        JSONSchemaException thrown = assertThrows(JSONSchemaException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The message payload of type (Integer) cannot be validated. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be validated.");
+    }
+
+    @Test
+    void shouldReturnEmptyMessageWhenPayloadIsNull() {
+        // Given
+        component.setSchema("{}");
+        component.initialize();
+
+        Message message = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+}
@@ -0,0 +1,190 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.json.internal.exception.JSONSplitterException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class JSONSplitterTest {
+
+    @Mock
+    private FlowContext context;
+
+    private JSONSplitter component = new JSONSplitter();
+
+    @BeforeEach
+    void setUp() {
+        component.initialize();
+    }
+
+    @Test
+    void shouldSplitJSONArrayElements() {
+        // Given
+        String input = "[{'one':'one value'}, [1, 2], 'three', 4, null, true]";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(elementsOf(actual))
+                .containsExactly(of("one", "one value"), asList(1, 2), "three", 4, true);
+    }
+
+    @Test
+    void shouldSplitEmptyJSONArray() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).withJson(" [ ] ").build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(elementsOf(actual)).isEmpty();
+    }
+
+    @Test
+    void shouldSplitJSONLines() {
+        // Given
+        component.setFormat(SplitFormat.JSON_LINES);
+        component.initialize();
+
+        String input = "{\"id\":1}\r\n\n  {\"id\":2}  \n[3]\n\"four\"";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(elementsOf(actual)).containsExactly(of("id", 1), of("id", 2), asList(3), "four");
+    }
+
+    @Test
+    void shouldSplitStreamedJSONArrayWhileChunksArrive() {
+        // Given
+        byte[] bytes = "[{'id':1},{'id':2},{'id':3}]".getBytes(StandardCharsets.UTF_8);
+        AtomicInteger requested = new AtomicInteger();
+        Flux<byte[]> chunks = Flux.range(0, bytes.length)
+                .map(index -> new byte[] { bytes[index] })
+                .doOnRequest(count -> requested.incrementAndGet());
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(chunks).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Flux<Object> elements = Flux.from(actual.content().stream());
+        assertThat(elements.take(1).collectList().block()).containsExactly(of("id", 1));
+        assertThat(requested.get()).isLessThan(bytes.length);
+    }
+
+    @Test
+    void shouldNotParseBeforeElementsAreConsumed() {
+        // Given
+        String input = "[1, 2, }";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Flux<Object> elements = Flux.from(actual.content().stream());
+        assertThat(elements.take(2).collectList().block()).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldThrowExceptionWithPositionWhenJSONArrayIsNotValid() {
+        // Given
+        String input = "[1, 2: 3]";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        JSONSplitterException thrown = assertThrows(JSONSplitterException.class, () -> elementsOf(actual));
+        assertThat(thrown).hasMessage("The JSON cannot be split, cause=[Expected a ',' or ']' at 6 [character 7 line 1]].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenJSONLineContainsMoreValues() {
+        // Given
+        component.setFormat(SplitFormat.JSON_LINES);
+        component.initialize();
+
+        String input = "{\"id\":1}\n{\"id\":2} {\"id\":3}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        JSONSplitterException thrown = assertThrows(JSONSplitterException.class, () -> elementsOf(actual));
+        assertThat(thrown).hasMessage("The JSON cannot be split, cause=[Expected a new line after a JSON value at 19 [character 10 line 2]].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPayloadCannotBeSplit() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(23).build();
+
+        // When
+        JSONSplitterException thrown =
+                assertThrows(JSONSplitterException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The message payload of type (Integer) cannot be split. " +
+                "Only a string, a byte array, a byte buffer, an input stream or a stream payload can be split.");
+    }
+
+    @Test
+    void shouldReturnEmptyMessageWhenPayloadIsNull() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+
+    @Test
+    void shouldSplitStreamedJSONLines() {
+        // Given
+        component.setFormat(SplitFormat.JSON_LINES);
+        component.initialize();
+
+        Flux<String> chunks = Flux.just("{\"id\"", ":1}\n{\"id\":2", "}\n");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(elementsOf(actual)).containsExactly(of("id", 1), of("id", 2));
+    }
+
+    private static List<Object> elementsOf(Message message) {
+        Flux<Object> elements = Flux.from(message.content().stream());
+        return elements.collectList().block();
+    }
+}
@@ -1,20 +1,38 @@
 package de.codecentric.reedelk.json.component;
 
 import de.codecentric.reedelk.json.internal.exception.JSONToObjectException;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
 import de.codecentric.reedelk.runtime.api.commons.ImmutableMap;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
 import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
 import de.codecentric.reedelk.runtime.api.message.content.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,6 +48,7 @@ class JSONToObjectTest {
 
     @BeforeEach
     void setUp() {
+        component.metrics = new JSONMetrics();
         component.initialize();
     }
 
@@ -106,6 +125,70 @@ class JSONToObjectTest {
         assertThat(payload).isEqualTo(of("one", "one value", "two", ImmutableMap.of("three", "three value")));
     }
 
+    @Test
+    void shouldConvertJSONObjectAsUTF8BytesWithByteOrderMark() {
+        // Given
+        byte[] json = "{\"emoji\":\"\uD83D\uDE00\",\"text\":\"\u00e8\u20ac\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] input = new byte[json.length + 3];
+        input[0] = (byte) 0xEF;
+        input[1] = (byte) 0xBB;
+        input[2] = (byte) 0xBF;
+        System.arraycopy(json, 0, input, 3, json.length);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("emoji", "\uD83D\uDE00", "text", "\u00e8\u20ac"));
+    }
+
+    @Test
+    void shouldConvertJSONObjectAsBoxedBytesArray() {
+        // Given
+        byte[] bytes = "{'one':'one value'}".getBytes(StandardCharsets.UTF_8);
+        Byte[] input = new Byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) input[i] = bytes[i];
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("one", "one value"));
+    }
+
+    @Test
+    void shouldConvertJSONArrayAsByteBuffer() {
+        // Given
+        ByteBuffer input = ByteBuffer.wrap("[1, 'two', {'three': 3}]".getBytes(StandardCharsets.UTF_8));
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Object> payload = actual.payload();
+        assertThat(payload).containsExactly(1, "two", of("three", 3));
+        assertThat(input.position()).isZero();
+    }
+
+    @Test
+    void shouldConvertJSONObjectAsInputStream() {
+        // Given
+        InputStream input = new ByteArrayInputStream("{'one': ['\u00fc', 2]}".getBytes(StandardCharsets.UTF_8));
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("one", Arrays.asList("\u00fc", 2)));
+    }
+
     @Test
     void shouldReturnNullPayloadWhenInputIsNull() {
         // Given
@@ -146,4 +229,682 @@ class JSONToObjectTest {
                 "The message payload of type (SerializablePair) is not a string. " +
                 "Only a payload containing a string type can be converted to JSON.");
     }
+
+    @Test
+    void shouldConvertJSONValuesToJavaTypes() {
+        // Given
+        String input = "{\"int\": 1, \"long\": 9999999999, \"double\": 1.5, \"exp\": 1e3, " +
+                "\"true\": true, \"false\": false, \"null\": null, \"string\": \"a\\tb\\u00e8\"}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).containsEntry("int", 1)
+                .containsEntry("long", 9999999999L)
+                .containsEntry("double", 1.5d)
+                .containsEntry("exp", 1000.0d)
+                .containsEntry("true", true)
+                .containsEntry("false", false)
+                .containsEntry("null", null)
+                .containsEntry("string", "a\tb\u00e8")
+                .hasSize(8);
+    }
+
+    @Test
+    void shouldConvertJSONArrayWithMissingElementsToNull() {
+        // Given
+        String input = "[1,,2,]";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Object> payload = actual.payload();
+        assertThat(payload).containsExactly(1, null, 2);
+    }
+
+    @Test
+    void shouldThrowExceptionWithPositionWhenJSONIsNotValid() {
+        // Given
+        String input = "{'one':'one value'\n 'two':'two value'}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Expected a ',' or '}' at 21 [character 2 line 2]].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenJSONHasDuplicateKey() {
+        // Given
+        String input = "{'one':'one value','one':'two value'}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Duplicate key \"one\" at 25 [character 26 line 1]].");
+    }
+
+    @Test
+    void shouldConvertStreamOfBytesSplitWithinMultiByteCharacters() {
+        // Given
+        byte[] bytes = "\uFEFF{'emoji':'\uD83D\uDE00','text':['\u00e8\u20ac', 12.5]}".getBytes(StandardCharsets.UTF_8);
+        Flux<byte[]> chunks = Flux.range(0, bytes.length)
+                .map(index -> new byte[] { bytes[index] });
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(chunks).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("emoji", "\uD83D\uDE00", "text", Arrays.asList("\u00e8\u20ac", 12.5)));
+    }
+
+    @Test
+    void shouldConvertStreamOfStringsEmittedOnAnotherThread() {
+        // Given
+        Flux<String> chunks = Flux.just("[{'one':'one ", "value'}", ",", " {'two", "':2}]")
+                .publishOn(Schedulers.parallel());
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Object> payload = actual.payload();
+        assertThat(payload).containsExactly(of("one", "one value"), of("two", 2));
+    }
+
+    @Test
+    void shouldConvertStreamWithSurrogatePairSplitAcrossChunks() {
+        // Given
+        Flux<String> chunks = Flux.just("{'one':'\uD83D", "\uDE00'}");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("one", "\uD83D\uDE00"));
+    }
+
+    @Test
+    void shouldConvertStreamEmittedWhileRequestedOnNonBlockingThread() {
+        // Given
+        Flux<String> chunks = Flux.just("{'one':", "'one value'}");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = Mono.fromCallable(() -> component.apply(context, message))
+                .subscribeOn(Schedulers.parallel())
+                .block();
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("one", "one value"));
+    }
+
+    @Test
+    void shouldThrowExceptionInsteadOfWaitingForStreamOnNonBlockingThread() {
+        // Given
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Flux<String> chunks = Flux.just("{'one':", "'one value'}")
+                .delayElements(Duration.ofMillis(10))
+                .doOnCancel(() -> cancelled.set(true));
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        JSONToObjectException thrown = assertThrows(JSONToObjectException.class,
+                () -> Mono.fromCallable(() -> component.apply(context, message))
+                        .subscribeOn(Schedulers.parallel())
+                        .block());
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("The JSON cannot be parsed, " +
+                "cause=[The next stream chunk cannot be waited for on the non-blocking thread parallel-");
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldCancelStreamWhenRootValueHasBeenParsed() {
+        // Given
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Flux<String> chunks = Flux.just("{'one':", "'one value'}", " trailing")
+                .doOnCancel(() -> cancelled.set(true));
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("one", "one value"));
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenStreamFails() {
+        // Given
+        Flux<String> chunks = Flux.concat(
+                Flux.just("{'one':"),
+                Flux.error(new IllegalStateException("Connection reset")));
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Connection reset].");
+    }
+
+    @Test
+    void shouldThrowExceptionWithPositionWhenStreamedJSONIsNotValid() {
+        // Given
+        Flux<String> chunks = Flux.just("{'one':'one value'", "\n 'two':'two value'}");
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Expected a ',' or '}' at 21 [character 2 line 2]].");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenJSONExceedsMaxDepth() {
+        // Given
+        component.setMaxDepth(2);
+        component.setParserEngine(ParserEngine.STRUCTURAL_INDEX);
+        component.initialize();
+        byte[] payload = "{\"one\": {\"two\": [3]}}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(payload).build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON exceeds the parser limits, " +
+                "cause=[Maximum nesting depth of 2 exceeded at 17 [character 18 line 1]].");
+    }
+
+    @Test
+    void shouldCancelStreamWhenJSONExceedsMaxInputSize() {
+        // Given
+        component.setMaxInputSize(16);
+        component.initialize();
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Flux<String> chunks = Flux.just("[\"one\", ", "\"two\", ", "\"three\", ", "\"four\"]")
+                .doOnCancel(() -> cancelled.set(true));
+        Message message = MessageBuilder.get(TestComponent.class).withString(chunks, MimeType.APPLICATION_JSON).build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON exceeds the parser limits, " +
+                "cause=[Maximum input size of 16 exceeded at 15 [character 16 line 1]].");
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenLazyJSONExceedsMaxMembers() {
+        // Given
+        component.setMaxMembers(2);
+        component.setOutputMode(OutputMode.LAZY);
+        component.initialize();
+        Message message = MessageBuilder.get(TestComponent.class).withJson("{\"one\": [1, 2, 3]}").build();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON exceeds the parser limits, " +
+                "cause=[Maximum number of members of 2 exceeded at 16 [character 17 line 1]].");
+    }
+
+    @Test
+    void shouldConvertJSONObjectToLazyMapEqualToEagerMap() {
+        // Given
+        String input = "{\"int\": 1, \"long\": 9999999999, \"double\": 1.5, \"true\": true, \"null\": null, " +
+                "\"string\": \"a\\tb\\u00e8\", \"array\": [1,,'two',{'three':3}], \"object\": {}}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+        Map<String,Object> expected = component.apply(context, message).payload();
+
+        component.setOutputMode(OutputMode.LAZY);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(expected);
+        assertThat(payload.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(payload.keySet())
+                .containsExactly("int", "long", "double", "true", "null", "string", "array", "object");
+        assertThat(payload.get("array")).isEqualTo(Arrays.asList(1, null, "two", of("three", 3)));
+    }
+
+    @Test
+    void shouldConvertJSONArrayAsBytesToLazyList() {
+        // Given
+        byte[] input = "\uFEFF[{'name':'Jos\u00e9'}, 2]".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        component.setOutputMode(OutputMode.LAZY);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Object> payload = actual.payload();
+        assertThat(payload).containsExactly(of("name", "Jos\u00e9"), 2);
+    }
+
+    @Test
+    void shouldNotModifyLazyMap() {
+        // Given
+        String input = "{'one':'one value','two':[1,2]}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        component.setOutputMode(OutputMode.LAZY);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        List<?> two = (List<?>) payload.get("two");
+        assertThrows(UnsupportedOperationException.class, () -> payload.put("three", 3));
+        assertThrows(UnsupportedOperationException.class, () -> payload.remove("one"));
+        assertThrows(UnsupportedOperationException.class, () -> two.set(0, null));
+        assertThrows(UnsupportedOperationException.class, () -> two.add(null));
+    }
+
+    @Test
+    void shouldDecodeLazyMapValuesConcurrently() throws Exception {
+        // Given
+        StringBuilder input = new StringBuilder("{");
+        for (int i = 0; i < 64; i++) {
+            if (i > 0) input.append(',');
+            input.append("'key").append(i).append("':['value\\u00e8").append(i).append("',").append(i).append(']');
+        }
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input.append('}').toString()).build();
+
+        component.setOutputMode(OutputMode.LAZY);
+        component.setShareRepeatedStrings(true);
+        component.initialize();
+
+        Map<String,Object> payload = component.apply(context, message).payload();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<List<Object>>> decoded = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            decoded.add(executor.submit(() -> {
+                List<Object> values = new ArrayList<>();
+                for (int i = 63; i >= 0; i--) {
+                    values.add(payload.get("key" + i));
+                }
+                return values;
+            }));
+        }
+        executor.shutdown();
+
+        // Then
+        List<Object> first = decoded.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<List<Object>> values : decoded) {
+            List<Object> actual = values.get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 64; i++) {
+                assertThat(actual.get(i)).isSameAs(first.get(i));
+                assertThat(actual.get(i)).isEqualTo(Arrays.asList("value\u00e8" + (63 - i), 63 - i));
+            }
+        }
+    }
+
+    @Test
+    void shouldThrowExceptionWhenLazyJSONHasDuplicateKey() {
+        // Given
+        String input = "{'one':'one value','one':'two value'}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        component.setOutputMode(OutputMode.LAZY);
+        component.initialize();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Duplicate key \"one\" at 25 [character 26 line 1]].");
+    }
+
+    @Test
+    void shouldThrowExceptionWithPositionWhenLazyJSONIsNotValid() {
+        // Given
+        String input = "{'one':'one value','two':['two value' 'three value']}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        component.setOutputMode(OutputMode.LAZY);
+        component.initialize();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Expected a ',' or ']' at 39 [character 40 line 1]].");
+    }
+
+    @Test
+    void shouldConvertJSONObjectAsBytesWithStructuralIndexParser() {
+        // Given
+        byte[] input = "{\"one\": \"one value\", \"two\": [1, 2.5, true, null]}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        component.setParserEngine(ParserEngine.STRUCTURAL_INDEX);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(of("one", "one value", "two", Arrays.asList(1, 2.5d, true, null)));
+    }
+
+    @Test
+    void shouldThrowExceptionWithPositionWhenJSONIsNotValidWithStructuralIndexParser() {
+        // Given
+        byte[] input = "{'one':'one value'\n 'two':'two value'}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        component.setParserEngine(ParserEngine.STRUCTURAL_INDEX);
+        component.initialize();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Expected a ',' or '}' at 21 [character 2 line 2]].");
+    }
+
+    @Test
+    void shouldConvertJSONNumbersToBigDecimal() {
+        // Given
+        String input = "{'int': 1, 'decimal': 1.50, 'big': 123456789012345678901234567890, 1.50: 'key'}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        component.setNumberMapping(NumberMapping.BIG_DECIMAL);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).containsEntry("int", new BigDecimal("1"))
+                .containsEntry("decimal", new BigDecimal("1.50"))
+                .containsEntry("big", new BigDecimal("123456789012345678901234567890"))
+                .containsEntry("1.5", "key");
+    }
+
+    @Test
+    void shouldConvertJSONIntegersToLongWithStructuralIndexParser() {
+        // Given
+        byte[] input = "[1, -2, 3.25]".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        component.setParserEngine(ParserEngine.STRUCTURAL_INDEX);
+        component.setNumberMapping(NumberMapping.LONG_OR_DOUBLE);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Object> payload = actual.payload();
+        assertThat(payload).containsExactly(1L, -2L, 3.25d);
+    }
+
+    @Test
+    void shouldShareRepeatedKeys() {
+        // Given
+        String input = "[{\"id\": 1, \"status\": \"ok\"}, {\"id\": 2, \"status\": \"ok\"}]";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Map<String,Object>> payload = actual.payload();
+        assertThat(keyOf(payload.get(1), "status")).isSameAs(keyOf(payload.get(0), "status"));
+        assertThat(payload.get(1).get("status")).isNotSameAs(payload.get(0).get("status"));
+    }
+
+    @Test
+    void shouldShareRepeatedKeysAndStringsWithStructuralIndexParser() {
+        // Given
+        byte[] input = "[{\"id\": 1, \"status\": \"ok\"}, {\"id\": 2, \"status\": \"ok\"}]"
+                .getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        component.setParserEngine(ParserEngine.STRUCTURAL_INDEX);
+        component.setShareRepeatedStrings(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Map<String,Object>> payload = actual.payload();
+        assertThat(keyOf(payload.get(1), "status")).isSameAs(keyOf(payload.get(0), "status"));
+        assertThat(payload.get(1).get("status")).isSameAs(payload.get(0).get("status"));
+    }
+
+    @Test
+    void shouldShareRepeatedStringsOfStream() {
+        // Given
+        Flux<byte[]> chunks = Flux.just("[{'status': 'ok'}, ".getBytes(StandardCharsets.UTF_8),
+                "{'status': 'ok'}]".getBytes(StandardCharsets.UTF_8));
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(chunks).build();
+
+        component.setShareRepeatedStrings(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        List<Map<String,Object>> payload = actual.payload();
+        assertThat(payload).containsExactly(of("status", "ok"), of("status", "ok"));
+        assertThat(keyOf(payload.get(1), "status")).isSameAs(keyOf(payload.get(0), "status"));
+        assertThat(payload.get(1).get("status")).isSameAs(payload.get(0).get("status"));
+    }
+
+    private static String keyOf(Map<String,Object> object, String key) {
+        return object.keySet().stream().filter(key::equals).findFirst().orElse(null);
+    }
+
+    @Test
+    void shouldConvertJSONObjectToCompactMapKeepingKeyOrder() {
+        // Given
+        StringBuilder input = new StringBuilder("{'ints': [1, 2, 3], 'longs': [9999999999, -9999999999], " +
+                "'doubles': [1.5, -0.0], 'mixed': [1, 9999999999, 'a', null], 'empty': {}");
+        for (int i = 20; i > 0; i--) {
+            input.append(", 'key").append(i).append("': ").append(i);
+        }
+        input.append('}');
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input.toString()).build();
+        Map<String,Object> expected = component.apply(context, message).payload();
+
+        component.setOutputMode(OutputMode.COMPACT);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        assertThat(payload).isEqualTo(expected);
+        assertThat(payload.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(payload.keySet()).startsWith("ints", "longs", "doubles", "mixed", "empty", "key20", "key19");
+        assertThat(payload.get("key7")).isEqualTo(7);
+        assertThat(payload.containsKey("key21")).isFalse();
+        assertThat(payload.get("ints")).isEqualTo(Arrays.asList(1, 2, 3));
+        assertThat(payload.get("longs")).isEqualTo(Arrays.asList(9999999999L, -9999999999L));
+        assertThat(payload.get("doubles")).isEqualTo(Arrays.asList(1.5d, -0.0d));
+        assertThat(payload.get("mixed")).isEqualTo(Arrays.asList(1, 9999999999L, "a", null));
+    }
+
+    @Test
+    void shouldNotModifyCompactMap() {
+        // Given
+        byte[] input = "{\"one\": \"one value\", \"two\": [1, 2]}".getBytes(StandardCharsets.UTF_8);
+        Message message = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+
+        component.setOutputMode(OutputMode.COMPACT);
+        component.setParserEngine(ParserEngine.STRUCTURAL_INDEX);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Map<String,Object> payload = actual.payload();
+        List<?> two = (List<?>) payload.get("two");
+        assertThat(payload).isEqualTo(of("one", "one value", "two", Arrays.asList(1, 2)));
+        assertThrows(UnsupportedOperationException.class, () -> payload.put("three", 3));
+        assertThrows(UnsupportedOperationException.class, () -> payload.remove("one"));
+        assertThrows(UnsupportedOperationException.class, () -> two.set(0, null));
+        assertThrows(UnsupportedOperationException.class, () -> two.add(null));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCompactJSONHasDuplicateKey() {
+        // Given
+        String input = "{'one':'one value','one':'two value'}";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        component.setOutputMode(OutputMode.COMPACT);
+        component.initialize();
+
+        // When
+        JSONToObjectException thrown =
+                assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        assertThat(thrown).hasMessage("The JSON cannot be parsed, cause=[Duplicate key \"one\" at 25 [character 26 line 1]].");
+    }
+
+    @Test
+    void shouldRecordMetricsOfConversions() {
+        // Given
+        JSONMetrics metrics = new JSONMetrics();
+        component.metrics = metrics;
+        component.initialize();
+
+        Message valid = MessageBuilder.get(TestComponent.class).withJson("{'one': [1, 2]}").build();
+        Message notValid = MessageBuilder.get(TestComponent.class).withJson("{'one': [1, 2}").build();
+
+        // When
+        component.apply(context, valid);
+        assertThrows(JSONToObjectException.class, () -> component.apply(context, notValid));
+
+        // Then
+        OperationMetrics actual = metrics.jsonToObject();
+        assertThat(actual.getCount()).isEqualTo(2);
+        assertThat(actual.getErrorCount()).isEqualTo(1);
+        assertThat(actual.getErrorCountByType()).containsOnlyKeys("JSONToObject.JSON_PARSE_ERROR");
+        assertThat(actual.getInputBytes()).isEqualTo("{'one': [1, 2]}".length());
+    }
+
+    @Test
+    void shouldParseLargeArrayInParallel() {
+        // Given
+        StringBuilder input = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            input.append("{'id': ").append(i).append(", 'tags': ['a', 'b']},");
+        }
+        input.append("{}]");
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input.toString()).build();
+        List<Object> expected = component.apply(context, message).payload();
+
+        component.setParallelism(4);
+        component.setParallelThreshold(1024);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        component.dispose();
+        List<Object> payload = actual.payload();
+        assertThat(payload).hasSize(1001).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldThrowSequentialParserErrorWhenParsingInParallel() {
+        // Given
+        String input = "[1, 2, {'a': 1 'b': 2}, 3]";
+        Message message = MessageBuilder.get(TestComponent.class).withJson(input).build();
+
+        component.setParallelism(2);
+        component.setParallelThreshold(0);
+        component.initialize();
+
+        // When
+        JSONToObjectException thrown = assertThrows(JSONToObjectException.class, () -> component.apply(context, message));
+
+        // Then
+        component.dispose();
+        assertThat(thrown).hasMessageContaining("Expected a ',' or '}' at 19 [character 20 line 1]");
+    }
+
+    @Test
+    void shouldReturnCachedObjectWhenPayloadWasConvertedBefore() {
+        // Given
+        JSONMetrics metrics = new JSONMetrics();
+        component.metrics = metrics;
+        component.setCacheSize(1024);
+        component.initialize();
+
+        byte[] input = "{'id': 1, 'tags': ['a', 'b']}".getBytes(StandardCharsets.UTF_8);
+        Message first = MessageBuilder.get(TestComponent.class).withBinary(input).build();
+        Message second = MessageBuilder.get(TestComponent.class).withBinary(input.clone()).build();
+        Message other = MessageBuilder.get(TestComponent.class).withBinary("[1]".getBytes(StandardCharsets.UTF_8)).build();
+
+        // When
+        Map<String, Object> firstPayload = component.apply(context, first).payload();
+        Map<String, Object> secondPayload = component.apply(context, second).payload();
+        List<Object> otherPayload = component.apply(context, other).payload();
+
+        // Then
+        assertThat(secondPayload).isSameAs(firstPayload);
+        assertThat(firstPayload).containsEntry("id", 1).containsEntry("tags", Arrays.asList("a", "b"));
+        assertThat(otherPayload).containsExactly(1);
+        assertThrows(UnsupportedOperationException.class, () -> firstPayload.put("id", 2));
+
+        OperationMetrics actual = metrics.jsonToObject();
+        assertThat(actual.getCacheHitCount()).isEqualTo(1);
+        assertThat(actual.getCacheMissCount()).isEqualTo(2);
+    }
 }
@@ -1,9 +1,14 @@
 package de.codecentric.reedelk.json.component;
 
+import de.codecentric.reedelk.json.internal.ObjectToJSONConverter;
+import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
 import de.codecentric.reedelk.runtime.api.converter.ConverterService;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
 import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.MimeType;
 import de.codecentric.reedelk.runtime.api.message.content.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,12 +16,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static org.skyscreamer.jsonassert.JSONAssert.assertEquals;
 import static org.skyscreamer.jsonassert.JSONCompareMode.STRICT;
@@ -38,6 +48,7 @@ class ObjectToJSONTest {
                 .convert(any(String.class), eq(String.class));
 
         component.converterService = converterService;
+        component.metrics = new JSONMetrics();
     }
 
     @Test
@@ -253,4 +264,403 @@ class ObjectToJSONTest {
                 "]";
         assertEquals(expectedJson, actualJson, STRICT);
     }
+
+    @Test
+    void shouldOmitNullMapValuesAndKeepNullListElements() {
+        // Given
+        component.initialize();
+
+        Map<String,Object> myObject = new HashMap<>();
+        myObject.put("key1", null);
+        myObject.put("key2", asList("one", null));
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isEqualTo("{\"key2\":[\"one\",null]}");
+    }
+
+    @Test
+    void shouldWriteNumbersAndEscapeStrings() {
+        // Given
+        component.initialize();
+
+        List<Object> myObject = asList(2.0d, 1.50d, 1.0E20d, 7L, "</a>\"\t\u0001");
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isEqualTo("[2,1.5,1.0E20,7,\"<\\/a>\\\"\\t\\u0001\"]");
+    }
+
+    @Test
+    void shouldPrettyPrintSingleMemberObjectOnOneLine() {
+        // Given
+        component.setPrettyPrint(true);
+        component.initialize();
+
+        List<Object> myObject = asList(of("one", asList(1)), new HashMap<>());
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isEqualTo("[\n  {\"one\": [1]},\n  {}\n]");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenNumberIsNotFinite() {
+        // Given
+        component.initialize();
+
+        List<Object> myObject = asList(1, Double.NaN);
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        ObjectToJSONException thrown =
+                assertThrows(ObjectToJSONException.class, () -> component.apply(context, inMessage));
+
+        // Then
+        assertThat(thrown).hasMessage("Number=[NaN] cannot be printed as valid JSON number.");
+    }
+
+    @Test
+    void shouldNotUseConverterServiceForStringKeys() {
+        // Given
+        component.initialize();
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(of("key1", "value1", "key2", of("nested", 1)))
+                .build();
+
+        // When
+        component.apply(context, inMessage);
+
+        // Then
+        verify(converterService, never()).convert(any(), eq(String.class));
+    }
+
+    @Test
+    void shouldConvertIntegralKeysWithoutConverterService() {
+        // Given
+        component.initialize();
+
+        Map<Object, Object> myObject = new HashMap<>();
+        myObject.put(1, "one");
+        myObject.put(2L, "two");
+        myObject.put(true, "three");
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertEquals("{\"1\":\"one\",\"2\":\"two\",\"true\":\"three\"}", actualJson, STRICT);
+        verify(converterService, never()).convert(any(), eq(String.class));
+    }
+
+    @Test
+    void shouldConvertOtherKeysWithConverterService() {
+        // Given
+        component.initialize();
+
+        LocalDate key = LocalDate.of(2020, 5, 17);
+        doReturn("converted key").when(converterService).convert(key, String.class);
+
+        Map<Object, Object> myObject = new HashMap<>();
+        myObject.put(key, "value");
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertEquals("{\"converted key\":\"value\"}", actualJson, STRICT);
+    }
+
+    @Test
+    void shouldOutputUTF8BytesWhenOutputFormatIsBytes() {
+        // Given
+        component.setOutputFormat(OutputFormat.BYTES);
+        component.initialize();
+
+        Map<String,Object> myObject = of("text", "caf\u00e9 \u20ac \uD83D\uDE00", "list", asList(1, 2));
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(myObject)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        byte[] actualJson = actual.payload();
+        String expectedJson = new ObjectToJSONConverter(converterService).toJSON(myObject, 0);
+        assertThat(actualJson).isEqualTo(expectedJson.getBytes(StandardCharsets.UTF_8));
+        assertThat(actual.content().mimeType()).isEqualTo(MimeType.APPLICATION_JSON);
+    }
+
+    @Test
+    void shouldOutputUTF8BytesOfValidJSONStringWhenOutputFormatIsBytes() {
+        // Given
+        component.setOutputFormat(OutputFormat.BYTES);
+        component.initialize();
+
+        String input = "{\"name\":\"J\u00fcrgen\"}";
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString(input, MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        byte[] actualJson = actual.payload();
+        assertThat(actualJson).isEqualTo(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldPassThroughValidJSONString() {
+        // Given
+        component.initialize();
+
+        String input = "{\"one\": [1, 2.5, true, null]}";
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString(input, MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isSameAs(input);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenStringIsNotValidJSON() {
+        // Given
+        component.initialize();
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString("not a json", MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        ObjectToJSONException thrown =
+                assertThrows(ObjectToJSONException.class, () -> component.apply(context, inMessage));
+
+        // Then
+        assertThat(thrown).hasMessage("The payload string is not a valid JSON.");
+    }
+
+    @Test
+    void shouldPassThroughValidJSONStringWhenPolicyIsSyntaxOnly() {
+        // Given
+        component.setValidationPolicy(ValidationPolicy.SYNTAX_ONLY);
+        component.initialize();
+
+        String input = "[{\"one\": \"\\u00e8\"}, {\"two\": -1.5e3}]";
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString(input, MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isSameAs(input);
+    }
+
+    @Test
+    void shouldThrowExceptionWithOffsetWhenPolicyIsSyntaxOnlyAndStringIsNotValidJSON() {
+        // Given
+        component.setValidationPolicy(ValidationPolicy.SYNTAX_ONLY);
+        component.initialize();
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString("{\"one\": 1,}", MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        ObjectToJSONException thrown =
+                assertThrows(ObjectToJSONException.class, () -> component.apply(context, inMessage));
+
+        // Then
+        assertThat(thrown).hasMessage("The payload string is not a valid JSON, cause=[Unexpected character at offset 10].");
+    }
+
+    @Test
+    void shouldNotValidateStringWhenPolicyIsTrust() {
+        // Given
+        component.setValidationPolicy(ValidationPolicy.TRUST);
+        component.initialize();
+
+        String input = "not a json";
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString(input, MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isSameAs(input);
+    }
+
+    @Test
+    void shouldReindentJSONStringWhenPrettyPrint() {
+        // Given
+        component.setPrettyPrint(true);
+        component.setIndentFactor(2);
+        component.initialize();
+
+        String input = "{\"one\":[1,2],   \"two\": {}}";
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString(input, MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isEqualTo("{\n  \"one\": [\n    1,\n    2\n  ],\n  \"two\": {}\n}");
+    }
+
+    @Test
+    void shouldThrowExceptionWithOffsetWhenPrettyPrintAndStringIsNotStrictJSON() {
+        // Given
+        component.setPrettyPrint(true);
+        component.setValidationPolicy(ValidationPolicy.SYNTAX_ONLY);
+        component.initialize();
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString("{\"one\": 'two'}", MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        ObjectToJSONException thrown =
+                assertThrows(ObjectToJSONException.class, () -> component.apply(context, inMessage));
+
+        // Then
+        assertThat(thrown).hasMessage("The payload string is not a valid JSON, cause=[Unexpected character at offset 8].");
+    }
+
+    @Test
+    void shouldPrettyPrintLenientJSONStringWhenPolicyIsNotSyntaxOnly() {
+        // Given
+        component.setPrettyPrint(true);
+        component.setIndentFactor(2);
+        component.setValidationPolicy(ValidationPolicy.TRUST);
+        component.initialize();
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString("{'two': 'two value', one: [1,2]}", MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String actualJson = actual.payload();
+        assertThat(actualJson).isEqualTo("{\n  \"two\": \"two value\",\n  \"one\": [\n    1,\n    2\n  ]\n}");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPrettyPrintAndStringIsNotJSON() {
+        // Given
+        component.setPrettyPrint(true);
+        component.initialize();
+
+        Message inMessage = MessageBuilder.get(TestComponent.class)
+                .withString("{\"one\": [1, 2}", MimeType.TEXT_PLAIN)
+                .build();
+
+        // When
+        ObjectToJSONException thrown =
+                assertThrows(ObjectToJSONException.class, () -> component.apply(context, inMessage));
+
+        // Then
+        assertThat(thrown).hasMessage("The payload string is not a valid JSON.");
+    }
+
+    @Test
+    void shouldRecordMetricsOfConversions() {
+        // Given
+        JSONMetrics metrics = new JSONMetrics();
+        component.metrics = metrics;
+        component.initialize();
+
+        Map<String, Object> object = new HashMap<>();
+        object.put("one", 1);
+        Message inMessage = MessageBuilder.get(TestComponent.class).withJavaObject(object).build();
+
+        // When
+        component.apply(context, inMessage);
+
+        // Then
+        OperationMetrics actual = metrics.objectToJSON();
+        assertThat(actual.getCount()).isEqualTo(1);
+        assertThat(actual.getErrorCount()).isZero();
+        assertThat(actual.getOutputBytes()).isEqualTo("{\"one\":1}".length());
+    }
+
+    @Test
+    void shouldConvertLargeListInParallel() {
+        // Given
+        component.setParallelism(4);
+        component.setParallelThreshold(100);
+        component.setPrettyPrint(true);
+        component.initialize();
+
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(of("id", i, "name", "item" + i));
+        }
+        Message inMessage = MessageBuilder.get(TestComponent.class).withJavaObject(list).build();
+
+        // When
+        Message actual = component.apply(context, inMessage);
+
+        // Then
+        String expected = new ObjectToJSONConverter(converterService).toJSON(list, 2);
+        assertThat((String) actual.payload()).isEqualTo(expected);
+        component.dispose();
+    }
 }
@@ -0,0 +1,106 @@
+package de.codecentric.reedelk.json.component;
+
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.TypedContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ObjectToNDJSONTest {
+
+    @Mock
+    private ConverterService converterService;
+    @Mock
+    private FlowContext context;
+
+    private ObjectToNDJSON component = new ObjectToNDJSON();
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> invocation.getArgument(0))
+                .when(converterService)
+                .convert(any(String.class), eq(String.class));
+
+        component.converterService = converterService;
+        component.initialize();
+    }
+
+    @Test
+    void shouldConvertStreamOfObjectsToJSONLines() {
+        // Given
+        Flux<Object> objects = Flux.just(of("id", 1), asList(2, "two"), "three", 4);
+        Message message = MessageBuilder.get(TestComponent.class).withStream(objects, Object.class).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(actual.content().mimeType()).isEqualTo(ObjectToNDJSON.APPLICATION_NDJSON);
+        assertThat(linesOf(actual)).containsExactly(
+                "{\"id\":1}\n",
+                "[2,\"two\"]\n",
+                "\"three\"\n",
+                "4\n");
+    }
+
+    @Test
+    void shouldConvertCollectionElementsToJSONLines() {
+        // Given
+        List<Object> objects = asList(of("id", 1), null, of("id", 2));
+        Message message = MessageBuilder.get(TestComponent.class).withJavaObject(objects).build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(linesOf(actual)).containsExactly("{\"id\":1}\n", "null\n", "{\"id\":2}\n");
+    }
+
+    @Test
+    void shouldConvertSingleObjectToOneJSONLine() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(of("text", "line\nbreak"))
+                .build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        assertThat(linesOf(actual)).containsExactly("{\"text\":\"line\\nbreak\"}\n");
+    }
+
+    @Test
+    void shouldReturnEmptyMessageWhenPayloadIsNull() {
+        // Given
+        Message message = MessageBuilder.get(TestComponent.class).empty().build();
+
+        // When
+        Message actual = component.apply(context, message);
+
+        // Then
+        Object payload = actual.payload();
+        assertThat(payload).isNull();
+    }
+
+    private static List<String> linesOf(Message message) {
+        TypedContent<String, String> content = message.content();
+        return Flux.from(content.stream()).collectList().block();
+    }
+}
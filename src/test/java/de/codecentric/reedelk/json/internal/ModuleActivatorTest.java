@@ -0,0 +1,76 @@
+package de.codecentric.reedelk.json.internal;
+
+import de.codecentric.reedelk.json.internal.exception.JSONToObjectException;
+import de.codecentric.reedelk.json.internal.metrics.JSONMetrics;
+import de.codecentric.reedelk.json.internal.script.GlobalFunctions;
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ModuleActivatorTest {
+
+    @Mock
+    private BundleContext context;
+    @Mock
+    private Bundle bundle;
+    @Mock
+    private ScriptEngineService scriptEngine;
+    @Mock
+    private ConverterService converterService;
+
+    private ModuleActivator activator = new ModuleActivator();
+
+    @BeforeEach
+    void setUp() {
+        doReturn(bundle).when(context).getBundle();
+        activator.scriptEngine = scriptEngine;
+        activator.converterService = converterService;
+        activator.metrics = new JSONMetrics();
+    }
+
+    @Test
+    void shouldKeepRegisteredGlobalWhenConfigurationChangesTwice() {
+        // Given
+        activator.start(context, Collections.emptyMap());
+        ArgumentCaptor<GlobalFunctions> registered = ArgumentCaptor.forClass(GlobalFunctions.class);
+        verify(scriptEngine).register(registered.capture());
+        Json json = (Json) registered.getValue().bindings().get("Json");
+
+        Map<String, Object> limited = new HashMap<>();
+        limited.put(ModuleActivator.PARSE_MAX_DEPTH, 1);
+        limited.put(ModuleActivator.PARSE_CACHE_SIZE, "1024");
+
+        // When
+        activator.update(limited);
+
+        // Then
+        assertThrows(JSONToObjectException.class, () -> json.parse("{\"one\": {\"two\": 2}}"));
+
+        // When
+        activator.update(Collections.emptyMap());
+
+        // Then
+        assertThat(json.parse("{\"one\": {\"two\": 2}}"))
+                .isEqualTo(Collections.singletonMap("one", Collections.singletonMap("two", 2)));
+        verify(scriptEngine, times(1)).register(any(GlobalFunctions.class));
+    }
+}
@@ -0,0 +1,178 @@
+package de.codecentric.reedelk.json.internal.metrics;
+
+import de.codecentric.reedelk.json.internal.commons.Messages;
+import de.codecentric.reedelk.json.internal.exception.JSONToObjectException;
+import de.codecentric.reedelk.json.internal.exception.ObjectToJSONException;
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationMetricsTest {
+
+    @Test
+    void shouldApproximatePercentilesWithBucketUpperBound() {
+        // Given
+        Histogram histogram = new Histogram();
+
+        // When
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        // Then
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.sum()).isEqualTo(5050);
+        assertThat(histogram.max()).isEqualTo(100);
+        assertThat(histogram.mean()).isEqualTo(50.5);
+        assertThat(histogram.percentile(50)).isEqualTo(63);
+        assertThat(histogram.percentile(1)).isEqualTo(1);
+        assertThat(histogram.percentile(100)).isEqualTo(100);
+    }
+
+    @Test
+    void shouldPutValuesInPowerOfTwoBuckets() {
+        assertThat(Histogram.bucketOf(0)).isEqualTo(0);
+        assertThat(Histogram.bucketOf(1)).isEqualTo(1);
+        assertThat(Histogram.bucketOf(2)).isEqualTo(2);
+        assertThat(Histogram.bucketOf(3)).isEqualTo(2);
+        assertThat(Histogram.bucketOf(1024)).isEqualTo(11);
+        assertThat(Histogram.bucketOf(Long.MAX_VALUE)).isEqualTo(63);
+    }
+
+    @Test
+    void shouldNotLoseValuesRecordedConcurrently() throws InterruptedException {
+        // Given
+        Histogram histogram = new Histogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(histogram.count()).isEqualTo(80000);
+        assertThat(histogram.sum()).isEqualTo(8 * (9999L * 10000 / 2));
+        assertThat(histogram.max()).isEqualTo(9999);
+    }
+
+    @Test
+    void shouldRecordSizesAndErrorsByType() {
+        // Given
+        OperationMetrics metrics = new OperationMetrics("test");
+
+        // When
+        metrics.success(metrics.start(), 120, OperationMetrics.UNKNOWN_SIZE, null);
+        metrics.success(metrics.start(), 80, 40, null);
+        metrics.error(metrics.start(), new JSONToObjectException(
+                Messages.JSONToObject.JSON_PARSE_ERROR, "error", new JSONParseException("parse")));
+        metrics.error(metrics.start(), new JSONToObjectException(Messages.JSONToObject.JSON_LIMIT_ERROR, "error"));
+        metrics.error(metrics.start(), new JSONToObjectException(Messages.JSONToObject.JSON_LIMIT_ERROR, "error"));
+        metrics.error(metrics.start(), new ObjectToJSONException(Messages.ObjectToJSON.NOT_VALID_JSON_NUMBER, "error"));
+        metrics.error(metrics.start(), new IllegalStateException("error"));
+
+        // Then
+        assertThat(metrics.getCount()).isEqualTo(7);
+        assertThat(metrics.getErrorCount()).isEqualTo(5);
+        assertThat(metrics.getErrorCountByType())
+                .hasSize(4)
+                .containsEntry("JSONToObject.JSON_PARSE_ERROR", 1L)
+                .containsEntry("JSONToObject.JSON_LIMIT_ERROR", 2L)
+                .containsEntry("ObjectToJSON.NOT_VALID_JSON_NUMBER", 1L)
+                .containsEntry("IllegalStateException", 1L);
+        assertThat(metrics.getInputBytes()).isEqualTo(200);
+        assertThat(metrics.getInputBytesMax()).isEqualTo(120);
+        assertThat(metrics.getOutputBytes()).isEqualTo(40);
+        assertThat(metrics.getDepthMax()).isZero();
+    }
+
+    @Test
+    void shouldResetMetrics() {
+        // Given
+        OperationMetrics metrics = new OperationMetrics("test");
+        metrics.success(metrics.start(), 10, 10, null);
+        metrics.error(metrics.start(), new IllegalStateException());
+
+        // When
+        metrics.reset();
+
+        // Then
+        assertThat(metrics.getCount()).isZero();
+        assertThat(metrics.getErrorCount()).isZero();
+        assertThat(metrics.getErrorCountByType()).isEmpty();
+        assertThat(metrics.getInputBytes()).isZero();
+    }
+
+    @Test
+    void shouldMeasureDocumentDepth() {
+        // Given
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("leaf", "value");
+        nested.put("array", Arrays.asList(1, Collections.singletonMap("deep", Collections.emptyList())));
+
+        // Expect
+        assertThat(OperationMetrics.depthOf("value", 0)).isZero();
+        assertThat(OperationMetrics.depthOf(Collections.emptyMap(), 0)).isEqualTo(1);
+        assertThat(OperationMetrics.depthOf(nested, 0)).isEqualTo(4);
+    }
+
+    @Test
+    void shouldStopMeasuringDepthAtMaximum() {
+        // Given
+        Object deep = Collections.emptyList();
+        for (int i = 0; i < 2000; i++) {
+            deep = Collections.singletonList(deep);
+        }
+
+        // Expect
+        assertThat(OperationMetrics.depthOf(deep, 0)).isEqualTo(1024);
+    }
+
+    @Test
+    void shouldReturnSizeOfBinaryAndStringPayloads() {
+        assertThat(OperationMetrics.sizeOf("json")).isEqualTo(4);
+        assertThat(OperationMetrics.sizeOf(new byte[3])).isEqualTo(3);
+        assertThat(OperationMetrics.sizeOf(new Byte[2])).isEqualTo(2);
+        assertThat(OperationMetrics.sizeOf(ByteBuffer.allocate(5))).isEqualTo(5);
+        assertThat(OperationMetrics.sizeOf(Collections.emptyMap())).isEqualTo(OperationMetrics.UNKNOWN_SIZE);
+    }
+
+    @Test
+    void shouldRegisterMetricsAsMXBeansWhileActive() throws Exception {
+        // Given
+        JSONMetrics metrics = new JSONMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.jsonToObject().success(metrics.jsonToObject().start(), 10, OperationMetrics.UNKNOWN_SIZE, null);
+
+        // When
+        metrics.start();
+
+        // Then
+        try {
+            Object count = server.getAttribute(JSONMetrics.objectNameOf(metrics.jsonToObject()), "Count");
+            assertThat(count).isEqualTo(1L);
+            assertThat(server.isRegistered(JSONMetrics.objectNameOf(metrics.parse()))).isTrue();
+        } finally {
+            metrics.stop();
+        }
+        assertThat(server.isRegistered(JSONMetrics.objectNameOf(metrics.jsonToObject()))).isFalse();
+    }
+}
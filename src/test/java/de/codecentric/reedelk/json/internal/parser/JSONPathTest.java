@@ -0,0 +1,56 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JSONPathTest {
+
+    @Test
+    void shouldCompileNamesIndexesAndWildcards() {
+        // When
+        JSONPath path = JSONPath.compile("$.store['book keeping'][12].*[*][\"a.b\"]");
+
+        // Then
+        assertThat(path.steps()).extracting(step -> step.type).containsExactly(
+                JSONPath.StepType.NAME,
+                JSONPath.StepType.NAME,
+                JSONPath.StepType.INDEX,
+                JSONPath.StepType.WILDCARD,
+                JSONPath.StepType.WILDCARD,
+                JSONPath.StepType.NAME);
+        assertThat(path.steps()).extracting(step -> step.name)
+                .containsExactly("store", "book keeping", null, null, null, "a.b");
+        assertThat(path.steps().get(2).index).isEqualTo(12);
+        assertThat(path.isDefinite()).isFalse();
+    }
+
+    @Test
+    void shouldCompilePathWithoutRoot() {
+        // When
+        JSONPath path = JSONPath.compile("customer.name");
+
+        // Then
+        assertThat(path.steps()).extracting(step -> step.name).containsExactly("customer", "name");
+        assertThat(path.isDefinite()).isTrue();
+    }
+
+    @Test
+    void shouldCompileRootPath() {
+        // When
+        JSONPath path = JSONPath.compile("$");
+
+        // Then
+        assertThat(path.steps()).isEmpty();
+        assertThat(path.isDefinite()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "$..name", "$.a[?(@.b)]", "$.a[0:2]", "$.a[-1]", "$.a[0,1]", "$.", "$.a['b'", "$a" })
+    void shouldNotCompileUnsupportedPath(String expression) {
+        assertThrows(IllegalArgumentException.class, () -> JSONPath.compile(expression));
+    }
+}
@@ -0,0 +1,53 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JSONPointerTest {
+
+    @Test
+    void shouldParseEscapedTokens() {
+        // When
+        JSONPointer pointer = JSONPointer.parse("/a~1b/m~0n//0");
+
+        // Then
+        assertThat(pointer.tokens()).containsExactly("a/b", "m~n", "", "0");
+        assertThat(pointer.toString()).isEqualTo("/a~1b/m~0n//0");
+        assertThat(JSONPointer.parse("")).isEqualTo(JSONPointer.ROOT);
+        assertThat(JSONPointer.parse("/").tokens()).containsExactly("");
+    }
+
+    @Test
+    void shouldReturnArrayIndexOfToken() {
+        assertThat(JSONPointer.indexOf("0")).isEqualTo(0);
+        assertThat(JSONPointer.indexOf("42")).isEqualTo(42);
+        assertThat(JSONPointer.indexOf("01")).isEqualTo(-1);
+        assertThat(JSONPointer.indexOf("-")).isEqualTo(-1);
+        assertThat(JSONPointer.indexOf("1e2")).isEqualTo(-1);
+        assertThat(JSONPointer.indexOf("")).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldCheckDescendants() {
+        // Given
+        JSONPointer parent = JSONPointer.parse("/a/b");
+
+        // Expect
+        assertThat(parent.child("c").isDescendantOf(parent)).isTrue();
+        assertThat(parent.isDescendantOf(parent)).isFalse();
+        assertThat(JSONPointer.parse("/a/bc").isDescendantOf(parent)).isFalse();
+        assertThat(parent.isDescendantOf(JSONPointer.ROOT)).isTrue();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPointerIsNotValid() {
+        assertThatThrownBy(() -> JSONPointer.parse("a/b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The pointer 'a/b' does not start with '/'");
+        assertThatThrownBy(() -> JSONPointer.parse("/a~2"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid escape '~' at position 2 of the pointer '/a~2'");
+    }
+}
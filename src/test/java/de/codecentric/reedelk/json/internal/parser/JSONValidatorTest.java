@@ -0,0 +1,111 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JSONValidatorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{}",
+            "[]",
+            " \n\t{ } \r\n",
+            "{\"one\":\"one value\",\"two\":[1,-2,3.5,-0.5e-10,4E+2,true,false,null]}",
+            "[{\"nested\":{\"array\":[[],{}]}}]",
+            "[\"escapes \\\" \\\\ \\/ \\b \\f \\n \\r \\t \\u00E8\"]",
+            "[\"unicode è 😀\"]" })
+    void shouldBeValid(String input) {
+        // When
+        int actual = JSONValidator.validate(input);
+
+        // Then
+        assertThat(actual).isEqualTo(JSONValidator.VALID);
+    }
+
+    @Test
+    void shouldBeValidWhenNestingIsDeeperThan64Levels() {
+        // Given
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) input.append(i % 2 == 0 ? "[" : "{\"a\":");
+        input.append("1");
+        for (int i = 199; i >= 0; i--) input.append(i % 2 == 0 ? "]" : "}");
+
+        // When
+        int actual = JSONValidator.validate(input);
+
+        // Then
+        assertThat(actual).isEqualTo(JSONValidator.VALID);
+    }
+
+    @Test
+    void shouldReturnOffsetOfMismatchedClosingBracketAfterDeepNesting() {
+        // Given
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100; i++) input.append("[");
+        input.append("}");
+
+        // When
+        int actual = JSONValidator.validate(input);
+
+        // Then
+        assertThat(actual).isEqualTo(100);
+    }
+
+    @Test
+    void shouldReturnOffsetOfTrailingComma() {
+        assertThat(JSONValidator.validate("[1,2,]")).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReturnOffsetOfSingleQuotedString() {
+        assertThat(JSONValidator.validate("{'one': 1}")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnOffsetOfTrailingContent() {
+        assertThat(JSONValidator.validate("{\"one\": 1} {")).isEqualTo(11);
+    }
+
+    @Test
+    void shouldReturnLengthWhenInputIsTruncated() {
+        assertThat(JSONValidator.validate("{\"one\": [1, 2")).isEqualTo(13);
+    }
+
+    @Test
+    void shouldReturnOffsetOfLeadingZero() {
+        assertThat(JSONValidator.validate("[01]")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnOffsetOfIllegalEscape() {
+        assertThat(JSONValidator.validate("[\"\\x\"]")).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReturnOffsetOfUnescapedControlCharacter() {
+        assertThat(JSONValidator.validate("[\"one\ntwo\"]")).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReturnOffsetOfMissingColon() {
+        assertThat(JSONValidator.validate("{\"one\" 1}")).isEqualTo(7);
+    }
+
+    @Test
+    void shouldReturnOffsetWhenRootIsNotObjectOrArray() {
+        assertThat(JSONValidator.validate("  \"a string\"")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnZeroWhenInputIsEmpty() {
+        assertThat(JSONValidator.validate("")).isEqualTo(0);
+    }
+
+    @Test
+    void shouldReturnOffsetOfMisspelledLiteral() {
+        assertThat(JSONValidator.validate("[tru]")).isEqualTo(4);
+    }
+}
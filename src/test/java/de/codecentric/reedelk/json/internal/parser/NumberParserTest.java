@@ -0,0 +1,61 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NumberParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0.1", "-0.0", "1e23", "2.2250738585072011e-308", "4.9e-324", "1.7976931348623157e308",
+            "9007199254740993.0", "9999999999999999999e-10", "0.30000000000000004", "123456789012345678901.5",
+            "1.", "-.5", "0x1.8p1", "1.5f", "1e-400" })
+    void shouldConvertDecimalsBitExactWithDoubleValueOf(String text) {
+        // When
+        Object actual = NumberParser.toNumber(text, NumberMapping.SMALLEST_TYPE);
+
+        // Then
+        assertThat(actual).isInstanceOf(Double.class);
+        assertThat(Double.doubleToRawLongBits((Double) actual))
+                .isEqualTo(Double.doubleToRawLongBits(Double.valueOf(text)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "1e400", "-1.8e308", "01", "-01", "1..2", "1e", "-", "9223372036854775808", "12a" })
+    void shouldKeepTextWhenNotANumber(String text) {
+        // When
+        Object actual = NumberParser.toNumber(text, NumberMapping.SMALLEST_TYPE);
+
+        // Then
+        assertThat(actual).isEqualTo(text);
+    }
+
+    @Test
+    void shouldConvertIntegersToSmallestType() {
+        assertThat(NumberParser.toNumber("2147483647", NumberMapping.SMALLEST_TYPE)).isEqualTo(2147483647);
+        assertThat(NumberParser.toNumber("-2147483649", NumberMapping.SMALLEST_TYPE)).isEqualTo(-2147483649L);
+        assertThat(NumberParser.toNumber("-9223372036854775808", NumberMapping.SMALLEST_TYPE)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void shouldConvertIntegersToLong() {
+        assertThat(NumberParser.toNumber("1", NumberMapping.LONG_OR_DOUBLE)).isEqualTo(1L);
+        assertThat(NumberParser.toNumber("1.5", NumberMapping.LONG_OR_DOUBLE)).isEqualTo(1.5d);
+    }
+
+    @Test
+    void shouldConvertNumbersToBigDecimal() {
+        assertThat(NumberParser.toNumber("1", NumberMapping.BIG_DECIMAL)).isEqualTo(new BigDecimal("1"));
+        assertThat(NumberParser.toNumber("1.50", NumberMapping.BIG_DECIMAL)).isEqualTo(new BigDecimal("1.50"));
+        assertThat(NumberParser.toNumber("1e400", NumberMapping.BIG_DECIMAL)).isEqualTo(new BigDecimal("1e400"));
+        assertThat(NumberParser.toNumber("123456789012345678901234567890", NumberMapping.BIG_DECIMAL))
+                .isEqualTo(new BigDecimal("123456789012345678901234567890"));
+        assertThat(NumberParser.toNumber("01", NumberMapping.BIG_DECIMAL)).isEqualTo("01");
+    }
+}
@@ -0,0 +1,112 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.component.ParserEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelArrayParserTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserEngine.class)
+    void shouldParseArrayAsSequentialParser(ParserEngine engine) {
+        // Given
+        StringBuilder json = new StringBuilder("\uFEFF [");
+        for (int i = 0; i < 500; i++) {
+            json.append("{\"id\": ").append(i)
+                    .append(", \"name\": \"n,a]m}e\\\"").append(i)
+                    .append("\", \"tags\": [true, null, 1.5e-3, \"\u20ac\"]},\n");
+        }
+        json.append("[], 'single, quoted', unquoted, ,, 12345678901234567890 ]");
+        byte[] input = bytes(json.toString());
+        ParallelArrayParser parser = new ParallelArrayParser(pool, engine, NumberMapping.SMALLEST_TYPE, false, false);
+
+        // When
+        List<Object> actual = parser.parse(input, 0, input.length);
+
+        // Then
+        assertThat(actual)
+                .isInstanceOf(ArrayList.class)
+                .isEqualTo(new JSONParser(UTF8Input.from(input)).nextValue());
+        assertThat(parser.parse(json.substring(1))).isEqualTo(actual);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[1,2,]",
+            "[1,2, \n]",
+            "[1,,2]",
+            "[,]",
+            "[1,2,,]",
+            "[1,2] trailing content"})
+    void shouldParseLenientArrayAsSequentialParser(String json) {
+        // Given
+        ParallelArrayParser parser = new ParallelArrayParser(pool, ParserEngine.STANDARD, NumberMapping.SMALLEST_TYPE, false, false);
+
+        // When
+        List<Object> actual = parser.parse(json);
+
+        // Then
+        assertThat(actual).isEqualTo(new JSONParser(new StringInput(json)).nextValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"a\": [1, 2]}",
+            "[1]",
+            "[]",
+            "[1, 2",
+            "[1, 2}",
+            "[1, 2 : 3]",
+            "[it's, 'a]', \"b'\", 2]",
+            "['a, b]",
+            "[1, {\"a\": 1], 2}",
+            "[1, 2\u0000, 3]",
+            "[1, {\"a\": 1, \"a\": 2}]"})
+    void shouldReturnNullWhenArrayMustBeParsedSequentially(String json) {
+        // Given
+        ParallelArrayParser parser = new ParallelArrayParser(pool, ParserEngine.STRUCTURAL_INDEX, NumberMapping.SMALLEST_TYPE, false, false);
+        byte[] input = bytes(json);
+
+        // Expect
+        assertThat(parser.parse(json)).isNull();
+        assertThat(parser.parse(input, 0, input.length)).isNull();
+    }
+
+    @Test
+    void shouldParseCompactArray() {
+        // Given
+        String json = "[1, 2, 3, 4, 5, 6, 7, 8, 9, 10, {\"a\": [1, 2]}]";
+        ParallelArrayParser parser = new ParallelArrayParser(pool, ParserEngine.STANDARD, NumberMapping.BIG_DECIMAL, false, true);
+
+        // When
+        List<Object> actual = parser.parse(json);
+
+        // Then
+        Object expected = new JSONParser(new StringInput(json), NumberMapping.BIG_DECIMAL, false, true).nextValue();
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.getClass()).isEqualTo(expected.getClass());
+        assertThat(actual.get(10).getClass()).isEqualTo(CompactJSONObject.class);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
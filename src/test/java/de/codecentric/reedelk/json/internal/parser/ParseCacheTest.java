@@ -0,0 +1,124 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.internal.metrics.OperationMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseCacheTest {
+
+    private final OperationMetrics metrics = new OperationMetrics("test");
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    @Test
+    void shouldReturnCachedDocumentOfEqualString() {
+        // Given
+        ParseCache cache = new ParseCache(1024, metrics);
+        Object document = cache.get("[1, 2]", () -> parse("[1, 2]"));
+
+        // When
+        Object actual = cache.get(new String("[1, 2]"), () -> parse("[1, 2]"));
+
+        // Then
+        assertThat(actual).isSameAs(document);
+        assertThat(parsed).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(metrics.getCacheHitCount()).isEqualTo(1);
+        assertThat(metrics.getCacheMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCopyOfCachedBytes() {
+        // Given
+        ParseCache cache = new ParseCache(1024, metrics);
+        byte[] buffer = "xx{\"a\": 1}xx".getBytes(StandardCharsets.UTF_8);
+        Object document = cache.get(buffer, 2, 8, () -> parse("{\"a\": 1}"));
+
+        // When
+        byte[] same = "{\"a\": 1}".getBytes(StandardCharsets.UTF_8);
+        Object actual = cache.get(same, 0, same.length, () -> parse("{\"a\": 1}"));
+        buffer[8] = '2';
+        Object changed = cache.get(buffer, 2, 8, () -> parse("{\"a\": 2}"));
+
+        // Then
+        assertThat(actual).isSameAs(document);
+        assertThat(changed).isNotSameAs(document);
+        assertThat(parsed).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedDocuments() {
+        // Given
+        ParseCache cache = new ParseCache(12, metrics);
+        Object first = cache.get("[1111]", () -> parse("[1111]"));
+        cache.get("[2222]", () -> parse("[2222]"));
+
+        // When
+        Object actual = cache.get("[1111]", () -> parse("[1111]"));
+        cache.get("[3333]", () -> parse("[3333]"));
+
+        // Then
+        assertThat(actual).isSameAs(first);
+        assertThat(cache.get("[1111]", () -> parse("[1111]"))).isSameAs(first);
+        cache.get("[2222]", () -> parse("[2222]"));
+        assertThat(parsed).hasValue(4);
+    }
+
+    @Test
+    void shouldNotCacheDocumentLargerThanCache() {
+        // Given
+        ParseCache cache = new ParseCache(4, metrics);
+
+        // When
+        cache.get("[1, 2]", () -> parse("[1, 2]"));
+        cache.get("[1, 2]", () -> parse("[1, 2]"));
+
+        // Then
+        assertThat(parsed).hasValue(2);
+        assertThat(cache.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotCacheDocumentWhenParserThrows() {
+        // Given
+        ParseCache cache = new ParseCache(1024, metrics);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> cache.get("[", () -> {
+            throw new IllegalStateException();
+        }));
+        cache.get("[", () -> parse("["));
+
+        // Then
+        assertThat(parsed).hasValue(1);
+        assertThat(cache.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldHashStringsAndBytesOfAnyLength() {
+        // Given
+        String json = "[\"abcdefghijklmnopqrstuvwxyz\"]";
+
+        // Expect
+        for (int length = 0; length < json.length(); length++) {
+            String prefix = json.substring(0, length);
+            byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+            assertThat(ParseCache.hash(prefix)).isEqualTo(ParseCache.hash(new String(prefix)));
+            assertThat(ParseCache.hash(bytes, 0, length)).isEqualTo(ParseCache.hash(bytes.clone(), 0, length));
+            if (length > 0) {
+                assertThat(ParseCache.hash(prefix)).isNotEqualTo(ParseCache.hash(json.substring(0, length - 1)));
+                assertThat(ParseCache.hash(bytes, 0, length)).isNotEqualTo(ParseCache.hash(bytes, 0, length - 1));
+            }
+        }
+    }
+
+    private Object parse(String json) {
+        parsed.incrementAndGet();
+        return json;
+    }
+}
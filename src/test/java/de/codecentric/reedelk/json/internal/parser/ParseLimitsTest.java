@@ -0,0 +1,227 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseLimitsTest {
+
+    @Test
+    void shouldParseJSONWithinLimits() {
+        // Given
+        ParseLimits limits = new ParseLimits(2, 64, 5, 3);
+        String json = "{\"one\": [1, 2, 3], \"two\": \"value\"}";
+
+        // When
+        Object actual = parse(json, limits, false);
+
+        // Then
+        assertThat(actual).isEqualTo(parse(json, ParseLimits.NONE, false));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void shouldThrowExceptionWhenDepthIsExceeded(boolean compact) {
+        // Given
+        ParseLimits limits = new ParseLimits(3, 0, 0, 0);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> parse("[{\"one\": [[[[[[]]]]]]}]", limits, compact));
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum nesting depth of 3 exceeded at 11 [character 12 line 1]");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDepthOfKeyIsExceeded() {
+        // Given
+        ParseLimits limits = new ParseLimits(2, 0, 0, 0);
+        JSONParser parser = new JSONParser(new StringInput("{[[[1]]]: 1}"), NumberMapping.BIG_DECIMAL, false, false, limits);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class, parser::nextValue);
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum nesting depth of 2 exceeded at 3 [character 4 line 1]");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void shouldThrowExceptionWhenObjectMembersAreExceeded(boolean compact) {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 0, 0, 2);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> parse("{\"a\": 1, \"b\": 2, \"c\": 3}", limits, compact));
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum number of members of 2 exceeded at 18 [character 19 line 1]");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void shouldThrowExceptionWhenArrayElementsAreExceeded(boolean compact) {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 0, 0, 2);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> parse("[1,,3]", limits, compact));
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum number of members of 2 exceeded at 5 [character 6 line 1]");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "[\"abcdef\"]", "[\"abc\\u0064ef\"]", "[\"\u00e8bcdef\"]", "[\"\\u00e8\\u00e8\\u00e8\\u00e8\\u00e8\\u00e8\"]" })
+    void shouldThrowExceptionAtSamePositionWhenStringLengthIsExceeded(String json) {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 0, 5, 0);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        JSONLimitException fromString = assertThrows(JSONLimitException.class,
+                () -> new JSONParser(new StringInput(json), NumberMapping.SMALLEST_TYPE, false, false, limits).nextValue());
+        JSONLimitException fromBytes = assertThrows(JSONLimitException.class,
+                () -> new JSONParser(UTF8Input.from(bytes), NumberMapping.SMALLEST_TYPE, true, false, limits).nextValue());
+
+        // Then
+        assertThat(fromString).hasMessageStartingWith("Maximum string length of 5 exceeded at ");
+        assertThat(fromBytes).hasMessage(fromString.getMessage());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenStringLengthOfKeyIsExceeded() {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 0, 3, 0);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> parse("{\"key\": 1, \"long key\": 2}", limits, false));
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum string length of 3 exceeded at 16 [character 17 line 1]");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUnquotedLengthIsExceeded() {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 0, 3, 0);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> parse("[123, 1234]", limits, false));
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum string length of 3 exceeded at 10 [character 11 line 1]");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenInputSizeIsExceeded() {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 10, 0, 0);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> parse("[1, 2, 3, 4]", limits, false));
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum input size of 10 exceeded at 0 [character 1 line 1]");
+    }
+
+    @Test
+    void shouldStopReadingStreamWhenInputSizeIsExceeded() {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 20, 0, 0);
+        AtomicInteger emitted = new AtomicInteger();
+        Flux<String> chunks = Flux.range(0, 1000)
+                .map(index -> index == 0 ? "[" : "\"element\",")
+                .doOnNext(chunk -> emitted.incrementAndGet());
+        PublisherInput input = UTF8Input.from(chunks);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> new JSONParser(input, NumberMapping.SMALLEST_TYPE, false, false, limits).nextValue());
+        input.cancel();
+
+        // Then
+        assertThat(thrown).hasMessage("Maximum input size of 20 exceeded at 11 [character 12 line 1]");
+        assertThat(emitted).hasValue(3);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenInputStreamSizeIsExceeded() {
+        // Given
+        ParseLimits limits = new ParseLimits(0, 4, 0, 0);
+        byte[] bytes = "\uFEFF[1]".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        JSONLimitException thrown = assertThrows(JSONLimitException.class,
+                () -> new JSONParser(UTF8Input.from(new ByteArrayInputStream(bytes)), NumberMapping.SMALLEST_TYPE,
+                        false, false, limits).nextValue());
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Maximum input size of 4 exceeded");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenIndexedJSONExceedsLimits() {
+        // Given
+        ParseLimits depth = new ParseLimits(2, 0, 0, 0);
+        ParseLimits members = new ParseLimits(0, 0, 0, 2);
+        ParseLimits length = new ParseLimits(0, 0, 3, 0);
+
+        // When
+        JSONLimitException depthExceeded = assertThrows(JSONLimitException.class,
+                () -> JSONIndex.parse("{\"one\": [[1]]}", NumberMapping.SMALLEST_TYPE, false, depth));
+        JSONLimitException membersExceeded = assertThrows(JSONLimitException.class,
+                () -> JSONIndex.parse("[1, 2, 3]", NumberMapping.SMALLEST_TYPE, false, members));
+        JSONLimitException lengthExceeded = assertThrows(JSONLimitException.class,
+                () -> JSONIndex.parse("[\"a\\u0062c\", \"abcd\"]", NumberMapping.SMALLEST_TYPE, false, length));
+
+        // Then
+        assertThat(depthExceeded).hasMessage("Maximum nesting depth of 2 exceeded at 10 [character 11 line 1]");
+        assertThat(membersExceeded).hasMessage("Maximum number of members of 2 exceeded at 8 [character 9 line 1]");
+        assertThat(lengthExceeded).hasMessage("Maximum string length of 3 exceeded at 19 [character 20 line 1]");
+    }
+
+    @Test
+    void shouldIndexJSONWithinLimits() {
+        // Given
+        ParseLimits limits = new ParseLimits(2, 0, 3, 2);
+
+        // When
+        Object actual = JSONIndex.parse("{\"one\": [\"a\\u0062c\", 123]}", NumberMapping.SMALLEST_TYPE, false, limits);
+
+        // Then
+        assertThat(actual).isEqualTo(Collections.singletonMap("one", Arrays.asList("abc", 123)));
+    }
+
+    @Test
+    void shouldNotLimitWithNonPositiveValues() {
+        // Given
+        ParseLimits limits = new ParseLimits(0, -1, 0, -1);
+
+        // Then
+        assertThat(limits.isUnlimited()).isTrue();
+        assertThat(ParseLimits.NONE.isUnlimited()).isTrue();
+        assertThat(new ParseLimits(1, 0, 0, 0).isUnlimited()).isFalse();
+    }
+
+    private static Object parse(String json, ParseLimits limits, boolean compact) {
+        return new JSONParser(new StringInput(json), NumberMapping.SMALLEST_TYPE, false, compact, limits).nextValue();
+    }
+}
@@ -0,0 +1,114 @@
+package de.codecentric.reedelk.json.internal.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StructuralParserTest {
+
+    @Test
+    void shouldIndexStructuralCharactersOutsideStrings() {
+        // Given
+        byte[] input = bytes("{\"a,b\":[1, \"\\\"{\"], \"c\\\\\":null}");
+
+        // When
+        StructuralIndex index = StructuralIndex.of(input, 0, input.length);
+
+        // Then
+        int[] offsets = Arrays.copyOf(index.offsets, index.size);
+        assertThat(offsets).containsExactly(0, 1, 5, 6, 7, 9, 11, 15, 16, 17, 19, 23, 24, 29, input.length);
+    }
+
+    @Test
+    void shouldParseStrictJSONSpanningManyBlocks() {
+        // Given
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            json.append("{\"id\": ").append(i - 50)
+                    .append(", \"name\": \"n\\\\\\\"ame\\u00e8 ").append(i)
+                    .append("\", \"price\": ").append(i).append(".5e-1")
+                    .append(", \"tags\": [true, false, null, \"\u20ac\"]},\n");
+        }
+        json.append("{}]");
+        byte[] input = bytes(json.toString());
+
+        // When
+        Object actual = StructuralParser.parse(input);
+
+        // Then
+        assertThat(actual).isEqualTo(new JSONParser(UTF8Input.from(input)).nextValue());
+    }
+
+    @Test
+    void shouldConvertNumbersAsParser() {
+        // Given
+        byte[] input = bytes("[0, -1, 2147483648, -9223372036854775808, 12345678901234567890, -0, 1.5, 1E3, 1e400]");
+
+        // When
+        Object actual = StructuralParser.parse(input);
+
+        // Then
+        assertThat(actual).isEqualTo(Arrays.asList(0, -1, 2147483648L, Long.MIN_VALUE,
+                "12345678901234567890", -0.0d, 1.5d, 1000.0d, "1e400"));
+    }
+
+    @Test
+    void shouldSkipByteOrderMark() {
+        // Given
+        byte[] input = bytes("\uFEFF{\"one\":1}");
+
+        // When
+        Object actual = StructuralParser.parse(input);
+
+        // Then
+        assertThat(actual).isEqualTo(new JSONParser(new StringInput("{'one':1}")).nextValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{'one': 'one value', two: [1,,2,], \"three\": 3;}",
+            "[01, 1., .5, +1, TRUE, nul, \"a\tb\", \"\\'\"]",
+            "[\"\u00e8\", \u00e8]",
+            "{\"one\": {\"two\": [1, 2]}} trailing [ content" })
+    void shouldParseLenientJSONAsParser(String json) {
+        // Given
+        byte[] input = bytes(json);
+
+        // When
+        Object actual = StructuralParser.parse(input);
+
+        // Then
+        assertThat(actual).isEqualTo(new JSONParser(UTF8Input.from(input)).nextValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"one\": 1, \"one\": 2}",
+            "[\"unterminated]",
+            "{\"one\" 1}",
+            "[1 2, \"\\x\"]",
+            "" })
+    void shouldThrowParserSyntaxErrors(String json) {
+        // Given
+        byte[] input = bytes(json);
+        JSONParseException expected = assertThrows(JSONParseException.class,
+                () -> new JSONParser(UTF8Input.from(input)).nextValue());
+
+        // When
+        JSONParseException thrown = assertThrows(JSONParseException.class,
+                () -> StructuralParser.parse(input));
+
+        // Then
+        assertThat(thrown).hasMessage(expected.getMessage());
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,115 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MergePatchTest {
+
+    @Test
+    void shouldReplaceAddAndRemoveMembers() {
+        assertPatched("{\"a\":\"b\"}", "{\"a\":\"c\"}", "{\"a\":\"c\"}");
+        assertPatched("{\"a\":\"b\"}", "{\"b\":\"c\"}", "{\"a\":\"b\",\"b\":\"c\"}");
+        assertPatched("{\"a\":\"b\"}", "{\"a\":null}", "{}");
+        assertPatched("{\"a\":\"b\",\"b\":\"c\"}", "{\"a\":null}", "{\"b\":\"c\"}");
+        assertPatched("{\"e\":null}", "{\"a\":1}", "{\"e\":null,\"a\":1}");
+    }
+
+    @Test
+    void shouldReplaceValuesWhichAreNotObjects() {
+        assertPatched("{\"a\":[\"b\"]}", "{\"a\":\"c\"}", "{\"a\":\"c\"}");
+        assertPatched("{\"a\":\"c\"}", "{\"a\":[\"b\"]}", "{\"a\":[\"b\"]}");
+        assertPatched("{\"a\":[{\"b\":\"c\"}]}", "{\"a\":[1]}", "{\"a\":[1]}");
+        assertPatched("[\"a\",\"b\"]", "[\"c\",\"d\"]", "[\"c\",\"d\"]");
+        assertPatched("{\"a\":\"b\"}", "[\"c\"]", "[\"c\"]");
+        assertPatched("{\"a\":\"foo\"}", "null", "null");
+        assertPatched("{\"a\":\"foo\"}", "\"bar\"", "\"bar\"");
+    }
+
+    @Test
+    void shouldMergeNestedObjects() {
+        assertPatched("{\"a\":{\"b\":\"c\"}}", "{\"a\":{\"b\":\"d\",\"c\":null}}", "{\"a\":{\"b\":\"d\"}}");
+        assertPatched("[1,2]", "{\"a\":\"b\",\"c\":null}", "{\"a\":\"b\"}");
+        assertPatched("{}", "{\"a\":{\"bb\":{\"ccc\":null}}}", "{\"a\":{\"bb\":{}}}");
+        assertPatched(" 12 ", "{\"a\":{\"b\":null}}", "{\"a\":{}}");
+    }
+
+    @Test
+    void shouldCopyUntouchedMembersAsTheyAre() {
+        // Given
+        String document = "\uFEFF{\n  \"id\" : 1,\n  \"name\": \"caf\\u00e9 \u20ac\",\n" +
+                "  \"order\": { \"status\": \"new\", \"lines\": [ {\"sku\": \"x\"} ] }\n}\n";
+
+        // Expect
+        assertPatched(document, "{\"order\": {\"status\": \"shipped\"}, \"\\u0069d\": null}",
+                "{\n  \"name\": \"caf\\u00e9 \u20ac\",\n" +
+                        "  \"order\": { \"status\": \"shipped\", \"lines\": [ {\"sku\": \"x\"} ] }\n}");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPatchIsNotValid() {
+        assertThatThrownBy(() -> MergePatch.compile(bytes("{\"a\": tru}")))
+                .isInstanceOf(JSONParseException.class)
+                .hasMessage("Unexpected character at offset 9");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDocumentIsNotValid() {
+        // Given
+        MergePatch patch = MergePatch.compile(bytes("{\"a\": 1}"));
+        byte[] document = bytes("{\"a\": 1 \"b\": 2}");
+
+        // Expect
+        assertThatThrownBy(() -> patch.apply(document, 0, document.length))
+                .isInstanceOf(JSONParseException.class)
+                .hasMessage("Unexpected character at offset 8");
+        assertThatThrownBy(() -> patch.writer().write(document, 0, document.length))
+                .isInstanceOf(JSONParseException.class)
+                .hasMessage("Unexpected character at offset 8");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenStreamedDocumentIsNotComplete() {
+        // Given
+        MergePatchWriter writer = MergePatch.compile(bytes("{\"a\": 1}")).writer();
+        byte[] document = bytes("{\"a\": [1, ");
+
+        // When
+        writer.write(document, 0, document.length);
+
+        // Then
+        assertThatThrownBy(writer::finish)
+                .isInstanceOf(JSONParseException.class)
+                .hasMessage("Unexpected character at offset 10");
+    }
+
+    private static void assertPatched(String document, String patch, String expected) {
+        byte[] bytes = bytes(document);
+        byte[] actual = MergePatch.compile(bytes(patch)).apply(bytes, 0, bytes.length);
+        assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(expected);
+        // The same document written in chunks, split within the multi byte characters.
+        for (int chunkSize : new int[] { 1, 2, 7 }) {
+            assertThat(new String(written(patch, bytes, chunkSize), StandardCharsets.UTF_8)).isEqualTo(expected);
+        }
+    }
+
+    private static byte[] written(String patch, byte[] document, int chunkSize) {
+        MergePatchWriter writer = MergePatch.compile(bytes(patch)).writer();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        for (int offset = 0; offset < document.length; offset += chunkSize) {
+            byte[] chunk = writer.write(document, offset, Math.min(chunkSize, document.length - offset));
+            written.write(chunk, 0, chunk.length);
+        }
+        writer.finish();
+        return written.toByteArray();
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
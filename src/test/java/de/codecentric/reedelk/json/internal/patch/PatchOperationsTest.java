@@ -0,0 +1,176 @@
+package de.codecentric.reedelk.json.internal.patch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatchOperationsTest {
+
+    @Test
+    void shouldAddMembersAndElements() {
+        assertPatched("{\"foo\":\"bar\"}",
+                "[{\"op\":\"add\",\"path\":\"/baz\",\"value\":\"qux\"}]",
+                "{\"foo\":\"bar\",\"baz\":\"qux\"}");
+        assertPatched("{\"foo\":[\"bar\",\"baz\"]}",
+                "[{\"op\":\"add\",\"path\":\"/foo/1\",\"value\":\"qux\"}]",
+                "{\"foo\":[\"bar\",\"qux\",\"baz\"]}");
+        assertPatched("{\"foo\":\"bar\"}",
+                "[{\"op\":\"add\",\"path\":\"/child\",\"value\":{\"grandchild\":{}}}]",
+                "{\"foo\":\"bar\",\"child\":{\"grandchild\":{}}}");
+        assertPatched("{\"foo\":[\"bar\"]}",
+                "[{\"op\":\"add\",\"path\":\"/foo/-\",\"value\":[\"abc\",\"def\"]}]",
+                "{\"foo\":[\"bar\",[\"abc\",\"def\"]]}");
+        assertPatched("{\"foo\":[],\"bar\":{}}",
+                "[{\"op\":\"add\",\"path\":\"/foo/0\",\"value\":1},{\"op\":\"add\",\"path\":\"/bar/a~1b\",\"value\":2}]",
+                "{\"foo\":[1],\"bar\":{\"a/b\":2}}");
+    }
+
+    @Test
+    void shouldRemoveMembersAndElements() {
+        assertPatched("{\"baz\":\"qux\",\"foo\":\"bar\"}",
+                "[{\"op\":\"remove\",\"path\":\"/baz\"}]",
+                "{\"foo\":\"bar\"}");
+        assertPatched("{\"foo\":[\"bar\",\"qux\",\"baz\"]}",
+                "[{\"op\":\"remove\",\"path\":\"/foo/1\"}]",
+                "{\"foo\":[\"bar\",\"baz\"]}");
+        assertPatched("{ \"a\": 1, \"b\": [ 2 ] }",
+                "[{\"op\":\"remove\",\"path\":\"/b\"},{\"op\":\"remove\",\"path\":\"/a\"}]",
+                "{  }");
+    }
+
+    @Test
+    void shouldReplaceMoveAndCopyValues() {
+        assertPatched("{\"baz\":\"qux\",\"foo\":\"bar\"}",
+                "[{\"op\":\"replace\",\"path\":\"/baz\",\"value\":\"boo\"}]",
+                "{\"baz\":\"boo\",\"foo\":\"bar\"}");
+        assertPatched("{\"foo\":{\"bar\":\"baz\",\"waldo\":\"fred\"},\"qux\":{\"corge\":\"grault\"}}",
+                "[{\"op\":\"move\",\"from\":\"/foo/waldo\",\"path\":\"/qux/thud\"}]",
+                "{\"foo\":{\"bar\":\"baz\"},\"qux\":{\"corge\":\"grault\",\"thud\":\"fred\"}}");
+        assertPatched("{\"foo\":[\"all\",\"grass\",\"cows\",\"eat\"]}",
+                "[{\"op\":\"move\",\"from\":\"/foo/1\",\"path\":\"/foo/3\"}]",
+                "{\"foo\":[\"all\",\"cows\",\"eat\",\"grass\"]}");
+        assertPatched("{\"a\":{\"b\":[1,2]}}",
+                "[{\"op\":\"copy\",\"from\":\"/a/b\",\"path\":\"/c\"},{\"op\":\"replace\",\"path\":\"\",\"value\":[]}," +
+                        "{\"op\":\"add\",\"path\":\"/-\",\"value\":true}]",
+                "[true]");
+    }
+
+    @Test
+    void shouldApplyManyOperationsOnLargeDocument() {
+        // Given
+        int size = 20000;
+        List<Integer> items = identity(size);
+        byte[] document = bytes("{\"items\":" + join(items) + "}");
+
+        // The expected items are patched as a List.
+        StringJoiner patch = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < size; i++) {
+            patch.add("{\"op\":\"replace\",\"path\":\"/items/" + i + "\",\"value\":" + i * 1000 + "}");
+            items.set(i, i * 1000);
+        }
+        for (int i = 0; i < size / 4; i++) {
+            patch.add("{\"op\":\"remove\",\"path\":\"/items/" + i + "\"}");
+            items.remove(i);
+        }
+        for (int i = 0; i < size / 4; i++) {
+            patch.add("{\"op\":\"add\",\"path\":\"/items/-\",\"value\":" + -i + "}");
+            items.add(-i);
+        }
+        patch.add("{\"op\":\"add\",\"path\":\"/size\",\"value\":" + items.size() + "}");
+
+        // When
+        byte[] actual = PatchOperations.compile(bytes(patch.toString())).apply(document, 0, document.length);
+
+        // Then
+        String expected = "{\"items\":" + join(items) + ",\"size\":" + items.size() + "}";
+        assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldTestValues() {
+        assertPatched("{\"baz\":\"qux\",\"foo\":[\"a\",2,\"c\"]}",
+                "[{\"op\":\"test\",\"path\":\"/baz\",\"value\":\"qux\"},{\"op\":\"test\",\"path\":\"/foo/1\",\"value\":2.0}]",
+                "{\"baz\":\"qux\",\"foo\":[\"a\",2,\"c\"]}");
+        assertPatched("{\"/\":9,\"~1\":10}",
+                "[{\"op\":\"test\",\"path\":\"/~01\",\"value\":10}]",
+                "{\"/\":9,\"~1\":10}");
+        assertFailed("{\"baz\":\"qux\"}",
+                "[{\"op\":\"test\",\"path\":\"/baz\",\"value\":\"bar\"}]",
+                "The value at path '/baz' is not equal to the tested value");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPathDoesNotExist() {
+        assertFailed("{\"foo\":\"bar\"}",
+                "[{\"op\":\"add\",\"path\":\"/baz/bat\",\"value\":\"qux\"}]",
+                "The path '/baz/bat' does not exist");
+        assertFailed("{\"foo\":[1]}",
+                "[{\"op\":\"add\",\"path\":\"/foo/2\",\"value\":2}]",
+                "The path '/foo/2' does not exist");
+        assertFailed("{\"foo\":[1]}",
+                "[{\"op\":\"remove\",\"path\":\"/foo/01\"}]",
+                "The path '/foo/01' does not exist");
+        assertFailed("{\"foo\":{}}",
+                "[{\"op\":\"move\",\"from\":\"/foo\",\"path\":\"/foo/bar\"}]",
+                "The path '/foo' cannot be moved to its child '/foo/bar'");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenOperationIsNotValid() {
+        assertThatThrownBy(() -> PatchOperations.compile(bytes("{\"op\":\"add\"}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The patch must be an array of operations");
+        assertThatThrownBy(() -> PatchOperations.compile(bytes("[{\"op\":\"add\",\"path\":\"/a\"}]")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Operation 0 has no 'value' member");
+        assertThatThrownBy(() -> PatchOperations.compile(bytes("[{\"op\":\"remove\",\"path\":\"/a\"},{\"op\":\"merge\",\"path\":\"\"}]")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Operation 1 has an unknown 'op' 'merge'");
+        assertThatThrownBy(() -> PatchOperations.compile(bytes("[{\"op\":\"ADD\",\"path\":\"/a\",\"value\":1}]")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Operation 0 has an unknown 'op' 'ADD'");
+        assertThatThrownBy(() -> PatchOperations.compile(bytes("[{\"op\":\"Remove\",\"path\":\"/a\"}]")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Operation 0 has an unknown 'op' 'Remove'");
+        assertThatThrownBy(() -> PatchOperations.compile(bytes("[{\"op\":\"remove\",\"path\":\"a\"}]")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The pointer 'a' does not start with '/'");
+    }
+
+    private static void assertPatched(String document, String patch, String expected) {
+        byte[] bytes = bytes(document);
+        byte[] actual = PatchOperations.compile(bytes(patch)).apply(bytes, 0, bytes.length);
+        assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    private static void assertFailed(String document, String patch, String message) {
+        byte[] bytes = bytes(document);
+        PatchOperations operations = PatchOperations.compile(bytes(patch));
+        assertThatThrownBy(() -> operations.apply(bytes, 0, bytes.length))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage(message);
+    }
+
+    private static List<Integer> identity(int size) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static String join(List<Integer> values) {
+        return values.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,331 @@
+package de.codecentric.reedelk.json.internal.schema;
+
+import de.codecentric.reedelk.json.component.NumberMapping;
+import de.codecentric.reedelk.json.internal.parser.JSONEventParser;
+import de.codecentric.reedelk.json.internal.parser.JSONHandler;
+import de.codecentric.reedelk.json.internal.parser.JSONParser;
+import de.codecentric.reedelk.json.internal.parser.JSONValueBuilder;
+import de.codecentric.reedelk.json.internal.parser.StringInput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class JSONSchemaTest {
+
+    @Test
+    void shouldValidateTypes() {
+        String schema = "{\"type\": [\"integer\", \"string\"]}";
+        assertValid(schema, "1");
+        assertValid(schema, "1.0");
+        assertValid(schema, "\"one\"");
+        assertErrors(schema, "1.5", "The value at '' must be of type integer or string, found number");
+        assertErrors(schema, "[1]", "The value at '' must be of type integer or string, found array");
+        assertErrors(schema, "null", "The value at '' must be of type integer or string, found null");
+    }
+
+    @Test
+    void shouldValidateStringKeywords() {
+        String schema = "{\"minLength\": 2, \"maxLength\": 3, \"pattern\": \"^[a-z\\u00e8]+$\"}";
+        assertValid(schema, "\"ab\"");
+        assertValid(schema, "\"\\u00e8\\u00e8\\u00e8\"");
+        assertValid(schema, "1");
+        assertErrors(schema, "\"a\"", "The value at '' must be at least 2 characters long");
+        assertErrors(schema, "\"abcd\"", "The value at '' must be at most 3 characters long");
+        assertErrors(schema, "\"A1\"", "The value at '' must match the pattern '^[a-z\u00e8]+$'");
+    }
+
+    @Test
+    void shouldValidateNumberKeywords() {
+        String schema = "{\"minimum\": 1, \"exclusiveMaximum\": 10, \"multipleOf\": 0.5}";
+        assertValid(schema, "1");
+        assertValid(schema, "9.5");
+        assertValid(schema, "\"text\"");
+        assertErrors(schema, "0.5", "The value at '' must be greater than or equal to 1");
+        assertErrors(schema, "10", "The value at '' must be less than 10");
+        assertErrors(schema, "1.25", "The value at '' must be a multiple of 0.5");
+    }
+
+    @Test
+    void shouldValidateDraft4ExclusiveBounds() {
+        String schema = "{\"minimum\": 1, \"exclusiveMinimum\": true, \"maximum\": 2, \"exclusiveMaximum\": false}";
+        assertValid(schema, "2");
+        assertErrors(schema, "1", "The value at '' must be greater than 1");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "1e1000000000", "1e-1000000000", "123456789e999999999" })
+    void shouldCheckMultipleOfNumbersWithHugeExponents(String number) {
+        // Given
+        JSONSchema schema = JSONSchema.compile("{\"multipleOf\": 7}");
+
+        // When
+        List<ValidationError> errors = errorsOf(schema, number);
+
+        // Then
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).message()).isEqualTo("must be a multiple of 7");
+    }
+
+    @Test
+    void shouldValidateEnumAndConstByValue() {
+        String schema = "{\"properties\": {\"a\": {\"enum\": [1, \"one\", {\"x\": [1.0]}]}, \"b\": {\"const\": [10, null]}}}";
+        assertValid(schema, "{\"a\": 1.00, \"b\": [1e1, null]}");
+        assertValid(schema, "{\"a\": {\"x\": [1]}}");
+        assertErrors(schema, "{\"a\": 2, \"b\": [10]}",
+                "The value at '/a' must be one of the enum values",
+                "The value at '/b' must be equal to the const value");
+    }
+
+    @Test
+    void shouldValidateObjectKeywords() {
+        String schema = "{\"properties\": {\"id\": {\"type\": \"integer\"}, \"name\": true}, " +
+                "\"patternProperties\": {\"^x-\": {\"type\": \"string\"}}, " +
+                "\"additionalProperties\": false, \"required\": [\"id\", \"name\"], \"maxProperties\": 3, " +
+                "\"propertyNames\": {\"maxLength\": 4}}";
+        assertValid(schema, "{\"id\": 1, \"name\": \"n\", \"x-a\": \"a\"}");
+        assertErrors(schema, "{\"id\": \"1\", \"x-a\": 2, \"other\": true, \"x-b\": \"b\"}",
+                "The value at '/id' must be of type integer, found string",
+                "The value at '/x-a' must be of type string, found integer",
+                "The value at '' has the property 'other' whose name does not match the propertyNames schema",
+                "The value at '/other' is not allowed by the schema",
+                "The value at '' must have the property 'name'",
+                "The value at '' must have at most 3 properties");
+    }
+
+    @Test
+    void shouldValidateDependencies() {
+        String schema = "{\"dependencies\": {\"card\": [\"billing\"], \"gift\": {\"required\": [\"message\"]}}}";
+        assertValid(schema, "{\"card\": 1, \"billing\": 2}");
+        assertValid(schema, "{\"billing\": 2}");
+        assertErrors(schema, "{\"card\": 1, \"gift\": true}",
+                "The value at '' must have the property 'billing' when it has the property 'card'",
+                "The value at '' must have the property 'message'");
+    }
+
+    @Test
+    void shouldValidateArrayKeywords() {
+        String schema = "{\"items\": [{\"type\": \"string\"}], \"additionalItems\": {\"type\": \"integer\"}, " +
+                "\"minItems\": 2, \"uniqueItems\": true, \"contains\": {\"const\": 5}}";
+        assertValid(schema, "[\"a\", 5, 6]");
+        assertErrors(schema, "[1]",
+                "The value at '/0' must be of type string, found integer",
+                "The value at '' must have at least 2 items",
+                "The value at '' must have an item matching the contains schema");
+        assertErrors(schema, "[\"a\", 5, 5.0]", "The value at '' must have unique items");
+    }
+
+    @Test
+    void shouldValidateMinAndMaxContains() {
+        String schema = "{\"contains\": {\"type\": \"integer\"}, \"minContains\": 2, \"maxContains\": 3}";
+        assertValid(schema, "[1, \"a\", 2]");
+        assertErrors(schema, "[1, \"a\"]", "The value at '' must have at least 2 items matching the contains schema");
+        assertErrors(schema, "[1, 2, 3, 4]", "The value at '' must have at most 3 items matching the contains schema");
+    }
+
+    @Test
+    void shouldNotRequireContainsMatchWhenMinContainsIsZero() {
+        String schema = "{\"contains\": {\"const\": 5}, \"minContains\": 0, \"maxContains\": 1}";
+        assertValid(schema, "[]");
+        assertValid(schema, "[1, 5]");
+        assertErrors(schema, "[5, 5]", "The value at '' must have at most 1 items matching the contains schema");
+        // Without contains, minContains does not apply.
+        assertValid("{\"minContains\": 2}", "[1]");
+    }
+
+    @Test
+    void shouldValidatePrefixItems() {
+        String schema = "{\"prefixItems\": [{\"type\": \"string\"}], \"items\": false}";
+        assertValid(schema, "[\"a\"]");
+        assertErrors(schema, "[\"a\", 1]", "The value at '/1' is not allowed by the schema");
+    }
+
+    @Test
+    void shouldValidateApplicators() {
+        String schema = "{\"allOf\": [{\"minimum\": 0}], \"anyOf\": [{\"type\": \"integer\"}, {\"maximum\": 1}], " +
+                "\"oneOf\": [{\"multipleOf\": 2}, {\"multipleOf\": 3}], \"not\": {\"const\": 9}}";
+        assertValid(schema, "4");
+        assertErrors(schema, "-2", "The value at '' must be greater than or equal to 0");
+        assertErrors(schema, "6", "The value at '' must match exactly one schema of oneOf, it matches 2");
+        assertErrors(schema, "1.5", "The value at '' must match at least one schema of anyOf",
+                "The value at '' must match exactly one schema of oneOf, it matches 0");
+        assertErrors(schema, "9", "The value at '' must not match the schema of not");
+    }
+
+    @Test
+    void shouldValidateConditionals() {
+        String schema = "{\"if\": {\"properties\": {\"country\": {\"const\": \"DE\"}}}, " +
+                "\"then\": {\"properties\": {\"zip\": {\"pattern\": \"^[0-9]{5}$\"}}}, " +
+                "\"else\": {\"required\": [\"state\"]}}";
+        assertValid(schema, "{\"country\": \"DE\", \"zip\": \"10115\"}");
+        assertValid(schema, "{\"country\": \"US\", \"state\": \"NY\"}");
+        assertErrors(schema, "{\"country\": \"DE\", \"zip\": \"1011\"}", "The value at '/zip' must match the pattern '^[0-9]{5}$'");
+        assertErrors(schema, "{\"country\": \"US\"}", "The value at '' must have the property 'state'");
+    }
+
+    @Test
+    void shouldResolveLocalReferences() {
+        String schema = "{\"definitions\": {\"node\": {\"type\": \"object\", \"properties\": {" +
+                "\"value\": {\"type\": \"integer\"}, \"next\": {\"$ref\": \"#/definitions/node\"}}}, " +
+                "\"a%b/c\": {\"minimum\": 0}}, " +
+                "\"properties\": {\"list\": {\"$ref\": \"#/definitions/node\"}, \"count\": {\"$ref\": \"#/definitions/a%25b~1c\"}}}";
+        assertValid(schema, "{\"list\": {\"value\": 1, \"next\": {\"value\": 2, \"next\": {}}}, \"count\": 1}");
+        assertErrors(schema, "{\"list\": {\"value\": 1, \"next\": {\"value\": \"2\"}}, \"count\": -1}",
+                "The value at '/list/next/value' must be of type integer, found string",
+                "The value at '/count' must be greater than or equal to 0");
+    }
+
+    @Test
+    void shouldEscapeErrorLocations() {
+        String schema = "{\"additionalProperties\": {\"items\": {\"type\": \"string\"}}}";
+        assertErrors(schema, "{\"a/b\": [\"x\", 1], \"m~n\": [null]}",
+                "The value at '/a~1b/1' must be of type string, found integer",
+                "The value at '/m~0n/0' must be of type string, found null");
+    }
+
+    @Test
+    void shouldValidateBooleanSchemas() {
+        assertValid("true", "{\"any\": [1]}");
+        assertErrors("false", "1", "The value at '' is not allowed by the schema");
+        assertErrors("{\"properties\": {\"a\": false}}", "{\"a\": {\"b\": 1}}", "The value at '/a' is not allowed by the schema");
+    }
+
+    @Test
+    void shouldStopAtMaxErrors() {
+        // Given
+        JSONSchema schema = JSONSchema.compile("{\"items\": {\"type\": \"string\"}}");
+        StringBuilder elements = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            elements.append(i).append(',');
+        }
+        String json = "[" + elements + " not valid";
+        SchemaValidator validator = schema.validator(2);
+
+        // When
+        Throwable thrown = catchThrowable(() -> new JSONEventParser(new StringInput(json)).nextValue(validator));
+
+        // Then
+        assertThat(thrown).isInstanceOf(SchemaValidationException.class)
+                .hasMessage("The value at '/0' must be of type string, found integer, " +
+                        "The value at '/1' must be of type string, found integer");
+    }
+
+    @Test
+    void shouldValidateWhileBuildingValue() {
+        // Given
+        JSONSchema schema = JSONSchema.compile("{\"properties\": {\"price\": {\"maximum\": 10.5}}}");
+        SchemaValidator validator = schema.validator(10);
+        JSONValueBuilder builder = new JSONValueBuilder(NumberMapping.SMALLEST_TYPE);
+        String json = "{\"price\": 10.50, \"tags\": [\"a\", 1]}";
+
+        // When
+        new JSONEventParser(new StringInput(json)).nextValue(JSONHandler.tee(validator, builder));
+        validator.finish();
+
+        // Then
+        assertThat(builder.value()).isEqualTo(new JSONParser(new StringInput(json), NumberMapping.SMALLEST_TYPE).nextValue());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenSchemaIsNotValid() {
+        assertThatThrownBy(() -> JSONSchema.compile("{\"properties\": {\"a\": {\"minLength\": -1}}}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'minLength' of the schema at '/properties/a' must be a non-negative integer");
+        assertThatThrownBy(() -> JSONSchema.compile("{\"type\": \"text\"}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'type' of the schema at '' must be a type name or an array of type names");
+        assertThatThrownBy(() -> JSONSchema.compile("{\"items\": 1}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The schema at '/items' must be an object or a boolean");
+        assertThatThrownBy(() -> JSONSchema.compile("{\"pattern\": \"(\"}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'pattern' of the schema at '' has the invalid regular expression '('");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenReferenceIsNotSupported() {
+        assertThatThrownBy(() -> JSONSchema.compile("{\"$ref\": \"#/definitions/missing\"}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The reference '#/definitions/missing' of the schema at '' does not exist");
+        assertThatThrownBy(() -> JSONSchema.compile("{\"$ref\": \"other.json#/a\"}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The reference 'other.json#/a' of the schema at '' is not within the schema, " +
+                        "only '#' references are supported");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUnevaluatedPropertiesIsUsed() {
+        assertThatThrownBy(() -> JSONSchema.compile("{\"properties\": {\"a\": {}}, \"unevaluatedProperties\": false}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'unevaluatedProperties' of the schema at '' is not supported");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUnevaluatedItemsIsUsed() {
+        assertThatThrownBy(() -> JSONSchema.compile("{\"items\": {\"anyOf\": [{\"unevaluatedItems\": false}]}}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'unevaluatedItems' of the schema at '/items/anyOf/0' is not supported");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenMinContainsIsNotValid() {
+        assertThatThrownBy(() -> JSONSchema.compile("{\"contains\": {}, \"minContains\": 1.5}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'minContains' of the schema at '' must be a non-negative integer");
+        assertThatThrownBy(() -> JSONSchema.compile("{\"contains\": {}, \"maxContains\": -1}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The keyword 'maxContains' of the schema at '' must be a non-negative integer");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenSchemaAppliesItselfToSameValue() {
+        assertThatThrownBy(() -> JSONSchema.compile("{\"definitions\": {\"a\": {\"anyOf\": [{\"$ref\": \"#\"}]}}, \"$ref\": \"#/definitions/a\"}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageEndingWith("applies itself to the same value");
+    }
+
+    @Test
+    void shouldShareCompiledSchemas() {
+        // Given
+        SchemaCache cache = new SchemaCache(1);
+
+        // When
+        JSONSchema first = cache.get("{\"type\": \"string\"}");
+        JSONSchema second = cache.get("{\"type\": \"string\"}");
+        JSONSchema other = cache.get("{\"type\": \"number\"}");
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(cache.get("{\"type\": \"string\"}")).isNotSameAs(first);
+    }
+
+    private static void assertValid(String schema, String json) {
+        assertThat(errorsOf(JSONSchema.compile(schema), json)).isEmpty();
+    }
+
+    private static void assertErrors(String schema, String json, String... expected) {
+        List<String> errors = errorsOf(JSONSchema.compile(schema), json).stream()
+                .map(ValidationError::toString)
+                .collect(Collectors.toList());
+        assertThat(errors).containsExactlyInAnyOrder(expected);
+    }
+
+    private static List<ValidationError> errorsOf(JSONSchema schema, String json) {
+        SchemaValidator validator = schema.validator(100);
+        try {
+            new JSONEventParser(new StringInput(json)).nextValue(validator);
+            validator.finish();
+            return Collections.emptyList();
+        } catch (SchemaValidationException exception) {
+            return exception.errors();
+        }
+    }
+}
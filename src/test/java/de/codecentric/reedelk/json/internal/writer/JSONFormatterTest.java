@@ -0,0 +1,130 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.json.internal.parser.JSONParseException;
+import de.codecentric.reedelk.json.internal.parser.JSONValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JSONFormatterTest {
+
+    private static final String JSON = " {\"id\" : 1, \"name\":\"caf\\u00e9 \u20ac \\\"x\\\"\",\n" +
+            "\t\"tags\": [ true,false , null, -1.5e+3, 0, [], {} ], \"nested\": {\"a\": [{\"b\": \"{[,:]}\"}]}}\r\n";
+
+    @Test
+    void shouldMinifyJSON() {
+        // When
+        String actual = JSONFormatter.format(JSON, 0);
+
+        // Then
+        assertThat(actual).isEqualTo("{\"id\":1,\"name\":\"caf\\u00e9 \u20ac \\\"x\\\"\"," +
+                "\"tags\":[true,false,null,-1.5e+3,0,[],{}],\"nested\":{\"a\":[{\"b\":\"{[,:]}\"}]}}");
+    }
+
+    @Test
+    void shouldPrettyPrintJSON() {
+        // When
+        String actual = JSONFormatter.format(JSON, 2);
+
+        // Then
+        assertThat(actual).isEqualTo("{\n" +
+                "  \"id\": 1,\n" +
+                "  \"name\": \"caf\\u00e9 \u20ac \\\"x\\\"\",\n" +
+                "  \"tags\": [\n" +
+                "    true,\n" +
+                "    false,\n" +
+                "    null,\n" +
+                "    -1.5e+3,\n" +
+                "    0,\n" +
+                "    [],\n" +
+                "    {}\n" +
+                "  ],\n" +
+                "  \"nested\": {\n" +
+                "    \"a\": [\n" +
+                "      {\n" +
+                "        \"b\": \"{[,:]}\"\n" +
+                "      }\n" +
+                "    ]\n" +
+                "  }\n" +
+                "}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7})
+    void shouldFormatChunksSplittingTokens(int chunkSize) {
+        // Given
+        byte[] bytes = ("\uFEFF" + JSON).getBytes(StandardCharsets.UTF_8);
+        JSONFormatter chars = new JSONFormatter(4);
+        JSONFormatter utf8 = new JSONFormatter(4);
+        StringBuilder actualChars = new StringBuilder();
+        ByteArrayOutputStream actualBytes = new ByteArrayOutputStream();
+
+        // When
+        for (int i = 0; i < JSON.length(); i += chunkSize) {
+            chars.format(JSON.substring(i, Math.min(i + chunkSize, JSON.length())), actualChars);
+        }
+        chars.finish();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            byte[] formatted = utf8.format(bytes, i, Math.min(chunkSize, bytes.length - i));
+            actualBytes.write(formatted, 0, formatted.length);
+        }
+        utf8.finish();
+
+        // Then
+        String expected = JSONFormatter.format(JSON, 4);
+        assertThat(actualChars.toString()).isEqualTo(expected);
+        assertThat(new String(actualBytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "  ",
+            "\"root string\"",
+            "{\"a\" 1}",
+            "{\"a\": 1,}",
+            "[1 2]",
+            "[01]",
+            "[1.]",
+            "[-]",
+            "[1e+]",
+            "[tru]",
+            "[truex]",
+            "['single']",
+            "[\"\\x\"]",
+            "[\"\\u12G4\"]",
+            "[\"tab\there\"]",
+            "{\"a\": [1}",
+            "[1] [2]",
+            "[1",
+            "{\"a\""})
+    void shouldThrowExceptionAtOffsetOfValidator(String json) {
+        // Given
+        JSONFormatter formatter = new JSONFormatter(2);
+
+        // Expect
+        assertThatThrownBy(() -> {
+            formatter.format(json, new StringBuilder());
+            formatter.finish();
+        }).isInstanceOf(JSONParseException.class)
+                .hasMessage("Unexpected character at offset " + JSONValidator.validate(json));
+        assertThat(formatter.offset()).isEqualTo(JSONValidator.validate(json));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenByteOrderMarkIsNotComplete() {
+        // Given
+        byte[] json = { (byte) 0xEF, (byte) 0xBB, '[', ']' };
+
+        // Expect
+        assertThatThrownBy(() -> JSONFormatter.format(json, 0))
+                .isInstanceOf(JSONParseException.class)
+                .hasMessage("Unexpected character at offset 2");
+    }
+}
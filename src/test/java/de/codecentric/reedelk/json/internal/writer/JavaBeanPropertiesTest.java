@@ -0,0 +1,117 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import org.json.JSONPropertyIgnore;
+import org.json.JSONPropertyName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaBeanPropertiesTest {
+
+    @Test
+    void shouldDiscoverPropertiesOnlyOnceForEachClass() {
+        // When
+        List<JavaBeanProperty> first = JavaBeanProperties.of(MyBean.class);
+        List<JavaBeanProperty> second = JavaBeanProperties.of(MyBean.class);
+
+        // Then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void shouldNamePropertiesFromGettersAndAnnotations() {
+        // When
+        List<JavaBeanProperty> properties = JavaBeanProperties.of(MyBean.class);
+
+        // Then
+        List<String> names = properties.stream().map(JavaBeanProperty::name).collect(toList());
+        assertThat(names).containsExactlyInAnyOrder("name", "active", "renamed", "failing");
+    }
+
+    @Test
+    void shouldGetPropertyValues() {
+        // Given
+        MyBean bean = new MyBean();
+
+        // When
+        List<JavaBeanProperty> properties = JavaBeanProperties.of(MyBean.class);
+
+        // Then
+        for (JavaBeanProperty property : properties) {
+            Object value = property.get(bean);
+            switch (property.name()) {
+                case "name": assertThat(value).isEqualTo("my name"); break;
+                case "active": assertThat(value).isEqualTo(true); break;
+                case "renamed": assertThat(value).isEqualTo(23); break;
+                // A getter throwing an exception has no value.
+                case "failing": assertThat(value).isNull(); break;
+                default: throw new AssertionError("Unexpected property " + property.name());
+            }
+        }
+    }
+
+    @Test
+    void shouldPropagateErrorsThrownByGetters() {
+        // Given
+        JavaBeanProperty handleProperty = JavaBeanProperties.of(FailingBean.class).get(0);
+        JavaBeanProperty reflectionProperty = JavaBeanProperties.of(NonPublicFailingBean.class).get(0);
+
+        // When
+        OutOfMemoryError thrownByHandle =
+                assertThrows(OutOfMemoryError.class, () -> handleProperty.get(new FailingBean()));
+        OutOfMemoryError thrownByReflection =
+                assertThrows(OutOfMemoryError.class, () -> reflectionProperty.get(new NonPublicFailingBean()));
+
+        // Then
+        assertThat(thrownByHandle).hasMessage("Out of memory");
+        assertThat(thrownByReflection).hasMessage("Out of memory");
+    }
+
+    public static class MyBean {
+
+        public String getName() {
+            return "my name";
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        @JSONPropertyName("renamed")
+        public int getValue() {
+            return 23;
+        }
+
+        @JSONPropertyIgnore
+        public String getIgnored() {
+            return "ignored";
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException("Not available");
+        }
+
+        public static String getStatic() {
+            return "static";
+        }
+    }
+
+    public static class FailingBean {
+
+        public String getError() {
+            throw new OutOfMemoryError("Out of memory");
+        }
+    }
+
+    // Not public: the getter is invoked through reflection.
+    static class NonPublicFailingBean {
+
+        public String getError() {
+            throw new OutOfMemoryError("Out of memory");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+class MapKeysTest {
+
+    private final ConverterService converterService = mock(ConverterService.class);
+
+    @Test
+    void shouldConvertEnumAndUUIDKeysWithoutConverterService() {
+        // Given
+        UUID uuid = new UUID(1, 2);
+
+        // When
+        String enumKey = MapKeys.toString(Status.PAID, converterService);
+        String constantWithBodyKey = MapKeys.toString(Status.SHIPPED, converterService);
+        String uuidKey = MapKeys.toString(uuid, converterService);
+        String longKey = MapKeys.toString(23L, converterService);
+
+        // Then
+        assertThat(enumKey).isEqualTo("PAID");
+        assertThat(constantWithBodyKey).isEqualTo("SHIPPED");
+        assertThat(uuidKey).isEqualTo("00000000-0000-0001-0000-000000000002");
+        assertThat(longKey).isEqualTo("23");
+        verifyZeroInteractions(converterService);
+    }
+
+    @Test
+    void shouldConvertOtherKeysWithConverterService() {
+        // Given
+        BigDecimal key = new BigDecimal("1.50");
+        when(converterService.convert(key, String.class)).thenReturn("1.5");
+
+        // When
+        String actual = MapKeys.toString(key, converterService);
+
+        // Then
+        assertThat(actual).isEqualTo("1.5");
+        verify(converterService).convert(key, String.class);
+    }
+
+    enum Status {
+        NEW,
+        PAID,
+        SHIPPED {
+            @Override
+            public String toString() {
+                return "shipped";
+            }
+        }
+    }
+}
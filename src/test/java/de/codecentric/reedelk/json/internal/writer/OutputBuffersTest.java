@@ -0,0 +1,121 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputBuffersTest {
+
+    @Test
+    void shouldReuseReleasedCharsBuffer() {
+        // Given
+        OutputBuffers buffers = new OutputBuffers(2, 1024);
+        StringBuilder buffer = buffers.chars(100);
+        buffer.append("[1,2,3]");
+        buffers.release(buffer);
+
+        // When
+        StringBuilder actual = buffers.chars(200);
+
+        // Then
+        assertThat(actual).isSameAs(buffer);
+        assertThat(actual.length()).isZero();
+        assertThat(actual.capacity()).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    void shouldReuseReleasedBytesBuffer() {
+        // Given
+        OutputBuffers buffers = new OutputBuffers(2, 1024);
+        UTF8Output buffer = buffers.bytes(100);
+        buffer.append("{\"emoji\":\"\uD83D");
+        buffers.release(buffer);
+
+        // When
+        UTF8Output actual = buffers.bytes(50);
+        actual.append("[\"\u20ac\"]");
+
+        // Then
+        assertThat(actual).isSameAs(buffer);
+        assertThat(actual.toByteArray()).isEqualTo("[\"\u20ac\"]".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldNotRetainBuffersLargerThanMaxRetainedCapacity() {
+        // Given
+        OutputBuffers buffers = new OutputBuffers(2, 1024);
+        StringBuilder chars = buffers.chars(2048);
+        UTF8Output bytes = buffers.bytes(2048);
+        buffers.release(chars);
+        buffers.release(bytes);
+
+        // Expect
+        assertThat(buffers.chars(10)).isNotSameAs(chars);
+        assertThat(buffers.bytes(10)).isNotSameAs(bytes);
+    }
+
+    @Test
+    void shouldNotRetainMoreBuffersThanPoolSize() {
+        // Given
+        OutputBuffers buffers = new OutputBuffers(2, 1024);
+        StringBuilder first = buffers.chars(10);
+        StringBuilder second = buffers.chars(10);
+        StringBuilder third = buffers.chars(10);
+        buffers.release(first);
+        buffers.release(second);
+        buffers.release(third);
+
+        // When
+        StringBuilder reused1 = buffers.chars(10);
+        StringBuilder reused2 = buffers.chars(10);
+        StringBuilder created = buffers.chars(10);
+
+        // Then
+        assertThat(reused1).isIn(first, second);
+        assertThat(reused2).isIn(first, second).isNotSameAs(reused1);
+        assertThat(created).isNotIn(first, second, third);
+    }
+
+    @Test
+    void shouldEstimateCapacityFromRecordedSizes() {
+        // Given
+        OutputSize size = new OutputSize(1024 * 1024);
+
+        // When
+        size.record(8000);
+        int afterLarge = size.capacity();
+        size.record(1000);
+        int afterSmall = size.capacity();
+
+        // Then
+        assertThat(afterLarge).isEqualTo(9000);
+        assertThat(afterSmall).isLessThan(afterLarge).isGreaterThan(8000);
+    }
+
+    @Test
+    void shouldNotPresizeBeyondMaxCapacityAfterLargeOutput() {
+        // Given
+        OutputBuffers buffers = new OutputBuffers(2, 1024);
+        OutputSize size = new OutputSize(buffers.maxRetainedCapacity());
+        StringBuilder pooled = buffers.chars(size.capacity());
+        buffers.release(pooled);
+
+        // When
+        size.record(100 * 1024 * 1024);
+        int afterLarge = size.capacity();
+        StringBuilder[] small = new StringBuilder[3];
+        for (int i = 0; i < small.length; i++) {
+            small[i] = buffers.chars(size.capacity());
+            small[i].append("[1,2,3]");
+            size.record(small[i].length());
+            buffers.release(small[i]);
+        }
+
+        // Then
+        assertThat(afterLarge).isEqualTo(1024);
+        assertThat(small).containsOnly(pooled);
+        assertThat(size.capacity()).isLessThan(afterLarge);
+    }
+}
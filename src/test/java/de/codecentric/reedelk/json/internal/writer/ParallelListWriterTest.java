@@ -0,0 +1,111 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import de.codecentric.reedelk.runtime.api.converter.ConverterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParallelListWriterTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2, 4})
+    void shouldWriteListAsSequentialWriter(int indentFactor) throws IOException {
+        // Given
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Map<String, Object> element = new HashMap<>();
+            element.put("id", i);
+            element.put("name", "n\"a\u20ac\ud83d\ude00" + i);
+            element.put("tags", Arrays.asList(true, null, 1.5e-3));
+            list.add(element);
+        }
+        list.add(Collections.emptyList());
+        list.add("last");
+        ParallelListWriter writer = new ParallelListWriter(pool, 2, null);
+
+        StringBuilder expected = new StringBuilder();
+        new JSONWriter(expected, indentFactor, null).write(list);
+
+        // When
+        StringBuilder actual = new StringBuilder();
+        writer.write(list, indentFactor, actual);
+        byte[] actualBytes = writer.toJSONBytes(list, indentFactor);
+
+        // Then
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+        assertThat(actualBytes).isEqualTo(expected.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldWriteListWithFewerElementsThanRanges() throws IOException {
+        // Given
+        List<Object> list = Arrays.asList(1, "two", 3.0);
+        ParallelListWriter writer = new ParallelListWriter(pool, 2, null);
+
+        // When
+        StringBuilder actual = new StringBuilder();
+        writer.write(list, 2, actual);
+
+        // Then
+        assertThat(actual.toString()).isEqualTo("[\n  1,\n  \"two\",\n  3\n]");
+    }
+
+    @Test
+    void shouldAcceptOnlyLargeRandomAccessLists() {
+        // Given
+        ParallelListWriter writer = new ParallelListWriter(pool, 3, null);
+
+        // Expect
+        assertThat(writer.accepts(Arrays.asList(1, 2, 3))).isTrue();
+        assertThat(writer.accepts(Arrays.asList(1, 2))).isFalse();
+        assertThat(writer.accepts(new LinkedList<>(Arrays.asList(1, 2, 3)))).isFalse();
+        assertThat(writer.accepts(Collections.singletonMap("one", 1))).isFalse();
+        assertThat(writer.accepts(null)).isFalse();
+    }
+
+    @Test
+    void shouldThrowExceptionOfFirstFailedElement() {
+        // Given
+        ConverterService converterService = mock(ConverterService.class);
+        when(converterService.convert(any(), eq(String.class))).thenAnswer(invocation -> {
+            throw new IllegalArgumentException("Could not convert key " + invocation.getArgument(0));
+        });
+
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i == 100 || i == 900 ? Collections.singletonMap(i + 0.5, i) : i);
+        }
+        ParallelListWriter writer = new ParallelListWriter(pool, 2, converterService);
+
+        // Expect
+        assertThatThrownBy(() -> writer.toJSONBytes(list, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Could not convert key 100.5");
+    }
+}
@@ -0,0 +1,65 @@
+package de.codecentric.reedelk.json.internal.writer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UTF8OutputTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "plain ascii",
+            "café € ࠀ ߿ ￿",
+            "emoji 😀 and 🎉",
+            "unpaired \uD83D high",
+            "unpaired \uDE00 low",
+            "ends with high \uD83D" })
+    void shouldEncodeAsStringGetBytes(String input) {
+        // Given
+        UTF8Output output = new UTF8Output(4);
+
+        // When
+        output.append(input);
+
+        // Then
+        assertThat(output.toByteArray()).isEqualTo(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "emoji 😀 split",
+            "mixed è€😀 chars" })
+    void shouldEncodeCharsAppendedOneAtATime(String input) {
+        // Given
+        UTF8Output output = new UTF8Output(4);
+
+        // When
+        for (int i = 0; i < input.length(); i++) {
+            output.append(input.charAt(i));
+        }
+
+        // Then
+        assertThat(output.toByteArray()).isEqualTo(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldKeepHighSurrogateWhenDrained() {
+        // Given
+        UTF8Output output = new UTF8Output(4);
+
+        // When
+        byte[] first = output.append("emoji \uD83D").drain();
+        byte[] second = output.append("\uDE00 split").drain();
+        byte[] last = output.append("\uD83D").toByteArray();
+
+        // Then
+        assertThat(first).isEqualTo("emoji ".getBytes(StandardCharsets.UTF_8));
+        assertThat(second).isEqualTo("\uD83D\uDE00 split".getBytes(StandardCharsets.UTF_8));
+        assertThat(last).isEqualTo("?".getBytes(StandardCharsets.UTF_8));
+    }
+}